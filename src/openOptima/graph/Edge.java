@@ -94,6 +94,25 @@ public class Edge implements Flag {
 	 */
 	private int minCount = 1;
 	
+	/**
+	 * graph this edge was last added to, notified when this edge is changed.
+	 */
+	private Graph ownerGraph;
+	
+	/**
+	 * sets the graph to be notified when this edge is changed.
+	 * @param graphObj_p graph
+	 */
+	void setOwnerGraph (Graph graphObj_p) { this.ownerGraph = graphObj_p; }
+	
+	/**
+	 * increments the version of the graph this edge belongs to.  Subclasses call this
+	 * method when they change an attribute that affects the algorithms, e.g. distance.
+	 */
+	protected void modified () {
+		if (this.ownerGraph!=null) this.ownerGraph.modified();
+	}
+	
 	/**
 	 * Returns the maximum number of instances of this edge allowed.
 	 * @return count
@@ -142,6 +161,7 @@ public class Edge implements Flag {
 	 * @param maxCount_p max count
 	 */
 	public void setMinMaxCount(int minCount_p, int maxCount_p) {
+		if (this.minCount!=minCount_p || this.maxCount!=maxCount_p) this.modified();
 		this.minCount = minCount_p;
 		this.maxCount = maxCount_p;
 	}
@@ -187,6 +207,7 @@ public class Edge implements Flag {
 	public boolean setActive (boolean active_p) { 
 		boolean ret = this.active;
 		this.active = active_p; 
+		if (ret!=this.active) this.modified();
 		return (ret!=this.active);
 	}
 
@@ -214,7 +235,10 @@ public class Edge implements Flag {
 	 * Sets this edge to directed (true) or undirected (false).
 	 * @param directed_p true for directed edge and false for undirected edge.
 	 */
-	public void setDirected (boolean directed_p) { this.directed = directed_p; }
+	public void setDirected (boolean directed_p) { 
+		if (this.directed!=directed_p && this.ownerGraph!=null) this.ownerGraph.structureModified();
+		this.directed = directed_p; 
+	}
 	
 	/**
 	 * Initializes this edge.
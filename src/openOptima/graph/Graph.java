@@ -34,6 +34,47 @@ public class Graph {
 	
 	private String marker;
 	
+	/**
+	 * modification count of this graph, see getVersion().
+	 */
+	private long version = 0;
+	
+	/**
+	 * count of the changes to the vertices and edges of this graph, see getStructureVersion().
+	 */
+	private long structureVersion = 0;
+	
+	/**
+	 * Returns the version of this graph.  The version changes whenever a vertex or edge is added
+	 * or removed, an edge distance, direction or min/max count is changed or an edge or vertex is
+	 * activated or inactivated.  Use it to detect that results computed on this graph are out of date.
+	 * @return version
+	 */
+	public long getVersion() { return this.version; }
+	
+	/**
+	 * Returns the structure version of this graph.  It changes only when a vertex or edge is added
+	 * or removed or the direction of an edge is changed, not when a distance, count or active status
+	 * is changed.  Use it for indexes of the vertices and edges that read the other attributes when
+	 * they are used.
+	 * @return structure version
+	 */
+	public long getStructureVersion() { return this.structureVersion; }
+	
+	/**
+	 * called by this graph and its edges and vertices when they are changed.
+	 */
+	void modified() { this.version++; }
+	
+	/**
+	 * called by this graph and its edges when vertices or edges are added or removed or the 
+	 * direction of an edge is changed.
+	 */
+	void structureModified() { 
+		this.structureVersion++;
+		this.modified(); 
+	}
+	
 	/**
 	 * sets graph marker
 	 * @param marker_p marker id
@@ -132,9 +173,11 @@ public class Graph {
 			edgeObj = (Edge) edgeList_p.get(i);
 			this.addVertex(edgeObj.getFromVertex());
 			this.addVertex(edgeObj.getToVertex());
+			edgeObj.setOwnerGraph(this);
 		}
 		
 		this.edgeList.addAll(edgeList_p);
+		this.structureModified();
 	}
 	
 	/**
@@ -204,9 +247,12 @@ public class Graph {
 	 */
 	public boolean addVertex (Vertex vertex_p) {
 		if (vertex_p==null) return false;
-		if (this.vertexIdList.containsValue(vertex_p)) return false;
+		// a vertex is only ever kept under its own id, look it up by key instead of scanning the values
+		if (this.vertexIdList.get(new Integer(vertex_p.getId()))==vertex_p) return false;
 		this.vertexIntIdList.put (new Integer(vertex_p.getIntId()), vertex_p);
 		this.vertexIdList.put (new Integer(vertex_p.getId()), vertex_p);
+		vertex_p.setOwnerGraph(this);
+		this.structureModified();
 		return true;
 	}
 	
@@ -252,6 +298,7 @@ public class Graph {
 				edgeObj.remove();
 				this.removeEdge(edgeObj);
 			}
+			this.structureModified();
 			return true;
 		}
 
@@ -269,6 +316,8 @@ public class Graph {
 		Edge edgeObj = new Edge (fromVertex_p, toVertex_p, directed_p);
 		this.edgeList.add(edgeObj);
 		this.graphType = evalGraphType(this.graphType, edgeObj.isDirected());
+		edgeObj.setOwnerGraph(this);
+		this.structureModified();
 		return edgeObj;
 	}
 
@@ -295,6 +344,8 @@ public class Graph {
 		this.addVertex(edgeObj_p.getFromVertex());
 		this.addVertex(edgeObj_p.getToVertex());
 		this.edgeList.add(edgeObj_p);
+		edgeObj_p.setOwnerGraph(this);
+		this.structureModified();
 	}
 	
 	/**
@@ -308,6 +359,7 @@ public class Graph {
 			edge_p.remove();
 		}
 		this.graphType = Undefined;
+		this.structureModified();
 		return true;
 	}
 	
@@ -0,0 +1,230 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ *
+ * This library is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place,
+ * Suite 330, Boston, MA 02111-1307 USA
+ *
+ * @author Yaxiong Lin
+ * @version 1.0
+ *
+ */
+package openOptima.graph;
+
+/**
+ * Read only snapshot of a graph with dense integer ids for the vertices (0 .. n-1) and edges
+ * (0 .. m-1) and compressed adjacency arrays for the outgoing and incoming edges of each vertex.
+ * <p>
+ * An edge e is traversed through its half edges: 2e goes from the from vertex to the to vertex,
+ * 2e+1 goes in the opposite direction and exists only for the undirected edges.  Undirected
+ * edges are therefore listed as outgoing (and incoming) edges of both of their end vertices.
+ * <p>
+ * The index does not follow the changes made to the graph afterwards, create a new index
+ * after the vertices or edges are added or removed.
+ * @author Yaxiong Lin
+ *
+ */
+public class GraphIndex {
+	private Vertex [] vertices;
+	private java.util.HashMap<Vertex, Integer> vertexIdx;
+	private Edge [] edges;
+	private java.util.HashMap<Edge, Integer> edgeIdx;
+	private int [] edgeFrom;
+	private int [] edgeTo;
+	private int [] outStart;
+	private int [] outHalf;
+	private int [] inStart;
+	private int [] inHalf;
+
+	/**
+	 * Constructor.
+	 * @param graphObj_p graph
+	 * @param activeOnly_p true to include only the active edges between active vertices
+	 */
+	public GraphIndex (Graph graphObj_p, boolean activeOnly_p) {
+		java.util.ArrayList<Vertex> vertexList = graphObj_p.getVertexList(activeOnly_p);
+		int n = vertexList.size();
+		this.vertices = new Vertex [n];
+		this.vertexIdx = new java.util.HashMap<Vertex, Integer>(n*2);
+		for (int i=0; i<n; i++) {
+			this.vertices[i] = vertexList.get(i);
+			this.vertexIdx.put(this.vertices[i], Integer.valueOf(i));
+		}
+
+		java.util.ArrayList edgeList = graphObj_p.getEdgeList(activeOnly_p);
+		java.util.ArrayList<Edge> keptList = new java.util.ArrayList<Edge>(edgeList.size());
+		for (int i=0; i<edgeList.size(); i++) {
+			Edge edgeObj = (Edge) edgeList.get(i);
+			if (!this.vertexIdx.containsKey(edgeObj.getFromVertex()) || !this.vertexIdx.containsKey(edgeObj.getToVertex())) continue;
+			keptList.add(edgeObj);
+		}
+		int m = keptList.size();
+		this.edges = keptList.toArray(new Edge [m]);
+		this.edgeFrom = new int [m];
+		this.edgeTo = new int [m];
+		this.outStart = new int [n+1];
+		this.inStart = new int [n+1];
+		int halfCount = 0;
+		for (int e=0; e<m; e++) {
+			this.edgeFrom[e] = this.vertexIdx.get(this.edges[e].getFromVertex()).intValue();
+			this.edgeTo[e] = this.vertexIdx.get(this.edges[e].getToVertex()).intValue();
+			this.outStart[this.edgeFrom[e]+1]++;
+			this.inStart[this.edgeTo[e]+1]++;
+			halfCount++;
+			if (!this.edges[e].isDirected()) {
+				this.outStart[this.edgeTo[e]+1]++;
+				this.inStart[this.edgeFrom[e]+1]++;
+				halfCount++;
+			}
+		}
+		for (int i=0; i<n; i++) {
+			this.outStart[i+1] += this.outStart[i];
+			this.inStart[i+1] += this.inStart[i];
+		}
+		this.outHalf = new int [halfCount];
+		this.inHalf = new int [halfCount];
+		int [] outPos = java.util.Arrays.copyOf(this.outStart, n);
+		int [] inPos = java.util.Arrays.copyOf(this.inStart, n);
+		for (int e=0; e<m; e++) {
+			this.outHalf[outPos[this.edgeFrom[e]]++] = 2*e;
+			this.inHalf[inPos[this.edgeTo[e]]++] = 2*e;
+			if (!this.edges[e].isDirected()) {
+				this.outHalf[outPos[this.edgeTo[e]]++] = 2*e+1;
+				this.inHalf[inPos[this.edgeFrom[e]]++] = 2*e+1;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of vertices in the index.
+	 * @return count
+	 */
+	public int getVertexCount () { return this.vertices.length; }
+
+	/**
+	 * Returns the number of edges in the index.
+	 * @return count
+	 */
+	public int getEdgeCount () { return this.edges.length; }
+
+	/**
+	 * Returns the vertex with the dense id.
+	 * @param idx_p dense vertex id
+	 * @return vertex
+	 */
+	public Vertex getVertex (int idx_p) { return this.vertices[idx_p]; }
+
+	/**
+	 * Returns the dense id of the vertex, -1 if the vertex is not in the index.
+	 * @param vertex_p vertex
+	 * @return dense id
+	 */
+	public int getVertexIdx (Vertex vertex_p) {
+		Integer idx = this.vertexIdx.get(vertex_p);
+		return (idx==null)? -1: idx.intValue();
+	}
+
+	/**
+	 * Returns the edge with the dense id.
+	 * @param idx_p dense edge id
+	 * @return edge
+	 */
+	public Edge getEdge (int idx_p) { return this.edges[idx_p]; }
+
+	/**
+	 * Returns the dense id of the edge, -1 if the edge is not in the index.
+	 * @param edge_p edge
+	 * @return dense id
+	 */
+	public int getEdgeIdx (Edge edge_p) {
+		if (this.edgeIdx==null) {
+			java.util.HashMap<Edge, Integer> tempMap = new java.util.HashMap<Edge, Integer>(this.edges.length*2);
+			for (int e=0; e<this.edges.length; e++) tempMap.put(this.edges[e], Integer.valueOf(e));
+			this.edgeIdx = tempMap;
+		}
+		Integer idx = this.edgeIdx.get(edge_p);
+		return (idx==null)? -1: idx.intValue();
+	}
+
+	/**
+	 * Returns the dense id of the from vertex of the edge.
+	 * @param edge_p dense edge id
+	 * @return dense vertex id
+	 */
+	public int getEdgeFrom (int edge_p) { return this.edgeFrom[edge_p]; }
+
+	/**
+	 * Returns the dense id of the to vertex of the edge.
+	 * @param edge_p dense edge id
+	 * @return dense vertex id
+	 */
+	public int getEdgeTo (int edge_p) { return this.edgeTo[edge_p]; }
+
+	/**
+	 * Returns the vertex the half edge starts at.
+	 * @param half_p half edge
+	 * @return dense vertex id
+	 */
+	public int tailOf (int half_p) {
+		return ((half_p&1)==0)? this.edgeFrom[half_p>>1]: this.edgeTo[half_p>>1];
+	}
+
+	/**
+	 * Returns the vertex the half edge ends at.
+	 * @param half_p half edge
+	 * @return dense vertex id
+	 */
+	public int headOf (int half_p) {
+		return ((half_p&1)==0)? this.edgeTo[half_p>>1]: this.edgeFrom[half_p>>1];
+	}
+
+	/**
+	 * Returns the first position in {@link #getOutHalfs()} of the half edges going out of the vertex.
+	 * The half edges of vertex v are at positions getOutStart(v) .. getOutStart(v+1)-1.
+	 * @param vertex_p dense vertex id, 0 .. n
+	 * @return position
+	 */
+	public int getOutStart (int vertex_p) { return this.outStart[vertex_p]; }
+
+	/**
+	 * Returns the half edges going out of the vertices, grouped by vertex.  The array is shared, do not modify.
+	 * @return half edges
+	 */
+	public int [] getOutHalfs () { return this.outHalf; }
+
+	/**
+	 * Returns the first position in {@link #getInHalfs()} of the half edges coming into the vertex.
+	 * @param vertex_p dense vertex id, 0 .. n
+	 * @return position
+	 */
+	public int getInStart (int vertex_p) { return this.inStart[vertex_p]; }
+
+	/**
+	 * Returns the half edges coming into the vertices, grouped by vertex.  The array is shared, do not modify.
+	 * @return half edges
+	 */
+	public int [] getInHalfs () { return this.inHalf; }
+
+	/**
+	 * Returns the number of half edges going out of the vertex.
+	 * @param vertex_p dense vertex id
+	 * @return count
+	 */
+	public int getOutDegree (int vertex_p) { return this.outStart[vertex_p+1] - this.outStart[vertex_p]; }
+
+	/**
+	 * Returns the number of half edges coming into the vertex.
+	 * @param vertex_p dense vertex id
+	 * @return count
+	 */
+	public int getInDegree (int vertex_p) { return this.inStart[vertex_p+1] - this.inStart[vertex_p]; }
+}
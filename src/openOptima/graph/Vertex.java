@@ -68,6 +68,13 @@ public class Vertex implements Flag {
 	private int vertexType = simpleVertex; // initialVertex, finalVertex, simpleVertex, superVertex. Default to simpleVertex
 	protected int getIntId() { return this.intId; }
 	private boolean active = true;
+	private Graph ownerGraph; // graph this vertex was last added to, notified when this vertex is changed.
+	
+	/**
+	 * sets the graph to be notified when this vertex is changed.
+	 * @param graphObj_p graph
+	 */
+	void setOwnerGraph (Graph graphObj_p) { this.ownerGraph = graphObj_p; }
 
 	private java.util.ArrayList <Edge> edgeList = new java.util.ArrayList <Edge>(); // Vertex
 	
@@ -411,6 +418,7 @@ public class Vertex implements Flag {
 	public boolean setActive (boolean active_p) { 
 		boolean ret = this.active;
 		this.active = active_p; 
+		if (ret!=this.active && this.ownerGraph!=null) this.ownerGraph.modified();
 		return (ret!=this.active);
 	}
 
@@ -0,0 +1,131 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ * 
+ * This library is free software; you can redistribute it and/or modify it under the 
+ * terms of the GNU Lesser General Public License as published by the Free Software 
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with 
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place, 
+ * Suite 330, Boston, MA 02111-1307 USA 
+ * 
+ * @author Yaxiong Lin
+ * @version 1.0
+ * 
+ */
+package openOptima.graph.euler;
+
+import openOptima.NoSolutionException;
+import openOptima.graph.Edge;
+import openOptima.graph.Vertex;
+
+/**
+ * Read only Euler tour, a closed walk kept as an array of edges and the position the walk
+ * starts at.  The position at which each vertex is first left is indexed when the tour is
+ * created, {@link #rotate(Vertex)} then returns the same tour starting at another vertex in
+ * constant time, sharing the edge array and the index.
+ * @author Yaxiong Lin
+ *
+ */
+public class EulerTour extends java.util.AbstractList<Edge> {
+	private Edge [] edges;
+	private java.util.HashMap<Vertex, Integer> firstLeft;
+	private int offset;
+	private Vertex startVertex;
+
+	/**
+	 * Constructor.
+	 * @param startVertex_p vertex the tour starts and ends at
+	 * @param edges_p edges in the order traversed, the direction of an undirected edge follows from the previous edge
+	 * @throws IllegalArgumentException if the edges do not form a walk from startVertex_p
+	 */
+	public EulerTour (Vertex startVertex_p, java.util.List edges_p) {
+		this.edges = new Edge [edges_p.size()];
+		this.firstLeft = new java.util.HashMap<Vertex, Integer>();
+		this.startVertex = startVertex_p;
+		Vertex curVertex = startVertex_p;
+		for (int i=0; i<this.edges.length; i++) {
+			Edge edgeObj = (Edge) edges_p.get(i);
+			this.edges[i] = edgeObj;
+			if (!this.firstLeft.containsKey(curVertex)) this.firstLeft.put(curVertex, Integer.valueOf(i));
+			if (edgeObj.getFromVertex()==curVertex) curVertex = edgeObj.getToVertex();
+			else if (!edgeObj.isDirected() && edgeObj.getToVertex()==curVertex) curVertex = edgeObj.getFromVertex();
+			else throw new IllegalArgumentException ("Edge " + edgeObj + " does not start at " + curVertex);
+		}
+	}
+
+	/**
+	 * returns the Euler tour found by the algorithm from the start vertex.  The algorithms that
+	 * keep their tours (EulerTourAlgorithmIntf) return theirs, the path of the others is wrapped.
+	 * @param algorithmObj_p algorithm, initialized with the graph
+	 * @param startVertex_p vertex
+	 * @return tour
+	 * @throws NoSolutionException no solution
+	 */
+	public static EulerTour getEulerTour (EulerPathAlgorithmIntf algorithmObj_p, Vertex startVertex_p) throws NoSolutionException {
+		if (algorithmObj_p instanceof EulerTourAlgorithmIntf) return ((EulerTourAlgorithmIntf) algorithmObj_p).getEulerTour(startVertex_p);
+		return new EulerTour (startVertex_p, algorithmObj_p.getEulerPath(startVertex_p.getId()));
+	}
+
+	private EulerTour (EulerTour tourObj_p, Vertex startVertex_p, int offset_p) {
+		this.edges = tourObj_p.edges;
+		this.firstLeft = tourObj_p.firstLeft;
+		this.startVertex = startVertex_p;
+		this.offset = offset_p;
+	}
+
+	/**
+	 * returns the tour starting at the vertex, sharing the edges with this tour.
+	 * @param startVertex_p vertex
+	 * @return rotated tour, null if the tour does not pass through the vertex
+	 */
+	public EulerTour rotate (Vertex startVertex_p) {
+		Integer pos = this.firstLeft.get(startVertex_p);
+		if (pos==null) return null;
+		return new EulerTour (this, startVertex_p, pos.intValue());
+	}
+
+	/**
+	 * @param vertex_p vertex
+	 * @return true if the tour passes through the vertex
+	 */
+	public boolean passes (Vertex vertex_p) {
+		return this.firstLeft.containsKey(vertex_p);
+	}
+
+	/**
+	 * @return vertex the tour starts and ends at
+	 */
+	public Vertex getStartVertex () {
+		return this.startVertex;
+	}
+
+	/**
+	 * returns the i-th edge of the tour from the start vertex.
+	 */
+	public Edge get (int i_p) {
+		if (i_p<0 || i_p>=this.edges.length) throw new IndexOutOfBoundsException ("Index: " + i_p + ", size: " + this.edges.length);
+		int k = this.offset + i_p;
+		return this.edges[(k>=this.edges.length)? k - this.edges.length: k];
+	}
+
+	public int size () {
+		return this.edges.length;
+	}
+
+	/**
+	 * copies the tour into an array list.
+	 * @return list of edges
+	 */
+	public java.util.ArrayList toArrayList () {
+		java.util.ArrayList retList = new java.util.ArrayList (this.edges.length);
+		for (int i=this.offset; i<this.edges.length; i++) retList.add(this.edges[i]);
+		for (int i=0; i<this.offset; i++) retList.add(this.edges[i]);
+		return retList;
+	}
+}
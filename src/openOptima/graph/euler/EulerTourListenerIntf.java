@@ -0,0 +1,41 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ * 
+ * This library is free software; you can redistribute it and/or modify it under the 
+ * terms of the GNU Lesser General Public License as published by the Free Software 
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with 
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place, 
+ * Suite 330, Boston, MA 02111-1307 USA 
+ * 
+ * @author Yaxiong Lin
+ * @version 1.0
+ * 
+ */
+package openOptima.graph.euler;
+
+import openOptima.graph.Edge;
+import openOptima.graph.Vertex;
+
+/**
+ * To be implemented by the listener receiving the edges of an Euler tour one at a time
+ * in the order they are traversed, see HierholzerAlgorithm.streamEulerPath().
+ * @author Yaxiong Lin
+ *
+ */
+public interface EulerTourListenerIntf {
+
+	/**
+	 * returns false to stop the tour.
+	 * @param edgeObj_p edge traversed
+	 * @param fromVertex_p vertex the edge is traversed from, tells the direction of an undirected edge
+	 * @return false to stop the tour, true to continue
+	 */
+	public boolean edgeTraversed (Edge edgeObj_p, Vertex fromVertex_p);
+}
@@ -0,0 +1,50 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ * 
+ * This library is free software; you can redistribute it and/or modify it under the 
+ * terms of the GNU Lesser General Public License as published by the Free Software 
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with 
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place, 
+ * Suite 330, Boston, MA 02111-1307 USA 
+ * 
+ * @author Yaxiong Lin
+ * @version 1.0
+ * 
+ */
+package openOptima.graph.euler;
+
+import openOptima.NoSolutionException;
+import openOptima.graph.Vertex;
+
+/**
+ * Euler path algorithm that also finds open Euler trails: walks that traverse every edge
+ * instance once from one vertex to another.  In a directed graph the trail starts at the
+ * vertex with one more edge out than in and ends at the vertex with one more edge in than
+ * out, in an undirected graph it goes between the two vertices of odd degree.
+ * @author Yaxiong Lin
+ *
+ */
+public interface EulerTrailAlgorithmIntf extends EulerPathAlgorithmIntf {
+
+	/**
+	 * returns the start and end vertex of the open Euler trail found from the vertex degrees.
+	 * @return start and end vertex, null if the edges can only form a closed tour
+	 * @throws NoSolutionException if more than two vertices have an odd degree
+	 */
+	public Vertex [] getTrailEnds () throws NoSolutionException;
+
+	/**
+	 * returns the open Euler trail from the start to the end vertex found by getTrailEnds(), or
+	 * a closed tour if the edges form one.
+	 * @return list of edges in the order traversed
+	 * @throws NoSolutionException if the graph has neither an open trail nor a closed tour
+	 */
+	public java.util.ArrayList getEulerTrail () throws NoSolutionException;
+}
@@ -0,0 +1,603 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ * 
+ * This library is free software; you can redistribute it and/or modify it under the 
+ * terms of the GNU Lesser General Public License as published by the Free Software 
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with 
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place, 
+ * Suite 330, Boston, MA 02111-1307 USA 
+ * 
+ * @author Yaxiong Lin
+ * @version 1.0
+ * 
+ */
+package openOptima.graph.euler;
+
+import openOptima.NoSolutionException;
+import openOptima.graph.Edge;
+import openOptima.graph.Graph;
+import openOptima.graph.GraphIndex;
+import openOptima.graph.Vertex;
+
+/**
+ * Euler tour by Hierholzer's algorithm in time linear in the number of edge instances
+ * (the sum of Edge.getCount() over the active edges).
+ * <p>
+ * The graph is read into a GraphIndex and each vertex keeps a cursor into its outgoing half
+ * edges, the number of instances left of each edge is kept in an int array, so a step of the
+ * walk neither searches nor allocates.  The undirected instances are first given a direction
+ * by walks on the undirected instances only, if the vertices are not balanced afterwards
+ * (as many edges in as out) paths of undirected instances are turned around until they are.
+ * The tour is then built with an explicit stack.  The tour is kept once found and is rotated
+ * to the start vertex asked for, see EulerTour.
+ * <p>
+ * Open trails (see EulerTrailAlgorithmIntf) are found the same way, with one more instance
+ * out of the start vertex and one more in at the end vertex.  The ends are found from the
+ * vertex degrees, which are counted once per init() and kept.
+ * <p>
+ * Unlike LinAlgorithm, no attempt is made to vary the pairs of edges traversed in and out of
+ * a vertex.
+ * @author Yaxiong Lin
+ *
+ */
+public class HierholzerAlgorithm implements EulerTrailAlgorithmIntf, EulerTourAlgorithmIntf {
+	private Graph graphObj;
+	protected GraphIndex idx;
+	private EulerTour tour;
+	private boolean eulerian = false;
+	private boolean transitionCoverage = false;
+	private int [] directedSurplus; // directed instances out - in
+	private int [] undirectedDegree;
+
+	/**
+	 * constructor.
+	 */
+	public HierholzerAlgorithm () {
+	}
+
+	/**
+	 * turns the transition coverage mode on or off, off by default.  In this mode the tour is
+	 * walked from the start vertex along the tree of last exits (see streamEulerPath()) and
+	 * each arrival at a vertex through an edge leaves through the next edge in turn among the
+	 * edges with instances left, so the pairs of edges in and out of a vertex are varied much
+	 * like LinAlgorithm does.  The state is one counter per edge end and one list of edges
+	 * left per vertex, each step takes constant time.
+	 * @param transitionCoverage_p true to vary the pairs of edges traversed in and out of each vertex
+	 */
+	public void setTransitionCoverage (boolean transitionCoverage_p) {
+		this.transitionCoverage = transitionCoverage_p;
+		this.tour = null;
+		this.eulerian = false;
+	}
+
+	/**
+	 * sets the graph/network for which the Euler tour is to be found.
+	 */
+	public void init (Graph graphObj_p) {
+		this.graphObj = graphObj_p;
+		this.idx = null;
+		this.directedSurplus = null;
+		this.undirectedDegree = null;
+		this.tour = null;
+		this.eulerian = false;
+	}
+
+	public boolean isEulerian () {
+		return this.eulerian;
+	}
+
+	/**
+	 * Returns an array list of edges that forms the Euler tour starting at the startVertex_p.
+	 */
+	public java.util.ArrayList getEulerPath (int startVertex_p) throws NoSolutionException {
+		if (this.graphObj==null) throw new NoSolutionException ("Must set graphObj using init () method first.");
+		Vertex startVertex = this.graphObj.getVertex(startVertex_p);
+		if (startVertex==null) throw new NoSolutionException ("Vertex " + startVertex_p + " does not existin in the graph.");
+		return getEulerPath(startVertex);
+	}
+
+	/**
+	 * finds the euler path starting at the startVertex_p.
+	 * @param startVertex_p vertex
+	 * @return list of edges
+	 * @throws NoSolutionException if the graph is not Eulerian or the start vertex is not on the tour
+	 */
+	public java.util.ArrayList getEulerPath (Vertex startVertex_p) throws NoSolutionException {
+		return getEulerTour(startVertex_p).toArrayList();
+	}
+
+	/**
+	 * returns the Euler tour starting at the startVertex_p.  The tour is found once, the tours
+	 * from the other start vertices are rotated views of it.
+	 * @param startVertex_p vertex
+	 * @return tour
+	 * @throws NoSolutionException if the graph is not Eulerian or the start vertex is not on the tour
+	 */
+	public EulerTour getEulerTour (Vertex startVertex_p) throws NoSolutionException {
+		if (this.graphObj==null) throw new NoSolutionException ("Must set graphObj using init () method first.");
+		if (this.tour==null && this.transitionCoverage) {
+			final java.util.ArrayList<Edge> pathEdges = new java.util.ArrayList<Edge> (this.graphObj.getEdgeInstanceCount(true));
+			streamEulerPath (startVertex_p, new EulerTourListenerIntf () {
+				public boolean edgeTraversed (Edge edgeObj_p, Vertex fromVertex_p) {
+					pathEdges.add(edgeObj_p);
+					return true;
+				}
+			});
+			this.tour = new EulerTour (startVertex_p, pathEdges);
+		}
+		else if (this.tour==null) {
+			if (this.idx==null) this.idx = new GraphIndex (this.graphObj, true);
+			int s = this.idx.getVertexIdx(startVertex_p);
+			if (s<0) throw new NoSolutionException ("Vertext not found in the graph: " + startVertex_p);
+			this.tour = findEulerPath (s);
+			this.eulerian = true;
+		}
+		EulerTour tourObj = this.tour.rotate(startVertex_p);
+		if (tourObj==null) throw new NoSolutionException ("Vertext not on the euler path: " + startVertex_p);
+		return tourObj;
+	}
+
+	public Vertex [] getTrailEnds () throws NoSolutionException {
+		if (this.graphObj==null) throw new NoSolutionException ("Must set graphObj using init () method first.");
+		if (this.idx==null) this.idx = new GraphIndex (this.graphObj, true);
+		if (this.directedSurplus==null) {
+			int [] surplus = new int [this.idx.getVertexCount()];
+			int [] degree = new int [this.idx.getVertexCount()];
+			for (int e=0; e<this.idx.getEdgeCount(); e++) {
+				Edge edgeObj = this.idx.getEdge(e);
+				int count = Math.max(edgeObj.getCount(), 0);
+				if (edgeObj.isDirected()) {
+					surplus[this.idx.getEdgeFrom(e)] += count;
+					surplus[this.idx.getEdgeTo(e)] -= count;
+				}
+				else {
+					degree[this.idx.getEdgeFrom(e)] += count;
+					degree[this.idx.getEdgeTo(e)] += count;
+				}
+			}
+			this.directedSurplus = surplus;
+			this.undirectedDegree = degree;
+		}
+
+		// the degree (in + out + undirected) is odd where the surplus plus the undirected degree is
+		int first = -1, second = -1, oddCount = 0;
+		for (int v=0; v<this.directedSurplus.length; v++) {
+			if (((this.directedSurplus[v] + this.undirectedDegree[v]) & 1)==0) continue;
+			oddCount++;
+			if (first<0) first = v;
+			else second = v;
+		}
+		if (oddCount==0) return null;
+		if (oddCount!=2) throw new NoSolutionException ("Euler trail does not exist, " + oddCount + " vertices have odd degree.");
+		if (this.directedSurplus[second]>this.directedSurplus[first]) return new Vertex [] {this.idx.getVertex(second), this.idx.getVertex(first)};
+		return new Vertex [] {this.idx.getVertex(first), this.idx.getVertex(second)};
+	}
+
+	/**
+	 * returns the open Euler trail from the start to the end vertex found by getTrailEnds(), or
+	 * the closed tour from the from vertex of the first edge if the edges form one.  The trail
+	 * is not kept and isEulerian() refers to closed tours only.
+	 */
+	public java.util.ArrayList getEulerTrail () throws NoSolutionException {
+		Vertex [] trailEnds = getTrailEnds();
+		if (trailEnds==null) {
+			for (int e=0; e<this.idx.getEdgeCount(); e++) {
+				if (this.idx.getEdge(e).getCount()>0) return getEulerPath(this.idx.getEdge(e).getFromVertex());
+			}
+			throw new NoSolutionException ("Unable to generate euler path");
+		}
+		int s = this.idx.getVertexIdx(trailEnds[0]);
+		int t = this.idx.getVertexIdx(trailEnds[1]);
+		int m = this.idx.getEdgeCount();
+		int [] forwardCount = new int [m];
+		int [] backwardCount = new int [m];
+		long total;
+		try {
+			total = orientEdges (forwardCount, backwardCount, s, t);
+		}
+		catch (NoSolutionException e) {
+			// with undirected edges at the ends the degrees may not tell the direction
+			if (this.undirectedDegree[s]==0 && this.undirectedDegree[t]==0) throw e;
+			int temp = s;
+			s = t;
+			t = temp;
+			java.util.Arrays.fill(forwardCount, 0);
+			java.util.Arrays.fill(backwardCount, 0);
+			total = orientEdges (forwardCount, backwardCount, s, t);
+		}
+		if (total>Integer.MAX_VALUE) throw new NoSolutionException ("Euler path too long: " + total);
+		int [] path = walk (s, t, forwardCount, backwardCount, (int) total);
+		java.util.ArrayList retList = new java.util.ArrayList (path.length);
+		for (int i=0; i<path.length; i++) retList.add(this.idx.getEdge(path[i]>>1));
+		return retList;
+	}
+
+	/**
+	 * sets the number of instances of each edge traversed from its from vertex (forward) and
+	 * from its to vertex (backward), every vertex has as many instances in as out afterwards.
+	 * @param forwardCount_p filled in with the forward instances of each edge of the index
+	 * @param backwardCount_p filled in with the backward instances of each edge of the index
+	 * @return total number of instances
+	 * @throws NoSolutionException if the graph has no edge instances or can not be balanced
+	 */
+	protected long orientEdges (int [] forwardCount_p, int [] backwardCount_p) throws NoSolutionException {
+		return orientEdges (forwardCount_p, backwardCount_p, -1, -1);
+	}
+
+	/*
+	 * as orientEdges() above, for an open trail from trailStart_p to trailEnd_p (one more
+	 * instance out of the start and one more in at the end) if trailStart_p is not -1.
+	 */
+	private long orientEdges (int [] forwardCount_p, int [] backwardCount_p, int trailStart_p, int trailEnd_p) throws NoSolutionException {
+		int n = this.idx.getVertexCount();
+		int m = this.idx.getEdgeCount();
+		int [] freeCount = new int [m];
+		long total = 0;
+		for (int e=0; e<m; e++) {
+			Edge edgeObj = this.idx.getEdge(e);
+			int count = Math.max(edgeObj.getCount(), 0);
+			if (edgeObj.isDirected()) forwardCount_p[e] = count;
+			else freeCount[e] = count;
+			total += count;
+		}
+		if (total==0) throw new NoSolutionException ("Unable to generate euler path");
+
+		// directs the undirected instances by walks on the undirected instances, closed walks where the
+		// undirected instances are balanced on their own as they are in the postman tours
+		int [] outHalfs = this.idx.getOutHalfs();
+		int [] ptr = new int [n];
+		for (int v=0; v<n; v++) ptr[v] = this.idx.getOutStart(v);
+		for (int s=0; s<n; s++) {
+			int v = s;
+			while (true) {
+				while (ptr[v]<this.idx.getOutStart(v+1) && freeCount[outHalfs[ptr[v]]>>1]<=0) ptr[v]++;
+				if (ptr[v]>=this.idx.getOutStart(v+1)) {
+					if (v==s) break;
+					v = s;
+					continue;
+				}
+				int h = outHalfs[ptr[v]];
+				freeCount[h>>1]--;
+				if ((h&1)==0) forwardCount_p[h>>1]++;
+				else backwardCount_p[h>>1]++;
+				v = this.idx.headOf(h);
+			}
+		}
+		balanceUndirected (forwardCount_p, backwardCount_p, trailStart_p, trailEnd_p);
+		return total;
+	}
+
+	/**
+	 * builds the tour from the dense vertex s_p, the graph index has been built.
+	 * @param s_p dense id of the start vertex
+	 * @return tour
+	 * @throws NoSolutionException if the graph is not Eulerian
+	 */
+	protected EulerTour findEulerPath (int s_p) throws NoSolutionException {
+		int m = this.idx.getEdgeCount();
+		int [] forwardCount = new int [m];
+		int [] backwardCount = new int [m];
+		long total = orientEdges (forwardCount, backwardCount);
+		if (total>Integer.MAX_VALUE) throw new NoSolutionException ("Euler path too long: " + total);
+		int [] path = walk (s_p, s_p, forwardCount, backwardCount, (int) total);
+		Edge [] pathEdges = new Edge [path.length];
+		for (int i=0; i<path.length; i++) pathEdges[i] = this.idx.getEdge(path[i]>>1);
+		return new EulerTour (this.idx.getVertex(s_p), java.util.Arrays.asList(pathEdges));
+	}
+
+	/*
+	 * Hierholzer: walks from s_p until stuck, then backs up and takes the half edges in reverse
+	 * order.  Returns the half edges of the trail from s_p to t_p (the same vertex for a tour).
+	 */
+	private int [] walk (int s_p, int t_p, int [] forwardCount_p, int [] backwardCount_p, int total_p) throws NoSolutionException {
+		int n = this.idx.getVertexCount();
+		int [] outHalfs = this.idx.getOutHalfs();
+		int [] ptr = new int [n];
+		for (int v=0; v<n; v++) ptr[v] = this.idx.getOutStart(v);
+		int [] stack = new int [total_p];
+		int [] path = new int [total_p];
+		int pathSize = total_p;
+		int top = 0;
+		int v = s_p;
+		while (true) {
+			int end = this.idx.getOutStart(v+1);
+			while (ptr[v]<end) {
+				int h = outHalfs[ptr[v]];
+				if ((h&1)==0? forwardCount_p[h>>1]>0: backwardCount_p[h>>1]>0) break;
+				ptr[v]++;
+			}
+			if (ptr[v]<end) {
+				int h = outHalfs[ptr[v]];
+				if ((h&1)==0) forwardCount_p[h>>1]--;
+				else backwardCount_p[h>>1]--;
+				stack[top++] = h;
+				v = this.idx.headOf(h);
+			}
+			else {
+				if (top==0) break;
+				int h = stack[--top];
+				path[--pathSize] = h;
+				v = this.idx.tailOf(h);
+			}
+		}
+		if (pathSize>0) throw new NoSolutionException ("Euler path does not exist, " + pathSize + " edge instances are not connected to the start vertex.");
+
+		// a walk stuck away from the start shows as a break in the sequence
+		v = s_p;
+		for (int i=0; i<path.length; i++) {
+			if (this.idx.tailOf(path[i])!=v) throw new NoSolutionException ("Euler path does not exist, the edges are not balanced at " + this.idx.getVertex(v));
+			v = this.idx.headOf(path[i]);
+		}
+		if (v!=t_p) throw new NoSolutionException ("Euler path does not exist, the edges are not balanced at " + this.idx.getVertex(v));
+		return path;
+	}
+
+	/**
+	 * walks the Euler tour from startVertex_p and passes each edge to the listener as it is
+	 * traversed, without keeping the tour.  The memory used depends on the number of vertices
+	 * and edges only, not on the number of edge instances.  Every vertex leaves through the
+	 * edge of a spanning tree towards the start vertex last (the tree of last exits), so the
+	 * walk never gets stuck before all instances are used and no edge is passed on that is
+	 * not part of the tour.  The graph is checked for a tour before the first edge is passed.
+	 * @param startVertex_p vertex
+	 * @param listenerObj_p listener
+	 * @return number of edges passed to the listener
+	 * @throws NoSolutionException if the graph is not Eulerian or the start vertex has no edges
+	 */
+	public long streamEulerPath (Vertex startVertex_p, EulerTourListenerIntf listenerObj_p) throws NoSolutionException {
+		if (this.graphObj==null) throw new NoSolutionException ("Must set graphObj using init () method first.");
+		if (this.idx==null) this.idx = new GraphIndex (this.graphObj, true);
+		int s = this.idx.getVertexIdx(startVertex_p);
+		if (s<0) throw new NoSolutionException ("Vertext not found in the graph: " + startVertex_p);
+		int n = this.idx.getVertexCount();
+		int m = this.idx.getEdgeCount();
+		int [] forwardCount = new int [m];
+		int [] backwardCount = new int [m];
+		long total = orientEdges (forwardCount, backwardCount);
+
+		// tree of last exits: search backwards from the start vertex along the edge instances
+		int [] inHalfs = this.idx.getInHalfs();
+		int [] lastExit = new int [n];
+		int [] queue = new int [n];
+		java.util.Arrays.fill(lastExit, -2);
+		lastExit[s] = -1;
+		int head = 0, tail = 0;
+		queue[tail++] = s;
+		while (head<tail) {
+			int v = queue[head++];
+			for (int k=this.idx.getInStart(v); k<this.idx.getInStart(v+1); k++) {
+				int h = inHalfs[k];
+				if (((h&1)==0? forwardCount[h>>1]: backwardCount[h>>1])<=0) continue;
+				int u = this.idx.tailOf(h);
+				if (lastExit[u]!=-2) continue;
+				lastExit[u] = h;
+				queue[tail++] = u;
+			}
+		}
+		for (int e=0; e<m; e++) {
+			if (forwardCount[e]>0 && lastExit[this.idx.getEdgeFrom(e)]==-2 || backwardCount[e]>0 && lastExit[this.idx.getEdgeTo(e)]==-2)
+				throw new NoSolutionException ("Euler path does not exist, the edges are not connected to " + startVertex_p);
+		}
+		this.eulerian = true;
+
+		long passed = this.transitionCoverage? walkTransitions (s, forwardCount, backwardCount, lastExit, listenerObj_p):
+			walkInOrder (s, forwardCount, backwardCount, lastExit, listenerObj_p);
+		if (passed<0) return -passed;
+		if (passed<total) throw new NoSolutionException ("Euler path does not exist, stopped after " + passed + " edges.");
+		return passed;
+	}
+
+	/*
+	 * walks the tour leaving each vertex through its edges in the index order, the tree edge last.
+	 * Returns the number of edges passed, negated if the listener stopped the walk.
+	 */
+	private long walkInOrder (int s_p, int [] forwardCount_p, int [] backwardCount_p, int [] lastExit_p, EulerTourListenerIntf listenerObj_p) {
+		int n = this.idx.getVertexCount();
+		int [] outHalfs = this.idx.getOutHalfs();
+		int [] ptr = new int [n];
+		for (int v=0; v<n; v++) ptr[v] = this.idx.getOutStart(v);
+		long passed = 0;
+		int v = s_p;
+		while (true) {
+			int end = this.idx.getOutStart(v+1);
+			int h = -1;
+			while (ptr[v]<end) {
+				int k = outHalfs[ptr[v]];
+				if (k!=lastExit_p[v] && ((k&1)==0? forwardCount_p[k>>1]>0: backwardCount_p[k>>1]>0)) {
+					h = k;
+					break;
+				}
+				ptr[v]++;
+			}
+			if (h<0 && lastExit_p[v]>=0 && ((lastExit_p[v]&1)==0? forwardCount_p[lastExit_p[v]>>1]>0: backwardCount_p[lastExit_p[v]>>1]>0)) h = lastExit_p[v];
+			if (h<0) break;
+			if ((h&1)==0) forwardCount_p[h>>1]--;
+			else backwardCount_p[h>>1]--;
+			passed++;
+			if (!listenerObj_p.edgeTraversed(this.idx.getEdge(h>>1), this.idx.getVertex(v))) return -passed;
+			v = this.idx.headOf(h);
+		}
+		return passed;
+	}
+
+	/*
+	 * walks the tour in the transition coverage mode.  Every vertex keeps the list of its out
+	 * edges with instances left, an edge is swapped out of the list when its last instance is
+	 * used.  The last instance of the tree edge is kept out of the list and is taken once the
+	 * list is empty.  Every edge end
+	 * coming into a vertex keeps a counter of its arrivals and leaves through the list entry at
+	 * the counter, so the successive arrivals through an edge take the out edges in turn and the
+	 * arrivals through different edges start at different out edges.
+	 */
+	private long walkTransitions (int s_p, int [] forwardCount_p, int [] backwardCount_p, int [] lastExit_p, EulerTourListenerIntf listenerObj_p) {
+		int n = this.idx.getVertexCount();
+		int [] outHalfs = this.idx.getOutHalfs();
+		int [] inHalfs = this.idx.getInHalfs();
+		int [] open = new int [outHalfs.length];
+		int [] openCount = new int [n];
+		int [] arrivals = new int [2*this.idx.getEdgeCount()];
+		for (int v=0; v<n; v++) {
+			int base = this.idx.getOutStart(v);
+			for (int k=base; k<this.idx.getOutStart(v+1); k++) {
+				int h = outHalfs[k];
+				int reserved = (h==lastExit_p[v])? 1: 0;
+				if (((h&1)==0? forwardCount_p[h>>1]: backwardCount_p[h>>1])>reserved) open[base + openCount[v]++] = h;
+			}
+			for (int k=this.idx.getInStart(v); k<this.idx.getInStart(v+1); k++) {
+				arrivals[inHalfs[k]] = k - this.idx.getInStart(v);
+			}
+		}
+		int startArrivals = 0;
+		long passed = 0;
+		int v = s_p;
+		int lastHalf = -1;
+		while (true) {
+			int h = -1;
+			if (openCount[v]>0) {
+				int turn = (lastHalf<0)? startArrivals++: arrivals[lastHalf]++;
+				int j = this.idx.getOutStart(v) + turn % openCount[v];
+				h = open[j];
+				int left = ((h&1)==0)? --forwardCount_p[h>>1]: --backwardCount_p[h>>1];
+				if (left==((h==lastExit_p[v])? 1: 0)) open[j] = open[this.idx.getOutStart(v) + --openCount[v]];
+			}
+			else if (lastExit_p[v]>=0 && ((lastExit_p[v]&1)==0? forwardCount_p[lastExit_p[v]>>1]>0: backwardCount_p[lastExit_p[v]>>1]>0)) {
+				h = lastExit_p[v];
+				if ((h&1)==0) forwardCount_p[h>>1]--;
+				else backwardCount_p[h>>1]--;
+			}
+			if (h<0) break;
+			passed++;
+			if (!listenerObj_p.edgeTraversed(this.idx.getEdge(h>>1), this.idx.getVertex(v))) return -passed;
+			v = this.idx.headOf(h);
+			lastHalf = h;
+		}
+		return passed;
+	}
+
+	/*
+	 * turns around the directed undirected instances until every vertex has as many edges in
+	 * as out, a flow problem: turning around an instance along a path of undirected instances
+	 * from a vertex with more edges out than in to one with more edges in than out moves two
+	 * units of imbalance.  Solved by blocking flows (Dinic): each phase is one breadth first
+	 * search from all the vertices with more edges out than in and one pass of augmenting paths
+	 * along the levels, each path turning around as many instances as its ends and edges allow.
+	 * A phase is O(m) plus O(n) per path, and the shortest augmenting path gets longer with every
+	 * phase, so there are at most n phases however large the imbalance is.  Nothing to do when the
+	 * undirected instances were balanced on their own.
+	 */
+	private void balanceUndirected (int [] forwardCount_p, int [] backwardCount_p, int trailStart_p, int trailEnd_p) throws NoSolutionException {
+		int n = this.idx.getVertexCount();
+		int m = this.idx.getEdgeCount();
+		int [] surplus = new int [n]; // out - in
+		int unbalanced = 0;
+		for (int e=0; e<m; e++) {
+			int count = forwardCount_p[e] - backwardCount_p[e];
+			surplus[this.idx.getEdgeFrom(e)] += count;
+			surplus[this.idx.getEdgeTo(e)] -= count;
+		}
+		if (trailStart_p>=0) {
+			surplus[trailStart_p]--;
+			surplus[trailEnd_p]++;
+		}
+		for (int v=0; v<n; v++) {
+			if ((surplus[v]&1)!=0) throw new NoSolutionException ("Euler path does not exist, odd number of edges at " + this.idx.getVertex(v));
+			if (surplus[v]>0) unbalanced += surplus[v];
+		}
+		if (unbalanced==0) return;
+
+		int [] outHalfs = this.idx.getOutHalfs();
+		int [] level = new int [n];
+		int [] queue = new int [n];
+		int [] ptr = new int [n];
+		int [] path = new int [n];
+		while (unbalanced>0) {
+			// levels by the undirected instances that can be turned around
+			java.util.Arrays.fill(level, -1);
+			int head = 0, tail = 0;
+			for (int v=0; v<n; v++) {
+				if (surplus[v]>0) {
+					level[v] = 0;
+					queue[tail++] = v;
+				}
+			}
+			boolean reached = false;
+			while (head<tail) {
+				int v = queue[head++];
+				for (int k=this.idx.getOutStart(v); k<this.idx.getOutStart(v+1); k++) {
+					int h = outHalfs[k];
+					if (turnable(h, forwardCount_p, backwardCount_p)<=0) continue;
+					int u = this.idx.headOf(h);
+					if (level[u]>=0) continue;
+					level[u] = level[v] + 1;
+					queue[tail++] = u;
+					if (surplus[u]<0) reached = true;
+				}
+			}
+			if (!reached) throw new NoSolutionException ("Euler path does not exist, the edges can not be balanced.");
+
+			// blocking flow along the levels, ptr[v] is the next half edge out of v to try
+			for (int v=0; v<n; v++) ptr[v] = this.idx.getOutStart(v);
+			for (int s=0; s<n; s++) {
+				int depth = 0;
+				int v = s;
+				while (surplus[s]>0) {
+					if (v!=s && surplus[v]<0) {
+						int amount = Math.min(surplus[s], -surplus[v]) / 2;
+						for (int i=0; i<depth; i++) amount = Math.min(amount, turnable(path[i], forwardCount_p, backwardCount_p));
+						for (int i=0; i<depth; i++) {
+							int h = path[i];
+							if ((h&1)==0) {
+								forwardCount_p[h>>1] -= amount;
+								backwardCount_p[h>>1] += amount;
+							}
+							else {
+								backwardCount_p[h>>1] -= amount;
+								forwardCount_p[h>>1] += amount;
+							}
+						}
+						surplus[s] -= 2*amount;
+						surplus[v] += 2*amount;
+						unbalanced -= 2*amount;
+						depth = 0;
+						v = s;
+						continue;
+					}
+					while (ptr[v]<this.idx.getOutStart(v+1)) {
+						int h = outHalfs[ptr[v]];
+						if (turnable(h, forwardCount_p, backwardCount_p)>0 && level[this.idx.headOf(h)]==level[v]+1) break;
+						ptr[v]++;
+					}
+					if (ptr[v]<this.idx.getOutStart(v+1)) {
+						int h = outHalfs[ptr[v]];
+						path[depth++] = h;
+						v = this.idx.headOf(h);
+					}
+					else {
+						// dead end for the rest of the phase
+						level[v] = -1;
+						if (depth==0) break;
+						v = this.idx.tailOf(path[--depth]);
+						ptr[v]++;
+					}
+				}
+			}
+		}
+	}
+
+	/*
+	 * number of the undirected instances of the edge directed along the half edge, the instances
+	 * that can be turned around along it.
+	 */
+	private int turnable (int half_p, int [] forwardCount_p, int [] backwardCount_p) {
+		int e = half_p>>1;
+		if (this.idx.getEdge(e).isDirected()) return 0;
+		return (half_p&1)==0? forwardCount_p[e]: backwardCount_p[e];
+	}
+}
@@ -26,9 +26,10 @@ import openOptima.graph.Graph;
 import openOptima.graph.Vertex;
 
 
-public class LinAlgorithm implements EulerPathAlgorithmIntf {
+public class LinAlgorithm implements EulerTourAlgorithmIntf {
 
 	protected java.util.ArrayList eulerPath;
+	private EulerTour tourObj;
 	private Graph graphObj;
 	private java.util.HashMap edgeUsedCount;
 	private boolean eulerian = false; 
@@ -51,6 +52,8 @@ public class LinAlgorithm implements EulerPathAlgorithmIntf {
 		this.unusedEdgeCount = this.graphObj.getEdgeInstanceCount(true);
 		this.eulerPath = new java.util.ArrayList (this.unusedEdgeCount);
 		this.edgeUsedCount = new java.util.HashMap (this.unusedEdgeCount);
+		this.vertexUsedCountList.clear();
+		this.tourObj = null;
 		this.eulerian = false;
 	}
 
@@ -172,47 +175,34 @@ public class LinAlgorithm implements EulerPathAlgorithmIntf {
 		if (this.unusedEdgeCount>0) {
 			throw new NoSolutionException ("Euler path does not exist.");
 		}
+		this.tourObj = new EulerTour (startVertex_p, this.eulerPath);
 		this.eulerian = true;
 		return;
 	}
 
 	/**
-	 * rebuild the euler path found to start on the new startVertext.
-	 * @param newStartVertex_p
+	 * finds the euler path starting at the startVertex_p.
+	 * @param startVertex_p vertex
+	 * @return list of edges
+	 * @throws NoSolutionException no solution
 	 */
-	private Edge[] rebuildEulerPath (Vertex newStartVertex_p) throws NoSolutionException {
-		int idx=-1;
-		for (int i=0; i<this.eulerPath.size(); i++) {
-			Edge curEdge = (Edge) this.eulerPath.get(i);
-			if (curEdge.adjacentTo(newStartVertex_p)) {
-				idx = i;
-				break;
-			}
-		}
-
-		if (idx<0) throw new NoSolutionException ("Vertext not found in the graph: " + newStartVertex_p.toString());
-		
-		java.util.ArrayList newPath = new java.util.ArrayList (this.eulerPath.size());
-		while(idx>=0) {
-			this.eulerPath.add(this.eulerPath.get(0));
-			this.eulerPath.remove(0);
-			idx--;
-		}
-
-		return (Edge []) this.eulerPath.toArray(new Edge [this.eulerPath.size()]);	
+	public java.util.ArrayList getEulerPath (Vertex startVertex_p) throws NoSolutionException {
+		return getEulerTour(startVertex_p).toArrayList();
 	}
 
 	/**
-	 * finds the euler path starting at the startVertex_p.
+	 * returns the Euler tour starting at the startVertex_p.  The tour is found once, the tours
+	 * from the other start vertices are rotated views of it.
 	 * @param startVertex_p vertex
-	 * @return list of edges
+	 * @return tour
 	 * @throws NoSolutionException no solution
 	 */
-	public java.util.ArrayList getEulerPath (Vertex startVertex_p) throws NoSolutionException {
+	public EulerTour getEulerTour (Vertex startVertex_p) throws NoSolutionException {
 		if (this.graphObj==null) throw new NoSolutionException ("Must set graphObj using init () method first.");
 		if (!this.eulerian) findEulerPath (startVertex_p);
-		else rebuildEulerPath(startVertex_p);
-		return (java.util.ArrayList) this.eulerPath.clone();
+		EulerTour retTour = this.tourObj.rotate(startVertex_p);
+		if (retTour==null) throw new NoSolutionException ("Vertext not found in the graph: " + startVertex_p.toString());
+		return retTour;
 	}
 	
 	class EulerEdge {
@@ -0,0 +1,180 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ * 
+ * This library is free software; you can redistribute it and/or modify it under the 
+ * terms of the GNU Lesser General Public License as published by the Free Software 
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with 
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place, 
+ * Suite 330, Boston, MA 02111-1307 USA 
+ * 
+ * @author Yaxiong Lin
+ * @version 1.0
+ * 
+ */
+package openOptima.graph.euler;
+
+import openOptima.NoSolutionException;
+import openOptima.graph.Edge;
+import openOptima.network.tree.DisjointSet;
+
+/**
+ * Euler tour built by decomposing the balanced multigraph into edge disjoint cycles and
+ * splicing them, for tours with a very large number of edge instances.
+ * <p>
+ * Every edge instance gets a dense id, the out instances of a vertex have consecutive ids.
+ * At each vertex the j-th instance coming in is followed by the j-th instance going out, this
+ * successor function is a permutation of the instances and its cycles are edge disjoint closed
+ * walks.  The vertices are split into ranges of about the same number of instances and the
+ * ranges are paired by separate threads.  The cycles are then labeled and spliced in one linear
+ * pass: at every vertex the successors of two instances coming in on different cycles are
+ * swapped, which joins the two cycles into one (the cycles joined are tracked by a DisjointSet).
+ * The tour is read off the successor function from the start vertex.
+ * <p>
+ * The undirected instances are given a direction first, see HierholzerAlgorithm.
+ * @author Yaxiong Lin
+ *
+ */
+public class ParallelEulerAlgorithm extends HierholzerAlgorithm {
+	private int threadCount = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * constructor.
+	 */
+	public ParallelEulerAlgorithm () {
+		super();
+	}
+
+	/**
+	 * sets the number of threads pairing the instances, the number of processors by default.
+	 * @param threadCount_p thread count
+	 */
+	public void setThreadCount (int threadCount_p) {
+		this.threadCount = Math.max(threadCount_p, 1);
+	}
+
+	protected EulerTour findEulerPath (int s_p) throws NoSolutionException {
+		final int n = this.idx.getVertexCount();
+		int m = this.idx.getEdgeCount();
+		final int [] forwardCount = new int [m];
+		final int [] backwardCount = new int [m];
+		long total = orientEdges (forwardCount, backwardCount);
+		if (total>Integer.MAX_VALUE) throw new NoSolutionException ("Euler path too long: " + total);
+		final int size = (int) total;
+
+		// dense instance ids, grouped by the vertex the instances go out of
+		final int [] outHalfs = this.idx.getOutHalfs();
+		final int [] inHalfs = this.idx.getInHalfs();
+		final int [] outBase = new int [n+1];
+		final int [] halfBase = new int [2*m];
+		int next = 0;
+		for (int v=0; v<n; v++) {
+			outBase[v] = next;
+			for (int k=this.idx.getOutStart(v); k<this.idx.getOutStart(v+1); k++) {
+				int h = outHalfs[k];
+				halfBase[h] = next;
+				next += ((h&1)==0)? forwardCount[h>>1]: backwardCount[h>>1];
+			}
+		}
+		outBase[n] = next;
+
+		// pairs the instances in and out of each vertex, by vertex ranges in parallel
+		final int [] instHalf = new int [size];
+		final int [] succ = new int [size];
+		int rangeCount = Math.max(1, Math.min(this.threadCount, n));
+		Thread [] threadList = new Thread [rangeCount];
+		int fromVertex = 0;
+		for (int t=0; t<rangeCount; t++) {
+			int toVertex = fromVertex;
+			long limit = (long) size * (t+1) / rangeCount;
+			while (toVertex<n && (outBase[toVertex]<limit || t==rangeCount-1)) toVertex++;
+			final int rangeFrom = fromVertex;
+			final int rangeTo = toVertex;
+			threadList[t] = new Thread (new Runnable () {
+				public void run () {
+					pairInstances (rangeFrom, rangeTo, outHalfs, inHalfs, outBase, halfBase, forwardCount, backwardCount, instHalf, succ);
+				}
+			});
+			threadList[t].start();
+			fromVertex = toVertex;
+		}
+		try {
+			for (int t=0; t<rangeCount; t++) threadList[t].join();
+		}
+		catch (InterruptedException e) {
+			for (int t=0; t<rangeCount; t++) threadList[t].interrupt();
+			Thread.currentThread().interrupt();
+			throw new NoSolutionException ("Euler path search interrupted.");
+		}
+
+		// labels the cycles of the successor function
+		int [] cycle = new int [size];
+		java.util.Arrays.fill(cycle, -1);
+		int cycleCount = 0;
+		for (int i=0; i<size; i++) {
+			if (cycle[i]>=0) continue;
+			int j = i;
+			do {
+				cycle[j] = cycleCount;
+				j = succ[j];
+			} while (j!=i);
+			cycleCount++;
+		}
+
+		// splices the cycles meeting at each vertex
+		DisjointSet cycleSet = new DisjointSet (cycleCount);
+		for (int v=0; v<n; v++) {
+			int first = -1;
+			for (int k=this.idx.getInStart(v); k<this.idx.getInStart(v+1); k++) {
+				int h = inHalfs[k];
+				int count = ((h&1)==0)? forwardCount[h>>1]: backwardCount[h>>1];
+				for (int i=halfBase[h]; i<halfBase[h]+count; i++) {
+					if (first<0) first = i;
+					else if (cycleSet.union(cycle[first], cycle[i])) {
+						int temp = succ[first];
+						succ[first] = succ[i];
+						succ[i] = temp;
+					}
+				}
+			}
+		}
+		if (cycleSet.getSetCount()>1) throw new NoSolutionException ("Euler path does not exist, the edges are not connected.");
+		if (outBase[s_p]==outBase[s_p+1]) throw new NoSolutionException ("Vertext not on the euler path: " + this.idx.getVertex(s_p));
+
+		Edge [] pathEdges = new Edge [size];
+		int j = outBase[s_p];
+		for (int i=0; i<size; i++) {
+			pathEdges[i] = this.idx.getEdge(instHalf[j]>>1);
+			j = succ[j];
+		}
+		return new EulerTour (this.idx.getVertex(s_p), java.util.Arrays.asList(pathEdges));
+	}
+
+	/*
+	 * records the half edge of the out instances of the vertices fromVertex_p .. toVertex_p-1 and
+	 * sets the successor of each instance coming into them.  Every instance is written by the
+	 * range of its tail (half edge) and of its head (successor) only, the ranges share no writes.
+	 */
+	private void pairInstances (int fromVertex_p, int toVertex_p, int [] outHalfs_p, int [] inHalfs_p, int [] outBase_p, int [] halfBase_p,
+			int [] forwardCount_p, int [] backwardCount_p, int [] instHalf_p, int [] succ_p) {
+		for (int v=fromVertex_p; v<toVertex_p; v++) {
+			for (int k=this.idx.getOutStart(v); k<this.idx.getOutStart(v+1); k++) {
+				int h = outHalfs_p[k];
+				int count = ((h&1)==0)? forwardCount_p[h>>1]: backwardCount_p[h>>1];
+				for (int i=halfBase_p[h]; i<halfBase_p[h]+count; i++) instHalf_p[i] = h;
+			}
+			int j = outBase_p[v];
+			for (int k=this.idx.getInStart(v); k<this.idx.getInStart(v+1); k++) {
+				int h = inHalfs_p[k];
+				int count = ((h&1)==0)? forwardCount_p[h>>1]: backwardCount_p[h>>1];
+				for (int i=halfBase_p[h]; i<halfBase_p[h]+count; i++) succ_p[i] = j++;
+			}
+		}
+	}
+}
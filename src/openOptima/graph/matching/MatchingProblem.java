@@ -22,10 +22,19 @@
  */
 package openOptima.graph.matching;
 
+import openOptima.NoSolutionException;
+import openOptima.network.Arc;
 import openOptima.network.Network;
+import openOptima.network.Node;
 
 /**
- * Work in progress... check back later.
+ * Maximum cardinality and maximum weight matching in a general graph using Edmonds' blossom
+ * algorithm with dual variables (primal-dual method), O(n^3) for n vertices.
+ * <p>
+ * The core works on vertices 0 .. n-1 and edges given as arrays and is exposed through the static
+ * methods maxWeightMatching() and minWeightPerfectMatching().  The weights are integers (long) so
+ * the dual variables stay exact, the double distances are scaled by minWeightPerfectMatching().
+ * The instance methods find the matching of the arcs of a network, arc directions are ignored.
  * @author Yaxiong Lin
  *
  */
@@ -38,16 +47,684 @@ public class MatchingProblem {
 	
 	private int problemType = MAX_WEIGHT; // MAX_CARDINALITY, MAX_WEIGHT
 	
+	/**
+	 * constructor.
+	 * @param networkObj_p network, arc distances are the weights for MAX_WEIGHT
+	 * @param problemType_p MAX_CARDINALITY or MAX_WEIGHT
+	 */
+	public MatchingProblem (Network networkObj_p, int problemType_p) {
+		this.networkObj = networkObj_p;
+		this.problemType = problemType_p;
+	}
+	
+	/**
+	 * returns the matching of the problem type set in the constructor.
+	 * @return list of arcs in the matching
+	 */
+	public java.util.ArrayList getMatching () {
+		if (this.problemType==MAX_CARDINALITY) return getMaxCardMatching();
+		else return getMaxWeightMatching();
+	}
+	
 	/**
 	 * array list of Arcs
 	 * @return list
 	 */
 	public java.util.ArrayList getMaxCardMatching () {
-		return null;
+		return matchArcs (true);
 	}
 
+	/**
+	 * returns the arcs of the matching with the max total distance.  Arcs with zero or negative distance
+	 * are never in the matching.  Fractional distances are rounded to 6 decimal places.
+	 * @return list of arcs
+	 */
 	public java.util.ArrayList getMaxWeightMatching () {
-		return null;
+		return matchArcs (false);
 	}
 
+	private java.util.ArrayList matchArcs (boolean cardinality_p) {
+		java.util.ArrayList<Node> nodeList = new java.util.ArrayList<Node>();
+		java.util.HashMap<Node, Integer> nodeIdx = new java.util.HashMap<Node, Integer>();
+		java.util.ArrayList arcList = this.networkObj.getArcList(true);
+		java.util.ArrayList<Arc> edgeList = new java.util.ArrayList<Arc>(arcList.size());
+		for (int i=0; i<arcList.size(); i++) {
+			Arc arcObj = (Arc) arcList.get(i);
+			if (arcObj.isSelfLoop()) continue;
+			edgeList.add(arcObj);
+			Node [] ends = { arcObj.getFromNode(), arcObj.getToNode() };
+			for (int j=0; j<2; j++) {
+				if (nodeIdx.containsKey(ends[j])) continue;
+				nodeIdx.put(ends[j], Integer.valueOf(nodeList.size()));
+				nodeList.add(ends[j]);
+			}
+		}
+		int m = edgeList.size();
+		int [] edgeFrom = new int [m];
+		int [] edgeTo = new int [m];
+		double [] dist = new double [m];
+		for (int k=0; k<m; k++) {
+			edgeFrom[k] = nodeIdx.get(edgeList.get(k).getFromNode()).intValue();
+			edgeTo[k] = nodeIdx.get(edgeList.get(k).getToNode()).intValue();
+			dist[k] = cardinality_p? 1: edgeList.get(k).getDist();
+		}
+		int [] mate = maxWeightMatching (nodeList.size(), edgeFrom, edgeTo, toLongWeights(dist, 1e6), cardinality_p);
+		java.util.ArrayList retList = new java.util.ArrayList();
+		for (int k=0; k<m; k++) {
+			if (mate[edgeFrom[k]]==edgeTo[k]) {
+				retList.add(edgeList.get(k));
+				mate[edgeFrom[k]] = -1; // parallel arcs
+			}
+		}
+		return retList;
+	}
+	
+	/*
+	 * returns the weights as integers, scaled by scale_p unless all weights are integers already.
+	 */
+	private static long [] toLongWeights (double [] weight_p, double scale_p) {
+		boolean integral = true;
+		for (int k=0; k<weight_p.length && integral; k++) {
+			if (weight_p[k]!=Math.rint(weight_p[k])) integral = false;
+		}
+		long [] retList = new long [weight_p.length];
+		for (int k=0; k<weight_p.length; k++) {
+			retList[k] = integral? (long) weight_p[k]: Math.round(weight_p[k]*scale_p);
+		}
+		return retList;
+	}
+	
+	/**
+	 * finds the perfect matching with the min total distance on the complete graph of the distance matrix.
+	 * Pairs with infinite distance can not be matched.  Fractional distances are rounded to 6 decimal places.
+	 * @param dist_p symmetric distance matrix, n x n with n even
+	 * @return mate of each vertex
+	 * @throws NoSolutionException no perfect matching exists
+	 */
+	public static int [] minWeightPerfectMatching (double [][] dist_p) throws NoSolutionException {
+		int n = dist_p.length;
+		if (n%2!=0) throw new NoSolutionException ("Perfect matching requires even number of vertices: " + n);
+		int m = 0;
+		for (int i=0; i<n; i++) {
+			for (int j=i+1; j<n; j++) {
+				if (dist_p[i][j]!=Double.POSITIVE_INFINITY) m++;
+			}
+		}
+		int [] edgeFrom = new int [m];
+		int [] edgeTo = new int [m];
+		double [] dist = new double [m];
+		int k = 0;
+		for (int i=0; i<n; i++) {
+			for (int j=i+1; j<n; j++) {
+				if (dist_p[i][j]==Double.POSITIVE_INFINITY) continue;
+				edgeFrom[k] = i;
+				edgeTo[k] = j;
+				dist[k++] = dist_p[i][j];
+			}
+		}
+		long [] weight = toLongWeights(dist, 1e6);
+		long maxWeight = 0;
+		for (k=0; k<m; k++) maxWeight = Math.max(maxWeight, weight[k]);
+		// max cardinality first, then max of (maxWeight + 1 - dist) is the min total dist
+		for (k=0; k<m; k++) weight[k] = maxWeight + 1 - weight[k];
+		int [] mate = maxWeightMatching (n, edgeFrom, edgeTo, weight, true);
+		for (int i=0; i<n; i++) {
+			if (mate[i]<0) throw new NoSolutionException ("Perfect matching does not exist, vertex " + i + " can not be matched.");
+		}
+		return mate;
+	}
+	
+	/**
+	 * finds the matching with the max total weight.
+	 * @param vertexCount_p number of vertices
+	 * @param edgeFrom_p first vertex of each edge
+	 * @param edgeTo_p second vertex of each edge
+	 * @param weight_p weight of each edge
+	 * @param maxCardinality_p true to find the max weight matching among the max cardinality matchings
+	 * @return mate of each vertex, -1 if the vertex is not matched
+	 */
+	public static int [] maxWeightMatching (int vertexCount_p, int [] edgeFrom_p, int [] edgeTo_p, long [] weight_p, boolean maxCardinality_p) {
+		return new Blossom (vertexCount_p, edgeFrom_p, edgeTo_p, weight_p, maxCardinality_p).solve();
+	}
+
+	/*
+	 * state of the blossom algorithm.  Vertices are 0 .. n-1, blossoms n .. 2n-1.  Edge k has the
+	 * end points 2k (edgeFrom) and 2k+1 (edgeTo), an end point p is the vertex endpoint[p] and p^1
+	 * is the opposite end.  label 1 = S (outer), 2 = T (inner), 0 = free.  dualVar stores twice the
+	 * dual of the vertices so that all quantities stay integer.
+	 */
+	private static class Blossom {
+		private int n;
+		private int m;
+		private int [] edgeFrom;
+		private int [] edgeTo;
+		private long [] weight;
+		private boolean maxCardinality;
+		private int [] endpoint;
+		private int [] neighbStart; // end points p of the edges leaving each vertex, endpoint[p] is the neighbor
+		private int [] neighbEnd;
+		private int [] mate;
+		private int [] label;
+		private int [] labelEnd;
+		private int [] inBlossom;
+		private int [] blossomParent;
+		private int [][] blossomChilds;
+		private int [] blossomBase;
+		private int [][] blossomEndps;
+		private int [] bestEdge;
+		private int [][] blossomBestEdges;
+		private int [] unusedBlossoms;
+		private int unusedCount;
+		private long [] dualVar;
+		private boolean [] allowEdge;
+		private int [] queue;
+		private int queueSize;
+		private int [] leafBuf;
+		
+		Blossom (int n_p, int [] edgeFrom_p, int [] edgeTo_p, long [] weight_p, boolean maxCardinality_p) {
+			this.n = n_p;
+			this.m = edgeFrom_p.length;
+			this.edgeFrom = edgeFrom_p;
+			this.edgeTo = edgeTo_p;
+			this.weight = weight_p;
+			this.maxCardinality = maxCardinality_p;
+		}
+		
+		private long slack (int k_p) {
+			return this.dualVar[this.edgeFrom[k_p]] + this.dualVar[this.edgeTo[k_p]] - 2*this.weight[k_p];
+		}
+		
+		private static int at (int [] list_p, int j_p) {
+			return list_p[(j_p<0)? j_p+list_p.length: j_p];
+		}
+		
+		private static int indexOf (int [] list_p, int value_p) {
+			for (int i=0; i<list_p.length; i++) {
+				if (list_p[i]==value_p) return i;
+			}
+			return -1;
+		}
+		
+		/*
+		 * returns the vertices in the blossom, copied from the shared buffer.
+		 */
+		private int [] leaves (int b_p) {
+			if (b_p<this.n) return new int [] {b_p};
+			int count = collectLeaves (b_p, 0);
+			return java.util.Arrays.copyOf(this.leafBuf, count);
+		}
+		
+		private int collectLeaves (int b_p, int count_p) {
+			if (b_p<this.n) {
+				this.leafBuf[count_p++] = b_p;
+				return count_p;
+			}
+			int [] childs = this.blossomChilds[b_p];
+			for (int i=0; i<childs.length; i++) count_p = collectLeaves (childs[i], count_p);
+			return count_p;
+		}
+		
+		private void enqueue (int v_p) {
+			if (this.queueSize==this.queue.length) this.queue = java.util.Arrays.copyOf(this.queue, this.queueSize*2);
+			this.queue[this.queueSize++] = v_p;
+		}
+		
+		private void assignLabel (int w_p, int t_p, int p_p) {
+			while (true) {
+				int b = this.inBlossom[w_p];
+				this.label[w_p] = this.label[b] = t_p;
+				this.labelEnd[w_p] = this.labelEnd[b] = p_p;
+				this.bestEdge[w_p] = this.bestEdge[b] = -1;
+				if (t_p==1) {
+					int [] leafList = leaves(b);
+					for (int i=0; i<leafList.length; i++) enqueue (leafList[i]);
+					return;
+				}
+				// t_p==2, the mate of the base becomes S
+				int base = this.blossomBase[b];
+				w_p = this.endpoint[this.mate[base]];
+				t_p = 1;
+				p_p = this.mate[base] ^ 1;
+			}
+		}
+		
+		/*
+		 * traces back from v and w to find a new blossom (returns its base) or an augmenting path (returns -1).
+		 */
+		private int scanBlossom (int v_p, int w_p) {
+			java.util.ArrayList<Integer> path = new java.util.ArrayList<Integer>();
+			int base = -1;
+			int v = v_p, w = w_p;
+			while (v!=-1 || w!=-1) {
+				int b = this.inBlossom[v];
+				if ((this.label[b] & 4)!=0) {
+					base = this.blossomBase[b];
+					break;
+				}
+				path.add(Integer.valueOf(b));
+				this.label[b] = 5;
+				if (this.labelEnd[b]==-1) v = -1;
+				else {
+					v = this.endpoint[this.labelEnd[b]];
+					b = this.inBlossom[v];
+					v = this.endpoint[this.labelEnd[b]];
+				}
+				if (w!=-1) {
+					int t = v;
+					v = w;
+					w = t;
+				}
+			}
+			for (int i=0; i<path.size(); i++) this.label[path.get(i).intValue()] = 1;
+			return base;
+		}
+		
+		private void addBlossom (int base_p, int k_p) {
+			int v = this.edgeFrom[k_p];
+			int w = this.edgeTo[k_p];
+			int bb = this.inBlossom[base_p];
+			int bv = this.inBlossom[v];
+			int bw = this.inBlossom[w];
+			int b = this.unusedBlossoms[--this.unusedCount];
+			this.blossomBase[b] = base_p;
+			this.blossomParent[b] = -1;
+			this.blossomParent[bb] = b;
+			java.util.ArrayList<Integer> path = new java.util.ArrayList<Integer>();
+			java.util.ArrayList<Integer> endps = new java.util.ArrayList<Integer>();
+			while (bv!=bb) {
+				this.blossomParent[bv] = b;
+				path.add(Integer.valueOf(bv));
+				endps.add(Integer.valueOf(this.labelEnd[bv]));
+				v = this.endpoint[this.labelEnd[bv]];
+				bv = this.inBlossom[v];
+			}
+			path.add(Integer.valueOf(bb));
+			java.util.Collections.reverse(path);
+			java.util.Collections.reverse(endps);
+			endps.add(Integer.valueOf(2*k_p));
+			while (bw!=bb) {
+				this.blossomParent[bw] = b;
+				path.add(Integer.valueOf(bw));
+				endps.add(Integer.valueOf(this.labelEnd[bw] ^ 1));
+				w = this.endpoint[this.labelEnd[bw]];
+				bw = this.inBlossom[w];
+			}
+			int [] childs = new int [path.size()];
+			int [] endpList = new int [endps.size()];
+			for (int i=0; i<childs.length; i++) childs[i] = path.get(i).intValue();
+			for (int i=0; i<endpList.length; i++) endpList[i] = endps.get(i).intValue();
+			this.blossomChilds[b] = childs;
+			this.blossomEndps[b] = endpList;
+			this.label[b] = 1;
+			this.labelEnd[b] = this.labelEnd[bb];
+			this.dualVar[b] = 0;
+			int [] leafList = leaves(b);
+			for (int i=0; i<leafList.length; i++) {
+				if (this.label[this.inBlossom[leafList[i]]]==2) enqueue(leafList[i]);
+				this.inBlossom[leafList[i]] = b;
+			}
+			
+			// best edges to the other S blossoms
+			int [] bestEdgeTo = new int [2*this.n];
+			java.util.Arrays.fill(bestEdgeTo, -1);
+			for (int c=0; c<childs.length; c++) {
+				int cb = childs[c];
+				if (this.blossomBestEdges[cb]==null) {
+					int [] cLeaves = leaves(cb);
+					for (int i=0; i<cLeaves.length; i++) {
+						for (int q=this.neighbStart[cLeaves[i]]; q<this.neighbStart[cLeaves[i]+1]; q++) {
+							updateBestEdgeTo (bestEdgeTo, b, this.neighbEnd[q]>>1);
+						}
+					}
+				}
+				else {
+					int [] nbList = this.blossomBestEdges[cb];
+					for (int i=0; i<nbList.length; i++) updateBestEdgeTo (bestEdgeTo, b, nbList[i]);
+				}
+				this.blossomBestEdges[cb] = null;
+				this.bestEdge[cb] = -1;
+			}
+			int count = 0;
+			for (int i=0; i<bestEdgeTo.length; i++) {
+				if (bestEdgeTo[i]!=-1) count++;
+			}
+			int [] bestList = new int [count];
+			count = 0;
+			for (int i=0; i<bestEdgeTo.length; i++) {
+				if (bestEdgeTo[i]!=-1) bestList[count++] = bestEdgeTo[i];
+			}
+			this.blossomBestEdges[b] = bestList;
+			this.bestEdge[b] = -1;
+			for (int i=0; i<bestList.length; i++) {
+				if (this.bestEdge[b]==-1 || slack(bestList[i])<slack(this.bestEdge[b])) this.bestEdge[b] = bestList[i];
+			}
+		}
+		
+		private void updateBestEdgeTo (int [] bestEdgeTo_p, int b_p, int k_p) {
+			int j = this.edgeTo[k_p];
+			if (this.inBlossom[j]==b_p) j = this.edgeFrom[k_p];
+			int bj = this.inBlossom[j];
+			if (bj!=b_p && this.label[bj]==1 && (bestEdgeTo_p[bj]==-1 || slack(k_p)<slack(bestEdgeTo_p[bj]))) {
+				bestEdgeTo_p[bj] = k_p;
+			}
+		}
+		
+		private void expandBlossom (int b_p, boolean endStage_p) {
+			int [] childs = this.blossomChilds[b_p];
+			for (int i=0; i<childs.length; i++) {
+				int s = childs[i];
+				this.blossomParent[s] = -1;
+				if (s<this.n) this.inBlossom[s] = s;
+				else if (endStage_p && this.dualVar[s]==0) expandBlossom (s, endStage_p);
+				else {
+					int [] leafList = leaves(s);
+					for (int j=0; j<leafList.length; j++) this.inBlossom[leafList[j]] = s;
+				}
+			}
+			if (!endStage_p && this.label[b_p]==2) {
+				// relabels the sub-blossoms on the even path from the entry child to the base
+				int [] endps = this.blossomEndps[b_p];
+				int entryChild = this.inBlossom[this.endpoint[this.labelEnd[b_p] ^ 1]];
+				int j = indexOf(childs, entryChild);
+				int jStep, endpTrick;
+				if ((j & 1)!=0) {
+					j -= childs.length;
+					jStep = 1;
+					endpTrick = 0;
+				}
+				else {
+					jStep = -1;
+					endpTrick = 1;
+				}
+				int p = this.labelEnd[b_p];
+				while (j!=0) {
+					this.label[this.endpoint[p ^ 1]] = 0;
+					this.label[this.endpoint[at(endps, j-endpTrick) ^ endpTrick ^ 1]] = 0;
+					assignLabel (this.endpoint[p ^ 1], 2, p);
+					this.allowEdge[at(endps, j-endpTrick)>>1] = true;
+					j += jStep;
+					p = at(endps, j-endpTrick) ^ endpTrick;
+					this.allowEdge[p>>1] = true;
+					j += jStep;
+				}
+				int bv = at(childs, j);
+				this.label[this.endpoint[p ^ 1]] = this.label[bv] = 2;
+				this.labelEnd[this.endpoint[p ^ 1]] = this.labelEnd[bv] = p;
+				this.bestEdge[bv] = -1;
+				j += jStep;
+				while (at(childs, j)!=entryChild) {
+					bv = at(childs, j);
+					if (this.label[bv]==1) {
+						j += jStep;
+						continue;
+					}
+					int [] leafList = leaves(bv);
+					int v = -1;
+					for (int i=0; i<leafList.length; i++) {
+						if (this.label[leafList[i]]!=0) {
+							v = leafList[i];
+							break;
+						}
+					}
+					if (v>=0) {
+						this.label[v] = 0;
+						this.label[this.endpoint[this.mate[this.blossomBase[bv]]]] = 0;
+						assignLabel (v, 2, this.labelEnd[v]);
+					}
+					j += jStep;
+				}
+			}
+			this.label[b_p] = this.labelEnd[b_p] = -1;
+			this.blossomChilds[b_p] = this.blossomEndps[b_p] = null;
+			this.blossomBase[b_p] = -1;
+			this.blossomBestEdges[b_p] = null;
+			this.bestEdge[b_p] = -1;
+			this.unusedBlossoms[this.unusedCount++] = b_p;
+		}
+		
+		/*
+		 * swaps matched and unmatched edges on the path through blossom b from vertex v to the base.
+		 */
+		private void augmentBlossom (int b_p, int v_p) {
+			int t = v_p;
+			while (this.blossomParent[t]!=b_p) t = this.blossomParent[t];
+			if (t>=this.n) augmentBlossom (t, v_p);
+			int [] childs = this.blossomChilds[b_p];
+			int [] endps = this.blossomEndps[b_p];
+			int i = indexOf(childs, t);
+			int j = i;
+			int jStep, endpTrick;
+			if ((i & 1)!=0) {
+				j -= childs.length;
+				jStep = 1;
+				endpTrick = 0;
+			}
+			else {
+				jStep = -1;
+				endpTrick = 1;
+			}
+			while (j!=0) {
+				j += jStep;
+				t = at(childs, j);
+				int p = at(endps, j-endpTrick) ^ endpTrick;
+				if (t>=this.n) augmentBlossom (t, this.endpoint[p]);
+				j += jStep;
+				t = at(childs, j);
+				if (t>=this.n) augmentBlossom (t, this.endpoint[p ^ 1]);
+				this.mate[this.endpoint[p]] = p ^ 1;
+				this.mate[this.endpoint[p ^ 1]] = p;
+			}
+			// rotates the child list so the new base comes first
+			int len = childs.length;
+			int [] newChilds = new int [len];
+			int [] newEndps = new int [len];
+			for (int k=0; k<len; k++) {
+				newChilds[k] = childs[(i+k)%len];
+				newEndps[k] = endps[(i+k)%len];
+			}
+			this.blossomChilds[b_p] = newChilds;
+			this.blossomEndps[b_p] = newEndps;
+			this.blossomBase[b_p] = this.blossomBase[newChilds[0]];
+		}
+		
+		private void augmentMatching (int k_p) {
+			int [] sList = { this.edgeFrom[k_p], this.edgeTo[k_p] };
+			int [] pList = { 2*k_p+1, 2*k_p };
+			for (int i=0; i<2; i++) {
+				int s = sList[i];
+				int p = pList[i];
+				while (true) {
+					int bs = this.inBlossom[s];
+					if (bs>=this.n) augmentBlossom (bs, s);
+					this.mate[s] = p;
+					if (this.labelEnd[bs]==-1) break;
+					int t = this.endpoint[this.labelEnd[bs]];
+					int bt = this.inBlossom[t];
+					s = this.endpoint[this.labelEnd[bt]];
+					int j = this.endpoint[this.labelEnd[bt] ^ 1];
+					if (bt>=this.n) augmentBlossom (bt, j);
+					this.mate[j] = this.labelEnd[bt];
+					p = this.labelEnd[bt] ^ 1;
+				}
+			}
+		}
+		
+		int [] solve () {
+			int n2 = 2*this.n;
+			this.mate = new int [this.n];
+			java.util.Arrays.fill(this.mate, -1);
+			if (this.m==0) return this.mate;
+			long maxWeight = 0;
+			for (int k=0; k<this.m; k++) maxWeight = Math.max(maxWeight, this.weight[k]);
+			this.endpoint = new int [2*this.m];
+			this.neighbStart = new int [this.n+1];
+			for (int k=0; k<this.m; k++) {
+				this.endpoint[2*k] = this.edgeFrom[k];
+				this.endpoint[2*k+1] = this.edgeTo[k];
+				this.neighbStart[this.edgeFrom[k]+1]++;
+				this.neighbStart[this.edgeTo[k]+1]++;
+			}
+			for (int v=0; v<this.n; v++) this.neighbStart[v+1] += this.neighbStart[v];
+			this.neighbEnd = new int [2*this.m];
+			int [] pos = java.util.Arrays.copyOf(this.neighbStart, this.n);
+			for (int k=0; k<this.m; k++) {
+				this.neighbEnd[pos[this.edgeFrom[k]]++] = 2*k+1;
+				this.neighbEnd[pos[this.edgeTo[k]]++] = 2*k;
+			}
+			this.label = new int [n2];
+			this.labelEnd = new int [n2];
+			java.util.Arrays.fill(this.labelEnd, -1);
+			this.inBlossom = new int [this.n];
+			for (int v=0; v<this.n; v++) this.inBlossom[v] = v;
+			this.blossomParent = new int [n2];
+			java.util.Arrays.fill(this.blossomParent, -1);
+			this.blossomChilds = new int [n2][];
+			this.blossomBase = new int [n2];
+			for (int v=0; v<n2; v++) this.blossomBase[v] = (v<this.n)? v: -1;
+			this.blossomEndps = new int [n2][];
+			this.bestEdge = new int [n2];
+			java.util.Arrays.fill(this.bestEdge, -1);
+			this.blossomBestEdges = new int [n2][];
+			this.unusedBlossoms = new int [this.n];
+			for (int i=0; i<this.n; i++) this.unusedBlossoms[i] = n2-1-i;
+			this.unusedCount = this.n;
+			this.dualVar = new long [n2];
+			for (int v=0; v<this.n; v++) this.dualVar[v] = maxWeight;
+			this.allowEdge = new boolean [this.m];
+			this.queue = new int [this.n];
+			this.leafBuf = new int [this.n];
+			
+			for (int stage=0; stage<this.n; stage++) {
+				java.util.Arrays.fill(this.label, 0);
+				java.util.Arrays.fill(this.bestEdge, -1);
+				for (int b=this.n; b<n2; b++) this.blossomBestEdges[b] = null;
+				java.util.Arrays.fill(this.allowEdge, false);
+				this.queueSize = 0;
+				for (int v=0; v<this.n; v++) {
+					if (this.mate[v]==-1 && this.label[this.inBlossom[v]]==0) assignLabel (v, 1, -1);
+				}
+				boolean augmented = false;
+				while (true) {
+					while (this.queueSize>0 && !augmented) {
+						int v = this.queue[--this.queueSize];
+						for (int q=this.neighbStart[v]; q<this.neighbStart[v+1]; q++) {
+							int p = this.neighbEnd[q];
+							int k = p>>1;
+							int w = this.endpoint[p];
+							if (this.inBlossom[v]==this.inBlossom[w]) continue;
+							long kSlack = 0;
+							if (!this.allowEdge[k]) {
+								kSlack = slack(k);
+								if (kSlack<=0) this.allowEdge[k] = true;
+							}
+							if (this.allowEdge[k]) {
+								if (this.label[this.inBlossom[w]]==0) assignLabel (w, 2, p ^ 1);
+								else if (this.label[this.inBlossom[w]]==1) {
+									int base = scanBlossom (v, w);
+									if (base>=0) addBlossom (base, k);
+									else {
+										augmentMatching (k);
+										augmented = true;
+										break;
+									}
+								}
+								else if (this.label[w]==0) {
+									this.label[w] = 2;
+									this.labelEnd[w] = p ^ 1;
+								}
+							}
+							else if (this.label[this.inBlossom[w]]==1) {
+								int b = this.inBlossom[v];
+								if (this.bestEdge[b]==-1 || kSlack<slack(this.bestEdge[b])) this.bestEdge[b] = k;
+							}
+							else if (this.label[w]==0) {
+								if (this.bestEdge[w]==-1 || kSlack<slack(this.bestEdge[w])) this.bestEdge[w] = k;
+							}
+						}
+					}
+					if (augmented) break;
+					
+					// dual adjustment
+					int deltaType = -1;
+					long delta = 0;
+					int deltaEdge = -1, deltaBlossom = -1;
+					if (!this.maxCardinality) {
+						deltaType = 1;
+						delta = Long.MAX_VALUE;
+						for (int v=0; v<this.n; v++) delta = Math.min(delta, this.dualVar[v]);
+					}
+					for (int v=0; v<this.n; v++) {
+						if (this.label[this.inBlossom[v]]==0 && this.bestEdge[v]!=-1) {
+							long d = slack(this.bestEdge[v]);
+							if (deltaType==-1 || d<delta) {
+								delta = d;
+								deltaType = 2;
+								deltaEdge = this.bestEdge[v];
+							}
+						}
+					}
+					for (int b=0; b<n2; b++) {
+						if (this.blossomParent[b]==-1 && this.label[b]==1 && this.bestEdge[b]!=-1) {
+							long d = slack(this.bestEdge[b])/2;
+							if (deltaType==-1 || d<delta) {
+								delta = d;
+								deltaType = 3;
+								deltaEdge = this.bestEdge[b];
+							}
+						}
+					}
+					for (int b=this.n; b<n2; b++) {
+						if (this.blossomBase[b]>=0 && this.blossomParent[b]==-1 && this.label[b]==2 &&
+							(deltaType==-1 || this.dualVar[b]<delta)) {
+							delta = this.dualVar[b];
+							deltaType = 4;
+							deltaBlossom = b;
+						}
+					}
+					if (deltaType==-1) {
+						// no further improvement possible for max cardinality, final dual update
+						deltaType = 1;
+						delta = Long.MAX_VALUE;
+						for (int v=0; v<this.n; v++) delta = Math.min(delta, this.dualVar[v]);
+						delta = Math.max(0, delta);
+					}
+					for (int v=0; v<this.n; v++) {
+						int lb = this.label[this.inBlossom[v]];
+						if (lb==1) this.dualVar[v] -= delta;
+						else if (lb==2) this.dualVar[v] += delta;
+					}
+					for (int b=this.n; b<n2; b++) {
+						if (this.blossomBase[b]>=0 && this.blossomParent[b]==-1) {
+							if (this.label[b]==1) this.dualVar[b] += delta;
+							else if (this.label[b]==2) this.dualVar[b] -= delta;
+						}
+					}
+					if (deltaType==1) break;
+					else if (deltaType==2) {
+						this.allowEdge[deltaEdge] = true;
+						int i = this.edgeFrom[deltaEdge];
+						if (this.label[this.inBlossom[i]]==0) i = this.edgeTo[deltaEdge];
+						enqueue (i);
+					}
+					else if (deltaType==3) {
+						this.allowEdge[deltaEdge] = true;
+						enqueue (this.edgeFrom[deltaEdge]);
+					}
+					else expandBlossom (deltaBlossom, false);
+				}
+				if (!augmented) break;
+				
+				// expands the S blossoms with zero dual at the end of the stage
+				for (int b=this.n; b<n2; b++) {
+					if (this.blossomParent[b]==-1 && this.blossomBase[b]>=0 && this.label[b]==1 && this.dualVar[b]==0) {
+						expandBlossom (b, true);
+					}
+				}
+			}
+			for (int v=0; v<this.n; v++) {
+				if (this.mate[v]>=0) this.mate[v] = this.endpoint[this.mate[v]];
+			}
+			return this.mate;
+		}
+	}
 }
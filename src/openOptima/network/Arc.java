@@ -146,7 +146,10 @@ public class Arc extends Edge {
 	 * Sets the distance of this arc.
 	 * @param dist_p distance
 	 */
-	public void setDist (double dist_p) { this.dist = dist_p; }
+	public void setDist (double dist_p) { 
+		if (this.dist!=dist_p) this.modified();
+		this.dist = dist_p; 
+	}
 	
 	/**
 	 * Returns the distance of this arc.
@@ -172,7 +175,8 @@ public class Arc extends Edge {
 	 * @return distancce
 	 */
 	public double addDist (double deltaDist_p) {
-		this.dist =+ deltaDist_p;
+		if (deltaDist_p!=0) this.modified();
+		this.dist += deltaDist_p;
 		return this.dist;
 	}
 
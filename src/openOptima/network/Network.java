@@ -24,6 +24,7 @@ package openOptima.network;
 
 import openOptima.graph.Graph;
 import openOptima.graph.Vertex;
+import openOptima.reader.ArcTable;
 
 /**
  * Network containing arcs and nodes.
@@ -82,6 +83,21 @@ public class Network extends Graph {
 		}
 	}
 	
+	/**
+	 * Adds all arcs of the table to this network in one batch, see 
+	 * {@link openOptima.reader.ProblemReader#execReadParallelFile(String, String, openOptima.reader.ArcSchema, int)}.
+	 * @param tableObj_p arcs
+	 */
+	public void addArcs (ArcTable tableObj_p) {
+		java.util.ArrayList arcList = new java.util.ArrayList(tableObj_p.size());
+		for (int i=0; i<tableObj_p.size(); i++) {
+			Node fromNodeObj = addNode(tableObj_p.getSource(i));
+			Node toNodeObj = addNode(tableObj_p.getTarget(i));
+			arcList.add(new Arc (fromNodeObj, toNodeObj, tableObj_p.getDistance(i), tableObj_p.isDirected(i)));
+		}
+		this.addArcs(arcList);
+	}
+	
 	/**
 	 * returns # of edge instances including the repeating of the edges excluding inactive
 	 * edges (edgeCount &lt; 0).
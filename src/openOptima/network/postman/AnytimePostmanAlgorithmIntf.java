@@ -0,0 +1,59 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ * 
+ * This library is free software; you can redistribute it and/or modify it under the 
+ * terms of the GNU Lesser General Public License as published by the Free Software 
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with 
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place, 
+ * Suite 330, Boston, MA 02111-1307 USA 
+ * 
+ * @author Yaxiong Lin
+ * @version 1.0
+ * 
+ */
+package openOptima.network.postman;
+
+/**
+ * Postman algorithm that can be given a time and/or iteration budget.  Once the budget is
+ * used up the optimization is not abandoned: the remaining node imbalances are removed by a
+ * fast greedy completion so a feasible (but not necessarily optimal) tour is still returned,
+ * together with a lower bound on the optimal tour distance to judge its quality.
+ * @author Yaxiong Lin
+ *
+ */
+public interface AnytimePostmanAlgorithmIntf extends PostmanAlgorithmIntf {
+
+	/**
+	 * sets the budget for the next optimization.
+	 * @param millis_p max milliseconds the optimization may take before it is completed greedily, 0 for no limit
+	 * @param maxIterations_p max number of iterations before the optimization is completed greedily, 0 for no limit
+	 */
+	public void setBudget (long millis_p, long maxIterations_p);
+
+	/**
+	 * @return true if the last optimization ran out of its budget and was completed greedily
+	 */
+	public boolean isBudgetExhausted ();
+
+	/**
+	 * @return milliseconds left of the time budget, -1 if no time budget is set
+	 */
+	public long getRemainingMillis ();
+
+	/**
+	 * @return lower bound of the optimal postman tour distance found by the last optimization
+	 */
+	public double getLowerBound ();
+
+	/**
+	 * @return relative gap between the postman tour found and the lower bound, (dist - bound) / dist
+	 */
+	public double getOptimalityGap ();
+}
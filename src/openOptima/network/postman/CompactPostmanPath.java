@@ -0,0 +1,219 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ * 
+ * This library is free software; you can redistribute it and/or modify it under the 
+ * terms of the GNU Lesser General Public License as published by the Free Software 
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with 
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place, 
+ * Suite 330, Boston, MA 02111-1307 USA 
+ * 
+ * @author Yaxiong Lin
+ * @version 1.0
+ * 
+ */
+package openOptima.network.postman;
+
+import openOptima.graph.Edge;
+import openOptima.graph.GraphIndex;
+import openOptima.graph.Vertex;
+import openOptima.graph.euler.EulerTourListenerIntf;
+import openOptima.network.Node;
+
+/**
+ * Compact postman path for long tours kept in large numbers.  The arcs are numbered by a
+ * GraphIndex of the network shared by all the paths and each step is stored as the half
+ * edge traversed (2e forward along arc e, 2e+1 backward along an undirected arc e).  The
+ * difference to the previous step is written as a variable length integer (zigzag, 7 bits a
+ * byte), a step of a tour on a network of a few thousand arcs takes about two bytes instead
+ * of a list entry and an arc reference.
+ * <p>
+ * The distance of the path is added up as the steps are appended: the first traverse of an
+ * arc at its distance, the others at the repeat distance, in the direction traversed (as
+ * PostmanPath.getPathDist()).  The arcs already traversed are tracked in a bit set of the arcs
+ * of the index while the path is built, call trimToSize() once it is complete to release it.
+ * <p>
+ * The path can be built while an Euler tour is streamed, it is an EulerTourListenerIntf.
+ * @author Yaxiong Lin
+ *
+ */
+public class CompactPostmanPath implements EulerTourListenerIntf {
+	private GraphIndex idx;
+	private int startNode;
+	private int curNode;
+	private byte [] steps = new byte [16];
+	private int byteCount = 0;
+	private int stepCount = 0;
+	private int lastHalf = 0;
+	private java.util.BitSet traversed;
+	private int arcCount = 0;
+	private double firstDist = 0;
+	private double repeatDist = 0;
+
+	/**
+	 * Constructor for an empty path to be built with append().
+	 * @param idx_p index of the postman network
+	 * @param startNode_p node the path starts at
+	 * @throws IllegalArgumentException if the node is not in the index
+	 */
+	public CompactPostmanPath (GraphIndex idx_p, Node startNode_p) {
+		this.idx = idx_p;
+		this.startNode = idx_p.getVertexIdx(startNode_p);
+		if (this.startNode<0) throw new IllegalArgumentException ("Node not in the index: " + startNode_p);
+		this.curNode = this.startNode;
+		this.traversed = new java.util.BitSet (idx_p.getEdgeCount());
+	}
+
+	/**
+	 * Constructor, encodes the postman path.
+	 * @param idx_p index of the postman network
+	 * @param pathObj_p postman path, not empty
+	 * @throws IllegalArgumentException if the arcs are not in the index or do not form a walk
+	 */
+	public CompactPostmanPath (GraphIndex idx_p, PostmanPath pathObj_p) {
+		this (idx_p, pathObj_p.getPathStartNode());
+		java.util.List pathArcs = pathObj_p.getPathArcList();
+		for (int i=0; i<pathArcs.size(); i++) this.append((PostmanArc) pathArcs.get(i));
+		this.trimToSize();
+	}
+
+	/**
+	 * appends the arc to the path, an undirected arc is traversed from the node the path is at.
+	 * @param arcObj_p arc
+	 * @throws IllegalArgumentException if the arc is not in the index or does not leave the node the path is at
+	 * @throws IllegalStateException if the path has been trimmed
+	 */
+	public void append (PostmanArc arcObj_p) {
+		int e = this.idx.getEdgeIdx(arcObj_p);
+		if (e<0) throw new IllegalArgumentException ("Arc not in the index: " + arcObj_p);
+		if (this.idx.getEdgeFrom(e)==this.curNode) this.appendHalf(2*e);
+		else if (!arcObj_p.isDirected() && this.idx.getEdgeTo(e)==this.curNode) this.appendHalf(2*e+1);
+		else throw new IllegalArgumentException ("Arc " + arcObj_p + " does not start at " + this.idx.getVertex(this.curNode));
+	}
+
+	/**
+	 * appends the arc streamed, see HierholzerAlgorithm.streamEulerPath().
+	 */
+	public boolean edgeTraversed (Edge edgeObj_p, Vertex fromVertex_p) {
+		this.append((PostmanArc) edgeObj_p);
+		return true;
+	}
+
+	private void appendHalf (int half_p) {
+		if (this.traversed==null) throw new IllegalStateException ("Path trimmed, no arcs can be appended.");
+		int e = half_p>>1;
+		PostmanArc arcObj = (PostmanArc) this.idx.getEdge(e);
+		boolean repeat = this.traversed.get(e);
+		if (repeat) this.repeatDist += arcObj.getDist((half_p&1)==0, true);
+		else {
+			this.firstDist += arcObj.getDist((half_p&1)==0, false);
+			this.traversed.set(e);
+			this.arcCount++;
+		}
+
+		int delta = half_p - this.lastHalf;
+		int value = (delta<<1) ^ (delta>>31);
+		if (this.byteCount+5>this.steps.length) this.steps = java.util.Arrays.copyOf(this.steps, this.steps.length*2);
+		while ((value & ~0x7F)!=0) {
+			this.steps[this.byteCount++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		this.steps[this.byteCount++] = (byte) value;
+		this.lastHalf = half_p;
+		this.stepCount++;
+		this.curNode = this.idx.headOf(half_p);
+	}
+
+	/**
+	 * releases the memory only needed while the path is built, no arcs can be appended afterwards.
+	 */
+	public void trimToSize () {
+		this.steps = java.util.Arrays.copyOf(this.steps, this.byteCount);
+		this.traversed = null;
+	}
+
+	/**
+	 * returns the half edges of the steps in the order traversed: 2e forward along arc e of
+	 * the index, 2e+1 backward.
+	 * @return half edges
+	 */
+	public int [] getHalfs () {
+		int [] retList = new int [this.stepCount];
+		int half = 0;
+		int pos = 0;
+		for (int i=0; i<this.stepCount; i++) {
+			int value = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = this.steps[pos++];
+				value |= (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80)!=0);
+			half += (value>>>1) ^ -(value & 1);
+			retList[i] = half;
+		}
+		return retList;
+	}
+
+	/**
+	 * Returns the arcs of the path in an array list.
+	 * @return list of arcs
+	 */
+	public java.util.ArrayList getPathArcs () {
+		int [] halfs = this.getHalfs();
+		java.util.ArrayList retList = new java.util.ArrayList (halfs.length);
+		for (int i=0; i<halfs.length; i++) retList.add(this.idx.getEdge(halfs[i]>>1));
+		return retList;
+	}
+
+	/**
+	 * @return the path as a PostmanPath
+	 */
+	public PostmanPath toPostmanPath () {
+		PostmanPath pathObj = new PostmanPath ();
+		pathObj.setPathArcs(this.getPathArcs());
+		return pathObj;
+	}
+
+	/**
+	 * @return node the path starts at
+	 */
+	public Node getPathStartNode () { return (Node) this.idx.getVertex(this.startNode); }
+
+	/**
+	 * @return total distance of the path, the first traverses and the repeats
+	 */
+	public double getPathDist () { return this.firstDist + this.repeatDist; }
+
+	/**
+	 * @return distance of the first traverses of the arcs
+	 */
+	public double getFirstDist () { return this.firstDist; }
+
+	/**
+	 * @return distance of the repeated traverses of the arcs
+	 */
+	public double getRepeatDist () { return this.repeatDist; }
+
+	/**
+	 * @return number of steps (arc traverses) in the path
+	 */
+	public int size () { return this.stepCount; }
+
+	/**
+	 * @return number of distinct arcs traversed
+	 */
+	public int getArcCount () { return this.arcCount; }
+
+	/**
+	 * @return number of bytes the steps are encoded in
+	 */
+	public int getEncodedSize () { return this.byteCount; }
+}
@@ -0,0 +1,152 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ * 
+ * This library is free software; you can redistribute it and/or modify it under the 
+ * terms of the GNU Lesser General Public License as published by the Free Software 
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with 
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place, 
+ * Suite 330, Boston, MA 02111-1307 USA 
+ * 
+ * @author Yaxiong Lin
+ * @version 1.0
+ * 
+ */
+package openOptima.network.postman;
+
+import openOptima.NoSolutionException;
+import openOptima.graph.GraphIndex;
+
+/**
+ * Builds the Euler tour (Hierholzer) of a multigraph given by the number of times each edge
+ * of a graph index is traversed.  An undirected edge may have copies with a fixed direction
+ * (forward from the from vertex, backward from the to vertex) and free copies that may be
+ * traversed in either direction.  A directed edge is traversed forward only.
+ * <p>
+ * The tour exists if the copies with a fixed direction are balanced at every vertex (as many
+ * in as out), every vertex has an even number of free copies and all copies are connected.
+ * @author Yaxiong Lin
+ *
+ */
+public class EulerTourBuilder {
+	private GraphIndex idx;
+	private int [] forwardCount;
+	private int [] backwardCount;
+	private int [] freeCount;
+
+	/**
+	 * Constructor.  The count arrays are copied, missing arrays (null) are taken as all zero.
+	 * @param idx_p graph index
+	 * @param forwardCount_p number of traverses of each edge from its from vertex to its to vertex
+	 * @param backwardCount_p number of traverses of each undirected edge from its to vertex to its from vertex
+	 * @param freeCount_p number of traverses of each undirected edge in either direction
+	 */
+	public EulerTourBuilder (GraphIndex idx_p, int [] forwardCount_p, int [] backwardCount_p, int [] freeCount_p) {
+		int m = idx_p.getEdgeCount();
+		this.idx = idx_p;
+		this.forwardCount = (forwardCount_p==null)? new int [m]: forwardCount_p.clone();
+		this.backwardCount = (backwardCount_p==null)? new int [m]: backwardCount_p.clone();
+		this.freeCount = (freeCount_p==null)? new int [m]: freeCount_p.clone();
+	}
+	
+	/*
+	 * number of traverses left through the half edge.
+	 */
+	private boolean available (int half_p) {
+		int e = half_p>>1;
+		if (this.freeCount[e]>0) return true;
+		return ((half_p&1)==0)? this.forwardCount[e]>0: this.backwardCount[e]>0;
+	}
+	
+	private void use (int half_p) {
+		int e = half_p>>1;
+		if ((half_p&1)==0 && this.forwardCount[e]>0) this.forwardCount[e]--;
+		else if ((half_p&1)!=0 && this.backwardCount[e]>0) this.backwardCount[e]--;
+		else this.freeCount[e]--;
+	}
+	
+	/*
+	 * gives the free copies a direction by walking closed trails on the free copies only, each
+	 * trail adds one in and one out at every vertex it passes.  A walk on the free copies and the
+	 * copies with a fixed direction together could get stuck when it leaves a vertex through a free
+	 * copy after entering it through a fixed one.
+	 */
+	private void orientFreeCopies () throws NoSolutionException {
+		int [] outHalfs = this.idx.getOutHalfs();
+		int [] ptr = new int [this.idx.getVertexCount()];
+		for (int v=0; v<ptr.length; v++) ptr[v] = this.idx.getOutStart(v);
+		for (int s=0; s<ptr.length; s++) {
+			while (true) {
+				int v = s;
+				do {
+					while (ptr[v]<this.idx.getOutStart(v+1) && this.freeCount[outHalfs[ptr[v]]>>1]<=0) ptr[v]++;
+					if (ptr[v]>=this.idx.getOutStart(v+1)) break;
+					int h = outHalfs[ptr[v]];
+					this.freeCount[h>>1]--;
+					if ((h&1)==0) this.forwardCount[h>>1]++;
+					else this.backwardCount[h>>1]++;
+					v = this.idx.headOf(h);
+				} while (v!=s);
+				if (v!=s) throw new NoSolutionException ("Euler tour does not exist, odd number of undirected traverses at " + this.idx.getVertex(v));
+				if (ptr[s]>=this.idx.getOutStart(s+1)) break;
+			}
+		}
+	}
+	
+	/**
+	 * returns the arcs of the Euler tour starting and ending at the start vertex.  The counts are
+	 * used up, a builder returns one tour only.
+	 * @param startVertex_p dense id of the start vertex
+	 * @return list of edges in the order traversed
+	 * @throws NoSolutionException if the tour does not exist or does not pass through the start vertex
+	 */
+	public java.util.ArrayList getTour (int startVertex_p) throws NoSolutionException {
+		int m = this.idx.getEdgeCount();
+		orientFreeCopies ();
+		long total = 0;
+		for (int e=0; e<m; e++) total += this.forwardCount[e] + this.backwardCount[e] + this.freeCount[e];
+		if (total>Integer.MAX_VALUE) throw new NoSolutionException ("Euler tour too long: " + total);
+		int [] ptr = new int [this.idx.getVertexCount()];
+		for (int v=0; v<ptr.length; v++) ptr[v] = this.idx.getOutStart(v);
+		int [] outHalfs = this.idx.getOutHalfs();
+		int [] stackVertex = new int [(int) total+1];
+		int [] stackHalf = new int [(int) total+1];
+		int [] tour = new int [(int) total];
+		int tourSize = 0;
+		int top = 0;
+		stackVertex[top] = startVertex_p;
+		stackHalf[top++] = -1;
+		while (top>0) {
+			int v = stackVertex[top-1];
+			while (ptr[v]<this.idx.getOutStart(v+1) && !available(outHalfs[ptr[v]])) ptr[v]++;
+			if (ptr[v]<this.idx.getOutStart(v+1)) {
+				int h = outHalfs[ptr[v]];
+				use (h);
+				stackVertex[top] = this.idx.headOf(h);
+				stackHalf[top++] = h;
+			}
+			else {
+				top--;
+				if (stackHalf[top]>=0) tour[tourSize++] = stackHalf[top];
+			}
+		}
+		if (tourSize<total) throw new NoSolutionException ("Euler tour does not exist, " + (total-tourSize) + " traverses are not connected to the start vertex.");
+		
+		// the half edges are in reverse order, a walk stuck away from the start shows as a break
+		java.util.ArrayList retList = new java.util.ArrayList (tourSize);
+		int v = startVertex_p;
+		for (int i=tourSize-1; i>=0; i--) {
+			if (this.idx.tailOf(tour[i])!=v) throw new NoSolutionException ("Euler tour does not exist, the traverses are not balanced.");
+			v = this.idx.headOf(tour[i]);
+			retList.add(this.idx.getEdge(tour[i]>>1));
+		}
+		if (v!=startVertex_p) throw new NoSolutionException ("Euler tour does not exist, the traverses are not balanced.");
+		return retList;
+	}
+}
@@ -0,0 +1,62 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ * 
+ * This library is free software; you can redistribute it and/or modify it under the 
+ * terms of the GNU Lesser General Public License as published by the Free Software 
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with 
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place, 
+ * Suite 330, Boston, MA 02111-1307 USA 
+ * 
+ * @author Yaxiong Lin
+ * @version 1.0
+ * 
+ */
+package openOptima.network.postman;
+
+import openOptima.NoSolutionException;
+import openOptima.NotImplementedException;
+
+/**
+ * Postman algorithm that can re-optimize after small changes to the network starting from the
+ * flows and dual variables of the previous solution.  The changes are reported after they have
+ * been made to the network, and the next getPostmanPath() or reoptimize() repairs only the
+ * node imbalances and the arcs affected by the changes.
+ * @author Yaxiong Lin
+ *
+ */
+public interface IncrementalPostmanAlgorithmIntf extends PostmanAlgorithmIntf {
+
+	/**
+	 * reports the arc has been added to the network.
+	 * @param arcObj_p arc
+	 * @throws NotImplementedException if the algorithm does not support this type of arc
+	 */
+	public void arcAdded (PostmanArc arcObj_p) throws NotImplementedException;
+
+	/**
+	 * reports the arc has been removed from the network.
+	 * @param arcObj_p arc
+	 */
+	public void arcRemoved (PostmanArc arcObj_p);
+
+	/**
+	 * reports the distance or the min/max traverse count of the arc has been changed.
+	 * @param arcObj_p arc
+	 */
+	public void arcUpdated (PostmanArc arcObj_p);
+
+	/**
+	 * re-optimizes the postman tour after the changes reported, or optimizes it from scratch
+	 * if it has not been optimized.
+	 * @throws NoSolutionException no solution
+	 * @throws InterruptedException interrupted
+	 */
+	public void reoptimize () throws NoSolutionException, InterruptedException;
+}
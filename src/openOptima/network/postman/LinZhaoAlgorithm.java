@@ -32,13 +32,19 @@ package openOptima.network.postman;
 import openOptima.AlgorithmTask;
 import openOptima.NoSolutionException;
 import openOptima.NotImplementedException;
+import openOptima.ObjectFactory;
 import openOptima.PerformanceStatIntf;
 import openOptima.graph.Vertex;
+import openOptima.graph.euler.EulerPathAlgorithmIntf;
+import openOptima.graph.euler.EulerTour;
+import openOptima.graph.euler.EulerTourListenerIntf;
+import openOptima.graph.euler.HierholzerAlgorithm;
 import openOptima.graph.euler.LinAlgorithm;
 import openOptima.network.Arc;
 import openOptima.network.Node;
-import openOptima.network.shortestpath.DijkstraAlgorithm;
-import openOptima.network.shortestpath.ShortestPath;
+import openOptima.network.shortestpath.IndexedMinHeap;
+import openOptima.network.shortestpath.RamalingamRepsAlgorithm;
+import openOptima.network.tree.DisjointSet;
 
 
 /**
@@ -53,7 +59,7 @@ import openOptima.network.shortestpath.ShortestPath;
  * @version 1.0
  * 
  */
-public class LinZhaoAlgorithm extends AlgorithmTask implements PostmanAlgorithmIntf, PerformanceStatIntf {
+public class LinZhaoAlgorithm extends AlgorithmTask implements IncrementalPostmanAlgorithmIntf, StreamingPostmanAlgorithmIntf, PerformanceStatIntf {
 
 	public static final String version = "1.2.001";
 	/**
@@ -72,12 +78,42 @@ public class LinZhaoAlgorithm extends AlgorithmTask implements PostmanAlgorithmI
 	protected int iterationCount=0;
 	
 	protected boolean debugging = false;
+
+	/**
+	 * builds the Euler tour from the arc counts, see setEulerAlgorithm().
+	 */
+	protected EulerPathAlgorithmIntf eulerObj = new LinAlgorithm ();
+	
+	/**
+	 * Euler tour of the last optimization, rotated to the start node asked for.  Found again
+	 * only after the arc counts or the network have changed.
+	 */
+	private EulerTour tourObj = null;
+	private long tourVersion = -1;
 	
 	protected long millisTook;
 	
 	protected long lastIterationStartMillis; 
 	protected long lastIterationEndMillis; 
-	private DijkstraAlgorithm spOptimzer = null;
+	private RamalingamRepsAlgorithm dynSpOptimizer = null;
+	private int [] dynNodeIdx; // index of the nodes in the distances of dynSpOptimizer
+	private java.util.ArrayList<Vertex> unreachableNodeList = new java.util.ArrayList<Vertex>();
+	
+	/**
+	 * indicator if the shortest paths are maintained incrementally between iterations.
+	 */
+	protected boolean incrementalShortestPath = false;
+	
+	/**
+	 * Sets to true to maintain the shortest path trees incrementally between the iterations
+	 * with RamalingamRepsAlgorithm instead of searching from scratch for each iteration.
+	 * Only the arcs whose distance or status were changed by the previous iteration are
+	 * reprocessed.  Must be set before optimize() is called.
+	 * @param incremental_p true to enable
+	 */
+	public void setIncrementalShortestPath (boolean incremental_p) {
+		this.incrementalShortestPath = incremental_p;
+	}
 	
 	public String getStat() {
 		StringBuffer tempBuf = new StringBuffer("LinZhao Algorithm for Directed Postman Problem, Computers & Operations Research, 1988\n");
@@ -100,24 +136,79 @@ public class LinZhaoAlgorithm extends AlgorithmTask implements PostmanAlgorithmI
 	public long getLastIterationMillis() { return this.lastIterationEndMillis - this.lastIterationStartMillis; }
 	
 	/**
-	 * list of working arcs from ArcDualVar used during search
+	 * number of arcs optimized, the arcs have the dense ids 0 .. arcCount-1.
+	 */
+	protected int arcCount;
+	
+	/**
+	 * dual variables and flows of the arcs, indexed by dense arc id.
+	 */
+	protected PostmanArc [] arcs;
+	protected PostmanArc [] reverseArcs; // temporary reverse arc created during search, null if none
+	protected double [] originalDist;
+	protected double [] extraDist; // distance of a traverse beyond the min count, see getExtraDist()
+	protected double [] Rij;
+	protected double [] wij;
+	protected int [] fij;
+	protected int [] fji;
+	protected int [] minFij;
+	protected int [] maxFij;
+	protected java.util.BitSet directedArcs;
+	protected int [] arcFromIdx; // dense id of the from node
+	protected int [] arcToIdx;
+	
+	/**
+	 * map of the arcs to their dense ids.  The temporary reverse arc of arc i is mapped to arcCount+i.
+	 */
+	protected java.util.HashMap<Arc, Integer> arcIdxMap;
+	
+	/**
+	 * arcs removed from the network since init, their dense ids are not reused.
+	 */
+	protected java.util.BitSet removedArcs;
+	
+	/**
+	 * flows of the removed arcs still to be rerouted by reoptimize(): dense from node id, to node id, flow.
+	 */
+	private java.util.ArrayList<int []> pendingReroutes;
+	
+	/**
+	 * indicator if arcs have been added, removed or updated since the last optimization.
+	 */
+	protected boolean modified = false;
+	
+	/**
+	 * dense ids of the arcs yet to be optimized.
+	 */
+	protected int [] optArcs;
+	protected int optArcCount;
+	
+	/**
+	 * map of the nodes to their dense ids used by the node bitsets.
+	 */
+	protected java.util.HashMap<Vertex, Integer> nodeIdxMap;
+	protected Node [] nodes;
+	
+	/**
+	 * shortest distance from the start node of the last circle, indexed by dense node id.
 	 */
-	protected java.util.ArrayList arcList;  // list of all ArcDualVar
+	protected double [] nodeDist;
 	
 	/**
-	 * list of arcs yet to be optimized.
+	 * dual variable of each node, the sum of its shifts by updateDualVar(), so that
+	 * R(i,j) = d(i,j) + nodeDual[i] - nodeDual[j].  Prices the arcs added between optimizations.
 	 */
-	protected java.util.ArrayList optArcList;
+	private double [] nodeDual;
 	
 	/**
-	 * map of original arc from the this.network to its corresponding its ArcDualVar object
+	 * arcs whose R(i,j) went negative by a change since the last optimization, see repriceArc().
 	 */
-	protected java.util.HashMap arcArcMap; // map of key = Arc, value ArcDualVar
+	private java.util.ArrayList<Integer> negativeArcs;
 	
 	/**
-	 * list of temporary reverse arcs created during search
+	 * arcs added or made required since the last optimization, checked by checkEditsConnected().
 	 */
-	protected java.util.ArrayList reverseArcList; // contains reverse arcs during algorithm execution
+	private java.util.ArrayList<Integer> requiredEdits;
 
 	/**
 	 * list of circle paths found during the search. This is then used to construct
@@ -126,9 +217,9 @@ public class LinZhaoAlgorithm extends AlgorithmTask implements PostmanAlgorithmI
 	protected java.util.ArrayList circleList; // list of circles found during search
 	
 	/**
-	 * list of nodes in the network which have been traversed by any of the circles
+	 * nodes (dense ids) in the network which have been traversed by any of the circles
 	 */
-	protected java.util.HashMap searchedNodeList; // list of nodes that have been optimized meaning has optimized edges adjacent to it.
+	protected java.util.BitSet searchedNodes; // nodes that have been optimized meaning has optimized edges adjacent to it.
 
 	
 	/**
@@ -136,6 +227,26 @@ public class LinZhaoAlgorithm extends AlgorithmTask implements PostmanAlgorithmI
 	 */
 	protected java.util.ArrayList selfArcList;
 	
+	/**
+	 * the search network in compressed rows: half arc 2i is arc i and 2i+1 its temporary reverse arc,
+	 * the half arcs out of node v are searchHalf[searchStart[v] .. searchStart[v+1]-1].  Built for
+	 * searchArcCount arcs and rebuilt only after arcs have been added.
+	 */
+	private int [] searchStart;
+	private int [] searchHalf;
+	private int searchArcCount = -1;
+	
+	/**
+	 * work arrays of the searches, allocated with the search network.
+	 */
+	private IndexedMinHeap searchHeap;
+	private int [] parentHalf; // half arc into the node on the selected path
+	private int [] visitStamp;
+	private int visitCount = 0;
+	private int [] searchStack;
+	private int [] pathHalfs;
+	private int excludedArc = -1; // arc left out of the search, see repriceArc()
+	
 	/**
 	 * default constructor.
 	 *
@@ -150,8 +261,9 @@ public class LinZhaoAlgorithm extends AlgorithmTask implements PostmanAlgorithmI
 	 * @return PostmanPath object
 	 * @throws NoSolutionException if no solution can be found, typically this is caused
 	 *  by the graph not strongly connected.
+	 * @throws InterruptedException interrupted
 	 */
-	public PostmanPath getPostmanPath(int fromNode_p) throws Exception {
+	public PostmanPath getPostmanPath(int fromNode_p) throws NoSolutionException, InterruptedException {
 		Node startNode = this.networkObj.getNode(fromNode_p);
 		if (startNode==null) throw new NoSolutionException ("Node not found: " + fromNode_p);
 		
@@ -169,38 +281,83 @@ public class LinZhaoAlgorithm extends AlgorithmTask implements PostmanAlgorithmI
 	 */
 	public PostmanPath getPostmanPath(Node fromNode_p) throws NoSolutionException, InterruptedException {
 		if (!this.optimized) this.optimize();
+		else if (this.modified) this.reoptimize();
 		
 		PostmanPath pathObj = new PostmanPath ();
-		pathObj.setPathArcs(this.getEulerPath(fromNode_p));
+		pathObj.setPathArcList(this.getEulerPath(fromNode_p));
 		return pathObj;
 	}
 	
 	/**
-	 * finds the Euler tour using EulerGraph algorithm
+	 * passes the arcs of the postman tour starting at fromNode_p to the listener one at a
+	 * time, see HierholzerAlgorithm.streamEulerPath().  The tour is not kept in memory.
+	 * @param fromNode_p starting node #
+	 * @param listenerObj_p listener
+	 * @return number of arcs passed to the listener
+	 * @throws NoSolutionException if no solution can be found
+	 * @throws InterruptedException interrupted
+	 */
+	public long streamPostmanPath (int fromNode_p, EulerTourListenerIntf listenerObj_p) throws NoSolutionException, InterruptedException {
+		Node startNode = this.networkObj.getNode(fromNode_p);
+		if (startNode==null) throw new NoSolutionException ("Node not found: " + fromNode_p);
+		if (!this.optimized) this.optimize();
+		else if (this.modified) this.reoptimize();
+		HierholzerAlgorithm streamObj = new HierholzerAlgorithm ();
+		streamObj.init(this.networkObj);
+		return streamObj.streamEulerPath(startNode, listenerObj_p);
+	}
+
+	/**
+	 * finds the Euler tour using EulerGraph algorithm.  The tour is found once per optimization
+	 * and network version, the tours from the other start nodes are rotated views of it.
 	 * @param fromNode_p from node
-	 * @return list of edges
+	 * @return read only list of edges
 	 * @throws NoSolutionException no solution
 	 */
-	protected java.util.ArrayList getEulerPath (Node fromNode_p) throws NoSolutionException {
-		
-		LinAlgorithm eulerObj = new LinAlgorithm ();
-		eulerObj.init(this.networkObj);
-		java.util.ArrayList pathArcs = eulerObj.getEulerPath(fromNode_p);
-		if (!eulerObj.isEulerian()) {
-			throw new NoSolutionException ("Euler tour not found.");
+	protected EulerTour getEulerPath (Node fromNode_p) throws NoSolutionException {
+		if (this.tourObj==null || this.tourVersion!=this.networkObj.getVersion()) {
+			this.eulerObj.init(this.networkObj);
+			EulerTour pathArcs = EulerTour.getEulerTour(this.eulerObj, fromNode_p);
+			if (!this.eulerObj.isEulerian()) {
+				throw new NoSolutionException ("Euler tour not found.");
+			}
+			this.tourObj = pathArcs;
+			this.tourVersion = this.networkObj.getVersion();
+			return pathArcs;
 		}
-
+		EulerTour pathArcs = this.tourObj.rotate(fromNode_p);
+		if (pathArcs==null) throw new NoSolutionException ("Node not found in the postman tour: " + fromNode_p);
 		return pathArcs;
-		
 	} 
+
+	/**
+	 * selects the Euler tour algorithm used to build the postman path from the arc counts
+	 * found, openOptima.graph.euler.LinAlgorithm by default.  openOptima.graph.euler.HierholzerAlgorithm runs in
+	 * linear time, openOptima.graph.euler.LinAlgorithm varies the pairs of arcs traversed in
+	 * and out of a node.
+	 * @param algorithmClass_p class name of an EulerPathAlgorithmIntf implementation
+	 * @throws InstantiationException error creating object
+	 * @throws IllegalAccessException illegal
+	 * @throws ClassNotFoundException class not found
+	 */
+	public void setEulerAlgorithm (String algorithmClass_p)
+		throws InstantiationException, IllegalAccessException, ClassNotFoundException {
+		this.eulerObj = (EulerPathAlgorithmIntf) ObjectFactory.newInstance(algorithmClass_p);
+		this.tourObj = null;
+	}
 	
 	
 	/**
-	 * finds the n-postmen paths.   This is not supported by this algorithm.
-	 * Use com.jOptima.algorithm.network.postman.LinHeuristicAlgorithm class instead.
+	 * finds the n-postmen paths: the optimal single postman tour is split into n closed walks
+	 * from fromNode_p with balanced lengths, see {@link PostmanTourSplitter}.
+	 * @param fromNode_p starting node #
+	 * @param n_p postmen count
+	 * @return postman paths, fewer than n_p if the tour has fewer than n_p arcs
+	 * @throws NoSolutionException if no solution can be found
+	 * @throws InterruptedException interrupted
 	 */
-	public PostmanPath[] getPostmanPaths(int fromNode_p, int n_p) throws NoSolutionException, NotImplementedException {
-		throw new NotImplementedException ("n-postman is not supported.");
+	public PostmanPath[] getPostmanPaths (int fromNode_p, int n_p) throws NoSolutionException, InterruptedException {
+		return new PostmanTourSplitter (this.networkObj).split(this.getPostmanPath(fromNode_p), fromNode_p, n_p);
 	}
 	
 	/**
@@ -209,7 +366,7 @@ public class LinZhaoAlgorithm extends AlgorithmTask implements PostmanAlgorithmI
 	 */
 	public void init(PostmanNetwork probObj_p) throws NotImplementedException {
 		if (!probObj_p.isDirected()) 
-			throw new NotImplementedException ("The network is either not a directed graph or contains no arcs.  Only directed graph/network with at least two arcs is supported.  For mixed and undirected graph/network, use com.jOptima.algorithm.network.postman.LinHeuristicAlgorithm class.");
+			throw new NotImplementedException ("The network is either not a directed graph or contains no arcs.  Only directed graph/network with at least two arcs is supported.  For mixed and undirected graph/network, use openOptima.network.postman.MixedPostmanAlgorithm or UndirectedPostmanAlgorithm class.");
 		internalInit(probObj_p);
 	}
 	
@@ -220,10 +377,10 @@ public class LinZhaoAlgorithm extends AlgorithmTask implements PostmanAlgorithmI
 	protected void internalInit (PostmanNetwork probObj_p) {
 		this.networkObj = probObj_p;
 		this.optimized = false;
+		this.tourObj = null;
 		this.selfArcList = new java.util.ArrayList();
 		java.util.ArrayList tempList = this.networkObj.getArcList(true); // false
 		PostmanArc arcObj;
-		ArcDualVar arcDualVar;
 		for (int i=0; i<tempList.size(); i++) {
 			arcObj = (PostmanArc) tempList.get(i);
 			arcObj.setCount(0);
@@ -234,43 +391,199 @@ public class LinZhaoAlgorithm extends AlgorithmTask implements PostmanAlgorithmI
 		}
 		
 		tempList = this.networkObj.getArcList(true);
-		this.arcList = new java.util.ArrayList (tempList.size());
-		this.arcArcMap = new java.util.HashMap (tempList.size());
-		this.reverseArcList = new java.util.ArrayList();
-		this.searchedNodeList = new java.util.HashMap (this.networkObj.getNodeCount());
+		int m = tempList.size();
+		this.arcCount = m;
+		this.arcs = new PostmanArc [m];
+		this.reverseArcs = new PostmanArc [m];
+		this.originalDist = new double [m];
+		this.extraDist = new double [m];
+		this.Rij = new double [m];
+		this.wij = new double [m];
+		this.fij = new int [m];
+		this.fji = new int [m];
+		this.minFij = new int [m];
+		this.maxFij = new int [m];
+		this.directedArcs = new java.util.BitSet (m);
+		this.removedArcs = new java.util.BitSet (m);
+		this.pendingReroutes = new java.util.ArrayList<int []>();
+		this.modified = false;
+		this.arcFromIdx = new int [m];
+		this.arcToIdx = new int [m];
+		this.optArcs = new int [m];
+		this.optArcCount = 0;
+		this.arcIdxMap = new java.util.HashMap<Arc, Integer> (m*2);
+		java.util.ArrayList<Vertex> nodeList = this.networkObj.getVertexList(false);
+		this.nodeIdxMap = new java.util.HashMap<Vertex, Integer> (nodeList.size()*2);
+		this.nodes = new Node [nodeList.size()];
+		this.nodeDist = new double [nodeList.size()];
+		this.nodeDual = new double [nodeList.size()];
+		this.negativeArcs = new java.util.ArrayList<Integer>();
+		this.requiredEdits = new java.util.ArrayList<Integer>();
+		for (int i=0; i<nodeList.size(); i++) {
+			this.nodes[i] = (Node) nodeList.get(i);
+			this.nodeIdxMap.put(nodeList.get(i), Integer.valueOf(i));
+		}
+		this.searchedNodes = new java.util.BitSet (nodeList.size());
 		this.lastIterationStartMillis = 0;
 		this.lastIterationEndMillis = 0;
 		
-		// creates a dualVar arc for each arc
-		for (int i=0; i<tempList.size(); i++) {
+		// sets the dual variables for each arc
+		for (int i=0; i<m; i++) {
 			arcObj = (PostmanArc) tempList.get(i);
-			arcDualVar = new ArcDualVar(arcObj);
-			this.arcList.add(arcDualVar);
-			this.arcArcMap.put (arcObj, arcDualVar);
+			this.arcs[i] = arcObj;
+			this.minFij[i] = arcObj.getMinTraverseCount();
+			this.maxFij[i] = arcObj.getMaxTraverseCount();
+			this.originalDist[i] = arcObj.getDist();
+			this.extraDist[i] = getExtraDist(arcObj);
+			this.Rij[i] = this.extraDist[i];
+			if (arcObj.isDirected()) this.directedArcs.set(i);
+			this.arcFromIdx[i] = getNodeIdx(arcObj.getFromNode());
+			this.arcToIdx[i] = getNodeIdx(arcObj.getToNode());
+			if (this.minFij[i]<=0) this.wij[i] = this.Rij[i];
+			this.arcIdxMap.put (arcObj, Integer.valueOf(i));
+		}
+		buildSearchNetwork ();
+	}
+	
+	/*
+	 * builds the search network and the work arrays of the searches for the arcs and nodes known.
+	 * The arcs out of a node come in the order of the arcs, followed by the reverse arcs into it.
+	 */
+	private void buildSearchNetwork () {
+		int n = this.nodes.length;
+		this.searchStart = new int [n+1];
+		for (int i=0; i<this.arcCount; i++) {
+			this.searchStart[this.arcFromIdx[i]+1]++;
+			this.searchStart[this.arcToIdx[i]+1]++;
 		}
+		for (int v=0; v<n; v++) this.searchStart[v+1] += this.searchStart[v];
+		this.searchHalf = new int [this.searchStart[n]];
+		int [] pos = java.util.Arrays.copyOf(this.searchStart, n);
+		for (int i=0; i<this.arcCount; i++) this.searchHalf[pos[this.arcFromIdx[i]]++] = 2*i;
+		for (int i=0; i<this.arcCount; i++) this.searchHalf[pos[this.arcToIdx[i]]++] = 2*i+1;
+		this.searchArcCount = this.arcCount;
+		
+		if (this.searchHeap==null) this.searchHeap = new IndexedMinHeap (n);
+		else this.searchHeap.ensureCapacity(n);
+		this.parentHalf = new int [n];
+		this.visitStamp = new int [n];
+		this.visitCount = 0;
+		this.searchStack = new int [n];
+		this.pathHalfs = new int [n];
+	}
+	
+	/*
+	 * starts the incremental shortest path trees on the network as it is now.
+	 */
+	private void startIncrementalSearch () {
+		this.dynSpOptimizer = new RamalingamRepsAlgorithm (this.networkObj);
+		this.dynNodeIdx = new int [this.nodes.length];
+		for (int v=0; v<this.nodes.length; v++) this.dynNodeIdx[v] = this.dynSpOptimizer.getNodeIdx(this.nodes[v]);
+	}
+	
+	/*
+	 * returns the distance of the half arc for the search, -1 if it can not be traversed: R(i,j) for
+	 * a satisfied arc, 0 for the others and for the reverse of an over satisfied arc.  These are the
+	 * distances adjustFlow() gives the arcs and their reverse arcs in the network for the incremental
+	 * search.  A satisfied arc with a negative R(i,j) waits for repriceArc() and is left out.
+	 */
+	private double getHalfDist (int half_p) {
+		int i = half_p >> 1;
+		if (this.removedArcs.get(i) || i==this.excludedArc || !this.arcs[i].isActive()) return -1;
+		int checkFlow = checkFlow(i);
+		if ((half_p&1)!=0) return (checkFlow>0)? 0: -1;
+		if (checkFlow!=0) return 0;
+		return (this.Rij[i]<0)? -1: this.Rij[i];
+	}
+	
+	/*
+	 * returns the distance of a traverse beyond the min count of the arc, priced by R(i,j): the
+	 * repeat distance of a required arc, whose first traverse is paid in any case, and the distance
+	 * of an optional arc.  Prices the tour as getPathDist() does.
+	 */
+	private double getExtraDist (PostmanArc arcObj_p) {
+		return (arcObj_p.getMinTraverseCount()>0)? arcObj_p.getRepeatDist(): arcObj_p.getDist();
+	}
+	
+	private int getHalfHead (int half_p) {
+		return ((half_p&1)==0)? this.arcToIdx[half_p>>1]: this.arcFromIdx[half_p>>1];
+	}
+	
+	/**
+	 * returns the dense id of the arc, arcCount+i for the temporary reverse arc of arc i, -1 if not found.
+	 * @param arcObj_p arc
+	 * @return dense id
+	 */
+	protected int getArcIdx (Arc arcObj_p) {
+		Integer idx = this.arcIdxMap.get(arcObj_p);
+		return (idx==null)? -1: idx.intValue();
+	}
+	
+	/**
+	 * returns the dense id of the node.
+	 * @param nodeObj_p node
+	 * @return dense id
+	 */
+	protected int getNodeIdx (Vertex nodeObj_p) {
+		return this.nodeIdxMap.get(nodeObj_p).intValue();
+	}
+	
+	/**
+	 * returns negative for not satisfied (flow# needed to satisfy), 0 for satisfied, positive#
+	 * for over satisfied (flow# over the minFlowNum
+	 * @param arcIdx_p dense arc id
+	 * @return flow difference
+	 */
+	protected int checkFlow (int arcIdx_p) {
+		return this.fij[arcIdx_p] + this.fji[arcIdx_p] - this.minFij[arcIdx_p];
+	}
+	
+	/**
+	 * returns the flow of the arc.
+	 * @param arcIdx_p dense arc id
+	 * @return flow
+	 */
+	protected int getFlow (int arcIdx_p) {
+		return this.fij[arcIdx_p] + this.fji[arcIdx_p];
+	}
+	
+	/*
+	 * removes the arc at position pos_p from the list of arcs yet to be optimized.
+	 */
+	private void removeOptArc (int pos_p) {
+		System.arraycopy(this.optArcs, pos_p+1, this.optArcs, pos_p, this.optArcCount-pos_p-1);
+		this.optArcCount--;
+	}
+	
+	/*
+	 * appends the arc to the list of arcs yet to be optimized.
+	 */
+	private void addOptArc (int arcIdx_p) {
+		if (this.optArcCount==this.optArcs.length) this.optArcs = java.util.Arrays.copyOf(this.optArcs, this.optArcCount*2+1);
+		this.optArcs[this.optArcCount++] = arcIdx_p;
 	}
 	
 	/**
 	 * finds the next arc to be optimized.
-	 * @return
+	 * @return dense arc id, -1 if all arcs are optimized
 	 */
-	private ArcDualVar findNextArc(java.util.ArrayList optArcList_p) {
+	private int findNextArc() {
 		
-		for (int i=optArcList_p.size()-1; i>=0; i--) {
-			ArcDualVar arcObj = (ArcDualVar) optArcList_p.get(i);
-			if (arcObj.checkFlow()>=0) {
-				optArcList_p.remove(i);
+		for (int i=this.optArcCount-1; i>=0; i--) {
+			int arcIdx = this.optArcs[i];
+			if (checkFlow(arcIdx)>=0) {
+				removeOptArc(i);
 			}
 			else {
-				if (arcObj.getFlow()>0) return arcObj;
+				if (getFlow(arcIdx)>0) return arcIdx;
 				
-				if (this.searchedNodeList.containsKey(arcObj.arcObj.getFromNode()) ||
-					this.searchedNodeList.containsKey(arcObj.arcObj.getToNode()))
-					return arcObj;
+				if (this.searchedNodes.get(getNodeIdx(this.arcs[arcIdx].getFromNode())) ||
+					this.searchedNodes.get(getNodeIdx(this.arcs[arcIdx].getToNode())))
+					return arcIdx;
 			}
 		}
-		if (optArcList_p.isEmpty()) return null;
-		else return (ArcDualVar) optArcList_p.get(0);
+		if (this.optArcCount==0) return -1;
+		else return this.optArcs[0];
 	}
 	
 	/*
@@ -285,252 +598,512 @@ public class LinZhaoAlgorithm extends AlgorithmTask implements PostmanAlgorithmI
 		long startMillis = System.currentTimeMillis();
 		this.optimized = false;
 		this.iterationCount = 0;
+		checkStronglyConnected ();
 		
-		this.optArcList = new java.util.ArrayList(this.arcList);  // list of arcs not yet optimized
-		spOptimzer = new DijkstraAlgorithm (this.networkObj);
+		this.optArcCount = 0;  // list of arcs not yet optimized
+		for (int i=0; i<this.arcCount; i++) {
+			if (!this.removedArcs.get(i)) addOptArc(i);
+		}
+		if (this.searchArcCount!=this.arcCount || this.searchStart.length!=this.nodes.length+1) buildSearchNetwork();
 		this.circleList = new java.util.ArrayList();
 		
-		for (int i=0; i<this.optArcList.size(); i++) {
-			ArcDualVar tempArc = (ArcDualVar) this.optArcList.get(i);
-			if (tempArc.minFij>0) tempArc.arcObj.setDist(0);
-			else tempArc.arcObj.setDist(tempArc.originalDist);
+		this.negativeArcs.clear();
+		this.requiredEdits.clear();
+		this.dynSpOptimizer = null;
+		if (this.incrementalShortestPath) {
+			for (int i=0; i<this.arcCount; i++) {
+				if (this.minFij[i]>0) this.arcs[i].setDist(0);
+				else this.arcs[i].setDist(this.extraDist[i]);
+			}
+			startIncrementalSearch();
 		}
 
-		this.runAlgorithm(spOptimzer);
+		this.runAlgorithm();
+		completeOptimize(startMillis);
+	}
+	
+	/*
+	 * connects the subgraphs if needed and restores the network after the circles have been found.
+	 */
+	private void completeOptimize (long startMillis_p) throws NoSolutionException, InterruptedException {
 		boolean foundUntraversedOptional = false;
 
-		for (int i=0; i<this.arcList.size(); i++) {
-			ArcDualVar tempArc = (ArcDualVar) this.arcList.get(i);
-			if (tempArc.getFlow()<=0 && !this.reverseArcList.contains(tempArc.arcObj)) {
+		for (int i=0; i<this.arcCount; i++) {
+			if (getFlow(i)<=0 && !this.removedArcs.get(i)) {
 				foundUntraversedOptional = true;
 				break;
 			}
 		}
 		
-		if (foundUntraversedOptional && !connectSubGraphs()) {
-			this.runAlgorithm(spOptimzer);
+		if (foundUntraversedOptional) {
+			while (!connectSubGraphs()) {
+				this.runAlgorithm();
+			}
 		}
 		
 		this.optimized = true;
+		this.modified = false;
+		this.tourObj = null;
 		postOptimize();
 		this.resetNetwork();
-		this.millisTook = System.currentTimeMillis()-startMillis;
+		this.millisTook = System.currentTimeMillis()-startMillis_p;
 		
 		this.getStat();
 
 	}
 	
-	
 	/**
-	 * Returns true if there is only one subgraph in the network.  Otherwise return false if there are more than one subgraphs that are not connected 
-	 * by traversed arcs, and if found any, adjust the min flow required to ensure
-	 * these subgraphs will be connected.  The calling method must then call runAlgoirthm() again to optimize the adjusted arcs.
-	 * 
-	 * Algorithm Description:
-	 * <ol>
-	 * 		<li>First find the first traversed arc (flow >0) and add its from and to nodes to the newly labeled node list
-	 * 		<li>Set mode to Expand
-	 * 		<li>labeled node list - contains nodes that are labeled (connected by traversed arcs)
-	 * 		<li>newly labeled node list - contains nodes that are just labeled since last iteration
-	 * 		<li>candidate node list - contains nodes that are not labeled and has no traversed arcs attached to it
-	 * 		<li>Loop until all nodes are accounted (visited) by this loop
-	 * 		<li><ol>
-	 * 				<li>if mode is Expand
-	 * 					<ol>
-	 * 						<li>For each newly labeled node, loop through the outgoing arcs
-	 * 						<li>If the outgoing arc is traversed: 
-	 * 								if toNode is already labeled do nothing,
-	 * 								else add the toNode to the newly labeled node list; 
-	 * 								Remove the new node from the candidate node list if present in the list
-	 * 						<li>Else add or replace the new node found to the candidate node list with indexDepth = 1
-	 * 						<li>Remove current new node from the newly labeled node list
-	 * 						<li>Add the new node to the labeled node list
-	 * 						<li>If no newly labeled node was added to the newly labeled node list during this iteration, switch mode to Search
-	 * 					</ol>
-	 * 					set searchIndex = 0;
-	 * 				<li>else mode is Search
-	 * 					<ol>
-	 * 						<li>set searchIndex++;
-	 * 						<li>For each candidate node list with indexDepth<=searchIndex, find the new candidate node through its outgoing arcs.
-	 * 						<li>If the outgoing arc is a traversed arc
-	 * 								if toNode is already labeled, continue (no-op)
-	 * 								Else 
-	 * 									Back track from the toNode to a labeled node, 
-	 * 									Set arcs on the path with minFlow=0 to minFlow=1, 
-	 * 									Add all candidate nodes on the path to the newly labeled node list
-	 * 									Remove them from candidate node list if they are present
-	 * 									Increment subgraph count
-	 * 									Switch mode to Expand
-	 * 						</li>
-	 * 						<li>Else the outgoing arc is untraversed arc
-	 * 								if toNode is a labeled node, continue(no op)
-	 * 								else add toNode to or update (if already present) candidate node list with indexDepth = current candidate node indexDepth+1
-	 * 						</li>
-	 * 					</ol>
-	 * 			</ol>
-	 *		</li>
-	 *		<li>
-	 * </ol>
-	 * @return number of subgraphs found and adjusted.
-	 */
-	private boolean connectSubGraphs() {
-		ArcDualVar traversedArc = null;
+	 * re-optimizes the postman tour after arcs have been added, removed or updated, starting from
+	 * the flows and dual variables of the last optimization.  Only the arcs left unsatisfied by the
+	 * changes and the flow of the removed arcs are processed, each takes one circle (shortest path
+	 * search).  The arcs whose R(i,j) the changes made negative, an arc added or made shorter, first
+	 * take the circles through them that cost less than nothing, see repriceArc(), so the tour is 
+	 * as short as the one optimize() finds.  Optimizes from scratch if optimize() has not been called.
+	 * @throws NoSolutionException no solution
+	 * @throws InterruptedException interrupted
+	 */
+	public void reoptimize () throws NoSolutionException, InterruptedException {
+		if (!this.optimized) {
+			this.optimize();
+			return;
+		}
+		long startMillis = System.currentTimeMillis();
+		this.optimized = false;
+		this.iterationCount = 0;
+		this.dynSpOptimizer = null;
+		if (this.searchArcCount!=this.arcCount || this.searchStart.length!=this.nodes.length+1) buildSearchNetwork();
+		checkEditsConnected ();
 		
-		// find the first traversed arc and its adjacent nodes
-		for (int i=0; i<this.arcList.size(); i++) {
-			ArcDualVar tempArc = (ArcDualVar) this.arcList.get(i);
-			if (tempArc.getFlow()>0) {
-				traversedArc = tempArc;
-				break;
+		for (int k=0; k<this.negativeArcs.size(); k++) repriceArc (this.negativeArcs.get(k).intValue());
+		this.negativeArcs.clear();
+		
+		if (this.incrementalShortestPath) {
+			// restores the search distances and the reverse arcs of the over satisfied arcs in the network
+			for (int i=0; i<this.selfArcList.size(); i++) {
+				((PostmanArc) this.selfArcList.get(i)).inactivate();
 			}
+			for (int i=0; i<this.arcCount; i++) {
+				if (this.removedArcs.get(i)) continue;
+				int checkFlow = checkFlow(i);
+				this.arcs[i].setDist(checkFlow==0? this.Rij[i]: 0);
+				if (checkFlow>0) addReverseArc(i, 0);
+			}
+			startIncrementalSearch();
 		}
+
+		// the flow of the removed arcs takes the shortest path between their nodes
+		for (int k=0; k<this.pendingReroutes.size(); k++) {
+			int [] reroute = this.pendingReroutes.get(k);
+			for (int u=0; u<reroute[2]; u++) {
+				this.iterationCount++;
+				addPath (reroute[0], reroute[1], -1);
+			}
+		}
+		this.pendingReroutes.clear();
 		
-		if (traversedArc==null) return true;
-		
-		boolean oneSubgraph = true;
-		int totalNodeCount = this.networkObj.getNodeCount();
-		java.util.ArrayList labeledNodeList = new java.util.ArrayList(totalNodeCount);
-		java.util.ArrayList newlyLabeledNodeList = new java.util.ArrayList();
-		java.util.HashMap candidateNodeList = new java.util.HashMap();
-		newlyLabeledNodeList.add(traversedArc.arcObj.getFromNode());
+		this.runAlgorithm();
+		completeOptimize(startMillis);
+	}
+	
+	/**
+	 * reports the arc has been added to the network, the arc is optimized by the next reoptimize().
+	 * @param arcObj_p arc
+	 * @throws NotImplementedException if the arc is not directed.
+	 */
+	public void arcAdded (PostmanArc arcObj_p) throws NotImplementedException {
+		if (!arcObj_p.isDirected()) throw new NotImplementedException ("Only directed arcs are supported.");
+		this.modified = true;
+		arcObj_p.setCount(0);
+		if (arcObj_p.isSelfLoop()) {
+			this.selfArcList.add(arcObj_p);
+			return;
+		}
+		int i = this.arcCount;
+		if (i==this.arcs.length) {
+			int newCap = i*2+1;
+			this.arcs = java.util.Arrays.copyOf(this.arcs, newCap);
+			this.reverseArcs = java.util.Arrays.copyOf(this.reverseArcs, newCap);
+			this.originalDist = java.util.Arrays.copyOf(this.originalDist, newCap);
+			this.extraDist = java.util.Arrays.copyOf(this.extraDist, newCap);
+			this.Rij = java.util.Arrays.copyOf(this.Rij, newCap);
+			this.wij = java.util.Arrays.copyOf(this.wij, newCap);
+			this.fij = java.util.Arrays.copyOf(this.fij, newCap);
+			this.fji = java.util.Arrays.copyOf(this.fji, newCap);
+			this.minFij = java.util.Arrays.copyOf(this.minFij, newCap);
+			this.maxFij = java.util.Arrays.copyOf(this.maxFij, newCap);
+			this.arcFromIdx = java.util.Arrays.copyOf(this.arcFromIdx, newCap);
+			this.arcToIdx = java.util.Arrays.copyOf(this.arcToIdx, newCap);
+		}
+		this.arcCount++;
+		this.arcs[i] = arcObj_p;
+		this.reverseArcs[i] = null;
+		this.arcFromIdx[i] = addNodeIdx(arcObj_p.getFromNode());
+		this.arcToIdx[i] = addNodeIdx(arcObj_p.getToNode());
+		this.originalDist[i] = arcObj_p.getDist();
+		this.fij[i] = 0;
+		this.fji[i] = 0;
+		this.minFij[i] = arcObj_p.getMinTraverseCount();
+		this.maxFij[i] = arcObj_p.getMaxTraverseCount();
+		this.extraDist[i] = getExtraDist(arcObj_p);
+		this.Rij[i] = this.extraDist[i] + this.nodeDual[this.arcFromIdx[i]] - this.nodeDual[this.arcToIdx[i]];
+		this.wij[i] = (this.minFij[i]<=0)? this.Rij[i]: 0;
+		this.directedArcs.set(i);
+		this.arcIdxMap.put(arcObj_p, Integer.valueOf(i));
+		if (checkFlow(i)<0) {
+			addOptArc(i);
+			this.requiredEdits.add(Integer.valueOf(i));
+		}
+		if (this.Rij[i]<0) this.negativeArcs.add(Integer.valueOf(i));
+	}
+	
+	/**
+	 * reports the arc has been removed from the network.  Its flow is rerouted by the next reoptimize().
+	 * @param arcObj_p arc
+	 */
+	public void arcRemoved (PostmanArc arcObj_p) {
+		this.modified = true;
+		if (this.selfArcList.remove(arcObj_p)) return;
+		int i = getArcIdx(arcObj_p);
+		if (i<0 || i>=this.arcCount || this.removedArcs.get(i)) return;
+		if (getFlow(i)>0) this.pendingReroutes.add(new int [] {this.arcFromIdx[i], this.arcToIdx[i], getFlow(i)});
+		this.removedArcs.set(i);
+		this.fij[i] = 0;
+		this.fji[i] = 0;
+		this.minFij[i] = 0;
+		this.arcIdxMap.remove(arcObj_p);
+	}
+	
+	/**
+	 * reports the distance or the min/max traverse count of the arc has been changed.  The dual variable
+	 * of the arc is shifted by the change of its distance and the arc is optimized by the next reoptimize()
+	 * if it is no longer satisfied.
+	 * @param arcObj_p arc
+	 */
+	public void arcUpdated (PostmanArc arcObj_p) {
+		this.modified = true;
+		int i = getArcIdx(arcObj_p);
+		if (i<0 || i>=this.arcCount) return;
+		this.minFij[i] = arcObj_p.getMinTraverseCount();
+		this.maxFij[i] = arcObj_p.getMaxTraverseCount();
+		double extraDist = getExtraDist(arcObj_p);
+		this.Rij[i] = this.Rij[i] + extraDist - this.extraDist[i];
+		this.extraDist[i] = extraDist;
+		this.originalDist[i] = arcObj_p.getDist();
+		if (!this.directedArcs.get(i)) this.Rij[i] = Math.max(0, this.Rij[i]);
+		else if (this.Rij[i]<0) this.negativeArcs.add(Integer.valueOf(i));
+		int surplus = checkFlow(i);
+		if (surplus<0) {
+			addOptArc(i);
+			this.requiredEdits.add(Integer.valueOf(i));
+		}
+		else if (surplus>0 && this.Rij[i]>0 && this.directedArcs.get(i)) {
+			// the extra flow is no longer free, reroute it along the shortest path
+			this.pendingReroutes.add(new int [] {this.arcFromIdx[i], this.arcToIdx[i], surplus});
+			this.fij[i] -= surplus;
+		}
+	}
+	
+	/*
+	 * returns the dense id of the node, adding the node if it is new.
+	 */
+	private int addNodeIdx (Vertex nodeObj_p) {
+		Integer idx = this.nodeIdxMap.get(nodeObj_p);
+		if (idx!=null) return idx.intValue();
+		int v = this.nodes.length;
+		this.nodes = java.util.Arrays.copyOf(this.nodes, v+1);
+		this.nodeDist = java.util.Arrays.copyOf(this.nodeDist, v+1);
+		this.nodeDual = java.util.Arrays.copyOf(this.nodeDual, v+1);
+		this.nodes[v] = (Node) nodeObj_p;
+		this.nodeIdxMap.put(nodeObj_p, Integer.valueOf(v));
+		return v;
+	}
+	
+	
+	/**
+	 * Returns true if the traversed arcs form one subgraph.  Otherwise the subgraphs are joined
+	 * by chains of untraversed arcs whose min flow is set to 1, and the calling method must call
+	 * runAlgorithm() again to satisfy them.
+	 * <p>
+	 * The traversed arcs carry a circulation, so their subgraphs are the strongly connected
+	 * components of the traversed arcs (Tarjan).  A search from all the nodes of the traversed
+	 * arcs at once over the untraversed arcs finds for every node the nearest traversed node
+	 * before and after it.  Every untraversed arc (i,j) then gives a chain from the subgraph
+	 * nearest before i through (i,j) to the subgraph nearest after j, and the chains are taken in
+	 * the order of their original distances whenever they join two subgraphs not yet joined
+	 * (Kruskal on the subgraphs).  All of it is linear in the network size but for the searches
+	 * and the sorting of the chains.
+	 * @return true if the traversed arcs are connected
+	 * @throws NoSolutionException if the subgraphs can not be connected
+	 */
+	private boolean connectSubGraphs() throws NoSolutionException {
+		int n = this.nodes.length;
+		boolean [] traversed = new boolean [this.arcCount];
+		boolean [] usable = new boolean [this.arcCount];
+		boolean [] labeled = new boolean [n];
+		for (int i=0; i<this.arcCount; i++) {
+			if (this.removedArcs.get(i) || this.arcFromIdx[i]==this.arcToIdx[i]) continue;
+			traversed[i] = getFlow(i)>0;
+			usable[i] = traversed[i] || this.maxFij[i]>0;
+			if (!traversed[i]) continue;
+			labeled[this.arcFromIdx[i]] = true;
+			labeled[this.arcToIdx[i]] = true;
+		}
+		int [] comp = new int [n];
+		int compCount = findComponents (traversed, comp);
+		DisjointSet setObj = new DisjointSet (compCount);
+		int subgraphCount = 0;
+		boolean [] counted = new boolean [compCount];
+		for (int v=0; v<n; v++) {
+			if (!labeled[v] || counted[comp[v]]) continue;
+			counted[comp[v]] = true;
+			subgraphCount++;
+		}
+		if (subgraphCount<=1) return true;
+
+		// nearest traversed node before (source) and after (target) every node
+		double [] distFrom = new double [n];
+		int [] sourceOf = new int [n];
+		int [] predArc = new int [n];
+		double [] distTo = new double [n];
+		int [] targetOf = new int [n];
+		int [] succArc = new int [n];
+		searchLabeled (true, usable, traversed, labeled, distFrom, sourceOf, predArc);
+		searchLabeled (false, usable, traversed, labeled, distTo, targetOf, succArc);
 
-		boolean expandMode = true; // expanding labeled nodes through traversed arcs.
-		int searchIndex = 0;
-		while (labeledNodeList.size() + candidateNodeList.size() < totalNodeCount) {
-			if (expandMode) {
-				java.util.ArrayList loopNodeList = newlyLabeledNodeList;
-				newlyLabeledNodeList = new java.util.ArrayList();
-				for (int i=0; i<loopNodeList.size(); i++) {
-					Node newNodeObj = (Node) loopNodeList.get(i);
-					java.util.ArrayList tempArcList = newNodeObj.getEdgesFrom();
-					for (int j=0; j<tempArcList.size(); j++) {
-						Arc arcObj = (Arc) tempArcList.get(j);
-						ArcDualVar dualArc = (ArcDualVar) this.arcArcMap.get(arcObj);
-						if (this.reverseArcList.contains(arcObj) || dualArc==null) continue;
-						Node toNode = arcObj.getToNode();
-						if (dualArc.arcObj != arcObj) continue; // reverse arc, ignore
-						if (dualArc.getFlow()>0) { // traversed arc
-							if (labeledNodeList.contains(toNode)) continue; // already labeled
-							newlyLabeledNodeList.add(toNode);
-							candidateNodeList.remove(toNode);
-						}
-						else {
-							if (labeledNodeList.contains(toNode)) continue;
-							CandidateNode candNode = new CandidateNode(newNodeObj, toNode, arcObj);
-							candidateNodeList.put(toNode, candNode);
-						}
+		int candCount = 0;
+		Integer [] cand = new Integer [this.arcCount];
+		final double [] chainDist = new double [this.arcCount];
+		for (int i=0; i<this.arcCount; i++) {
+			if (!usable[i] || traversed[i]) continue;
+			int from = this.arcFromIdx[i], to = this.arcToIdx[i];
+			if (sourceOf[from]<0 || targetOf[to]<0 || comp[sourceOf[from]]==comp[targetOf[to]]) continue;
+			chainDist[i] = distFrom[from] + this.originalDist[i] + distTo[to];
+			cand[candCount++] = Integer.valueOf(i);
+		}
+		java.util.Arrays.sort(cand, 0, candCount, new java.util.Comparator<Integer>() {
+			public int compare (Integer a_p, Integer b_p) {
+				return Double.compare(chainDist[a_p.intValue()], chainDist[b_p.intValue()]);
+			}
+		});
+		
+		int joinCount = 0;
+		for (int k=0; k<candCount && joinCount<subgraphCount-1; k++) {
+			int i = cand[k].intValue();
+			int from = this.arcFromIdx[i], to = this.arcToIdx[i];
+			if (!setObj.union(comp[sourceOf[from]], comp[targetOf[to]])) continue;
+			for (int v=from; predArc[v]>=0; v=this.arcFromIdx[predArc[v]]) requireArc (predArc[v]);
+			requireArc (i);
+			for (int v=to; succArc[v]>=0; v=this.arcToIdx[succArc[v]]) requireArc (succArc[v]);
+			joinCount++;
+		}
+		if (joinCount<subgraphCount-1) throw new NoSolutionException ("Graph not strongly connected, unable to connect the traversed arcs.");
+		return false;
+	}
+	
+	/*
+	 * sets the min flow of an untraversed arc to 1 so the next runAlgorithm() satisfies it.
+	 */
+	private void requireArc (int arcIdx_p) {
+		if (this.minFij[arcIdx_p]>0 || getFlow(arcIdx_p)>0) return;
+		this.minFij[arcIdx_p] = 1;
+		this.wij[arcIdx_p] = 0;
+		if (this.dynSpOptimizer!=null) {
+			this.arcs[arcIdx_p].setDist(0);
+			arcChanged(this.arcs[arcIdx_p]);
+		}
+		addOptArc(arcIdx_p);
+	}
+	
+	/*
+	 * shortest original distances over the usable arcs from (forward_p) or to the nearest labeled
+	 * node.  end_p is set to the labeled node, -1 if none, and arc_p to the arc before (after) the
+	 * node on the path, -1 at the labeled nodes.
+	 */
+	private void searchLabeled (boolean forward_p, boolean [] usable_p, boolean [] traversed_p, boolean [] labeled_p, 
+			double [] dist_p, int [] end_p, int [] arc_p) {
+		int n = this.nodes.length;
+		int [] start = new int [n+1];
+		int [] adj = buildAdjacency (usable_p, forward_p, start);
+		java.util.Arrays.fill(dist_p, Double.POSITIVE_INFINITY);
+		java.util.Arrays.fill(end_p, -1);
+		java.util.Arrays.fill(arc_p, -1);
+		IndexedMinHeap heap = new IndexedMinHeap (n);
+		for (int v=0; v<n; v++) {
+			if (!labeled_p[v]) continue;
+			dist_p[v] = 0;
+			end_p[v] = v;
+			heap.insertOrDecrease(v, 0);
+		}
+		while (!heap.isEmpty()) {
+			int v = heap.removeMin();
+			for (int k=start[v]; k<start[v+1]; k++) {
+				int i = adj[k];
+				if (traversed_p[i]) continue;
+				int u = forward_p? this.arcToIdx[i]: this.arcFromIdx[i];
+				double nd = dist_p[v] + this.originalDist[i];
+				if (nd<dist_p[u]) {
+					dist_p[u] = nd;
+					end_p[u] = end_p[v];
+					arc_p[u] = i;
+					heap.insertOrDecrease(u, nd);
+				}
+			}
+		}
+	}
+	
+	/*
+	 * returns the arcs selected by use_p grouped by their from node (forward_p) or to node, the
+	 * arcs of node v are at positions start_p[v] .. start_p[v+1]-1.
+	 */
+	private int [] buildAdjacency (boolean [] use_p, boolean forward_p, int [] start_p) {
+		int n = this.nodes.length;
+		java.util.Arrays.fill(start_p, 0);
+		for (int i=0; i<this.arcCount; i++) {
+			if (use_p[i]) start_p[(forward_p? this.arcFromIdx[i]: this.arcToIdx[i])+1]++;
+		}
+		for (int v=0; v<n; v++) start_p[v+1] += start_p[v];
+		int [] adj = new int [start_p[n]];
+		int [] pos = java.util.Arrays.copyOf(start_p, n);
+		for (int i=0; i<this.arcCount; i++) {
+			if (use_p[i]) adj[pos[forward_p? this.arcFromIdx[i]: this.arcToIdx[i]]++] = i;
+		}
+		return adj;
+	}
+	
+	/*
+	 * strongly connected components of the arcs selected by use_p (Tarjan, without recursion).
+	 * Sets the component of every node in comp_p and returns the number of components, nodes
+	 * without any selected arc are components of their own.
+	 */
+	private int findComponents (boolean [] use_p, int [] comp_p) {
+		int n = this.nodes.length;
+		int [] start = new int [n+1];
+		int [] adj = buildAdjacency (use_p, true, start);
+		int [] index = new int [n];
+		int [] low = new int [n];
+		int [] ptr = new int [n];
+		int [] stack = new int [n];
+		int [] callStack = new int [n];
+		boolean [] onStack = new boolean [n];
+		java.util.Arrays.fill(index, -1);
+		int counter = 0, top = 0, compCount = 0;
+		for (int s=0; s<n; s++) {
+			if (index[s]>=0) continue;
+			int callTop = 0;
+			callStack[callTop++] = s;
+			index[s] = low[s] = counter++;
+			ptr[s] = start[s];
+			stack[top++] = s;
+			onStack[s] = true;
+			while (callTop>0) {
+				int v = callStack[callTop-1];
+				if (ptr[v]<start[v+1]) {
+					int w = this.arcToIdx[adj[ptr[v]++]];
+					if (index[w]<0) {
+						index[w] = low[w] = counter++;
+						ptr[w] = start[w];
+						stack[top++] = w;
+						onStack[w] = true;
+						callStack[callTop++] = w;
 					}
-					labeledNodeList.add(newNodeObj);
+					else if (onStack[w]) low[v] = Math.min(low[v], index[w]);
+					continue;
 				}
-				
-				if (newlyLabeledNodeList.isEmpty()) {
-					expandMode = false; // switch mode to find unlabeled node
-					searchIndex = 0;
+				callTop--;
+				if (low[v]==index[v]) {
+					int w;
+					do {
+						w = stack[--top];
+						onStack[w] = false;
+						comp_p[w] = compCount;
+					} while (w!=v);
+					compCount++;
 				}
-			}
-			else {
-				searchIndex++;
-				java.util.Iterator candNodeIT = candidateNodeList.entrySet().iterator();
-				java.util.ArrayList remList = new java.util.ArrayList();
-				java.util.ArrayList newList = new java.util.ArrayList();
-				while(candNodeIT.hasNext()) {
-					java.util.Map.Entry entry = (java.util.Map.Entry) candNodeIT.next();
-					CandidateNode candidateNodeObj = (CandidateNode) entry.getValue();
-					if (candidateNodeObj.indexDepth>searchIndex) continue;
-					Node nodeObj = (Node) entry.getKey();
-					
-					java.util.ArrayList tempArcList = nodeObj.getEdgesFrom();
-					for (int j=0; j<tempArcList.size(); j++) {
-						Arc arcObj = (Arc) tempArcList.get(j);
-						ArcDualVar dualArc = (ArcDualVar) this.arcArcMap.get(arcObj);
-						if (dualArc==null || this.reverseArcList.contains(arcObj)) continue; // reverse arc, ignore
-						Node toNode = arcObj.getToNode();
-						if (dualArc.getFlow()>0) { // traversed arc
-							if (labeledNodeList.contains(toNode)) continue;
-							
-							// back track and adjust, increment subgraph count
-							CandidateNode nextCandNode =(CandidateNode)candidateNodeList.get(nodeObj);
-							newlyLabeledNodeList.add(toNode);
-							Node nextNode;
-							while (nextCandNode!=null) {
-								ArcDualVar dualArc2 = (ArcDualVar) this.arcArcMap.get(nextCandNode.arcObj);
-								dualArc2.minFij = 1;
-								nextCandNode.arcObj.setMinMaxCount(1, Integer.MAX_VALUE);
-								this.optArcList.add(dualArc2);
-								remList.add(nextCandNode.prevNode);
-								nextCandNode = (CandidateNode) candidateNodeList.get(nextCandNode.prevNode);
-								if (nextCandNode!=null && labeledNodeList.contains(nextCandNode.prevNode)) nextCandNode=null;
-							}
-							expandMode = true;
-							oneSubgraph = false;
-						}
-						else {
-							if (labeledNodeList.contains(toNode)) continue;
-							CandidateNode canNode = (CandidateNode) candidateNodeList.get(toNode);
-							if (canNode==null) {
-								canNode = new CandidateNode(nodeObj, toNode, arcObj);
-								newList.add(canNode);
-							}
-							else {
-								if (canNode.indexDepth<=searchIndex) continue;
-								canNode.arcObj = arcObj;
-								canNode.indexDepth = searchIndex;
-								canNode.prevNode = nodeObj;
-							} //if
-						} // if 
-					} // for
-				} // while
-				for (int k=0; k<remList.size(); k++) candidateNodeList.remove(remList.get(k));
-				for (int k=0; k<newList.size(); k++) {
-					CandidateNode canNode = (CandidateNode) newList.get(k);
-					candidateNodeList.put(canNode.curNode, canNode);
+				if (callTop>0) {
+					int u = callStack[callTop-1];
+					low[u] = Math.min(low[u], low[v]);
 				}
-			} // if
-		} // while
-		return oneSubgraph;
+			}
+		}
+		return compCount;
 	}
 	
-	public class CandidateNode {
-		
-		/**
-		 * The candidate node
-		 */
-		public Node curNode;
-		
-		/**
-		 * previous node from which this unlabeld node was reached.
-		 */
-		public Node prevNode; 
-		
-		/**
-		 * arcs that leads to this node
-		 */
-		public Arc arcObj;
-		
-		/**
-		 * number of arcs (untraversed arcs) from the last labeled node.
-		 */
-		public int indexDepth = 1;
-		
-		public CandidateNode (Node prevNode_p, Node curNode_p, Arc arcObj_p) {
-			this.curNode = curNode_p;
-			this.prevNode = prevNode_p;
-			this.arcObj = arcObj_p;
+	/*
+	 * throws NoSolutionException unless the arcs with a min flow are in one strongly connected
+	 * component of the arcs that may be traversed, checked before the search in O(n+m).
+	 */
+	private void checkStronglyConnected () throws NoSolutionException {
+		boolean [] usable = new boolean [this.arcCount];
+		for (int i=0; i<this.arcCount; i++) {
+			usable[i] = !this.removedArcs.get(i) && this.maxFij[i]>0 && this.arcFromIdx[i]!=this.arcToIdx[i];
+		}
+		int [] comp = new int [this.nodes.length];
+		findComponents (usable, comp);
+		int required = -1;
+		for (int i=0; i<this.arcCount; i++) {
+			if (!usable[i] || this.minFij[i]<=0) continue;
+			if (required<0) required = comp[this.arcFromIdx[i]];
+			if (comp[this.arcFromIdx[i]]!=required || comp[this.arcToIdx[i]]!=required) {
+				throw new NoSolutionException ("Graph not strongly connected, no circle through arc " + this.arcs[i]);
+			}
+		}
+	}
+
+	/*
+	 * throws NoSolutionException unless every arc the changes made required and every flow to be
+	 * rerouted can be closed to a circle, a search over the arcs that may be traversed from the head
+	 * back to the tail of each.  Checks only what the changes touched instead of the whole network.
+	 */
+	private void checkEditsConnected () throws NoSolutionException {
+		for (int k=0; k<this.requiredEdits.size(); k++) {
+			int i = this.requiredEdits.get(k).intValue();
+			if (this.removedArcs.get(i) || checkFlow(i)>=0) continue;
+			if (!isReachable(this.arcToIdx[i], this.arcFromIdx[i])) {
+				throw new NoSolutionException ("Graph not strongly connected, no circle through arc " + this.arcs[i]);
+			}
+		}
+		this.requiredEdits.clear();
+		for (int k=0; k<this.pendingReroutes.size(); k++) {
+			int [] reroute = this.pendingReroutes.get(k);
+			if (!isReachable(reroute[0], reroute[1])) {
+				throw new NoSolutionException ("Graph not strongly connected, no path from node " 
+						+ this.nodes[reroute[0]] + " to node " + this.nodes[reroute[1]]);
+			}
 		}
-		
-		public int addIndexPath() { return ++this.indexDepth; }
-		
 	}
 	
-	
+	/*
+	 * returns true if node t_p can be reached from node s_p over the arcs that may be traversed.
+	 */
+	private boolean isReachable (int s_p, int t_p) {
+		if (s_p==t_p) return true;
+		int stamp = ++this.visitCount;
+		int top = 0;
+		this.visitStamp[s_p] = stamp;
+		this.searchStack[top++] = s_p;
+		while (top>0) {
+			int u = this.searchStack[--top];
+			for (int k=this.searchStart[u]; k<this.searchStart[u+1]; k++) {
+				int h = this.searchHalf[k];
+				int i = h >> 1;
+				if ((h&1)!=0 || this.removedArcs.get(i) || this.maxFij[i]<=0) continue;
+				int v = this.arcToIdx[i];
+				if (this.visitStamp[v]==stamp) continue;
+				if (v==t_p) return true;
+				this.visitStamp[v] = stamp;
+				this.searchStack[top++] = v;
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * Performs the algorithm steps.  May call this method if additional arcs are added or required flowNum is changed.
-	 * @param spOptimzer_p
 	 * @throws NoSolutionException
 	 * @throws InterruptedException
 	 */
-	private void runAlgorithm(DijkstraAlgorithm spOptimzer_p) throws NoSolutionException, InterruptedException {
-		while (!this.optimized && !optArcList.isEmpty()) {
+	private void runAlgorithm() throws NoSolutionException, InterruptedException {
+		while (!this.optimized && this.optArcCount>0) {
 			
 			if (Thread.interrupted()) {
 				throw new InterruptedException ("Search interrupted.");
@@ -539,49 +1112,18 @@ public class LinZhaoAlgorithm extends AlgorithmTask implements PostmanAlgorithmI
 			long iterationStartMillis = System.currentTimeMillis();
 			this.iterationCount++;
 
-			ArcDualVar arcObj = findNextArc(optArcList);
-			if (arcObj==null) break;
-	
-			Node t = arcObj.arcObj.getFromNode();
-			Node s = arcObj.arcObj.getToNode();
-			if (arcObj.checkFlow()==-1 && !arcObj.directed) {
-				arcObj.arcObj.setDist(arcObj.originalDist);
-				if (arcObj.reverseArcObj!=null)
-					arcObj.reverseArcObj.setDist(arcObj.originalDist);
-			}
-			spOptimzer_p.reset();
-			ShortestPath [] spPaths = spOptimzer_p.getShortestPaths(s);
-			if (spPaths==null || spPaths.length==0) throw new NoSolutionException ("Graph not strongly connected. Search aborted at node: " + s);
-			ShortestPath spPath = ShortestPath.selectShortestPath(spPaths, s, t);
-			if (spPath==null) throw new NoSolutionException ("Graph not strongly connected. Search aborted at node: " + s);
-
-			Arc [] loopArcList = spPath.getPathArcs();
-			
-			adjustFlow(arcObj, arcObj.arcObj, true);
-			Node lastNode = s;
-			for (int i=0; i<loopArcList.length; i++) {
-				ArcDualVar tempArc = (ArcDualVar) this.arcArcMap.get(loopArcList[i]);
-				if (tempArc.arcObj.getFromNode().isSameAs(lastNode)) {
-					adjustFlow(tempArc, loopArcList[i], true);
-					lastNode = tempArc.arcObj.getToNode();
-				}
-				else {
-					adjustFlow(tempArc, loopArcList[i], false);
-					lastNode = tempArc.arcObj.getFromNode();
+			int arcIdx = findNextArc();
+			if (arcIdx<0) break;
+	
+			if (checkFlow(arcIdx)==-1 && !this.directedArcs.get(arcIdx)) {
+				this.arcs[arcIdx].setDist(this.originalDist[arcIdx]);
+				arcChanged(this.arcs[arcIdx]);
+				if (this.reverseArcs[arcIdx]!=null) {
+					this.reverseArcs[arcIdx].setDist(this.originalDist[arcIdx]);
+					arcChanged(this.reverseArcs[arcIdx]);
 				}
 			}
-			
-			for (int j=0; j<this.arcList.size(); j++) {
-				ArcDualVar tempArc = (ArcDualVar) this.arcList.get(j);
-				// calculate R(i,j) dualR
-				double tCost = spPath.getPathDist();
-				ShortestPath spI = null;
-				if (!s.isSameAs(tempArc.arcObj.getFromNode())) ShortestPath.selectShortestPath(spPaths, s, tempArc.arcObj.getFromNode());
-				ShortestPath spJ = null;
-				if (!s.isSameAs(tempArc.arcObj.getToNode())) ShortestPath.selectShortestPath(spPaths, s, tempArc.arcObj.getToNode());
-				tempArc.Rij = Math.min((spI==null?0:spI.getPathDist()), tCost) +
-						tempArc.Rij - Math.min((spJ==null?0:spJ.getPathDist()), tCost);
-			}
+			addPath (this.arcToIdx[arcIdx], this.arcFromIdx[arcIdx], arcIdx);
 			
 			this.lastIterationStartMillis = iterationStartMillis;
 			this.lastIterationEndMillis = System.currentTimeMillis();
@@ -590,23 +1132,186 @@ public class LinZhaoAlgorithm extends AlgorithmTask implements PostmanAlgorithmI
 		return;
 	}
 	
+	/*
+	 * finds the shortest path from node s_p to t_p, adds one unit of flow to the arc arcIdx_p (-1 for none)
+	 * and the arcs on the path, and updates the dual variables.
+	 */
+	private void addPath (int s_p, int t_p, int arcIdx_p) throws NoSolutionException {
+		if (this.dynSpOptimizer==null) searchFrom (s_p, t_p);
+		else {
+			double [] treeDist = this.dynSpOptimizer.getDistList(this.nodes[s_p]);
+			for (int v=0; v<this.nodes.length; v++) {
+				this.nodeDist[v] = (this.dynNodeIdx[v]<0)? Double.POSITIVE_INFINITY: treeDist[this.dynNodeIdx[v]];
+			}
+		}
+		int len = selectPath (s_p, t_p);
+		if (len<0) {
+			this.unreachableNodeList = new java.util.ArrayList<Vertex>();
+			for (int v=0; v<this.nodes.length; v++) {
+				if (this.nodeDist[v]==Double.POSITIVE_INFINITY && this.nodes[v].isActive()) this.unreachableNodeList.add(this.nodes[v]);
+			}
+			throw new NoSolutionException ("Graph not strongly connected. Search aborted at node: " + this.nodes[s_p]);
+		}
+		
+		if (arcIdx_p>=0) adjustFlow(arcIdx_p, this.arcs[arcIdx_p], true);
+		for (int k=0; k<len; k++) {
+			int h = this.pathHalfs[k];
+			if ((h&1)==0) adjustFlow(h>>1, this.arcs[h>>1], true);
+			else adjustFlow(h>>1, this.reverseArcs[h>>1], false);
+		}
+		
+		updateDualVar (this.nodeDist[t_p]);
+	}
+	
+	/*
+	 * Dijkstra from node s_p over the search network into nodeDist.  Stops once the nodes up to d(s,t)
+	 * are labeled: the others are further away than d(s,t), which is all selectPath() and updateDualVar()
+	 * look at.
+	 */
+	private void searchFrom (int s_p, int t_p) {
+		java.util.Arrays.fill(this.nodeDist, Double.POSITIVE_INFINITY);
+		this.searchHeap.clear();
+		this.nodeDist[s_p] = 0;
+		this.searchHeap.insertOrDecrease(s_p, 0);
+		double tDist = Double.POSITIVE_INFINITY;
+		while (!this.searchHeap.isEmpty()) {
+			int v = this.searchHeap.removeMin();
+			if (this.nodeDist[v]>tDist) break;
+			if (v==t_p) tDist = this.nodeDist[v];
+			for (int k=this.searchStart[v]; k<this.searchStart[v+1]; k++) {
+				int h = this.searchHalf[k];
+				double d = getHalfDist(h);
+				if (d<0) continue;
+				int u = getHalfHead(h);
+				double nd = this.nodeDist[v] + d;
+				if (nd<this.nodeDist[u] && this.nodes[u].isActive()) {
+					this.nodeDist[u] = nd;
+					this.searchHeap.insertOrDecrease(u, nd);
+				}
+			}
+		}
+		this.searchHeap.clear();
+	}
+
+	/*
+	 * selects the path from s_p to t_p among the equally short ones with a depth first search over
+	 * the arcs on shortest paths, d(s,i) + c(i,j) = d(s,j), in the network arc order.  The full and
+	 * the incremental searches report the same distances but break the ties differently, and with the
+	 * satisfied arcs priced at R(i,j) the ties do change the tour.  Choosing the path from the distances
+	 * makes both searches take the same path.  Going deep first favors the longer of the equally short
+	 * paths, which covers more arcs per circle and takes fewer iterations than the fewest arc path.
+	 * Leaves the half arcs of the path in pathHalfs and returns their number, -1 if t_p is not reachable.
+	 */
+	private int selectPath (int s_p, int t_p) {
+		double tDist = this.nodeDist[t_p];
+		if (tDist==Double.POSITIVE_INFINITY) return -1;
+		int stamp = ++this.visitCount;
+		int top = 0;
+		this.visitStamp[s_p] = stamp;
+		this.searchStack[top++] = s_p;
+		while (top>0 && (t_p==s_p || this.visitStamp[t_p]!=stamp)) {
+			int u = this.searchStack[--top];
+			for (int k=this.searchStart[u]; k<this.searchStart[u+1]; k++) {
+				int h = this.searchHalf[k];
+				int v = getHalfHead(h);
+				if (this.visitStamp[v]==stamp || this.nodeDist[v]>tDist) continue;
+				double d = getHalfDist(h);
+				if (d<0 || !this.nodes[v].isActive()) continue;
+				double gap = this.nodeDist[u] + d - this.nodeDist[v];
+				if (gap>1e-9*Math.max(1, this.nodeDist[v])) continue;
+				this.visitStamp[v] = stamp;
+				this.parentHalf[v] = h;
+				this.searchStack[top++] = v;
+			}
+		}
+		if (t_p!=s_p && this.visitStamp[t_p]!=stamp) return -1;
+		int len = 0;
+		for (int v=t_p; v!=s_p; v=getHalfHead(this.parentHalf[v]^1)) len++;
+		int k = len;
+		for (int v=t_p; v!=s_p; v=getHalfHead(this.parentHalf[v]^1)) this.pathHalfs[--k] = this.parentHalf[v];
+		return len;
+	}
+
+	/*
+	 * updates R(i,j) = min(d(s,i),t) + R(i,j) - min(d(s,j),t) for all arcs in one pass, where d(s,i)
+	 * is the shortest distance from s to node i, as kept in nodeDist by addPath, and t = d(s,t).  Nodes not labeled by the search
+	 * are at least t away from s.  Satisfied arcs take R(i,j) as their distance for the next search,
+	 * which keeps R(i,j) non negative but for the arcs waiting for repriceArc().
+	 */
+	private void updateDualVar (double tCost_p) {
+		for (int v=0; v<this.nodes.length; v++) this.nodeDual[v] += Math.min(this.nodeDist[v], tCost_p);
+		for (int j=0; j<this.arcCount; j++) {
+			double di = Math.min(this.nodeDist[this.arcFromIdx[j]], tCost_p);
+			double dj = Math.min(this.nodeDist[this.arcToIdx[j]], tCost_p);
+			double r = di + this.Rij[j] - dj;
+			this.Rij[j] = (r<0 && this.Rij[j]>=0)? 0: r; // negative only by rounding
+			if (this.dynSpOptimizer!=null && checkFlow(j)==0 && this.arcs[j].getDist()!=this.Rij[j] && !this.removedArcs.get(j)) {
+				this.arcs[j].setDist(this.Rij[j]);
+				arcChanged(this.arcs[j]);
+			}
+		}
+	}
+	
+	/*
+	 * makes R(i,j) of the arc non negative again after a change made it negative, an arc added or
+	 * made shorter.  R(i,j) &lt; 0 prices the circles through the arc below their cost, so while the
+	 * shortest path back from j to i, without the arc, is shorter than -R(i,j), the circle of the arc
+	 * and the path costs less than nothing and is added, one search each.  Then the dual variables 
+	 * of the nodes within -R(i,j) of j are shifted as by a search up to that distance, which brings
+	 * R(i,j) to 0 and keeps the other R(i,j) non negative.
+	 */
+	private void repriceArc (int arcIdx_p) throws NoSolutionException {
+		int from = this.arcFromIdx[arcIdx_p], to = this.arcToIdx[arcIdx_p];
+		this.excludedArc = arcIdx_p;
+		try {
+			while (this.Rij[arcIdx_p]<0 && !this.removedArcs.get(arcIdx_p)) {
+				this.iterationCount++;
+				searchFrom (to, from);
+				double backDist = this.nodeDist[from];
+				if (backDist + this.Rij[arcIdx_p]>=0) {
+					updateDualVar (-this.Rij[arcIdx_p]);
+					this.Rij[arcIdx_p] = 0; // exactly 0, not left below by rounding
+					break;
+				}
+				int len = selectPath (to, from);
+				adjustFlow(arcIdx_p, this.arcs[arcIdx_p], true);
+				for (int k=0; k<len; k++) {
+					int h = this.pathHalfs[k];
+					adjustFlow(h>>1, ((h&1)==0)? this.arcs[h>>1]: this.reverseArcs[h>>1], (h&1)==0);
+				}
+				updateDualVar (backDist);
+			}
+		}
+		finally {
+			this.excludedArc = -1;
+		}
+	}
+
 	/*
 	 * adds a reverse arc to the addArcList_p passed in.  If this arc is an directed arc,
 	 * it does nothing and just returns.  Otherwise continue: if the reverse arc already exists,
 	 * it just sets its cost to reverseCost_p. 
 	 *
 	 */
-	protected void addReverseArc (ArcDualVar arcObj_p, double reverseCost_p) {
-		if (arcObj_p.reverseArcObj!=null) {
-			arcObj_p.reverseArcObj.setDist(reverseCost_p);
-			arcObj_p.reverseArcObj.activate();
+	protected void addReverseArc (int arcIdx_p, double reverseCost_p) {
+		if (this.reverseArcs[arcIdx_p]!=null) {
+			this.reverseArcs[arcIdx_p].setDist(reverseCost_p);
+			this.reverseArcs[arcIdx_p].activate();
+			arcChanged(this.reverseArcs[arcIdx_p]);
 		}
 		else {
-			arcObj_p.reverseArcObj = (PostmanArc) this.networkObj.addArc(arcObj_p.arcObj.getToNode(), arcObj_p.arcObj.getFromNode(), reverseCost_p, true);
-			this.reverseArcList.add(arcObj_p.reverseArcObj);
-			this.arcArcMap.put(arcObj_p.reverseArcObj, arcObj_p);
+			this.reverseArcs[arcIdx_p] = (PostmanArc) this.networkObj.addArc(this.arcs[arcIdx_p].getToNode(), this.arcs[arcIdx_p].getFromNode(), reverseCost_p, true);
+			this.arcIdxMap.put(this.reverseArcs[arcIdx_p], Integer.valueOf(this.arcCount + arcIdx_p));
+			if (this.dynSpOptimizer!=null) this.dynSpOptimizer.arcAdded(this.reverseArcs[arcIdx_p]);
 		}
 	}
+	
+	/*
+	 * notifies the incremental shortest path algorithm, if used, that the arc distance or status has changed.
+	 */
+	private void arcChanged (Arc arcObj_p) {
+		if (this.dynSpOptimizer!=null) this.dynSpOptimizer.arcChanged(arcObj_p);
+	}
 
 
 
@@ -615,37 +1320,40 @@ public class LinZhaoAlgorithm extends AlgorithmTask implements PostmanAlgorithmI
 	 */
 	protected double postOptimize () {
 		
-		return 0; // use LinHeuristicAlgorithm package for mixed and undirected graph/network.
+		return 0; // use MixedPostmanAlgorithm or UndirectedPostmanAlgorithm for mixed and undirected graph/network.
 	}
 	
 	/*
 	 * adjust the flow that cancels each other (flow going in opposite direction),
 	 * calculate dual variables, sets shortest path distance for the arcs.
 	 */
-	public void adjustFlow(ArcDualVar dualArcObj_p, Arc arcObj_p, boolean forwardFlow_p) {
-		if (forwardFlow_p) dualArcObj_p.fij++;
-		else dualArcObj_p.fij--;
+	public void adjustFlow(int arcIdx_p, Arc arcObj_p, boolean forwardFlow_p) {
+		if (forwardFlow_p) this.fij[arcIdx_p]++;
+		else this.fij[arcIdx_p]--;
+		this.searchedNodes.set(this.arcFromIdx[arcIdx_p]);
+		this.searchedNodes.set(this.arcToIdx[arcIdx_p]);
+		if (this.dynSpOptimizer==null) return; // the search reads the distances from the flows, see getHalfDist()
 
-		int checkFlow = dualArcObj_p.checkFlow();
+		PostmanArc dualArcObj = this.arcs[arcIdx_p];
+		PostmanArc reverseArcObj = this.reverseArcs[arcIdx_p];
+		int checkFlow = checkFlow(arcIdx_p);
 		if (checkFlow==0) {
-			dualArcObj_p.arcObj.setDist(dualArcObj_p.Rij);
-			if (dualArcObj_p.reverseArcObj!=null) {
-				dualArcObj_p.reverseArcObj.inactivate();
+			dualArcObj.setDist(this.Rij[arcIdx_p]);
+			if (reverseArcObj!=null) {
+				reverseArcObj.inactivate();
 			}
 		}
 		else if (checkFlow>0){ // over satisfied
-			dualArcObj_p.arcObj.setDist(0);
-			if (dualArcObj_p.reverseArcObj==null) addReverseArc(dualArcObj_p, 0); // set to negative, requires shortest path algorithm to support negative cost
-			else dualArcObj_p.reverseArcObj.activate();
+			dualArcObj.setDist(0);
+			if (reverseArcObj==null) addReverseArc(arcIdx_p, 0); // set to negative, requires shortest path algorithm to support negative cost
+			else reverseArcObj.activate();
 		}
 		else {
-			dualArcObj_p.arcObj.setDist(0);
-			if (dualArcObj_p.reverseArcObj!=null) dualArcObj_p.reverseArcObj.inactivate();
+			dualArcObj.setDist(0);
+			if (reverseArcObj!=null) reverseArcObj.inactivate();
 		}
-		
-		this.searchedNodeList.put(arcObj_p.getFromNode(), dualArcObj_p);
-		this.searchedNodeList.put(arcObj_p.getToNode(), dualArcObj_p);
-		return;
+		arcChanged(dualArcObj);
+		if (this.reverseArcs[arcIdx_p]!=null) arcChanged(this.reverseArcs[arcIdx_p]);
 	}
 	
 	/**
@@ -654,15 +1362,16 @@ public class LinZhaoAlgorithm extends AlgorithmTask implements PostmanAlgorithmI
 	 *
 	 */
 	protected void resetNetwork () {
-		java.util.Iterator it = this.arcArcMap.entrySet().iterator();
-		while (it.hasNext()) {
-			java.util.Map.Entry entry = (java.util.Map.Entry) it.next();
-			ArcDualVar dualArc = (ArcDualVar) entry.getValue();
-			dualArc.arcObj.activate();
-			dualArc.arcObj.setDist(dualArc.originalDist);
-			dualArc.arcObj.setCount(dualArc.getFlow());
-			if (dualArc.reverseArcObj==null) continue;
-			this.networkObj.removeArc(dualArc.reverseArcObj);
+		for (int i=0; i<this.arcCount; i++) {
+			if (!this.removedArcs.get(i)) {
+				this.arcs[i].activate();
+				this.arcs[i].setDist(this.originalDist[i]);
+				this.arcs[i].setCount(getFlow(i));
+			}
+			if (this.reverseArcs[i]==null) continue;
+			this.networkObj.removeArc(this.reverseArcs[i]);
+			this.arcIdxMap.remove(this.reverseArcs[i]);
+			this.reverseArcs[i] = null;
 		}
 		
 		for (int i=0; i<this.selfArcList.size(); i++) {
@@ -672,59 +1381,13 @@ public class LinZhaoAlgorithm extends AlgorithmTask implements PostmanAlgorithmI
 		}
 	}
 	
-	/**
-	 * internal structure
-	 * @author Yaxiong Lin
-	 *
-	 */
-	public class ArcDualVar {
-		public PostmanArc arcObj;
-		public PostmanArc reverseArcObj;
-		public double originalDist;
-		public double Rij;
-		public double wij;
-		public int fij;
-		public int fji;
-		public int minFij;
-		public int maxFij;
-		public boolean directed;
-		
-		public ArcDualVar (PostmanArc arcObj_p) {
-			this.arcObj = arcObj_p;
-			this.Rij = arcObj_p.getDist();
-			this.fij = 0;
-			this.wij = 0;
-			this.fji = 0;
-			this.minFij = this.arcObj.getMinTraverseCount();
-			this.maxFij = this.arcObj.getMaxTraverseCount();
-			this.originalDist = this.arcObj.getDist();
-			this.directed = arcObj_p.isDirected();
-			if (this.minFij<=0) this.wij = this.Rij;
-		}
-		
-		/*
-		 * returns negative for not satisfied (flow# needed to satisfy), 0 for satisfied, positive#
-		 * for over satisfied (flow# over the minFlowNum
-		 */
-		public int checkFlow () {
-			int ret;
-			ret = this.fij + this.fji - this.minFij;
-			return ret;
-		}
-
-		public int getFlow() {
-			return this.fij+this.fji;
-		}
-
-	}
-
 	/**
 	 * returns the percentage of search status. 0 - 100 (%).
 	 */
 	public int getProgressPercentage() {
-		if (this.arcList==null || this.arcList.isEmpty() ||
-			this.optArcList==null ) return 0;
-		int pct= Math.round((this.arcList.size()-this.optArcList.size())*100/this.arcList.size());
+		if (this.arcs==null || this.arcCount==0 ||
+			this.optArcs==null ) return 0;
+		int pct= Math.round((this.arcCount-this.optArcCount)*100/this.arcCount);
 		return pct;
 	}
 
@@ -745,12 +1408,10 @@ public class LinZhaoAlgorithm extends AlgorithmTask implements PostmanAlgorithmI
 
 	
 	public String toString() {
-		java.util.ArrayList tempList = this.arcList;
 		StringBuffer retBuf = new StringBuffer("From, To, dist, min, flow\n");
-		for (int i=0; i<tempList.size(); i++) {
-			ArcDualVar dualArcObj = (ArcDualVar) tempList.get(i);
-			retBuf.append(dualArcObj.arcObj.getFromNode().getMarker()).append(",").append(dualArcObj.arcObj.getToNode().getMarker())
-				.append(",").append(dualArcObj.arcObj.getDist()).append(",").append(dualArcObj.minFij).append(",").append(dualArcObj.fij).append("\n");
+		for (int i=0; i<this.arcCount; i++) {
+			retBuf.append(this.arcs[i].getFromNode().getMarker()).append(",").append(this.arcs[i].getToNode().getMarker())
+				.append(",").append(this.arcs[i].getDist()).append(",").append(this.minFij[i]).append(",").append(this.fij[i]).append("\n");
 		}
 		return retBuf.toString();
 	}
@@ -760,7 +1421,8 @@ public class LinZhaoAlgorithm extends AlgorithmTask implements PostmanAlgorithmI
 	 * @return list of vertex
 	 */
 	public java.util.ArrayList<Vertex> getUnReachableVertexList() {
-		return this.spOptimzer.getUnReachableVertexList();
+		if (this.dynSpOptimizer!=null) return this.dynSpOptimizer.getUnReachableVertexList();
+		return this.unreachableNodeList;
 	}
 	
 }
@@ -0,0 +1,770 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ * 
+ * This library is free software; you can redistribute it and/or modify it under the 
+ * terms of the GNU Lesser General Public License as published by the Free Software 
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with 
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place, 
+ * Suite 330, Boston, MA 02111-1307 USA 
+ * 
+ * @author Yaxiong Lin
+ * @version 1.0
+ * 
+ */
+package openOptima.network.postman;
+
+import openOptima.AlgorithmTask;
+import openOptima.NoSolutionException;
+import openOptima.NotImplementedException;
+import openOptima.ObjectFactory;
+import openOptima.PerformanceStatIntf;
+import openOptima.graph.GraphIndex;
+import openOptima.graph.euler.EulerPathAlgorithmIntf;
+import openOptima.graph.euler.EulerTour;
+import openOptima.graph.euler.EulerTourListenerIntf;
+import openOptima.graph.euler.HierholzerAlgorithm;
+import openOptima.network.Node;
+import openOptima.network.shortestpath.IndexedMinHeap;
+
+/**
+ * Directed postman algorithm that finds the number of traverses of every arc with a single
+ * min cost flow instead of one shortest path search per unsatisfied arc.
+ * <p>
+ * Every arc starts with its minimum traverse count as the flow.  The difference between the
+ * flow into and out of each node is then removed by the primal-dual method: a Dijkstra
+ * search on the reduced costs updates the node potentials and the flow is pushed along all
+ * the zero reduced cost paths (blocking flow) before the next search.  Each extra traverse
+ * of an arc costs the repeat distance, the first traverse of an optional arc (min count 0)
+ * costs its distance.  The arcs are read into a compressed (CSR) view of the network so the
+ * searches do not touch the network objects.
+ * <p>
+ * If the traversed arcs form more than one subgraph, the cheapest chain of optional arcs
+ * from the first subgraph to another one is forced into the solution and the flow is
+ * balanced again, until all traversed arcs are connected.  The arc counts found are set on
+ * the network arcs and the Euler tour is built by openOptima.graph.euler.HierholzerAlgorithm
+ * unless another algorithm is selected with setEulerAlgorithm().
+ * <p>
+ * With a budget set (see {@link #setBudget(long, long)}) the searches stop once the deadline or
+ * the max iteration count is reached and the imbalances left are removed greedily: one search
+ * from all nodes with excess, after which every node with deficit takes the flow from the
+ * excess node it was reached from.  The cost of the first balanced flow (or of the flow at the
+ * stop plus the imbalance left times the cost of the last augmenting path, as the path costs
+ * never decrease) bounds the optimal tour from below.
+ * @author Yaxiong Lin
+ *
+ */
+public class MinCostFlowPostmanAlgorithm extends AlgorithmTask implements AnytimePostmanAlgorithmIntf, StreamingPostmanAlgorithmIntf, PerformanceStatIntf {
+	private static final double INF = Double.POSITIVE_INFINITY;
+	private static final double EPSILON = 1e-7;
+
+	/**
+	 * Postman network object
+	 */
+	protected PostmanNetwork networkObj;
+	protected boolean optimized = false;
+	protected long optimizedVersion = -1;
+	protected long iterationCount = 0;
+	protected long augmentCount = 0;
+	protected long millisTook = 0;
+	private long totalImbalance = 0;
+	private long remainingImbalance = 0;
+	private long budgetMillis = 0;
+	private long budgetIterations = 0;
+	private long startMillis = 0;
+	private boolean budgetExhausted = false;
+	private boolean firstBalance = false;
+	private long greedyCount = 0;
+	private double lastPathCost = 0;
+	private double lowerBound = 0;
+	private double tourDist = 0;
+	private EulerPathAlgorithmIntf eulerObj = new HierholzerAlgorithm ();
+	private EulerTour tourObj = null; // tour of the last optimization, see getPostmanPath()
+	private long tourVersion = -1;
+
+	protected GraphIndex idx;
+	protected int nodeCount;
+	protected int arcCount;
+	protected boolean [] skip; // self loops
+	protected int [] lower;
+	protected int [] upper;
+	protected int [] flow;
+	protected double [] firstCost;
+	private double [] repeatCost;
+	protected int [] excess; // flow in - flow out
+	private double [] pot;
+
+	// residual arcs: 2e forward along arc e, 2e+1 backward, grouped by the node they start at
+	private int [] resStart;
+	private int [] resArc;
+
+	/**
+	 * default constructor.
+	 */
+	public MinCostFlowPostmanAlgorithm () {
+	}
+
+	/**
+	 * sets the network object to the algorithm.
+	 * @throws NotImplementedException if the graph object contains undirected arcs.
+	 */
+	public void init (PostmanNetwork networkObj_p) throws NotImplementedException {
+		if (!networkObj_p.isDirected())
+			throw new NotImplementedException ("The network is either not a directed graph or contains no arcs.  Only directed graph/network with at least two arcs is supported.");
+		this.networkObj = networkObj_p;
+		this.optimized = false;
+		this.tourObj = null;
+	}
+
+	/**
+	 * Execute the algorithm and return the optimal postman path starting at fromNode_p.
+	 * @param fromNode_p starting node #
+	 * @return PostmanPath object
+	 * @throws NoSolutionException if no solution can be found, typically this is caused
+	 *  by the graph not strongly connected.
+	 * @throws InterruptedException interrupted
+	 */
+	public PostmanPath getPostmanPath (int fromNode_p) throws NoSolutionException, InterruptedException {
+		Node startNode = this.networkObj.getNode(fromNode_p);
+		if (startNode==null) throw new NoSolutionException ("Node not found: " + fromNode_p);
+		return this.getPostmanPath(startNode);
+	}
+
+	/**
+	 * Execute the algorithm and return the optimal postman path starting at startNode_p.
+	 * @param startNode_p starting node object
+	 * @return PostmanPath object
+	 * @throws NoSolutionException if no solution can be found, typically this is caused
+	 *  by the graph not strongly connected.
+	 * @throws InterruptedException interrupted
+	 */
+	public PostmanPath getPostmanPath (Node startNode_p) throws NoSolutionException, InterruptedException {
+		if (!this.optimized || this.optimizedVersion!=this.networkObj.getVersion()) this.optimize();
+
+		EulerTour pathArcs;
+		if (this.tourObj==null || this.tourVersion!=this.networkObj.getVersion()) {
+			this.eulerObj.init(this.networkObj);
+			pathArcs = EulerTour.getEulerTour(this.eulerObj, startNode_p);
+			if (!this.eulerObj.isEulerian()) {
+				throw new NoSolutionException ("Euler tour not found.");
+			}
+			this.tourObj = pathArcs;
+			this.tourVersion = this.networkObj.getVersion();
+		}
+		else {
+			// the tours from the other start nodes are rotated views of the tour found
+			pathArcs = this.tourObj.rotate(startNode_p);
+			if (pathArcs==null) throw new NoSolutionException ("Node not found in the postman tour: " + startNode_p);
+		}
+		PostmanPath pathObj = new PostmanPath ();
+		pathObj.setPathArcList(pathArcs);
+		return pathObj;
+	}
+
+	/**
+	 * selects the Euler tour algorithm used to build the postman path from the arc counts
+	 * found, openOptima.graph.euler.HierholzerAlgorithm by default.  openOptima.graph.euler.HierholzerAlgorithm runs in
+	 * linear time, openOptima.graph.euler.LinAlgorithm varies the pairs of arcs traversed in
+	 * and out of a node.
+	 * @param algorithmClass_p class name of an EulerPathAlgorithmIntf implementation
+	 * @throws InstantiationException error creating object
+	 * @throws IllegalAccessException illegal
+	 * @throws ClassNotFoundException class not found
+	 */
+	public void setEulerAlgorithm (String algorithmClass_p)
+		throws InstantiationException, IllegalAccessException, ClassNotFoundException {
+		this.eulerObj = (EulerPathAlgorithmIntf) ObjectFactory.newInstance(algorithmClass_p);
+		this.tourObj = null;
+	}
+
+	/**
+	 * passes the arcs of the postman tour starting at fromNode_p to the listener one at a
+	 * time, see HierholzerAlgorithm.streamEulerPath().  The tour is not kept in memory.
+	 * @param fromNode_p starting node #
+	 * @param listenerObj_p listener
+	 * @return number of arcs passed to the listener
+	 * @throws NoSolutionException if no solution can be found
+	 * @throws InterruptedException interrupted
+	 */
+	public long streamPostmanPath (int fromNode_p, EulerTourListenerIntf listenerObj_p) throws NoSolutionException, InterruptedException {
+		Node startNode = this.networkObj.getNode(fromNode_p);
+		if (startNode==null) throw new NoSolutionException ("Node not found: " + fromNode_p);
+		if (!this.optimized || this.optimizedVersion!=this.networkObj.getVersion()) this.optimize();
+		HierholzerAlgorithm streamObj = new HierholzerAlgorithm ();
+		streamObj.init(this.networkObj);
+		return streamObj.streamEulerPath(startNode, listenerObj_p);
+	}
+
+	/**
+	 * finds the n-postmen paths: the optimal single postman tour is split into n closed walks
+	 * from fromNode_p with balanced lengths, see {@link PostmanTourSplitter}.
+	 * @param fromNode_p starting node #
+	 * @param n_p postmen count
+	 * @return postman paths, fewer than n_p if the tour has fewer than n_p arcs
+	 * @throws NoSolutionException if no solution can be found
+	 * @throws InterruptedException interrupted
+	 */
+	public PostmanPath [] getPostmanPaths (int fromNode_p, int n_p) throws NoSolutionException, InterruptedException {
+		return new PostmanTourSplitter (this.networkObj).split(this.getPostmanPath(fromNode_p), fromNode_p, n_p);
+	}
+
+	/**
+	 * finds the number of traverses of each arc and sets it as the arc count.
+	 * @throws NoSolutionException if the network is not strongly connected or the max traverse counts are too low.
+	 * @throws InterruptedException interrupted
+	 */
+	public void optimize () throws NoSolutionException, InterruptedException {
+		this.startMillis = System.currentTimeMillis();
+		this.optimized = false;
+		this.tourObj = null;
+		this.iterationCount = 0;
+		this.augmentCount = 0;
+		this.greedyCount = 0;
+		this.budgetExhausted = false;
+		this.lastPathCost = 0;
+		buildIndex ();
+
+		this.totalImbalance = 0;
+		for (int v=0; v<this.nodeCount; v++) {
+			if (this.excess[v]>0) this.totalImbalance += this.excess[v];
+		}
+		this.remainingImbalance = this.totalImbalance;
+		this.firstBalance = true;
+		balance ();
+		this.firstBalance = false;
+		if (!this.budgetExhausted) this.lowerBound = flowCost();
+		connectTraversedArcs ();
+		for (int v=0; v<this.nodeCount; v++) {
+			if (this.excess[v]>0) {
+				this.totalImbalance += this.excess[v];
+				this.remainingImbalance += this.excess[v];
+			}
+		}
+		balance ();
+		while (connectSubGraphs(checkBudget())) {
+			balance ();
+		}
+
+		for (int e=0; e<this.arcCount; e++) {
+			PostmanArc arcObj = (PostmanArc) this.idx.getEdge(e);
+			if (this.skip[e]) arcObj.setCount(Math.max(arcObj.getMinTraverseCount(), 0));
+			else arcObj.setCount(this.flow[e]);
+		}
+		this.tourDist = flowCost();
+		this.optimized = true;
+		this.optimizedVersion = this.networkObj.getVersion();
+		this.millisTook = System.currentTimeMillis() - this.startMillis;
+	}
+
+	/**
+	 * sets the budget for the next optimization, the network must be optimized again
+	 * for a new budget to take effect.
+	 * @param millis_p max milliseconds before the optimization is completed greedily, 0 for no limit
+	 * @param maxIterations_p max number of Dijkstra searches before the optimization is completed greedily, 0 for no limit
+	 */
+	public void setBudget (long millis_p, long maxIterations_p) {
+		this.budgetMillis = Math.max(millis_p, 0);
+		this.budgetIterations = Math.max(maxIterations_p, 0);
+	}
+
+	public boolean isBudgetExhausted () { return this.budgetExhausted; }
+
+	public long getRemainingMillis () {
+		if (this.budgetMillis<=0) return -1;
+		long usedMillis = this.optimized? this.millisTook: System.currentTimeMillis() - this.startMillis;
+		return Math.max(this.budgetMillis - usedMillis, 0);
+	}
+
+	public double getLowerBound () { return this.lowerBound; }
+
+	public double getOptimalityGap () {
+		if (!this.optimized || this.tourDist<=0) return 0;
+		return Math.max(0, (this.tourDist - this.lowerBound) / this.tourDist);
+	}
+
+	/*
+	 * checks the budget before the next search, remembers once it is used up.
+	 */
+	private boolean checkBudget () {
+		if (this.budgetExhausted) return true;
+		if (this.budgetIterations>0 && this.iterationCount>=this.budgetIterations) this.budgetExhausted = true;
+		else if (this.budgetMillis>0 && System.currentTimeMillis()-this.startMillis>=this.budgetMillis) this.budgetExhausted = true;
+		return this.budgetExhausted;
+	}
+
+	/*
+	 * distance of the tour with the current flow: the first traverse of an arc at its distance,
+	 * the others at the repeat distance.
+	 */
+	private double flowCost () {
+		double cost = 0;
+		for (int e=0; e<this.arcCount; e++) {
+			if (this.skip[e] || this.flow[e]==0) continue;
+			cost += this.firstCost[e] + (this.flow[e]-1) * this.repeatCost[e];
+		}
+		return cost;
+	}
+
+	/*
+	 * reads the network into arrays and sets the initial flow to the min traverse counts.
+	 */
+	private void buildIndex () throws NoSolutionException {
+		this.idx = new GraphIndex (this.networkObj, true);
+		this.nodeCount = this.idx.getVertexCount();
+		this.arcCount = this.idx.getEdgeCount();
+		this.skip = new boolean [this.arcCount];
+		this.lower = new int [this.arcCount];
+		this.upper = new int [this.arcCount];
+		this.flow = new int [this.arcCount];
+		this.firstCost = new double [this.arcCount];
+		this.repeatCost = new double [this.arcCount];
+		this.excess = new int [this.nodeCount];
+		this.pot = new double [this.nodeCount];
+		for (int e=0; e<this.arcCount; e++) {
+			PostmanArc arcObj = (PostmanArc) this.idx.getEdge(e);
+			this.skip[e] = arcObj.isSelfLoop();
+			this.lower[e] = Math.max(arcObj.getMinTraverseCount(), 0);
+			this.upper[e] = arcObj.getMaxTraverseCount();
+			if (this.upper[e]<this.lower[e]) throw new NoSolutionException ("Max traverse count is less than min traverse count for arc " + arcObj);
+			this.flow[e] = this.lower[e];
+			this.firstCost[e] = arcObj.getDist();
+			// an optional arc is never cheaper to repeat than to traverse the first time, keeps the cost convex
+			this.repeatCost[e] = (this.lower[e]==0)? Math.max(arcObj.getRepeatDist(), arcObj.getDist()): arcObj.getRepeatDist();
+			if (this.skip[e]) continue;
+			this.excess[this.idx.getEdgeTo(e)] += this.flow[e];
+			this.excess[this.idx.getEdgeFrom(e)] -= this.flow[e];
+		}
+
+		int [] outHalfs = this.idx.getOutHalfs();
+		int [] inHalfs = this.idx.getInHalfs();
+		this.resStart = new int [this.nodeCount+1];
+		this.resArc = new int [outHalfs.length + inHalfs.length];
+		int k = 0;
+		for (int v=0; v<this.nodeCount; v++) {
+			this.resStart[v] = k;
+			for (int j=this.idx.getOutStart(v); j<this.idx.getOutStart(v+1); j++) {
+				if (!this.skip[outHalfs[j]>>1]) this.resArc[k++] = outHalfs[j];
+			}
+			for (int j=this.idx.getInStart(v); j<this.idx.getInStart(v+1); j++) {
+				if (!this.skip[inHalfs[j]>>1]) this.resArc[k++] = inHalfs[j] + 1;
+			}
+		}
+		this.resStart[this.nodeCount] = k;
+	}
+
+	/**
+	 * called once the flow is first balanced, lets a subclass connect all the subgraphs of the
+	 * traversed arcs in one step by forcing optional arcs into the solution (raising their lower
+	 * bound and flow, and the node excesses with it).  Does nothing here, the subgraphs are then
+	 * connected one at a time by connectSubGraphs().
+	 * @throws NoSolutionException no solution
+	 */
+	protected void connectTraversedArcs () throws NoSolutionException {
+	}
+
+	private int resHead (int r_p) {
+		return ((r_p&1)==0)? this.idx.getEdgeTo(r_p>>1): this.idx.getEdgeFrom(r_p>>1);
+	}
+
+	/*
+	 * number of units that can be pushed through the residual arc at its current unit cost.
+	 */
+	private int resCap (int r_p) {
+		int e = r_p>>1;
+		if ((r_p&1)==0) {
+			if (this.upper[e]==Integer.MAX_VALUE) return (this.flow[e]==0)? 1: Integer.MAX_VALUE;
+			return (this.flow[e]==0)? Math.min(1, this.upper[e]): this.upper[e] - this.flow[e];
+		}
+		if (this.lower[e]==0 && this.flow[e]>1) return this.flow[e] - 1;
+		return this.flow[e] - this.lower[e];
+	}
+
+	/*
+	 * cost of pushing one more unit of flow through the residual arc.
+	 */
+	private double resCost (int r_p) {
+		int e = r_p>>1;
+		if ((r_p&1)==0) return (this.flow[e]==0)? this.firstCost[e]: this.repeatCost[e];
+		return (this.flow[e]==1)? -this.firstCost[e]: -this.repeatCost[e];
+	}
+
+	private double reducedCost (int v_p, int r_p) {
+		return resCost(r_p) + this.pot[v_p] - this.pot[resHead(r_p)];
+	}
+
+	/*
+	 * removes the node imbalances with the primal-dual min cost flow.
+	 */
+	private void balance () throws NoSolutionException, InterruptedException {
+		double [] dist = new double [this.nodeCount];
+		int [] level = new int [this.nodeCount];
+		int [] queue = new int [this.nodeCount];
+		int [] ptr = new int [this.nodeCount];
+		int [] path = new int [this.nodeCount];
+		IndexedMinHeap heap = new IndexedMinHeap (this.nodeCount);
+		while (hasImbalance()) {
+			if (Thread.interrupted()) {
+				throw new InterruptedException ("Search interrupted.");
+			}
+			if (checkBudget()) {
+				if (this.firstBalance) this.lowerBound = flowCost() + this.remainingImbalance * this.lastPathCost;
+				greedyComplete ();
+				return;
+			}
+			this.iterationCount++;
+
+			// Dijkstra on the reduced costs from all nodes with excess to the nearest node with deficit
+			java.util.Arrays.fill(dist, INF);
+			heap.clear();
+			for (int v=0; v<this.nodeCount; v++) {
+				if (this.excess[v]>0) {
+					dist[v] = 0;
+					heap.insertOrDecrease(v, 0);
+				}
+			}
+			double sinkDist = INF;
+			while (!heap.isEmpty()) {
+				int v = heap.removeMin();
+				if (this.excess[v]<0) {
+					sinkDist = dist[v];
+					break;
+				}
+				for (int k=this.resStart[v]; k<this.resStart[v+1]; k++) {
+					int r = this.resArc[k];
+					if (resCap(r)<=0) continue;
+					int u = resHead(r);
+					double nd = dist[v] + Math.max(0, reducedCost(v, r));
+					if (nd<dist[u]) {
+						dist[u] = nd;
+						heap.insertOrDecrease(u, nd);
+					}
+				}
+			}
+			heap.clear();
+			if (sinkDist==INF) throw new NoSolutionException ("Graph not strongly connected or max traverse count too low, unable to balance the flow.");
+			for (int v=0; v<this.nodeCount; v++) {
+				this.pot[v] += Math.min(dist[v], sinkDist);
+			}
+
+			// blocking flow on the residual arcs with zero reduced cost
+			while (true) {
+				java.util.Arrays.fill(level, -1);
+				int head = 0, tail = 0;
+				for (int v=0; v<this.nodeCount; v++) {
+					if (this.excess[v]>0) {
+						level[v] = 0;
+						queue[tail++] = v;
+					}
+				}
+				boolean sinkFound = false;
+				while (head<tail) {
+					int v = queue[head++];
+					if (this.excess[v]<0) sinkFound = true;
+					for (int k=this.resStart[v]; k<this.resStart[v+1]; k++) {
+						int r = this.resArc[k];
+						int u = resHead(r);
+						if (level[u]>=0 || resCap(r)<=0 || reducedCost(v, r)>EPSILON) continue;
+						level[u] = level[v] + 1;
+						queue[tail++] = u;
+					}
+				}
+				if (!sinkFound) break;
+				for (int v=0; v<this.nodeCount; v++) ptr[v] = this.resStart[v];
+				for (int s=0; s<this.nodeCount; s++) {
+					while (this.excess[s]>0) {
+						if (!augment (s, level, ptr, path)) break;
+					}
+				}
+			}
+		}
+	}
+
+	/*
+	 * finds one path of admissible arcs from the node s_p to a node with deficit and pushes
+	 * as much flow as possible along it.  Returns false if no such path exists.
+	 */
+	private boolean augment (int s_p, int [] level_p, int [] ptr_p, int [] path_p) {
+		int top = 0;
+		int v = s_p;
+		while (this.excess[v]>=0) {
+			boolean advanced = false;
+			for (; ptr_p[v]<this.resStart[v+1]; ptr_p[v]++) {
+				int r = this.resArc[ptr_p[v]];
+				int u = resHead(r);
+				if (level_p[u]!=level_p[v]+1 || resCap(r)<=0 || reducedCost(v, r)>EPSILON) continue;
+				path_p[top++] = r;
+				v = u;
+				advanced = true;
+				break;
+			}
+			if (advanced) continue;
+			// dead end
+			level_p[v] = -1;
+			if (top==0) return false;
+			int r = path_p[--top];
+			v = ((r&1)==0)? this.idx.getEdgeFrom(r>>1): this.idx.getEdgeTo(r>>1);
+			ptr_p[v]++;
+		}
+		int amount = Math.min(this.excess[s_p], -this.excess[v]);
+		double pathCost = 0;
+		for (int i=0; i<top; i++) {
+			amount = Math.min(amount, resCap(path_p[i]));
+			pathCost += resCost(path_p[i]);
+		}
+		this.lastPathCost = Math.max(this.lastPathCost, pathCost);
+		for (int i=0; i<top; i++) {
+			if ((path_p[i]&1)==0) this.flow[path_p[i]>>1] += amount;
+			else this.flow[path_p[i]>>1] -= amount;
+		}
+		this.excess[s_p] -= amount;
+		this.excess[v] += amount;
+		this.remainingImbalance -= amount;
+		this.augmentCount++;
+		return true;
+	}
+
+	/*
+	 * removes the imbalances left once the budget is used up.  Each round is one search from all
+	 * nodes with excess, then the nodes with deficit are visited in the order they were reached
+	 * and take what they can from the excess node at the root of their search path.  The first
+	 * node reached always receives some flow so every round makes progress.
+	 */
+	private void greedyComplete () throws NoSolutionException, InterruptedException {
+		double [] dist = new double [this.nodeCount];
+		int [] pred = new int [this.nodeCount];
+		int [] root = new int [this.nodeCount];
+		int [] order = new int [this.nodeCount];
+		IndexedMinHeap heap = new IndexedMinHeap (this.nodeCount);
+		while (hasImbalance()) {
+			if (Thread.interrupted()) {
+				throw new InterruptedException ("Search interrupted.");
+			}
+			this.greedyCount++;
+			java.util.Arrays.fill(dist, INF);
+			java.util.Arrays.fill(pred, -1);
+			heap.clear();
+			for (int v=0; v<this.nodeCount; v++) {
+				if (this.excess[v]>0) {
+					dist[v] = 0;
+					root[v] = v;
+					heap.insertOrDecrease(v, 0);
+				}
+			}
+			int sinkCount = 0;
+			while (!heap.isEmpty()) {
+				int v = heap.removeMin();
+				if (this.excess[v]<0) order[sinkCount++] = v;
+				for (int k=this.resStart[v]; k<this.resStart[v+1]; k++) {
+					int r = this.resArc[k];
+					if (resCap(r)<=0) continue;
+					int u = resHead(r);
+					double nd = dist[v] + Math.max(0, reducedCost(v, r));
+					if (nd<dist[u]) {
+						dist[u] = nd;
+						pred[u] = r;
+						root[u] = root[v];
+						heap.insertOrDecrease(u, nd);
+					}
+				}
+			}
+			heap.clear();
+			if (sinkCount==0) throw new NoSolutionException ("Graph not strongly connected or max traverse count too low, unable to balance the flow.");
+
+			for (int i=0; i<sinkCount; i++) {
+				int t = order[i];
+				int s = root[t];
+				int amount = Math.min(this.excess[s], -this.excess[t]);
+				for (int v=t; v!=s && amount>0; v=resTail(pred[v])) {
+					amount = Math.min(amount, resCap(pred[v]));
+				}
+				if (amount<=0) continue;
+				for (int v=t; v!=s; v=resTail(pred[v])) {
+					if ((pred[v]&1)==0) this.flow[pred[v]>>1] += amount;
+					else this.flow[pred[v]>>1] -= amount;
+				}
+				this.excess[s] -= amount;
+				this.excess[t] += amount;
+				this.remainingImbalance -= amount;
+				this.augmentCount++;
+			}
+		}
+	}
+
+	private int resTail (int r_p) {
+		return ((r_p&1)==0)? this.idx.getEdgeFrom(r_p>>1): this.idx.getEdgeTo(r_p>>1);
+	}
+
+	private boolean hasImbalance () {
+		for (int v=0; v<this.nodeCount; v++) {
+			if (this.excess[v]!=0) return true;
+		}
+		return false;
+	}
+
+	/*
+	 * Returns true if the traversed arcs form more than one subgraph, in which case the cheapest
+	 * chain of untraversed arcs from the first subgraph to another subgraph is forced to be traversed.
+	 * With all_p, once the budget is used up, one search joins all the subgraphs instead: each
+	 * subgraph reached joins the first one with its chain and the search goes on from it as well.
+	 */
+	private boolean connectSubGraphs (boolean all_p) throws NoSolutionException {
+		int [] comp = new int [this.nodeCount];
+		java.util.Arrays.fill(comp, -1);
+		int [] stack = new int [this.nodeCount];
+		int compCount = 0;
+		for (int s=0; s<this.nodeCount; s++) {
+			if (comp[s]>=0 || !hasFlow(s)) continue;
+			int top = 0;
+			stack[top++] = s;
+			comp[s] = compCount;
+			while (top>0) {
+				int v = stack[--top];
+				for (int k=this.resStart[v]; k<this.resStart[v+1]; k++) {
+					int r = this.resArc[k];
+					int u = resHead(r);
+					if (comp[u]>=0 || this.flow[r>>1]<=0) continue;
+					comp[u] = compCount;
+					stack[top++] = u;
+				}
+			}
+			compCount++;
+		}
+		if (compCount<=1) return false;
+
+		// cheapest chain of arcs from the subgraph 0 to any node of another subgraph
+		double [] dist = new double [this.nodeCount];
+		int [] pred = new int [this.nodeCount];
+		java.util.Arrays.fill(dist, INF);
+		java.util.Arrays.fill(pred, -1);
+		IndexedMinHeap heap = new IndexedMinHeap (this.nodeCount);
+		for (int v=0; v<this.nodeCount; v++) {
+			if (comp[v]==0) {
+				dist[v] = 0;
+				heap.insertOrDecrease(v, 0);
+			}
+		}
+		boolean [] joined = new boolean [compCount];
+		joined[0] = true;
+		int joinedCount = 1;
+		int [] compHead = null; // nodes of each subgraph linked by compNext, built for all_p
+		int [] compNext = null;
+		if (all_p) {
+			compHead = new int [compCount];
+			compNext = new int [this.nodeCount];
+			java.util.Arrays.fill(compHead, -1);
+			for (int v=0; v<this.nodeCount; v++) {
+				if (comp[v]<0) continue;
+				compNext[v] = compHead[comp[v]];
+				compHead[comp[v]] = v;
+			}
+		}
+		while (!heap.isEmpty()) {
+			int v = heap.removeMin();
+			if (comp[v]>0 && !joined[comp[v]]) {
+				int target = v;
+				while (pred[v]>=0) {
+					int e = pred[v]>>1;
+					this.lower[e] = Math.max(this.lower[e], 1);
+					this.flow[e]++;
+					v = this.idx.getEdgeFrom(e);
+				}
+				this.excess[target]++;
+				this.excess[v]--;
+				this.totalImbalance++;
+				this.remainingImbalance++;
+				if (!all_p) return true;
+				
+				// the chain and the subgraph reached are joined, the search goes on from them too
+				joined[comp[target]] = true;
+				joinedCount++;
+				if (joinedCount==compCount) return true;
+				for (v=target; pred[v]>=0; ) {
+					int u = this.idx.getEdgeFrom(pred[v]>>1);
+					pred[v] = -1;
+					dist[v] = 0;
+					heap.insertOrDecrease(v, 0);
+					v = u;
+				}
+				for (int u=compHead[comp[target]]; u>=0; u=compNext[u]) {
+					dist[u] = 0;
+					pred[u] = -1;
+					heap.insertOrDecrease(u, 0);
+				}
+				continue;
+			}
+			for (int k=this.resStart[v]; k<this.resStart[v+1]; k++) {
+				int r = this.resArc[k];
+				if ((r&1)!=0 || resCap(r)<=0) continue;
+				int u = resHead(r);
+				double nd = dist[v] + resCost(r);
+				if (nd<dist[u]) {
+					dist[u] = nd;
+					pred[u] = r;
+					heap.insertOrDecrease(u, nd);
+				}
+			}
+		}
+		if (joinedCount==1) throw new NoSolutionException ("Graph not strongly connected, unable to connect the traversed arcs.");
+		return true;
+	}
+
+	private boolean hasFlow (int v_p) {
+		for (int k=this.resStart[v_p]; k<this.resStart[v_p+1]; k++) {
+			if (this.flow[this.resArc[k]>>1]>0) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * returns the percentage of search status. 0 - 100 (%).
+	 */
+	public int getProgressPercentage () {
+		if (this.optimized) return 100;
+		int pct = (this.totalImbalance<=0)? 0: (int) ((this.totalImbalance - this.remainingImbalance) * 100 / this.totalImbalance);
+		if (this.budgetMillis>0) pct = Math.max(pct, (int) ((System.currentTimeMillis() - this.startMillis) * 100 / this.budgetMillis));
+		if (this.budgetIterations>0) pct = Math.max(pct, (int) (this.iterationCount * 100 / this.budgetIterations));
+		return Math.min(pct, 99);
+	}
+
+	public String getStat () {
+		StringBuffer tempBuf = new StringBuffer("Min Cost Flow Algorithm for Directed Postman Problem\n");
+		tempBuf.append(this.networkObj.getStat()).append("\n");
+		if (this.optimized) {
+			tempBuf.append("Optimization completed with ").append(this.iterationCount).append(" iterations, ");
+			tempBuf.append(this.augmentCount).append(" augmentations, ").append(this.millisTook).append(" milliseconds");
+			if (this.budgetExhausted) tempBuf.append("\nBudget exhausted, completed greedily in ").append(this.greedyCount).append(" rounds");
+			tempBuf.append("\nTour distance ").append(this.tourDist).append(", lower bound ").append(this.lowerBound);
+			tempBuf.append(", optimality gap ").append(Math.round(getOptimalityGap()*10000)/100.0).append("%");
+		}
+		else {
+			tempBuf.append("Executing iteration# ").append(this.iterationCount).append(", ").append(this.remainingImbalance).append(" units of imbalance left");
+			if (this.budgetExhausted) tempBuf.append(", budget exhausted, completing greedily");
+			else if (this.budgetMillis>0) tempBuf.append(", ").append(getRemainingMillis()).append(" milliseconds of budget left");
+			if (this.budgetIterations>0) tempBuf.append(", ").append(Math.max(this.budgetIterations - this.iterationCount, 0)).append(" iterations of budget left");
+		}
+		return tempBuf.toString();
+	}
+
+	public void run () {
+		try {
+			this.optimize();
+			this.callbackObj.callback(null);
+		}
+		catch (Exception e) {
+			this.callbackObj.callback(e);
+		}
+	}
+
+	public long getMillisTook () { return this.millisTook; }
+
+	/**
+	 * Returns the number of Dijkstra searches performed.
+	 */
+	public long getIterationCount () { return this.iterationCount; }
+}
@@ -0,0 +1,295 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ * 
+ * This library is free software; you can redistribute it and/or modify it under the 
+ * terms of the GNU Lesser General Public License as published by the Free Software 
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with 
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place, 
+ * Suite 330, Boston, MA 02111-1307 USA 
+ * 
+ * @author Yaxiong Lin
+ * @version 1.0
+ * 
+ */
+package openOptima.network.postman;
+
+import openOptima.NoSolutionException;
+import openOptima.NotImplementedException;
+import openOptima.network.shortestpath.IndexedMinHeap;
+
+/**
+ * Heuristic postman algorithm for mixed networks with directed and undirected arcs, after
+ * Frederickson's MIXED algorithm.
+ * <ol>
+ * <li>Even degree: the nodes with an odd number of traverses (directions ignored) are paired by
+ * the min weight perfect matching and the arcs on the shortest path of each pair, in either
+ * direction, are traversed once more.
+ * <li>In-out degree: a min cost flow balances the directed traverses at every node.  The flow
+ * may give an undirected arc a direction at no cost or add traverses of any arc at its cost.
+ * <li>Even parity: the nodes with an odd number of undirected traverses left without direction
+ * are matched again on the undirected arcs.  The tour then takes the undirected traverses in
+ * whichever direction it needs, which keeps every node balanced.
+ * </ol>
+ * The tour is also found without the first step and the cheaper of the two is kept.  For an
+ * undirected network the result is optimal, for a directed network it is the min cost flow
+ * solution.  The shortest path searches of the matching steps run in parallel.
+ * @author Yaxiong Lin
+ *
+ */
+public class MixedPostmanAlgorithm extends UndirectedPostmanAlgorithm {
+
+	/**
+	 * default constructor.
+	 */
+	public MixedPostmanAlgorithm () {
+	}
+
+	/**
+	 * sets the network object to the algorithm, the network may contain directed and undirected arcs.
+	 */
+	public void init (PostmanNetwork networkObj_p) throws NotImplementedException {
+		this.networkObj = networkObj_p;
+		this.optimized = false;
+	}
+
+	/**
+	 * finds the number of traverses of each arc and the direction of the traverses of the
+	 * undirected arcs, and sets the number of traverses as the arc count.
+	 * @throws NoSolutionException if the network is not strongly connected or the max traverse counts are too low.
+	 * @throws InterruptedException interrupted
+	 */
+	public void optimize () throws NoSolutionException, InterruptedException {
+		long startMillis = System.currentTimeMillis();
+		this.optimized = false;
+		this.iterationCount = 0;
+		this.progressPercentage = 0;
+		buildIndex ();
+		int [] lowerFree = this.freeCount.clone();
+		int [] lowerForward = this.forwardCount.clone();
+
+		double bestDist = INF;
+		NoSolutionException lastException = null;
+		for (int variant=0; variant<2; variant++) {
+			this.progressPercentage = variant * 50;
+			int [] cnt = this.lower.clone();
+			int [] fwd = lowerForward.clone();
+			int [] bwd = new int [this.arcCount];
+			int [] free = lowerFree.clone();
+			try {
+				if (variant==0) evenDegree (cnt, fwd, free);
+				inOutDegree (cnt, fwd, bwd, free);
+				int [] degree = new int [this.nodeCount];
+				addDegrees (degree, free);
+				matchOddNodes (degree, getRepeatCosts(cnt, true), false, cnt, free);
+			}
+			catch (NoSolutionException e) {
+				lastException = e;
+				continue;
+			}
+			double dist = completeVariant(cnt, fwd, bwd, free);
+			boolean feasible = isConnected(cnt);
+			for (int e=0; e<this.arcCount && feasible; e++) {
+				if (cnt[e]>this.upper[e]) feasible = false;
+			}
+			if (!feasible || dist>=bestDist) continue;
+			bestDist = dist;
+			this.count = cnt;
+			this.forwardCount = fwd;
+			this.backwardCount = bwd;
+			this.freeCount = free;
+		}
+		if (bestDist==INF && lastException!=null) throw lastException;
+
+		completeOptimize ();
+		this.millisTook = System.currentTimeMillis() - startMillis;
+	}
+	
+	/**
+	 * called with the traverses found by each variant, returns their total distance.
+	 * @param cnt_p number of traverses of each arc
+	 * @param fwd_p traverses directed forward
+	 * @param bwd_p traverses directed backward
+	 * @param free_p traverses of the undirected arcs with no direction yet
+	 * @return total distance
+	 * @throws InterruptedException interrupted
+	 */
+	protected double completeVariant (int [] cnt_p, int [] fwd_p, int [] bwd_p, int [] free_p) throws InterruptedException {
+		return getTotalDist(cnt_p);
+	}
+	
+	/*
+	 * makes the number of traverses at every node even, directions ignored.
+	 */
+	private void evenDegree (int [] cnt_p, int [] fwd_p, int [] free_p) throws NoSolutionException, InterruptedException {
+		int [] degree = new int [this.nodeCount];
+		addDegrees (degree, cnt_p);
+		int [] extra = new int [this.arcCount];
+		matchOddNodes (degree, getRepeatCosts(cnt_p, false), true, cnt_p, extra);
+		for (int e=0; e<this.arcCount; e++) {
+			if (this.idx.getEdge(e).isDirected()) fwd_p[e] += extra[e];
+			else free_p[e] += extra[e];
+		}
+	}
+	
+	/*
+	 * balances the traverses with a fixed direction at every node by the successive shortest path
+	 * min cost flow.  Network arc e has the flow arcs 4e+t: t=0 an extra traverse forward at its
+	 * cost, t=1 backward at its cost (undirected only), t=2 and t=3 a free traverse directed
+	 * forward or backward at no cost.  The residual arcs of flow arc i are 2i and 2i+1.
+	 */
+	private void inOutDegree (int [] cnt_p, int [] fwd_p, int [] bwd_p, int [] free_p) throws NoSolutionException, InterruptedException {
+		int n = this.nodeCount;
+		int [] excess = new int [n]; // traverses in - out
+		boolean balanced = true;
+		for (int e=0; e<this.arcCount; e++) {
+			if (this.skip[e]) continue;
+			excess[this.idx.getEdgeTo(e)] += fwd_p[e] - bwd_p[e];
+			excess[this.idx.getEdgeFrom(e)] -= fwd_p[e] - bwd_p[e];
+		}
+		for (int v=0; v<n && balanced; v++) {
+			if (excess[v]!=0) balanced = false;
+		}
+		if (balanced) return;
+		
+		int resCount = 8*this.arcCount;
+		int [] tail = new int [resCount];
+		int [] cap = new int [resCount];
+		double [] cost = new double [resCount];
+		double [] halfCost = getRepeatCosts(cnt_p, false);
+		for (int e=0; e<this.arcCount; e++) {
+			int from = this.idx.getEdgeFrom(e), to = this.idx.getEdgeTo(e);
+			boolean undirected = !this.skip[e] && !this.idx.getEdge(e).isDirected();
+			int extraCap = (this.skip[e] || halfCost[2*e]==INF)? 0: this.upper[e] - cnt_p[e];
+			setFlowArc (tail, cap, cost, 4*e, from, to, extraCap, halfCost[2*e]);
+			setFlowArc (tail, cap, cost, 4*e+1, to, from, undirected? extraCap: 0, halfCost[2*e+1]);
+			setFlowArc (tail, cap, cost, 4*e+2, from, to, undirected? free_p[e]: 0, 0);
+			setFlowArc (tail, cap, cost, 4*e+3, to, from, undirected? free_p[e]: 0, 0);
+		}
+		if (!successiveShortestPaths (tail, cap, cost, excess)) {
+			throw new NoSolutionException ("Graph not strongly connected or max traverse count too low, unable to balance the traverses.");
+		}
+		
+		// flow of flow arc i is the capacity of its backward residual arc 2i+1
+		for (int e=0; e<this.arcCount; e++) {
+			int forward = cap[2*(4*e)+1], backward = cap[2*(4*e+1)+1];
+			int oriented = cap[2*(4*e+2)+1] - cap[2*(4*e+3)+1];
+			cnt_p[e] += forward + backward;
+			fwd_p[e] += forward + Math.max(oriented, 0);
+			bwd_p[e] += backward + Math.max(-oriented, 0);
+			free_p[e] -= Math.abs(oriented);
+		}
+	}
+	
+	/**
+	 * removes the node imbalances by the successive shortest path min cost flow: each round is one
+	 * search on the reduced costs from all the nodes with excess, then flow is sent along the path
+	 * to the nearest node with deficit.  Residual arc r goes from node tail_p[r] to node tail_p[r^1]
+	 * with the capacity cap_p[r] and the cost cost_p[r], its reverse r^1 costs -cost_p[r].  The
+	 * residual arcs with capacity must not cost less than 0 at the start.  The capacities are
+	 * updated with the flow sent and the excess with what is left.
+	 * @param tail_p tail node of each residual arc
+	 * @param cap_p residual capacity
+	 * @param cost_p cost of a unit of flow
+	 * @param excess_p flow to send from (positive) or to (negative) each node
+	 * @return true if the imbalances are removed, false if a node with excess can not reach a node with deficit.
+	 * @throws InterruptedException interrupted
+	 */
+	protected boolean successiveShortestPaths (int [] tail_p, int [] cap_p, double [] cost_p, int [] excess_p) throws InterruptedException {
+		int n = excess_p.length;
+		int [] resStart = new int [n+1];
+		for (int r=0; r<tail_p.length; r++) resStart[tail_p[r]+1]++;
+		for (int v=0; v<n; v++) resStart[v+1] += resStart[v];
+		int [] resArc = new int [tail_p.length];
+		int [] pos = java.util.Arrays.copyOf(resStart, n);
+		for (int r=0; r<tail_p.length; r++) resArc[pos[tail_p[r]]++] = r;
+		
+		double [] pot = new double [n];
+		double [] dist = new double [n];
+		int [] pred = new int [n];
+		IndexedMinHeap heap = new IndexedMinHeap (n);
+		while (true) {
+			if (Thread.interrupted()) throw new InterruptedException ("Search interrupted.");
+			java.util.Arrays.fill(dist, INF);
+			heap.clear();
+			boolean hasSource = false;
+			for (int v=0; v<n; v++) {
+				pred[v] = -1;
+				if (excess_p[v]>0) {
+					dist[v] = 0;
+					heap.insertOrDecrease(v, 0);
+					hasSource = true;
+				}
+			}
+			if (!hasSource) return true;
+			this.iterationCount++;
+			int sink = -1;
+			while (!heap.isEmpty()) {
+				int v = heap.removeMin();
+				if (excess_p[v]<0) {
+					sink = v;
+					break;
+				}
+				for (int k=resStart[v]; k<resStart[v+1]; k++) {
+					int r = resArc[k];
+					if (cap_p[r]<=0) continue;
+					int u = tail_p[r^1];
+					double nd = dist[v] + Math.max(0, cost_p[r] + pot[v] - pot[u]);
+					if (nd<dist[u]) {
+						dist[u] = nd;
+						pred[u] = r;
+						heap.insertOrDecrease(u, nd);
+					}
+				}
+			}
+			if (sink<0) return false;
+			for (int v=0; v<n; v++) pot[v] += Math.min(dist[v], dist[sink]);
+			int amount = -excess_p[sink];
+			int v = sink;
+			while (pred[v]>=0) {
+				amount = Math.min(amount, cap_p[pred[v]]);
+				v = tail_p[pred[v]];
+			}
+			amount = Math.min(amount, excess_p[v]);
+			excess_p[v] -= amount;
+			excess_p[sink] += amount;
+			for (v=sink; pred[v]>=0; v=tail_p[pred[v]]) {
+				cap_p[pred[v]] -= amount;
+				cap_p[pred[v]^1] += amount;
+			}
+		}
+	}
+	
+	private static void setFlowArc (int [] tail_p, int [] cap_p, double [] cost_p, int i_p, int from_p, int to_p, int capacity_p, double unitCost_p) {
+		tail_p[2*i_p] = from_p;
+		tail_p[2*i_p+1] = to_p;
+		cap_p[2*i_p] = capacity_p;
+		cap_p[2*i_p+1] = 0;
+		cost_p[2*i_p] = unitCost_p;
+		cost_p[2*i_p+1] = -unitCost_p;
+	}
+
+	/**
+	 * returns the first line of getStat().
+	 * @return algorithm title
+	 */
+	protected String getStatTitle () {
+		return "Matching and Min Cost Flow Heuristic for Mixed Postman Problem";
+	}
+
+	public String getStat () {
+		StringBuffer tempBuf = new StringBuffer(getStatTitle()).append("\n");
+		tempBuf.append(this.networkObj.getStat()).append("\n");
+		if (this.optimized) {
+			tempBuf.append("Optimization completed with ").append(this.iterationCount).append(" shortest path searches, ");
+			tempBuf.append(this.millisTook).append(" milliseconds");
+		}
+		return tempBuf.toString();
+	}
+}
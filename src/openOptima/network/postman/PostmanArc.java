@@ -32,6 +32,8 @@ public class PostmanArc extends Arc {
 
 	private double firstDist=1.0;
 	private double repeatDist=1.0;
+	private double reverseDist=Double.NaN;
+	private double reverseRepeatDist=Double.NaN;
 	
 	/**
 	 * Distance for the subsequent traverses.
@@ -43,7 +45,10 @@ public class PostmanArc extends Arc {
 	 * Sets the repeat distance for this arc.
 	 * @param repeatDist_p distance
 	 */
-	public void setRepeatDist(double repeatDist_p) { this.repeatDist = repeatDist_p; }
+	public void setRepeatDist(double repeatDist_p) { 
+		if (this.repeatDist!=repeatDist_p) this.modified();
+		this.repeatDist = repeatDist_p; 
+	}
 
 	/**
 	 * Returns the distance for the first time traverse.
@@ -57,6 +62,51 @@ public class PostmanArc extends Arc {
 	 */
 	public void setFirstDist(double firstDist_p) { this.firstDist = firstDist_p; }
 
+	/**
+	 * Distance for the first traverse of an undirected arc from the to node to the from node,
+	 * same as the distance unless set by setReverseDist().
+	 * @return distance
+	 */
+	public double getReverseDist() { return Double.isNaN(this.reverseDist)? this.getDist(): this.reverseDist; }
+
+	/**
+	 * Distance for the subsequent traverses of an undirected arc from the to node to the from node,
+	 * same as the repeat distance unless set by setReverseDist().
+	 * @return distance
+	 */
+	public double getReverseRepeatDist() { return Double.isNaN(this.reverseRepeatDist)? this.repeatDist: this.reverseRepeatDist; }
+
+	/**
+	 * Sets the distances for traversing an undirected arc from the to node to the from node
+	 * (windy postman), the distance and repeat distance apply to the other direction.
+	 * @param reverseDist_p distance for the first traverse
+	 * @param reverseRepeatDist_p distance for the subsequent traverses
+	 */
+	public void setReverseDist(double reverseDist_p, double reverseRepeatDist_p) {
+		if (Double.compare(this.reverseDist, reverseDist_p)!=0 || Double.compare(this.reverseRepeatDist, reverseRepeatDist_p)!=0) this.modified();
+		this.reverseDist = reverseDist_p;
+		this.reverseRepeatDist = reverseRepeatDist_p;
+	}
+
+	/**
+	 * Returns true if this is an undirected arc that costs differently in the two directions.
+	 * @return true if windy
+	 */
+	public boolean isWindy() {
+		return !this.isDirected() && (this.getReverseDist()!=this.getDist() || this.getReverseRepeatDist()!=this.repeatDist);
+	}
+
+	/**
+	 * Returns the distance of a traverse of this arc.
+	 * @param forward_p true if from the from node to the to node
+	 * @param repeat_p true if the arc has been traversed before
+	 * @return distance
+	 */
+	public double getDist(boolean forward_p, boolean repeat_p) {
+		if (forward_p || this.isDirected()) return repeat_p? this.repeatDist: this.getDist();
+		return repeat_p? this.getReverseRepeatDist(): this.getReverseDist();
+	}
+
 	/**
 	 * Constructor.
 	 * @param fromNode_p from vertex
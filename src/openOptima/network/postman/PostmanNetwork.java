@@ -24,6 +24,7 @@ import openOptima.NotImplementedException;
 import openOptima.network.Arc;
 import openOptima.network.Network;
 import openOptima.network.Node;
+import openOptima.reader.ArcTable;
 
 /**
  * Network used for postman algorithm
@@ -84,6 +85,21 @@ public class PostmanNetwork extends Network {
 		return arcObj;
 	}
 
+	/**
+	 * Adds all arcs of the table to this network in one batch, see 
+	 * {@link openOptima.reader.ProblemReader#execReadMappedFile(String, String)}.
+	 * @param tableObj_p arcs
+	 */
+	public void addArcs (ArcTable tableObj_p) {
+		java.util.ArrayList arcList = new java.util.ArrayList(tableObj_p.size());
+		for (int i=0; i<tableObj_p.size(); i++) {
+			Node fromNodeObj = addNode(tableObj_p.getSource(i));
+			Node toNodeObj = addNode(tableObj_p.getTarget(i));
+			arcList.add(new PostmanArc (fromNodeObj, toNodeObj, tableObj_p.getDistance(i), tableObj_p.isDirected(i)));
+		}
+		super.addArcs(arcList);
+	}
+
 	/**
 	 * @deprecated
 	 * @param netObj_p network object
@@ -28,23 +28,25 @@ import openOptima.network.Node;
  *
  */
 public class PostmanPath {
-	private java.util.ArrayList pathArcs;
+	private java.util.List pathArcs;
 	
 	/**
-	 * Returns the total distance of the postman path.
+	 * Returns the total distance of the postman path: the distance for the first traverse of each
+	 * arc and the repeat distance for the others, in the direction the undirected arcs are traversed.
 	 * @return distance
 	 */
 	public double getPathDist() {
-		java.util.HashMap tempList = new java.util.HashMap(this.pathArcs.size());
 		if (this.pathArcs==null) return 0;
+		java.util.HashMap tempList = new java.util.HashMap(this.pathArcs.size());
 		double totalDist = 0;
+		Node curNode = this.getPathStartNode();
 		for (int i=0; i<this.pathArcs.size(); i++) {
-			if (tempList.containsKey(this.pathArcs.get(i))) 
-				totalDist = totalDist + ((PostmanArc)this.pathArcs.get(i)).getRepeatDist();
-			else {
-				totalDist = totalDist + ((PostmanArc) this.pathArcs.get(i)).getDist();
-				tempList.put(this.pathArcs.get(i), this.pathArcs.get(i));
-			}
+			PostmanArc arcObj = (PostmanArc) this.pathArcs.get(i);
+			boolean forward = arcObj.isDirected() || arcObj.getFromVertex().isSameAs(curNode);
+			boolean repeat = tempList.containsKey(arcObj);
+			totalDist = totalDist + arcObj.getDist(forward, repeat);
+			if (!repeat) tempList.put(arcObj, arcObj);
+			curNode = forward? arcObj.getToNode(): arcObj.getFromNode();
 		}
 		return totalDist;
 	}
@@ -54,6 +56,15 @@ public class PostmanPath {
 	 * @param pathArcs_p list of arcs
 	 */
 	public void setPathArcs (java.util.ArrayList  pathArcs_p) {
+		this.setPathArcList(pathArcs_p);
+	}
+
+	/**
+	 * Sets this postman path to the list passed in, which is kept, not copied.  The list may be 
+	 * a read only view such as the Euler tour of an algorithm, see openOptima.graph.euler.EulerTour.
+	 * @param pathArcs_p list of arcs
+	 */
+	public void setPathArcList (java.util.List pathArcs_p) {
 		if (pathArcs_p.isEmpty()) this.pathArcs = null;
 		else this.pathArcs = pathArcs_p;
 	}
@@ -64,14 +75,33 @@ public class PostmanPath {
 	 */
 	public Node getPathStartNode () {
 		if (this.pathArcs==null || this.pathArcs.isEmpty()) return null;
-		return ((PostmanArc)this.pathArcs.get(0)).getFromNode();
+		PostmanArc firstArc = (PostmanArc)this.pathArcs.get(0);
+		if (firstArc.isDirected() || this.pathArcs.size()<2) return firstArc.getFromNode();
+		// an undirected first arc is traversed backward if only its from node leads on to the second arc
+		PostmanArc nextArc = (PostmanArc)this.pathArcs.get(1);
+		Node toNode = firstArc.getToNode();
+		boolean toNext = nextArc.getFromVertex().isSameAs(toNode) || (!nextArc.isDirected() && nextArc.getToVertex().isSameAs(toNode));
+		return toNext? firstArc.getFromNode(): toNode;
+	}
+
+	/**
+	 * Returns the edges in the postman path in an array list.  A path set with a read only 
+	 * view (see setPathArcList()) is copied into an array list the first time.
+	 * @return list of arcs
+	 */
+	public java.util.ArrayList getPathArcs() { 
+		if (this.pathArcs!=null && !(this.pathArcs instanceof java.util.ArrayList)) {
+			this.pathArcs = new java.util.ArrayList (this.pathArcs);
+		}
+		return (java.util.ArrayList) this.pathArcs;
 	}
 
 	/**
-	 * Returns the edges in the postman path in an array list.
+	 * Returns the edges in the postman path without copying them, read only if the path was
+	 * set with a read only view.
 	 * @return list of arcs
 	 */
-	public java.util.ArrayList getPathArcs() { return this.pathArcs; }
+	public java.util.List getPathArcList() { return this.pathArcs; }
 	
 	/**
 	 * Returns a String representation of this postman path.
@@ -34,7 +34,12 @@ import openOptima.NotImplementedException;
 import openOptima.ObjectFactory;
 import openOptima.PerformanceStatIntf;
 import openOptima.ProgressMonitor;
+import openOptima.graph.euler.EulerTourListenerIntf;
 import openOptima.network.GraphRandomGenerator;
+import openOptima.network.Node;
+import openOptima.reader.ArcTable;
+import openOptima.reader.ArcListenerIntf;
+import openOptima.reader.ArcSchema;
 import openOptima.reader.ProblemReader;
 import openOptima.reader.ReaderInterruptedException;
 import openOptima.reader.ReaderListenerIntf;
@@ -44,7 +49,7 @@ import openOptima.reader.ReaderListenerIntf;
  * @author Yaxiong Lin
  *
  */
-public class PostmanProblem implements ReaderListenerIntf, CallbackIntf, ActionListener, PerformanceStatIntf {
+public class PostmanProblem implements ReaderListenerIntf, ArcListenerIntf, CallbackIntf, ActionListener, PerformanceStatIntf {
 
 	private PostmanAlgorithmIntf optimizerObj;
 	private PostmanNetwork networkObj;
@@ -54,6 +59,7 @@ public class PostmanProblem implements ReaderListenerIntf, CallbackIntf, ActionL
 	private Thread taskObj;
 	private ProgressMonitor progressObj;
 	private long startedTime;
+	private boolean networkChanged = false; // network edited and the optimizer can not re-optimize incrementally
 
 	/**
 	 * stes the fromNode
@@ -103,7 +109,7 @@ public class PostmanProblem implements ReaderListenerIntf, CallbackIntf, ActionL
 		this.lineIdx = 0;
 		if (delimiter_p==null) delimiter_p = ",";
 		this.networkObj = new PostmanNetwork ();
-		ProblemReader.execReadString(inputString_p, delimiter_p, this);
+		ProblemReader.execReadString(inputString_p, delimiter_p, ArcSchema.defaultSchema, this);
 		this.optimizerObj.init(this.networkObj);
 
 	}
@@ -116,6 +122,7 @@ public class PostmanProblem implements ReaderListenerIntf, CallbackIntf, ActionL
 	 */
 	public PostmanPath getPostmanPath (int fromNode_p) throws Exception {
 		this.fromNode = fromNode_p;
+		if (this.networkChanged) this.reoptimize();
 		return this.optimizerObj.getPostmanPath(fromNode_p);
 	}
 
@@ -151,9 +158,101 @@ public class PostmanProblem implements ReaderListenerIntf, CallbackIntf, ActionL
 	 */
 	public PostmanPath[] getPostmanPaths (int fromNode_p, int numOfPostmen_p) 
 		throws NoSolutionException, NotImplementedException, InterruptedException {
+		if (this.networkChanged) this.reoptimize();
 		return this.optimizerObj.getPostmanPaths(fromNode_p, numOfPostmen_p);
 	}
 	
+	/**
+	 * adds an arc to the network after the problem has been initialized.  The postman path
+	 * is re-optimized by the next getPostmanPath() or reoptimize().
+	 * @param fromNode_p from node id
+	 * @param toNode_p to node id
+	 * @param dist_p distance
+	 * @param directed_p true if directed arc
+	 * @return arc added
+	 * @throws NotImplementedException the optimizer does not support this type of arc, the
+	 * 	network is left unchanged.
+	 */
+	public PostmanArc addArc (int fromNode_p, int toNode_p, double dist_p, boolean directed_p) throws NotImplementedException {
+		Node fromNodeObj = this.networkObj.getNode(fromNode_p);
+		Node toNodeObj = this.networkObj.getNode(toNode_p);
+		PostmanArc arcObj = this.networkObj.addArc(fromNode_p, toNode_p, dist_p, directed_p);
+		if (this.optimizerObj instanceof IncrementalPostmanAlgorithmIntf) {
+			try {
+				((IncrementalPostmanAlgorithmIntf) this.optimizerObj).arcAdded(arcObj);
+			}
+			catch (NotImplementedException e) {
+				// undo the add so the network stays in sync with the optimizer
+				this.networkObj.removeArc(arcObj);
+				if (fromNodeObj==null) this.networkObj.removeNode(arcObj.getFromNode());
+				if (toNodeObj==null && fromNode_p!=toNode_p) this.networkObj.removeNode(arcObj.getToNode());
+				throw e;
+			}
+		}
+		else this.networkChanged = true;
+		return arcObj;
+	}
+	
+	/**
+	 * removes the arc from the network after the problem has been initialized.
+	 * @param arcObj_p arc
+	 * @return true if the arc was removed
+	 */
+	public boolean removeArc (PostmanArc arcObj_p) {
+		if (!this.networkObj.removeArc(arcObj_p)) return false;
+		if (this.optimizerObj instanceof IncrementalPostmanAlgorithmIntf) {
+			((IncrementalPostmanAlgorithmIntf) this.optimizerObj).arcRemoved(arcObj_p);
+		}
+		else this.networkChanged = true;
+		return true;
+	}
+	
+	/**
+	 * changes the distance of the arc after the problem has been initialized.
+	 * @param arcObj_p arc
+	 * @param dist_p new distance
+	 */
+	public void setArcDist (PostmanArc arcObj_p, double dist_p) {
+		arcObj_p.setDist(dist_p);
+		arcUpdated(arcObj_p);
+	}
+	
+	/**
+	 * changes the min/max number of times the arc must/may be traversed after the problem has been initialized.
+	 * @param arcObj_p arc
+	 * @param minCount_p min traverse count
+	 * @param maxCount_p max traverse count
+	 */
+	public void setMinMaxCount (PostmanArc arcObj_p, int minCount_p, int maxCount_p) {
+		arcObj_p.setMinMaxCount(minCount_p, maxCount_p);
+		arcUpdated(arcObj_p);
+	}
+	
+	private void arcUpdated (PostmanArc arcObj_p) {
+		if (this.optimizerObj instanceof IncrementalPostmanAlgorithmIntf) {
+			((IncrementalPostmanAlgorithmIntf) this.optimizerObj).arcUpdated(arcObj_p);
+		}
+		else this.networkChanged = true;
+	}
+	
+	/**
+	 * re-optimizes the postman path after the network has been changed through addArc(), removeArc(),
+	 * setArcDist() or setMinMaxCount().  Optimizers implementing IncrementalPostmanAlgorithmIntf
+	 * start from the previous solution, the others are re-initialized and solve from scratch.
+	 * @throws NotImplementedException not implemented
+	 * @throws NoSolutionException no solution
+	 * @throws InterruptedException interrupted
+	 */
+	public void reoptimize () throws NotImplementedException, NoSolutionException, InterruptedException {
+		if (this.optimizerObj instanceof IncrementalPostmanAlgorithmIntf) {
+			((IncrementalPostmanAlgorithmIntf) this.optimizerObj).reoptimize();
+		}
+		else if (this.networkChanged) {
+			this.optimizerObj.init(this.networkObj);
+		}
+		this.networkChanged = false;
+	}
+	
 	/**
 	 * reads the graph/network from an ascii file with each line describing the arc with the following format:
 	 * <p>i,j,distance,directed
@@ -182,7 +281,50 @@ public class PostmanProblem implements ReaderListenerIntf, CallbackIntf, ActionL
 		if (delimiter_p==null) delimiter_p = ",";
 		this.lineIdx = 0;
 		this.networkObj = new PostmanNetwork ();
-		ProblemReader.execReadFile(networkInputFile_p, delimiter_p, this);
+		ProblemReader.execReadFile(networkInputFile_p, delimiter_p, ArcSchema.defaultSchema, this);
+		this.optimizerObj.init(this.networkObj);
+	}
+	
+	/**
+	 * same as {@link #initFile(String, String)} but memory maps the file and parses the arcs directly from the
+	 * bytes, then adds them to the network in one batch.  Use it for large network files, the delimiter
+	 * must be a single character.
+	 * @param networkInputFile_p network file
+	 * @param delimiter_p delimiter
+	 * @throws ReaderInterruptedException exception
+	 * @throws ClassNotFoundException exception
+	 * @throws NotImplementedException not implemented
+	 * @throws InstantiationException exception
+	 * @throws IllegalAccessException exception
+	 */
+	public void initMappedFile (String networkInputFile_p, String delimiter_p) 
+		throws NotImplementedException, ReaderInterruptedException, ClassNotFoundException, InstantiationException,
+		IllegalAccessException {
+		this.initNetwork(ProblemReader.execReadMappedFile(networkInputFile_p, delimiter_p));
+	}
+	
+	/**
+	 * same as {@link #initMappedFile(String, String)} but parses the file with several threads, 
+	 * see {@link ProblemReader#execReadParallelFile(String, String, ArcSchema, int)}.
+	 * @param networkInputFile_p network file
+	 * @param delimiter_p delimiter
+	 * @param threadCount_p number of threads parsing the file
+	 * @throws ReaderInterruptedException exception
+	 * @throws ClassNotFoundException exception
+	 * @throws NotImplementedException not implemented
+	 * @throws InstantiationException exception
+	 * @throws IllegalAccessException exception
+	 */
+	public void initMappedFile (String networkInputFile_p, String delimiter_p, int threadCount_p) 
+		throws NotImplementedException, ReaderInterruptedException, ClassNotFoundException, InstantiationException,
+		IllegalAccessException {
+		this.initNetwork(ProblemReader.execReadParallelFile(networkInputFile_p, delimiter_p, ArcSchema.defaultSchema, threadCount_p));
+	}
+	
+	private void initNetwork (ArcTable tableObj_p) throws NotImplementedException {
+		this.lineIdx = tableObj_p.size();
+		this.networkObj = new PostmanNetwork ();
+		this.networkObj.addArcs(tableObj_p);
 		this.optimizerObj.init(this.networkObj);
 	}
 	
@@ -216,7 +358,7 @@ public class PostmanProblem implements ReaderListenerIntf, CallbackIntf, ActionL
 		this.lineIdx = 0;
 		if (delimiter_p==null) delimiter_p = ",";
 		this.networkObj = new PostmanNetwork ();
-		ProblemReader.execReadFileURL(networkURL_p, delimiter_p, this);
+		ProblemReader.execReadFileURL(networkURL_p, delimiter_p, ArcSchema.defaultSchema, this);
 		this.optimizerObj.init(this.networkObj);
 	}
 
@@ -235,7 +377,7 @@ public class PostmanProblem implements ReaderListenerIntf, CallbackIntf, ActionL
 	 * 3,5,32,N
 	 * 4,5,45,N
 	 * 4,2,12,N
- 	 * All columns must be of varchar data type.
+ 	 * source and target must be integer columns and distance a numeric column.
 	 * 
 	 * @param conObj_p connection object
 	 * @param sql_p statement
@@ -252,7 +394,7 @@ public class PostmanProblem implements ReaderListenerIntf, CallbackIntf, ActionL
 		
 		this.networkObj = new PostmanNetwork ();
 
-		ProblemReader.execReadJDBC(conObj_p, sql_p, this);
+		ProblemReader.execReadJDBC(conObj_p, sql_p, ArcSchema.defaultSchema, this);
 		this.optimizerObj.init(this.networkObj);
 	}
 	
@@ -279,6 +421,20 @@ public class PostmanProblem implements ReaderListenerIntf, CallbackIntf, ActionL
 		
 		return true;
 	}
+
+	/**
+	 * called by the ProblemReader class to add each arc read to the network.
+	 * @param source_p source node id
+	 * @param target_p target node id
+	 * @param distance_p distance
+	 * @param directed_p true if directed arc
+	 * @return true to continue reading
+	 */
+	public boolean arcRead (int source_p, int target_p, double distance_p, boolean directed_p) {
+		this.lineIdx++;
+		this.networkObj.addArc(source_p, target_p, distance_p, directed_p);
+		return true;
+	}
 	
 
 	/**
@@ -418,6 +574,57 @@ public class PostmanProblem implements ReaderListenerIntf, CallbackIntf, ActionL
 		}
 	}
 
+	/**
+	 * passes the arcs of the postman tour starting at fromNode_p to the listener one at a time
+	 * without keeping the tour in memory, see {@link StreamingPostmanAlgorithmIntf}.
+	 * @param fromNode_p starting node #
+	 * @param listenerObj_p listener
+	 * @return number of arcs passed to the listener
+	 * @throws NotImplementedException if the algorithm selected does not support streaming
+	 * @throws NoSolutionException no solution
+	 * @throws InterruptedException interrupted
+	 */
+	public long streamPostmanPath (int fromNode_p, EulerTourListenerIntf listenerObj_p)
+		throws NotImplementedException, NoSolutionException, InterruptedException {
+		if (!(this.optimizerObj instanceof StreamingPostmanAlgorithmIntf))
+			throw new NotImplementedException ("The Postman algorithm provider selected does not support StreamingPostmanAlgorithmIntf interface");
+		if (this.networkChanged) this.reoptimize();
+		return ((StreamingPostmanAlgorithmIntf) this.optimizerObj).streamPostmanPath(fromNode_p, listenerObj_p);
+	}
+
+	/**
+	 * sets the time and iteration budget of the optimization.  Once the budget is used up the
+	 * postman tour is completed greedily, see {@link AnytimePostmanAlgorithmIntf}.
+	 * @param millis_p max milliseconds, 0 for no limit
+	 * @param maxIterations_p max iterations, 0 for no limit
+	 * @throws NotImplementedException if the algorithm selected does not support a budget
+	 */
+	public void setBudget (long millis_p, long maxIterations_p) throws NotImplementedException {
+		if (!(this.optimizerObj instanceof AnytimePostmanAlgorithmIntf))
+			throw new NotImplementedException ("The Postman algorithm provider selected does not support AnytimePostmanAlgorithmIntf interface");
+		((AnytimePostmanAlgorithmIntf) this.optimizerObj).setBudget(millis_p, maxIterations_p);
+	}
+
+	/**
+	 * @return relative gap between the postman tour found and the lower bound of the optimal tour
+	 * @throws NotImplementedException if the algorithm selected does not support a budget
+	 */
+	public double getOptimalityGap () throws NotImplementedException {
+		if (!(this.optimizerObj instanceof AnytimePostmanAlgorithmIntf))
+			throw new NotImplementedException ("The Postman algorithm provider selected does not support AnytimePostmanAlgorithmIntf interface");
+		return ((AnytimePostmanAlgorithmIntf) this.optimizerObj).getOptimalityGap();
+	}
+
+	/**
+	 * @return true if the last optimization ran out of its budget and the tour was completed greedily
+	 * @throws NotImplementedException if the algorithm selected does not support a budget
+	 */
+	public boolean isBudgetExhausted () throws NotImplementedException {
+		if (!(this.optimizerObj instanceof AnytimePostmanAlgorithmIntf))
+			throw new NotImplementedException ("The Postman algorithm provider selected does not support AnytimePostmanAlgorithmIntf interface");
+		return ((AnytimePostmanAlgorithmIntf) this.optimizerObj).isBudgetExhausted();
+	}
+
 	/**
 	 * @return count
 	 * @throws NotImplementedException not implemented
@@ -0,0 +1,399 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ * 
+ * This library is free software; you can redistribute it and/or modify it under the 
+ * terms of the GNU Lesser General Public License as published by the Free Software 
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with 
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place, 
+ * Suite 330, Boston, MA 02111-1307 USA 
+ * 
+ * @author Yaxiong Lin
+ * @version 1.0
+ * 
+ */
+package openOptima.network.postman;
+
+import openOptima.NoSolutionException;
+import openOptima.graph.GraphIndex;
+import openOptima.network.Node;
+import openOptima.network.shortestpath.IndexedMinHeap;
+
+/**
+ * Splits a single postman tour into n closed walks from the start node (depot) with balanced
+ * lengths, route first cluster second: the tour is cut into n consecutive pieces and each piece
+ * is joined to the depot by the shortest path from the depot to its first node and from its last
+ * node back to the depot.
+ * <p>
+ * Each walk is priced as PostmanPath.getPathDist() prices it on its own: the tour arcs in the
+ * direction traversed, at the distance for their first traverse in the walk and at the repeat 
+ * distance after that, and the paths to and from the depot at the distance of the arcs.  The split
+ * prices the walk of the tour positions i+1 .. j as d(depot, v_i) + S(i, j) + d(v_j, depot), where
+ * v_i is the node after i tour arcs and S(i, j) the tour arcs in the walk.  That is the length of
+ * the walk unless a path to or from the depot goes over arcs of the walk again, which only makes
+ * the walk shorter.  getMaxDist() and getMinDist() return the lengths of the walks themselves.
+ * <p>
+ * For a bound B the walks are taken greedily, each as long as it stays within B, a pass of O(L)
+ * for a tour of L arcs.  The greedy pass is the same for all bounds between the longest walk it 
+ * takes and the shortest extension it rejects, so the bisection on B moves its ends to these 
+ * lengths and stops at the exact bound, after a number of passes logarithmic in the spread of 
+ * the walk lengths.  The greedy walks are the fewest within B, and the bound found the smallest 
+ * for n walks, when the repeat distance of every arc is its distance: the length of a walk then 
+ * does not grow when it starts later and does not shrink when it ends later.  Otherwise repeats 
+ * inside a walk can make a longer walk shorter and the split is a heuristic.  If fewer than n 
+ * walks are needed, the longest walk is split at its best position until there are n walks, 
+ * O(L) for each such split.
+ * @author Yaxiong Lin
+ *
+ */
+public class PostmanTourSplitter {
+	private static final double INF = Double.POSITIVE_INFINITY;
+
+	private PostmanNetwork networkObj;
+	private GraphIndex idx;
+	private int depot;
+	private double [] distFromDepot;
+	private int [] predFromDepot; // half edge into the node on the shortest path from the depot
+	private double [] distToDepot;
+	private int [] succToDepot; // half edge out of the node on the shortest path to the depot
+	
+	// the tour: node after i arcs, the edge index and the first and repeat distance of the i+1 th arc
+	private int [] node;
+	private int [] edge;
+	private double [] firstDist;
+	private double [] repeatDist;
+	
+	// stamp of the walk an edge was last seen in and the position it was seen at
+	private int [] mark;
+	private int [] markPos;
+	private int stamp;
+	
+	// the longest walk and the shortest rejected extension of the last greedy pass
+	private double passMax;
+	private double passOverflow;
+	
+	private double maxDist;
+	private double minDist;
+
+	/**
+	 * Constructor.
+	 * @param networkObj_p network the tours are on
+	 */
+	public PostmanTourSplitter (PostmanNetwork networkObj_p) {
+		this.networkObj = networkObj_p;
+	}
+	
+	/**
+	 * returns the length of the longest walk of the last split, as PostmanPath.getPathDist().
+	 * @return distance
+	 */
+	public double getMaxDist () { return this.maxDist; }
+
+	/**
+	 * returns the length of the shortest walk of the last split, as PostmanPath.getPathDist().
+	 * @return distance
+	 */
+	public double getMinDist () { return this.minDist; }
+	
+	/**
+	 * splits the tour from the node into n closed walks, see split(PostmanPath, Node, int).  This is
+	 * getPostmanPaths() of the postman algorithms.
+	 * @param tourObj_p postman tour, a closed walk
+	 * @param startNode_p node id the tour starts at
+	 * @param n_p number of walks
+	 * @return walks
+	 * @throws NoSolutionException if the tour is not a closed walk from the start node
+	 */
+	public PostmanPath [] split (PostmanPath tourObj_p, int startNode_p, int n_p) throws NoSolutionException {
+		Node startNode = this.networkObj.getNode(startNode_p);
+		if (startNode==null) throw new NoSolutionException ("Node not found: " + startNode_p);
+		return this.split(tourObj_p, startNode, n_p);
+	}
+	
+	/**
+	 * splits the tour into n closed walks starting and ending at the start node of the tour.  Every
+	 * arc traverse of the tour is in exactly one walk.  Fewer walks are returned if the tour has
+	 * fewer than n arcs.
+	 * @param tourObj_p postman tour, a closed walk
+	 * @param startNode_p start node of the tour
+	 * @param n_p number of walks
+	 * @return walks
+	 * @throws NoSolutionException if the tour is not a closed walk from the start node
+	 */
+	public PostmanPath [] split (PostmanPath tourObj_p, Node startNode_p, int n_p) throws NoSolutionException {
+		java.util.List tourArcs = tourObj_p.getPathArcList();
+		int tourSize = (tourArcs==null)? 0: tourArcs.size();
+		if (tourSize==0 || n_p<=1) {
+			this.maxDist = tourObj_p.getPathDist();
+			this.minDist = this.maxDist;
+			return new PostmanPath [] {tourObj_p};
+		}
+		
+		this.idx = new GraphIndex (this.networkObj, true);
+		this.depot = this.idx.getVertexIdx(startNode_p);
+		if (this.depot<0) throw new NoSolutionException ("Node not active: " + startNode_p);
+		searchDepot ();
+		
+		this.node = new int [tourSize+1];
+		this.edge = new int [tourSize];
+		this.firstDist = new double [tourSize];
+		this.repeatDist = new double [tourSize];
+		this.node[0] = this.depot;
+		for (int i=0; i<tourSize; i++) {
+			PostmanArc arcObj = (PostmanArc) tourArcs.get(i);
+			this.edge[i] = this.idx.getEdgeIdx(arcObj);
+			if (this.edge[i]<0) throw new NoSolutionException ("Arc not active: " + arcObj);
+			boolean forward = (this.idx.getEdgeFrom(this.edge[i])==this.node[i]);
+			if (forward) this.node[i+1] = this.idx.getEdgeTo(this.edge[i]);
+			else if (!arcObj.isDirected() && this.idx.getEdgeTo(this.edge[i])==this.node[i]) this.node[i+1] = this.idx.getEdgeFrom(this.edge[i]);
+			else throw new NoSolutionException ("The tour is not a walk, arc " + arcObj + " does not continue from " + this.idx.getVertex(this.node[i]));
+			this.firstDist[i] = arcObj.getDist(forward, false);
+			this.repeatDist[i] = arcObj.getDist(forward, true);
+		}
+		if (this.node[tourSize]!=this.depot) throw new NoSolutionException ("The tour does not return to the start node.");
+		this.mark = new int [this.idx.getEdgeCount()];
+		this.markPos = new int [this.idx.getEdgeCount()];
+		this.stamp = 0;
+		
+		int n = Math.min(n_p, tourSize);
+		int [] cut = splitTour (n);
+		
+		PostmanPath [] retList = new PostmanPath [n];
+		this.maxDist = 0;
+		this.minDist = INF;
+		for (int j=0; j<n; j++) {
+			java.util.ArrayList pathArcs = new java.util.ArrayList ();
+			addPathFromDepot (pathArcs, this.node[cut[j]]);
+			pathArcs.addAll(tourArcs.subList(cut[j], cut[j+1]));
+			addPathToDepot (pathArcs, this.node[cut[j+1]]);
+			retList[j] = new PostmanPath ();
+			retList[j].setPathArcs(pathArcs);
+			double length = pathDist(pathArcs);
+			this.maxDist = Math.max(this.maxDist, length);
+			this.minDist = Math.min(this.minDist, length);
+		}
+		return retList;
+	}
+	
+	/*
+	 * returns the n+1 cut positions of the tour, cut[0]=0 and cut[n] the tour size, that balance
+	 * the walks.  n is not more than the tour size.
+	 */
+	private int [] splitTour (int n_p) {
+		int tourSize = this.node.length - 1;
+		// the whole tour is one walk, the walks together are not shorter than the cheaper price of each arc
+		int [] bestCut = fewestWalks (INF, n_p);
+		double hi = this.passMax;
+		double lo = 0;
+		for (int i=0; i<tourSize; i++) lo += Math.min(this.firstDist[i], this.repeatDist[i]);
+		lo = lo / n_p;
+		while (lo<hi) {
+			double mid = (lo + hi) / 2;
+			if (mid>=hi) mid = lo;
+			int [] cut = fewestWalks (mid, n_p);
+			if (cut==null) lo = this.passOverflow;
+			else {
+				bestCut = cut;
+				hi = this.passMax;
+			}
+		}
+		
+		// splits the longest walks of two or more tour arcs until there are n walks
+		int m = bestCut.length - 1;
+		if (m==n_p) return bestCut;
+		java.util.PriorityQueue<Walk> walkQueue = new java.util.PriorityQueue<Walk>();
+		for (int j=0; j<m; j++) {
+			if (bestCut[j+1]-bestCut[j]>=2) walkQueue.add(new Walk (bestCut[j], bestCut[j+1], walkLength(bestCut[j], bestCut[j+1])));
+		}
+		int [] cut = new int [n_p+1];
+		System.arraycopy(bestCut, 0, cut, 0, m+1);
+		double [] lengthTo = new double [tourSize+1];
+		for (; m<n_p; m++) {
+			Walk walkObj = walkQueue.poll();
+			int best = splitWalk (walkObj.from, walkObj.to, lengthTo);
+			cut[m+1] = best;
+			if (best-walkObj.from>=2) walkQueue.add(new Walk (walkObj.from, best, walkLength(walkObj.from, best)));
+			if (walkObj.to-best>=2) walkQueue.add(new Walk (best, walkObj.to, walkLength(best, walkObj.to)));
+		}
+		java.util.Arrays.sort(cut);
+		return cut;
+	}
+	
+	/*
+	 * the greedy pass: returns the cut positions of the walks within the bound, each as long as 
+	 * it stays within the bound, null if more than n walks are needed.  Sets passMax to the 
+	 * longest walk taken and passOverflow to the shortest walk rejected.
+	 */
+	private int [] fewestWalks (double bound_p, int n_p) {
+		int tourSize = this.node.length - 1;
+		int [] cut = new int [n_p+1];
+		int m = 0;
+		this.passMax = 0;
+		this.passOverflow = INF;
+		for (int i=0; i<tourSize; ) {
+			if (m==n_p) return null;
+			this.stamp++;
+			double length = this.distFromDepot[this.node[i]] + this.distToDepot[this.node[i]];
+			double segment = this.distFromDepot[this.node[i]];
+			int j = i;
+			for (; j<tourSize; j++) {
+				double arcDist = (this.mark[this.edge[j]]==this.stamp)? this.repeatDist[j]: this.firstDist[j];
+				double nextLength = segment + arcDist + this.distToDepot[this.node[j+1]];
+				if (nextLength>bound_p) {
+					this.passOverflow = Math.min(this.passOverflow, nextLength);
+					break;
+				}
+				this.mark[this.edge[j]] = this.stamp;
+				segment += arcDist;
+				length = nextLength;
+			}
+			if (j==i) return null;
+			this.passMax = Math.max(this.passMax, length);
+			cut[++m] = j;
+			i = j;
+		}
+		return java.util.Arrays.copyOf(cut, m+1);
+	}
+	
+	/*
+	 * returns the position that splits the walk over the tour positions from_p .. to_p into the
+	 * two walks with the shorter longest walk, from one pass forward and one pass backward.
+	 */
+	private int splitWalk (int from_p, int to_p, double [] lengthTo_p) {
+		this.stamp++;
+		double segment = this.distFromDepot[this.node[from_p]];
+		for (int p=from_p; p<to_p-1; p++) {
+			segment += (this.mark[this.edge[p]]==this.stamp)? this.repeatDist[p]: this.firstDist[p];
+			this.mark[this.edge[p]] = this.stamp;
+			lengthTo_p[p+1] = segment + this.distToDepot[this.node[p+1]];
+		}
+		
+		// backward, the arc at p is the first traverse in the walk and the traverse after it a repeat
+		this.stamp++;
+		segment = this.distToDepot[this.node[to_p]];
+		int best = from_p + 1;
+		double bestLength = INF;
+		for (int p=to_p-1; p>from_p; p--) {
+			int e = this.edge[p];
+			if (this.mark[e]==this.stamp) segment += this.repeatDist[this.markPos[e]] - this.firstDist[this.markPos[e]];
+			segment += this.firstDist[p];
+			this.mark[e] = this.stamp;
+			this.markPos[e] = p;
+			double length = Math.max(lengthTo_p[p], this.distFromDepot[this.node[p]] + segment);
+			if (length<bestLength) {
+				bestLength = length;
+				best = p;
+			}
+		}
+		return best;
+	}
+	
+	/*
+	 * length of the closed walk over the tour arcs from position from_p to to_p.
+	 */
+	private double walkLength (int from_p, int to_p) {
+		this.stamp++;
+		double retDist = this.distFromDepot[this.node[from_p]] + this.distToDepot[this.node[to_p]];
+		for (int p=from_p; p<to_p; p++) {
+			retDist += (this.mark[this.edge[p]]==this.stamp)? this.repeatDist[p]: this.firstDist[p];
+			this.mark[this.edge[p]] = this.stamp;
+		}
+		return retDist;
+	}
+	
+	/*
+	 * length of the walk from the depot as PostmanPath.getPathDist() has it.
+	 */
+	private double pathDist (java.util.ArrayList pathArcs_p) {
+		this.stamp++;
+		double retDist = 0;
+		int v = this.depot;
+		for (int i=0; i<pathArcs_p.size(); i++) {
+			PostmanArc arcObj = (PostmanArc) pathArcs_p.get(i);
+			int e = this.idx.getEdgeIdx(arcObj);
+			boolean forward = (this.idx.getEdgeFrom(e)==v);
+			retDist += arcObj.getDist(forward, this.mark[e]==this.stamp);
+			this.mark[e] = this.stamp;
+			v = forward? this.idx.getEdgeTo(e): this.idx.getEdgeFrom(e);
+		}
+		return retDist;
+	}
+	
+	private void addPathFromDepot (java.util.ArrayList pathArcs_p, int v_p) {
+		int start = pathArcs_p.size();
+		for (int v=v_p; v!=this.depot; v=this.idx.tailOf(this.predFromDepot[v])) {
+			pathArcs_p.add(this.idx.getEdge(this.predFromDepot[v]>>1));
+		}
+		java.util.Collections.reverse(pathArcs_p.subList(start, pathArcs_p.size()));
+	}
+	
+	private void addPathToDepot (java.util.ArrayList pathArcs_p, int v_p) {
+		for (int v=v_p; v!=this.depot; v=this.idx.headOf(this.succToDepot[v])) {
+			pathArcs_p.add(this.idx.getEdge(this.succToDepot[v]>>1));
+		}
+	}
+	
+	/*
+	 * shortest paths from the depot to every node and from every node to the depot, the arcs
+	 * cost their distance in the direction traversed.  Every node on the tour is reachable both 
+	 * ways through the tour itself.
+	 */
+	private void searchDepot () {
+		int n = this.idx.getVertexCount();
+		this.distFromDepot = new double [n];
+		this.predFromDepot = new int [n];
+		this.distToDepot = new double [n];
+		this.succToDepot = new int [n];
+		search (true, this.distFromDepot, this.predFromDepot);
+		search (false, this.distToDepot, this.succToDepot);
+	}
+	
+	private void search (boolean forward_p, double [] dist_p, int [] half_p) {
+		java.util.Arrays.fill(dist_p, INF);
+		java.util.Arrays.fill(half_p, -1);
+		IndexedMinHeap heap = new IndexedMinHeap (dist_p.length);
+		int [] halfs = forward_p? this.idx.getOutHalfs(): this.idx.getInHalfs();
+		dist_p[this.depot] = 0;
+		heap.insertOrDecrease(this.depot, 0);
+		while (!heap.isEmpty()) {
+			int v = heap.removeMin();
+			int start = forward_p? this.idx.getOutStart(v): this.idx.getInStart(v);
+			int end = forward_p? this.idx.getOutStart(v+1): this.idx.getInStart(v+1);
+			for (int j=start; j<end; j++) {
+				int h = halfs[j];
+				int u = forward_p? this.idx.headOf(h): this.idx.tailOf(h);
+				double nd = dist_p[v] + ((PostmanArc) this.idx.getEdge(h>>1)).getDist((h&1)==0, false);
+				if (nd<dist_p[u]) {
+					dist_p[u] = nd;
+					half_p[u] = h;
+					heap.insertOrDecrease(u, nd);
+				}
+			}
+		}
+	}
+	
+	/*
+	 * walk over the tour positions from .. to, the longest first.
+	 */
+	private static class Walk implements Comparable<Walk> {
+		int from;
+		int to;
+		double length;
+		
+		Walk (int from_p, int to_p, double length_p) {
+			this.from = from_p;
+			this.to = to_p;
+			this.length = length_p;
+		}
+		
+		public int compareTo (Walk walkObj_p) {
+			return Double.compare(walkObj_p.length, this.length);
+		}
+	}
+}
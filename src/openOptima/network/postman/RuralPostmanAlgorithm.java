@@ -0,0 +1,213 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ * 
+ * This library is free software; you can redistribute it and/or modify it under the 
+ * terms of the GNU Lesser General Public License as published by the Free Software 
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with 
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place, 
+ * Suite 330, Boston, MA 02111-1307 USA 
+ * 
+ * @author Yaxiong Lin
+ * @version 1.0
+ * 
+ */
+package openOptima.network.postman;
+
+import openOptima.NoSolutionException;
+import openOptima.network.shortestpath.IndexedMinHeap;
+import openOptima.network.tree.DisjointSet;
+
+/**
+ * Directed rural postman algorithm for networks where only some arcs are required (min traverse
+ * count above 0) and the rest are optional, with the min and max traverse counts of every arc
+ * kept as the lower and upper flow bounds of the min cost flow in MinCostFlowPostmanAlgorithm.
+ * <p>
+ * Before the flow is balanced the required arcs are connected in one step: a search from all the
+ * nodes of the required arcs at once finds for every node the nearest required node before it and
+ * after it.  Every optional arc (u,v) then gives a chain of arcs from the required node nearest
+ * before u through (u,v) to the required node nearest after v, and the chains are taken in the
+ * order of their lengths whenever they join two parts of the required arcs not yet joined
+ * (Kruskal's minimum spanning tree on the components, the shortest path heuristic for the Steiner
+ * tree).  The optional arcs of the chains taken get a lower bound of 1.  Balancing the flow only adds
+ * paths between nodes already traversed, so the traversed arcs stay connected and form an Euler
+ * graph without the repeated connect and re-balance passes of MinCostFlowPostmanAlgorithm.
+ * @author Yaxiong Lin
+ *
+ */
+public class RuralPostmanAlgorithm extends MinCostFlowPostmanAlgorithm {
+	private static final double INF = Double.POSITIVE_INFINITY;
+
+	private int componentCount = 0;
+	private int connectArcCount = 0;
+
+	/**
+	 * default constructor.
+	 */
+	public RuralPostmanAlgorithm () {
+	}
+
+	/**
+	 * returns the number of connected parts the required arcs formed before they were connected.
+	 * @return count
+	 */
+	public int getComponentCount () { return this.componentCount; }
+
+	/**
+	 * returns the number of optional arcs forced into the solution to connect the required arcs.
+	 * @return count
+	 */
+	public int getConnectArcCount () { return this.connectArcCount; }
+
+	/**
+	 * connects the required arcs with chains of optional arcs of the least total distance.
+	 * @throws NoSolutionException if the required arcs can not be connected.
+	 */
+	protected void connectTraversedArcs () throws NoSolutionException {
+		this.componentCount = 0;
+		this.connectArcCount = 0;
+		DisjointSet setObj = new DisjointSet (this.nodeCount);
+		boolean [] required = new boolean [this.nodeCount];
+		for (int e=0; e<this.arcCount; e++) {
+			if (this.skip[e] || this.flow[e]==0) continue;
+			int from = this.idx.getEdgeFrom(e);
+			int to = this.idx.getEdgeTo(e);
+			required[from] = true;
+			required[to] = true;
+			setObj.union(from, to);
+		}
+		int [] comp = new int [this.nodeCount];
+		for (int v=0; v<this.nodeCount; v++) {
+			comp[v] = -1;
+			if (!required[v]) continue;
+			comp[v] = setObj.find(v);
+			if (comp[v]==v) this.componentCount++;
+		}
+		if (this.componentCount<=1) return;
+
+		// nearest required node before (source) and after (target) every node
+		double [] distFrom = new double [this.nodeCount];
+		int [] sourceOf = new int [this.nodeCount];
+		int [] predArc = new int [this.nodeCount];
+		double [] distTo = new double [this.nodeCount];
+		int [] targetOf = new int [this.nodeCount];
+		int [] succArc = new int [this.nodeCount];
+		searchRequired (true, required, distFrom, sourceOf, predArc);
+		searchRequired (false, required, distTo, targetOf, succArc);
+
+		// candidate chains, one per optional arc between the areas of two different components
+		int candCount = 0;
+		Integer [] cand = new Integer [this.arcCount];
+		final double [] chainLength = new double [this.arcCount];
+		for (int e=0; e<this.arcCount; e++) {
+			if (!isUsable(e) || this.flow[e]>0) continue;
+			int from = this.idx.getEdgeFrom(e);
+			int to = this.idx.getEdgeTo(e);
+			if (distFrom[from]==INF || distTo[to]==INF) continue;
+			if (comp[sourceOf[from]]==comp[targetOf[to]]) continue;
+			chainLength[e] = distFrom[from] + this.firstCost[e] + distTo[to];
+			cand[candCount++] = Integer.valueOf(e);
+		}
+		java.util.Arrays.sort(cand, 0, candCount, new java.util.Comparator<Integer>() {
+			public int compare (Integer a_p, Integer b_p) {
+				return Double.compare(chainLength[a_p.intValue()], chainLength[b_p.intValue()]);
+			}
+		});
+
+		int joinCount = 0;
+		for (int i=0; i<candCount && joinCount<this.componentCount-1; i++) {
+			int e = cand[i].intValue();
+			if (setObj.find(sourceOf[this.idx.getEdgeFrom(e)])==setObj.find(targetOf[this.idx.getEdgeTo(e)])) continue;
+			forceChain (e, predArc, succArc, setObj);
+			joinCount++;
+		}
+
+		int root = -1;
+		for (int v=0; v<this.nodeCount; v++) {
+			if (!required[v]) continue;
+			if (root<0) root = setObj.find(v);
+			else if (setObj.find(v)!=root) throw new NoSolutionException ("Graph not strongly connected, unable to connect the required arcs.");
+		}
+	}
+
+	private boolean isUsable (int e_p) {
+		return !this.skip[e_p] && this.upper[e_p]>0;
+	}
+
+	/*
+	 * traverses the chain through the arc from the nearest required node before it to the nearest after it.
+	 */
+	private void forceChain (int e_p, int [] predArc_p, int [] succArc_p, DisjointSet setObj_p) {
+		for (int v=this.idx.getEdgeFrom(e_p); predArc_p[v]>=0; v=this.idx.getEdgeFrom(predArc_p[v])) {
+			forceArc (predArc_p[v], setObj_p);
+		}
+		forceArc (e_p, setObj_p);
+		for (int v=this.idx.getEdgeTo(e_p); succArc_p[v]>=0; v=this.idx.getEdgeTo(succArc_p[v])) {
+			forceArc (succArc_p[v], setObj_p);
+		}
+	}
+
+	/*
+	 * traverses the arc at least once and joins its end nodes.
+	 */
+	private void forceArc (int e_p, DisjointSet setObj_p) {
+		int from = this.idx.getEdgeFrom(e_p);
+		int to = this.idx.getEdgeTo(e_p);
+		setObj_p.union(from, to);
+		if (this.flow[e_p]>0) return;
+		this.lower[e_p] = 1;
+		this.flow[e_p] = 1;
+		this.excess[to]++;
+		this.excess[from]--;
+		this.connectArcCount++;
+	}
+
+	/*
+	 * shortest distances from (forward_p) or to the nearest node of the required arcs, an optional arc
+	 * costs its distance.  end_p is set to the required node and arc_p to the arc before (after) the
+	 * node on the path, -1 at the required nodes.
+	 */
+	private void searchRequired (boolean forward_p, boolean [] required_p, double [] dist_p, int [] end_p, int [] arc_p) {
+		java.util.Arrays.fill(dist_p, INF);
+		java.util.Arrays.fill(end_p, -1);
+		java.util.Arrays.fill(arc_p, -1);
+		IndexedMinHeap heap = new IndexedMinHeap (this.nodeCount);
+		for (int v=0; v<this.nodeCount; v++) {
+			if (!required_p[v]) continue;
+			dist_p[v] = 0;
+			end_p[v] = v;
+			heap.insertOrDecrease(v, 0);
+		}
+		int [] halfs = forward_p? this.idx.getOutHalfs(): this.idx.getInHalfs();
+		while (!heap.isEmpty()) {
+			int v = heap.removeMin();
+			int start = forward_p? this.idx.getOutStart(v): this.idx.getInStart(v);
+			int end = forward_p? this.idx.getOutStart(v+1): this.idx.getInStart(v+1);
+			for (int j=start; j<end; j++) {
+				int e = halfs[j]>>1;
+				if (!isUsable(e)) continue;
+				int u = forward_p? this.idx.getEdgeTo(e): this.idx.getEdgeFrom(e);
+				double nd = dist_p[v] + this.firstCost[e];
+				if (nd<dist_p[u]) {
+					dist_p[u] = nd;
+					end_p[u] = end_p[v];
+					arc_p[u] = e;
+					heap.insertOrDecrease(u, nd);
+				}
+			}
+		}
+	}
+
+	public String getStat () {
+		StringBuffer tempBuf = new StringBuffer(super.getStat());
+		tempBuf.append("\n").append(this.componentCount).append(" required components connected by ");
+		tempBuf.append(this.connectArcCount).append(" optional arcs");
+		return tempBuf.toString();
+	}
+}
@@ -0,0 +1,44 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ * 
+ * This library is free software; you can redistribute it and/or modify it under the 
+ * terms of the GNU Lesser General Public License as published by the Free Software 
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with 
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place, 
+ * Suite 330, Boston, MA 02111-1307 USA 
+ * 
+ * @author Yaxiong Lin
+ * @version 1.0
+ * 
+ */
+package openOptima.network.postman;
+
+import openOptima.NoSolutionException;
+import openOptima.graph.euler.EulerTourListenerIntf;
+
+/**
+ * Postman algorithm that can pass the arcs of the postman tour to a listener one at a time
+ * instead of returning them in a PostmanPath, so the tour does not have to be kept in memory.
+ * @author Yaxiong Lin
+ *
+ */
+public interface StreamingPostmanAlgorithmIntf extends PostmanAlgorithmIntf {
+
+	/**
+	 * optimizes the network if needed and passes the arcs of the postman tour starting at
+	 * fromNode_p to the listener in the order they are traversed.
+	 * @param fromNode_p starting node #
+	 * @param listenerObj_p listener, receives the arcs as PostmanArc objects
+	 * @return number of arcs passed to the listener
+	 * @throws NoSolutionException if no solution can be found
+	 * @throws InterruptedException interrupted
+	 */
+	public long streamPostmanPath (int fromNode_p, EulerTourListenerIntf listenerObj_p) throws NoSolutionException, InterruptedException;
+}
@@ -0,0 +1,368 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ * 
+ * This library is free software; you can redistribute it and/or modify it under the 
+ * terms of the GNU Lesser General Public License as published by the Free Software 
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with 
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place, 
+ * Suite 330, Boston, MA 02111-1307 USA 
+ * 
+ * @author Yaxiong Lin
+ * @version 1.0
+ * 
+ */
+package openOptima.network.postman;
+
+import openOptima.AlgorithmTask;
+import openOptima.NoSolutionException;
+import openOptima.NotImplementedException;
+import openOptima.PerformanceStatIntf;
+import openOptima.graph.GraphIndex;
+import openOptima.graph.matching.MatchingProblem;
+import openOptima.network.Node;
+import openOptima.network.shortestpath.DistanceMatrixAlgorithm;
+
+/**
+ * Postman algorithm for undirected networks (undirected Chinese postman problem).
+ * <p>
+ * Every arc is traversed its min traverse count times (arcs with min count 0 are optional).
+ * The vertices with an odd number of traverses are paired by the min weight perfect matching
+ * on their shortest path distances and the arcs on the shortest path of each pair are
+ * traversed once more, which makes every vertex even and gives the optimal tour.  An extra
+ * traverse costs the repeat distance of the arc, or its distance for an optional arc.
+ * <p>
+ * The shortest path searches from the odd vertices run in parallel (DistanceMatrixAlgorithm),
+ * the matching uses the blossom algorithm in openOptima.graph.matching.MatchingProblem.  The
+ * arcs traversed must be connected, use RuralPostmanAlgorithm otherwise.
+ * @author Yaxiong Lin
+ *
+ */
+public class UndirectedPostmanAlgorithm extends AlgorithmTask implements PostmanAlgorithmIntf, PerformanceStatIntf {
+	protected static final double INF = Double.POSITIVE_INFINITY;
+
+	/**
+	 * Postman network object
+	 */
+	protected PostmanNetwork networkObj;
+	protected boolean optimized = false;
+	protected long optimizedVersion = -1;
+	protected long iterationCount = 0;
+	protected long millisTook = 0;
+	protected int threadCount = Runtime.getRuntime().availableProcessors();
+	protected int progressPercentage = 0;
+
+	protected GraphIndex idx;
+	protected int nodeCount;
+	protected int arcCount;
+	protected boolean [] skip; // self loops
+	protected int [] lower;
+	protected int [] upper;
+	protected int [] count;
+	protected int [] forwardCount; // traverses with a fixed direction, see EulerTourBuilder
+	protected int [] backwardCount;
+	protected int [] freeCount;
+	protected int oddNodeCount = 0;
+
+	/**
+	 * default constructor.
+	 */
+	public UndirectedPostmanAlgorithm () {
+	}
+
+	/**
+	 * sets the number of threads for the shortest path searches, defaults to the number of processors.
+	 * @param threadCount_p thread count
+	 */
+	public void setThreadCount (int threadCount_p) {
+		this.threadCount = Math.max(1, threadCount_p);
+	}
+	
+	/**
+	 * sets the network object to the algorithm.
+	 * @throws NotImplementedException if the network contains directed arcs.
+	 */
+	public void init (PostmanNetwork networkObj_p) throws NotImplementedException {
+		if (!networkObj_p.isUndirected())
+			throw new NotImplementedException ("The network is either not an undirected graph or contains no arcs.  For mixed graph/network use openOptima.network.postman.MixedPostmanAlgorithm class.");
+		this.networkObj = networkObj_p;
+		this.optimized = false;
+	}
+
+	/**
+	 * Execute the algorithm and return the optimal postman path starting at fromNode_p.
+	 * @param fromNode_p starting node #
+	 * @return PostmanPath object
+	 * @throws NoSolutionException if no solution can be found, typically this is caused
+	 *  by the graph not connected.
+	 * @throws InterruptedException interrupted
+	 */
+	public PostmanPath getPostmanPath (int fromNode_p) throws NoSolutionException, InterruptedException {
+		Node startNode = this.networkObj.getNode(fromNode_p);
+		if (startNode==null) throw new NoSolutionException ("Node not found: " + fromNode_p);
+		return this.getPostmanPath(startNode);
+	}
+
+	/**
+	 * Execute the algorithm and return the optimal postman path starting at startNode_p.
+	 * @param startNode_p starting node object
+	 * @return PostmanPath object
+	 * @throws NoSolutionException if no solution can be found, typically this is caused
+	 *  by the graph not connected.
+	 * @throws InterruptedException interrupted
+	 */
+	public PostmanPath getPostmanPath (Node startNode_p) throws NoSolutionException, InterruptedException {
+		if (!this.optimized || this.optimizedVersion!=this.networkObj.getVersion()) this.optimize();
+		int start = this.idx.getVertexIdx(startNode_p);
+		if (start<0) throw new NoSolutionException ("Node not active: " + startNode_p);
+
+		EulerTourBuilder builderObj = new EulerTourBuilder (this.idx, this.forwardCount, this.backwardCount, this.freeCount);
+		PostmanPath pathObj = new PostmanPath ();
+		pathObj.setPathArcs(builderObj.getTour(start));
+		return pathObj;
+	}
+
+	/**
+	 * finds the n-postmen paths: the optimal single postman tour is split into n closed walks
+	 * from fromNode_p with balanced lengths, see {@link PostmanTourSplitter}.
+	 * @param fromNode_p starting node #
+	 * @param n_p postmen count
+	 * @return postman paths, fewer than n_p if the tour has fewer than n_p arcs
+	 * @throws NoSolutionException if no solution can be found
+	 * @throws InterruptedException interrupted
+	 */
+	public PostmanPath [] getPostmanPaths (int fromNode_p, int n_p) throws NoSolutionException, InterruptedException {
+		return new PostmanTourSplitter (this.networkObj).split(this.getPostmanPath(fromNode_p), fromNode_p, n_p);
+	}
+
+	/**
+	 * finds the number of traverses of each arc and sets it as the arc count.
+	 * @throws NoSolutionException if the network is not connected or the max traverse counts are too low.
+	 * @throws InterruptedException interrupted
+	 */
+	public void optimize () throws NoSolutionException, InterruptedException {
+		long startMillis = System.currentTimeMillis();
+		this.optimized = false;
+		this.iterationCount = 0;
+		this.progressPercentage = 0;
+		buildIndex ();
+		this.progressPercentage = 10;
+		
+		int [] degree = new int [this.nodeCount];
+		addDegrees (degree, this.count);
+		matchOddNodes (degree, getRepeatCosts(this.count, false), false, this.count, this.freeCount);
+		this.progressPercentage = 90;
+
+		completeOptimize ();
+		this.millisTook = System.currentTimeMillis() - startMillis;
+	}
+	
+	/*
+	 * reads the network into arrays, every arc starts with its min traverse count.
+	 */
+	protected void buildIndex () throws NoSolutionException {
+		this.idx = new GraphIndex (this.networkObj, true);
+		this.nodeCount = this.idx.getVertexCount();
+		this.arcCount = this.idx.getEdgeCount();
+		this.skip = new boolean [this.arcCount];
+		this.lower = new int [this.arcCount];
+		this.upper = new int [this.arcCount];
+		this.count = new int [this.arcCount];
+		this.forwardCount = new int [this.arcCount];
+		this.backwardCount = new int [this.arcCount];
+		this.freeCount = new int [this.arcCount];
+		for (int e=0; e<this.arcCount; e++) {
+			PostmanArc arcObj = (PostmanArc) this.idx.getEdge(e);
+			this.skip[e] = arcObj.isSelfLoop();
+			this.lower[e] = Math.max(arcObj.getMinTraverseCount(), 0);
+			this.upper[e] = arcObj.getMaxTraverseCount();
+			if (this.upper[e]<this.lower[e]) throw new NoSolutionException ("Max traverse count is less than min traverse count for arc " + arcObj);
+			this.count[e] = this.lower[e];
+			if (arcObj.isDirected()) this.forwardCount[e] = this.lower[e];
+			else this.freeCount[e] = this.lower[e];
+		}
+	}
+	
+	/*
+	 * adds the number of traverses of the arcs to the degree of their end nodes, self loops excluded.
+	 */
+	protected void addDegrees (int [] degree_p, int [] count_p) {
+		for (int e=0; e<this.arcCount; e++) {
+			if (this.skip[e]) continue;
+			degree_p[this.idx.getEdgeFrom(e)] += count_p[e];
+			degree_p[this.idx.getEdgeTo(e)] += count_p[e];
+		}
+	}
+	
+	/*
+	 * returns the cost of one more traverse through each half edge, +INF for the arcs at their max
+	 * traverse count and, with undirectedOnly_p, for the directed arcs.  The backward half edge of
+	 * a directed arc has the forward cost, it is only used when the directions are ignored.
+	 */
+	protected double [] getRepeatCosts (int [] count_p, boolean undirectedOnly_p) {
+		double [] halfCost = new double [2*this.arcCount];
+		for (int e=0; e<this.arcCount; e++) {
+			PostmanArc arcObj = (PostmanArc) this.idx.getEdge(e);
+			boolean repeat = count_p[e]>0;
+			if (this.skip[e] || count_p[e]>=this.upper[e] || (undirectedOnly_p && arcObj.isDirected())) {
+				halfCost[2*e] = INF;
+				halfCost[2*e+1] = INF;
+				continue;
+			}
+			halfCost[2*e] = arcObj.getDist(true, repeat);
+			halfCost[2*e+1] = arcObj.getDist(false, repeat);
+		}
+		return halfCost;
+	}
+	
+	/*
+	 * pairs up the nodes with odd degree by the min weight perfect matching on the shortest path
+	 * distances and adds one traverse to count_p and extra_p for every arc on the path of each pair.
+	 * Returns the total cost added.
+	 */
+	protected double matchOddNodes (int [] degree_p, double [] halfCost_p, boolean ignoreDirection_p, 
+			int [] count_p, int [] extra_p) throws NoSolutionException, InterruptedException {
+		int oddCount = 0;
+		for (int v=0; v<this.nodeCount; v++) {
+			if (degree_p[v]%2!=0) oddCount++;
+		}
+		this.oddNodeCount = oddCount;
+		if (oddCount==0) return 0;
+		int [] oddNodes = new int [oddCount];
+		oddCount = 0;
+		for (int v=0; v<this.nodeCount; v++) {
+			if (degree_p[v]%2!=0) oddNodes[oddCount++] = v;
+		}
+		
+		DistanceMatrixAlgorithm distObj = new DistanceMatrixAlgorithm (this.idx, halfCost_p, ignoreDirection_p);
+		distObj.setThreadCount(this.threadCount);
+		double [][] dist = distObj.getDistances(oddNodes, oddNodes);
+		this.iterationCount += oddCount;
+		for (int i=0; i<oddCount; i++) {
+			for (int j=0; j<i; j++) dist[i][j] = dist[j][i] = Math.min(dist[i][j], dist[j][i]);
+		}
+		int [] mate = MatchingProblem.minWeightPerfectMatching(dist);
+		
+		int [] fromList = new int [oddCount/2];
+		int [] toList = new int [oddCount/2];
+		int k = 0;
+		for (int i=0; i<oddCount; i++) {
+			if (mate[i]<i) continue;
+			fromList[k] = oddNodes[i];
+			toList[k++] = oddNodes[mate[i]];
+		}
+		int [][] paths = distObj.getPaths(fromList, toList);
+		this.iterationCount += paths.length;
+		double totalCost = 0;
+		for (int p=0; p<paths.length; p++) {
+			if (paths[p]==null) throw new NoSolutionException ("Graph not connected, no path from " + this.idx.getVertex(fromList[p]) + " to " + this.idx.getVertex(toList[p]));
+			for (int i=0; i<paths[p].length; i++) {
+				int e = paths[p][i]>>1;
+				count_p[e]++;
+				extra_p[e]++;
+				totalCost += halfCost_p[paths[p][i]];
+			}
+		}
+		return totalCost;
+	}
+	
+	/*
+	 * checks the counts found and sets them on the network arcs.
+	 */
+	protected void completeOptimize () throws NoSolutionException {
+		for (int e=0; e<this.arcCount; e++) {
+			if (this.count[e]>this.upper[e]) throw new NoSolutionException ("Max traverse count too low for arc " + this.idx.getEdge(e));
+		}
+		if (!isConnected(this.count)) throw new NoSolutionException ("The arcs to be traversed are not connected.");
+		for (int e=0; e<this.arcCount; e++) {
+			((PostmanArc) this.idx.getEdge(e)).setCount(this.count[e]);
+		}
+		this.optimized = true;
+		this.optimizedVersion = this.networkObj.getVersion();
+		this.progressPercentage = 100;
+	}
+	
+	/*
+	 * returns true if the arcs with a positive count are connected, ignoring the directions.
+	 */
+	protected boolean isConnected (int [] count_p) {
+		int [] parent = new int [this.nodeCount];
+		for (int v=0; v<this.nodeCount; v++) parent[v] = v;
+		int root = -1;
+		for (int e=0; e<this.arcCount; e++) {
+			if (count_p[e]<=0) continue;
+			int a = findRoot(parent, this.idx.getEdgeFrom(e));
+			int b = findRoot(parent, this.idx.getEdgeTo(e));
+			parent[a] = b;
+			root = b;
+		}
+		if (root<0) return true;
+		root = findRoot(parent, root);
+		for (int e=0; e<this.arcCount; e++) {
+			if (count_p[e]>0 && findRoot(parent, this.idx.getEdgeFrom(e))!=root) return false;
+		}
+		return true;
+	}
+	
+	private static int findRoot (int [] parent_p, int v_p) {
+		while (parent_p[v_p]!=v_p) {
+			parent_p[v_p] = parent_p[parent_p[v_p]];
+			v_p = parent_p[v_p];
+		}
+		return v_p;
+	}
+	
+	/*
+	 * returns the total distance of the traverses: the distance for the first and the repeat
+	 * distance for the others.
+	 */
+	protected double getTotalDist (int [] count_p) {
+		double totalDist = 0;
+		for (int e=0; e<this.arcCount; e++) {
+			if (count_p[e]<=0) continue;
+			PostmanArc arcObj = (PostmanArc) this.idx.getEdge(e);
+			totalDist += arcObj.getDist() + (count_p[e]-1)*arcObj.getRepeatDist();
+		}
+		return totalDist;
+	}
+
+	/**
+	 * returns the percentage of search status. 0 - 100 (%).
+	 */
+	public int getProgressPercentage () {
+		return this.progressPercentage;
+	}
+
+	public String getStat () {
+		StringBuffer tempBuf = new StringBuffer("Matching Algorithm for Undirected Postman Problem\n");
+		tempBuf.append(this.networkObj.getStat()).append("\n");
+		if (this.optimized) {
+			tempBuf.append("Optimization completed with ").append(this.oddNodeCount).append(" odd nodes matched, ");
+			tempBuf.append(this.millisTook).append(" milliseconds");
+		}
+		return tempBuf.toString();
+	}
+
+	public void run () {
+		try {
+			this.optimize();
+			this.callbackObj.callback(null);
+		}
+		catch (Exception e) {
+			this.callbackObj.callback(e);
+		}
+	}
+
+	public long getMillisTook () { return this.millisTook; }
+
+	/**
+	 * Returns the number of shortest path searches performed.
+	 */
+	public long getIterationCount () { return this.iterationCount; }
+}
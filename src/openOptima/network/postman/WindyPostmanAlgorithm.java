@@ -0,0 +1,142 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ * 
+ * This library is free software; you can redistribute it and/or modify it under the 
+ * terms of the GNU Lesser General Public License as published by the Free Software 
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with 
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place, 
+ * Suite 330, Boston, MA 02111-1307 USA 
+ * 
+ * @author Yaxiong Lin
+ * @version 1.0
+ * 
+ */
+package openOptima.network.postman;
+
+/**
+ * Windy postman heuristic for networks whose undirected arcs cost differently in the two directions
+ * (see PostmanArc.setReverseDist()), directed arcs may be mixed in.  The cost of a traverse is the
+ * distance for the first traverse of an arc and the repeat distance for the others, in the
+ * direction traversed.
+ * <p>
+ * The traverses are found as by MixedPostmanAlgorithm with the cost of each direction: the min
+ * cost flow pays the forward or the backward distance for the extra traverses it adds to the
+ * undirected arcs.  The traverses left without a direction are then given the directions of least
+ * cost that keep every node balanced by a second min cost flow, see orientFreeTraverses().  The
+ * variants are compared on the windy distance.
+ * @author Yaxiong Lin
+ *
+ */
+public class WindyPostmanAlgorithm extends MixedPostmanAlgorithm {
+
+	/**
+	 * default constructor.
+	 */
+	public WindyPostmanAlgorithm () {
+	}
+
+	/**
+	 * directs the traverses without a direction and returns the windy distance of the traverses.
+	 */
+	protected double completeVariant (int [] cnt_p, int [] fwd_p, int [] bwd_p, int [] free_p) throws InterruptedException {
+		orientFreeTraverses (cnt_p, fwd_p, bwd_p, free_p);
+		return getWindyDist(cnt_p, fwd_p, bwd_p, free_p);
+	}
+
+	/*
+	 * directs the traverses without a direction at the least cost that keeps every node balanced.
+	 * They all start in the cheaper direction of their arc, which leaves an even imbalance at the
+	 * nodes as they are even in number at every node.  Turning a traverse around moves 2 units of
+	 * imbalance from one end to the other at the cost difference of the directions, so half of the
+	 * imbalance is removed by the successive shortest path min cost flow on these turn arcs, the
+	 * costs are not negative.  Residual arc 2k turns one more traverse of the k-th arc with free
+	 * traverses, 2k+1 turns one back.  Nothing is directed if the imbalance can not be removed.
+	 */
+	private void orientFreeTraverses (int [] cnt_p, int [] fwd_p, int [] bwd_p, int [] free_p) throws InterruptedException {
+		int n = this.nodeCount;
+		int freeArcCount = 0;
+		for (int e=0; e<this.arcCount; e++) {
+			if (free_p[e]>0 && !this.skip[e]) freeArcCount++;
+		}
+		int [] freeArc = new int [freeArcCount];
+		boolean [] cheapForward = new boolean [freeArcCount];
+		int [] tail = new int [2*freeArcCount];
+		int [] cap = new int [2*freeArcCount];
+		double [] cost = new double [2*freeArcCount];
+		int [] excess = new int [n]; // in - out of the traverses directed the cheaper way, halved below
+		int k = 0;
+		for (int e=0; e<this.arcCount; e++) {
+			if (free_p[e]<=0 || this.skip[e]) continue;
+			double forwardCost = getTraverseDist(2*e, cnt_p);
+			double backwardCost = getTraverseDist(2*e+1, cnt_p);
+			int from = this.idx.getEdgeFrom(e), to = this.idx.getEdgeTo(e);
+			freeArc[k] = e;
+			cheapForward[k] = forwardCost<=backwardCost;
+			int head = cheapForward[k]? to: from;
+			int tl = cheapForward[k]? from: to;
+			excess[head] += free_p[e];
+			excess[tl] -= free_p[e];
+			// turning a traverse tl->head around moves imbalance from head to tl
+			tail[2*k] = head;
+			tail[2*k+1] = tl;
+			cap[2*k] = free_p[e];
+			cap[2*k+1] = 0;
+			cost[2*k] = Math.abs(forwardCost - backwardCost);
+			cost[2*k+1] = -cost[2*k];
+			k++;
+		}
+		for (int v=0; v<n; v++) {
+			if (excess[v]%2!=0) return;
+			excess[v] /= 2;
+		}
+		
+		if (!successiveShortestPaths (tail, cap, cost, excess)) return;
+
+		for (k=0; k<freeArcCount; k++) {
+			int e = freeArc[k];
+			int turned = cap[2*k+1];
+			int cheap = free_p[e] - turned;
+			fwd_p[e] += cheapForward[k]? cheap: turned;
+			bwd_p[e] += cheapForward[k]? turned: cheap;
+			free_p[e] = 0;
+		}
+	}
+
+	/*
+	 * distance of a traverse through the half edge, the repeat distance if the arc is traversed more than once.
+	 */
+	private double getTraverseDist (int half_p, int [] cnt_p) {
+		PostmanArc arcObj = (PostmanArc) this.idx.getEdge(half_p>>1);
+		return arcObj.getDist((half_p&1)==0, cnt_p[half_p>>1]>1);
+	}
+
+	/*
+	 * total distance of the traverses, the first traverse of an arc is taken forward if there is one.
+	 */
+	private double getWindyDist (int [] cnt_p, int [] fwd_p, int [] bwd_p, int [] free_p) {
+		double totalDist = 0;
+		for (int e=0; e<this.arcCount; e++) {
+			if (cnt_p[e]<=0) continue;
+			PostmanArc arcObj = (PostmanArc) this.idx.getEdge(e);
+			int forward = fwd_p[e] + free_p[e];
+			int backward = bwd_p[e];
+			if (forward>0) totalDist += arcObj.getDist(true, false) + (forward-1)*arcObj.getDist(true, true) + backward*arcObj.getDist(false, true);
+			else totalDist += arcObj.getDist(false, false) + (backward-1)*arcObj.getDist(false, true);
+		}
+		return totalDist;
+	}
+
+	/**
+	 * returns the first line of getStat().
+	 */
+	protected String getStatTitle () {
+		return "Matching and Min Cost Flow Heuristic for Windy Postman Problem";
+	}
+}
@@ -0,0 +1,39 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ * 
+ * This library is free software; you can redistribute it and/or modify it under the 
+ * terms of the GNU Lesser General Public License as published by the Free Software 
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with 
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place, 
+ * Suite 330, Boston, MA 02111-1307 USA 
+ * 
+ * @author Yaxiong Lin
+ * @version 1.0
+ * 
+ */
+package openOptima.network.shortestpath;
+
+import openOptima.network.Arc;
+
+/**
+ * Supplies the consumption of a secondary resource (time, risk, number of test steps, etc.)
+ * on each arc for the resource constrained shortest path search.
+ * @author Yaxiong Lin
+ *
+ */
+public interface ArcResourceIntf {
+
+	/**
+	 * Returns the amount of the resource used when traversing the arc, must not be negative.
+	 * @param arcObj_p arc
+	 * @return resource
+	 */
+	public double getResource (Arc arcObj_p);
+}
@@ -0,0 +1,290 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ * 
+ * This library is free software; you can redistribute it and/or modify it under the 
+ * terms of the GNU Lesser General Public License as published by the Free Software 
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with 
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place, 
+ * Suite 330, Boston, MA 02111-1307 USA 
+ * 
+ * @author Yaxiong Lin
+ * @version 1.0
+ * 
+ */
+package openOptima.network.shortestpath;
+
+import openOptima.AlgorithmTask;
+import openOptima.NoSolutionException;
+import openOptima.NotImplementedException;
+import openOptima.PerformanceStatIntf;
+import openOptima.graph.Vertex;
+import openOptima.network.Network;
+
+/**
+ * Result cache in front of any shortest path algorithm.  The shortest path for each
+ * (from node, to node) pair and the shortest paths from each start node are kept in a
+ * least recently used cache bounded by the total number of arcs referenced by the cached paths,
+ * which is what the memory held by the cache grows with.
+ * <p>
+ * The cache compares the version of the network (see openOptima.graph.Graph#getVersion()) with
+ * the version the cached results were computed on at every request, and drops all results as soon
+ * as the network has been changed in any way: arc/node added or removed, distance changed, arc/node
+ * activated or inactivated.
+ * <p>
+ * The ShortestPath objects returned are shared by the callers asking for the same path and must
+ * not be modified.
+ * @author Yaxiong Lin
+ *
+ */
+public class CachedShortestPathAlgorithm extends AlgorithmTask implements ShortestPathAlgorithmIntf, PerformanceStatIntf {
+	private ShortestPathAlgorithmIntf optimizerObj;
+	private Network graphObj;
+	private long graphVersion;
+	private long maxCachedArcs;
+	private long cachedArcs = 0;
+	private java.util.LinkedHashMap<CacheKey, CacheEntry> cacheList;
+	private boolean lastFromCache = false;
+	private int startNode;
+	
+	private long hitCount = 0;
+	private long missCount = 0;
+	private long evictionCount = 0;
+	private long invalidationCount = 0;
+	private long millisTook = 0;
+
+	/**
+	 * Constructor.
+	 * @param optimizerObj_p shortest path algorithm to compute the paths not in the cache
+	 * @param maxCachedArcs_p maximum total number of arcs in the cached paths
+	 */
+	public CachedShortestPathAlgorithm (ShortestPathAlgorithmIntf optimizerObj_p, long maxCachedArcs_p) {
+		this.optimizerObj = optimizerObj_p;
+		this.maxCachedArcs = Math.max(1, maxCachedArcs_p);
+		this.cacheList = new java.util.LinkedHashMap<CacheKey, CacheEntry>(64, 0.75f, true);
+	}
+
+	/**
+	 * Returns the shortest path algorithm the cache is in front of.
+	 * @return algorithm
+	 */
+	public ShortestPathAlgorithmIntf getAlgorithm () { return this.optimizerObj; }
+
+	public void init (Network graphObj_p) {
+		this.optimizerObj.init(graphObj_p);
+		this.graphObj = graphObj_p;
+		clear ();
+	}
+
+	/**
+	 * drops all cached results.
+	 */
+	public void clear () {
+		this.cacheList.clear();
+		this.cachedArcs = 0;
+		if (this.graphObj!=null) this.graphVersion = this.graphObj.getVersion();
+	}
+
+	public ShortestPath getShortestPath (int fromNode_p, int toNode_p) throws NoSolutionException {
+		CacheKey key = new CacheKey (fromNode_p, toNode_p, false);
+		CacheEntry entry = lookup (key);
+		if (entry!=null) return entry.pathList[0];
+
+		long startMillis = System.currentTimeMillis();
+		ShortestPath pathObj = this.optimizerObj.getShortestPath(fromNode_p, toNode_p);
+		this.millisTook = System.currentTimeMillis() - startMillis;
+		if (pathObj!=null) store (key, new ShortestPath [] {pathObj});
+		return pathObj;
+	}
+
+	public ShortestPath [] getShortestPaths (int fromNode_p) throws NoSolutionException {
+		CacheKey key = new CacheKey (fromNode_p, 0, true);
+		CacheEntry entry = lookup (key);
+		if (entry!=null) return entry.pathList.clone();
+
+		long startMillis = System.currentTimeMillis();
+		ShortestPath [] pathList = this.optimizerObj.getShortestPaths(fromNode_p);
+		this.millisTook = System.currentTimeMillis() - startMillis;
+		if (pathList!=null) {
+			store (key, pathList);
+			pathList = pathList.clone();
+		}
+		return pathList;
+	}
+
+	/**
+	 * passed on to the algorithm, the result is not cached.
+	 */
+	public ShortestPath [] getShortestPaths () throws NotImplementedException, NoSolutionException {
+		this.lastFromCache = false;
+		return this.optimizerObj.getShortestPaths();
+	}
+
+	/*
+	 * returns the cache entry, null if not in cache.  Drops all entries if the network has changed.
+	 */
+	private CacheEntry lookup (CacheKey key_p) {
+		if (this.graphObj!=null && this.graphObj.getVersion()!=this.graphVersion) {
+			if (!this.cacheList.isEmpty()) this.invalidationCount++;
+			// the algorithm may hold on to its last search as well, e.g. DijkstraAlgorithm
+			this.optimizerObj.init(this.graphObj);
+			clear ();
+		}
+		CacheEntry entry = this.cacheList.get(key_p);
+		this.lastFromCache = (entry!=null);
+		if (entry==null) this.missCount++;
+		else {
+			this.hitCount++;
+			this.millisTook = 0;
+		}
+		return entry;
+	}
+
+	private void store (CacheKey key_p, ShortestPath [] pathList_p) {
+		CacheEntry entry = new CacheEntry (pathList_p);
+		if (entry.arcCount>this.maxCachedArcs) return;
+		CacheEntry oldEntry = this.cacheList.put(key_p, entry);
+		if (oldEntry!=null) this.cachedArcs -= oldEntry.arcCount;
+		this.cachedArcs += entry.arcCount;
+		java.util.Iterator<CacheEntry> it = this.cacheList.values().iterator();
+		while (this.cachedArcs>this.maxCachedArcs && it.hasNext()) {
+			CacheEntry eldest = it.next();
+			if (eldest==entry) continue;
+			this.cachedArcs -= eldest.arcCount;
+			it.remove();
+			this.evictionCount++;
+		}
+	}
+
+	/*
+	 * key for a (from,to) pair or all paths from a node
+	 */
+	private static class CacheKey {
+		final int fromNode;
+		final int toNode;
+		final boolean allPaths;
+
+		CacheKey (int fromNode_p, int toNode_p, boolean allPaths_p) {
+			this.fromNode = fromNode_p;
+			this.toNode = toNode_p;
+			this.allPaths = allPaths_p;
+		}
+
+		public boolean equals (Object other_p) {
+			if (!(other_p instanceof CacheKey)) return false;
+			CacheKey key = (CacheKey) other_p;
+			return this.fromNode==key.fromNode && this.toNode==key.toNode && this.allPaths==key.allPaths;
+		}
+
+		public int hashCode () {
+			return (this.fromNode*31 + this.toNode)*2 + (this.allPaths?1:0);
+		}
+	}
+
+	private static class CacheEntry {
+		final ShortestPath [] pathList;
+		final long arcCount; // arcs referenced plus one per path for the path object itself
+
+		CacheEntry (ShortestPath [] pathList_p) {
+			this.pathList = pathList_p;
+			long tempCount = 0;
+			for (int i=0; i<pathList_p.length; i++) {
+				tempCount++;
+				if (pathList_p[i]!=null && pathList_p[i].getPathArcs()!=null) tempCount += pathList_p[i].getPathArcs().length;
+			}
+			this.arcCount = tempCount;
+		}
+	}
+
+	/**
+	 * Returns the number of requests answered from the cache.
+	 * @return count
+	 */
+	public long getHitCount () { return this.hitCount; }
+
+	/**
+	 * Returns the number of requests passed on to the algorithm.
+	 * @return count
+	 */
+	public long getMissCount () { return this.missCount; }
+
+	/**
+	 * Returns the number of results dropped to keep the cache within its size.
+	 * @return count
+	 */
+	public long getEvictionCount () { return this.evictionCount; }
+
+	/**
+	 * Returns the number of times the cache was cleared because the network was changed.
+	 * @return count
+	 */
+	public long getInvalidationCount () { return this.invalidationCount; }
+
+	/**
+	 * Returns the number of results in the cache.
+	 * @return count
+	 */
+	public int getCachedCount () { return this.cacheList.size(); }
+
+	/**
+	 * Returns the total number of arcs referenced by the cached results.
+	 * @return count
+	 */
+	public long getCachedArcCount () { return this.cachedArcs; }
+
+	public java.util.ArrayList<Vertex> getUnReachableVertexList () {
+		if (this.lastFromCache) return new java.util.ArrayList<Vertex>();
+		return this.optimizerObj.getUnReachableVertexList();
+	}
+
+	public int getProgressPercentage () {
+		return this.optimizerObj.getProgressPercentage();
+	}
+
+	public String getStat () {
+		StringBuffer tempBuf = new StringBuffer(this.optimizerObj.getStat());
+		tempBuf.append("\nCache: ").append(this.hitCount).append(" hits, ").append(this.missCount).append(" misses, ");
+		tempBuf.append(this.evictionCount).append(" evictions, ").append(this.invalidationCount).append(" invalidations, ");
+		tempBuf.append(this.cacheList.size()).append(" results with ").append(this.cachedArcs).append(" arcs cached");
+		return tempBuf.toString();
+	}
+
+	public void setStartNode (int fromNode_p) {
+		this.startNode = fromNode_p;
+		this.optimizerObj.setStartNode(fromNode_p);
+	}
+
+	public void setEndNode (int toNode_p) {
+		this.optimizerObj.setEndNode(toNode_p);
+	}
+
+	public void run () {
+		try {
+			this.getShortestPaths(this.startNode);
+			this.callbackObj.callback(null);
+		}
+		catch (Exception e) {
+			this.callbackObj.callback(e);
+		}
+	}
+
+	/**
+	 * Returns the milliseconds took by the last request, 0 if answered from the cache.
+	 */
+	public long getMillisTook () { return this.millisTook; }
+
+	/**
+	 * Returns the iteration count of the last search run by the algorithm.
+	 */
+	public long getIterationCount () throws NotImplementedException {
+		if (!(this.optimizerObj instanceof PerformanceStatIntf))
+			throw new NotImplementedException ("The ShortestPath algorithm provider selected does not support PerformanceStatIntf interface");
+		return ((PerformanceStatIntf) this.optimizerObj).getIterationCount();
+	}
+}
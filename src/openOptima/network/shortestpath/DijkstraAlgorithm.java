@@ -79,6 +79,7 @@ public class DijkstraAlgorithm extends AlgorithmTask implements ShortestPathAlgo
 	/**
 	 * sets the threshhold value to abort the search.  Use this method to stop searching if the shortest path can not be
 	 * found within the threshhold value.
+	 * Use IsochroneAlgorithm to get the nodes that can be reached within a distance.
 	 * @param stopDist_p distance
 	 */
 	public void setStopAtDist (double stopDist_p) { this.stopAtDist = stopDist_p; }
@@ -208,6 +209,17 @@ public class DijkstraAlgorithm extends AlgorithmTask implements ShortestPathAlgo
 		
 	}
 
+	/**
+	 * returns the shortest distance from the start node of the last search to the node.
+	 * @param nodeObj_p node
+	 * @return distance, Double.POSITIVE_INFINITY if the node was not labeled by the last search
+	 */
+	public double getDist (Node nodeObj_p) {
+		if (this.labeledNodeList==null) return Double.POSITIVE_INFINITY;
+		LabeledNode labeledNode = (LabeledNode) this.labeledNodeList.get(nodeObj_p);
+		return (labeledNode==null)? Double.POSITIVE_INFINITY: labeledNode.dist;
+	}
+
 	/**
 	 * finding shortest paths between all pairs of nodes in the graph is not supported
 	 * by Dijkstra algorithm.  The alternative is to call Dijkstra for each node in the graph.
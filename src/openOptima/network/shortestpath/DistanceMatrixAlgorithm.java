@@ -0,0 +1,234 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ * 
+ * This library is free software; you can redistribute it and/or modify it under the 
+ * terms of the GNU Lesser General Public License as published by the Free Software 
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with 
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place, 
+ * Suite 330, Boston, MA 02111-1307 USA 
+ * 
+ * @author Yaxiong Lin
+ * @version 1.0
+ * 
+ */
+package openOptima.network.shortestpath;
+
+import openOptima.graph.GraphIndex;
+
+/**
+ * Shortest distances and paths between a set of source and target vertices of a graph index,
+ * e.g. between the odd degree vertices of a postman problem.  One search is run per source
+ * and the searches are spread over a pool of threads, each with its own work arrays, as the
+ * graph index and the costs are only read.
+ * <p>
+ * The cost of each half edge is given in an array indexed by the half edge (2e forward, 2e+1
+ * backward), use +INF for half edges that must not be used.  With ignoreDirection the directed
+ * edges may also be traversed backward through their half edge 2e+1.
+ * @author Yaxiong Lin
+ *
+ */
+public class DistanceMatrixAlgorithm {
+	private static final double INF = Double.POSITIVE_INFINITY;
+
+	private GraphIndex idx;
+	private double [] halfCost;
+	private boolean ignoreDirection;
+	private boolean [] directedEdge;
+	private int threadCount = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Constructor.
+	 * @param idx_p graph index
+	 * @param halfCost_p cost of each half edge, 2 x edge count
+	 * @param ignoreDirection_p true to allow directed edges to be traversed backward
+	 */
+	public DistanceMatrixAlgorithm (GraphIndex idx_p, double [] halfCost_p, boolean ignoreDirection_p) {
+		this.idx = idx_p;
+		this.halfCost = halfCost_p;
+		this.ignoreDirection = ignoreDirection_p;
+		this.directedEdge = new boolean [idx_p.getEdgeCount()];
+		for (int e=0; e<this.directedEdge.length; e++) this.directedEdge[e] = idx_p.getEdge(e).isDirected();
+	}
+	
+	/**
+	 * sets the number of threads used, defaults to the number of processors.
+	 * @param threadCount_p thread count, 1 to search in the calling thread
+	 */
+	public void setThreadCount (int threadCount_p) {
+		this.threadCount = Math.max(1, threadCount_p);
+	}
+	
+	/**
+	 * returns the shortest distance from each source to each target, +INF if not reachable.
+	 * @param sources_p dense ids of the source vertices
+	 * @param targets_p dense ids of the target vertices
+	 * @return distances, sources x targets
+	 * @throws InterruptedException interrupted
+	 */
+	public double [][] getDistances (final int [] sources_p, final int [] targets_p) throws InterruptedException {
+		final double [][] retList = new double [sources_p.length][];
+		runParallel (sources_p.length, new Task () {
+			public void run (Search searchObj_p, int i_p) {
+				searchObj_p.search(sources_p[i_p], targets_p);
+				retList[i_p] = new double [targets_p.length];
+				for (int j=0; j<targets_p.length; j++) retList[i_p][j] = searchObj_p.dist[targets_p[j]];
+			}
+		});
+		return retList;
+	}
+	
+	/**
+	 * returns the half edges of the shortest path from each from vertex to its to vertex.
+	 * @param from_p dense ids of the from vertices
+	 * @param to_p dense ids of the to vertices
+	 * @return half edges of each path, null if the to vertex can not be reached
+	 * @throws InterruptedException interrupted
+	 */
+	public int [][] getPaths (final int [] from_p, final int [] to_p) throws InterruptedException {
+		final int [][] retList = new int [from_p.length][];
+		runParallel (from_p.length, new Task () {
+			public void run (Search searchObj_p, int i_p) {
+				searchObj_p.search(from_p[i_p], new int [] {to_p[i_p]});
+				retList[i_p] = searchObj_p.getPath(to_p[i_p]);
+			}
+		});
+		return retList;
+	}
+	
+	private interface Task {
+		public void run (Search searchObj_p, int i_p);
+	}
+	
+	/*
+	 * runs the task for 0 .. count_p-1, each thread takes the next index until all are done.
+	 */
+	private void runParallel (final int count_p, final Task taskObj_p) throws InterruptedException {
+		int threads = Math.min(this.threadCount, count_p);
+		if (threads<=1) {
+			Search searchObj = new Search ();
+			for (int i=0; i<count_p; i++) {
+				if (Thread.interrupted()) throw new InterruptedException ("Search interrupted.");
+				taskObj_p.run(searchObj, i);
+			}
+			return;
+		}
+		final java.util.concurrent.atomic.AtomicInteger next = new java.util.concurrent.atomic.AtomicInteger(0);
+		java.util.concurrent.ExecutorService poolObj = java.util.concurrent.Executors.newFixedThreadPool(threads);
+		java.util.ArrayList<java.util.concurrent.Future<?>> futureList = new java.util.ArrayList<java.util.concurrent.Future<?>>();
+		try {
+			for (int t=0; t<threads; t++) {
+				futureList.add(poolObj.submit(new Runnable () {
+					public void run () {
+						Search searchObj = new Search ();
+						for (int i=next.getAndIncrement(); i<count_p; i=next.getAndIncrement()) {
+							if (Thread.currentThread().isInterrupted()) return;
+							taskObj_p.run(searchObj, i);
+						}
+					}
+				}));
+			}
+			for (int t=0; t<futureList.size(); t++) {
+				try {
+					futureList.get(t).get();
+				}
+				catch (java.util.concurrent.ExecutionException e) {
+					throw new RuntimeException (e.getCause());
+				}
+			}
+		}
+		finally {
+			poolObj.shutdownNow();
+		}
+	}
+	
+	/*
+	 * work arrays of one thread, reset after each search for the vertices touched only.
+	 */
+	private class Search {
+		double [] dist;
+		int [] predHalf;
+		int [] targetMark;
+		int mark = 0;
+		int [] touched;
+		int touchedCount = 0;
+		IndexedMinHeap heap;
+		
+		Search () {
+			int n = idx.getVertexCount();
+			this.dist = new double [n];
+			java.util.Arrays.fill(this.dist, INF);
+			this.predHalf = new int [n];
+			this.targetMark = new int [n];
+			this.touched = new int [n];
+			this.heap = new IndexedMinHeap (n);
+		}
+		
+		/*
+		 * Dijkstra from the source, stops when all targets are settled.
+		 */
+		void search (int source_p, int [] targets_p) {
+			for (int i=0; i<this.touchedCount; i++) this.dist[this.touched[i]] = INF;
+			this.touchedCount = 0;
+			this.heap.clear();
+			this.mark++;
+			int remaining = 0;
+			for (int j=0; j<targets_p.length; j++) {
+				if (this.targetMark[targets_p[j]]!=this.mark) {
+					this.targetMark[targets_p[j]] = this.mark;
+					remaining++;
+				}
+			}
+			this.dist[source_p] = 0;
+			this.predHalf[source_p] = -1;
+			this.touched[this.touchedCount++] = source_p;
+			this.heap.insertOrDecrease(source_p, 0);
+			int [] outHalfs = idx.getOutHalfs();
+			int [] inHalfs = idx.getInHalfs();
+			while (!this.heap.isEmpty()) {
+				int v = this.heap.removeMin();
+				if (this.targetMark[v]==this.mark && --remaining==0) break;
+				for (int j=idx.getOutStart(v); j<idx.getOutStart(v+1); j++) {
+					relax (v, outHalfs[j], idx.headOf(outHalfs[j]));
+				}
+				if (!ignoreDirection) continue;
+				for (int j=idx.getInStart(v); j<idx.getInStart(v+1); j++) {
+					int h = inHalfs[j];
+					if (directedEdge[h>>1]) relax (v, h ^ 1, idx.tailOf(h));
+				}
+			}
+		}
+		
+		private void relax (int v_p, int half_p, int u_p) {
+			double nd = this.dist[v_p] + halfCost[half_p];
+			if (nd<this.dist[u_p]) {
+				if (this.dist[u_p]==INF) this.touched[this.touchedCount++] = u_p;
+				this.dist[u_p] = nd;
+				this.predHalf[u_p] = half_p;
+				this.heap.insertOrDecrease(u_p, nd);
+			}
+		}
+		
+		int [] getPath (int to_p) {
+			if (this.dist[to_p]==INF) return null;
+			int count = 0;
+			for (int v=to_p; this.predHalf[v]>=0; v=tailOf(this.predHalf[v])) count++;
+			int [] retList = new int [count];
+			for (int v=to_p; this.predHalf[v]>=0; v=tailOf(this.predHalf[v])) retList[--count] = this.predHalf[v];
+			return retList;
+		}
+	}
+	
+	/*
+	 * vertex the half edge starts at, also for the backward half edge of a directed edge.
+	 */
+	private int tailOf (int half_p) {
+		return ((half_p&1)==0)? this.idx.getEdgeFrom(half_p>>1): this.idx.getEdgeTo(half_p>>1);
+	}
+}
@@ -0,0 +1,258 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ * 
+ * This library is free software; you can redistribute it and/or modify it under the 
+ * terms of the GNU Lesser General Public License as published by the Free Software 
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with 
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place, 
+ * Suite 330, Boston, MA 02111-1307 USA 
+ * 
+ * @author Yaxiong Lin
+ * @version 1.0
+ * 
+ */
+package openOptima.network.shortestpath;
+
+import java.util.ArrayList;
+
+import openOptima.NoSolutionException;
+import openOptima.PerformanceStatIntf;
+import openOptima.graph.GraphIndex;
+import openOptima.network.Arc;
+import openOptima.network.Network;
+import openOptima.network.Node;
+
+/**
+ * Finds the k shortest paths between two nodes with the algorithm by
+ * <a href="https://doi.org/10.1137/S0097539795290477">Eppstein, Finding the k Shortest Paths,
+ * SIAM Journal on Computing, 1998</a>.  Unlike {@link YenAlgorithm} the paths returned may
+ * visit a node more than once (walks), which is what is wanted for example when the paths are
+ * alternative routes through a network with one way streets.
+ * <p>
+ * Every path is described by the sequence of arcs it takes off the shortest path tree to the end
+ * node (sidetracks).  The sidetracks reachable from each node are kept in persistent leftist heaps
+ * that share their structure with the heap of the next node on the tree, so the heaps of all nodes
+ * are built in O(m log m) and each additional path costs O(log k) heap operations plus the time
+ * to write out the path.  Arc distances must not be negative.
+ * @author Yaxiong Lin
+ *
+ */
+public class EppsteinAlgorithm implements KShortestPathAlgorithmIntf, PerformanceStatIntf {
+	private static final double INF = Double.POSITIVE_INFINITY;
+
+	protected Network graphObj;
+	protected long iterationCount = 0;
+	protected long millisTook = 0;
+
+	private GraphIndex idx;
+	private double [] weight;
+	private double [] distToEnd;
+	private int [] nextHalf;
+
+	/**
+	 * Constructor.
+	 */
+	public EppsteinAlgorithm () {}
+
+	public void init (Network graphObj_p) {
+		this.graphObj = graphObj_p;
+	}
+
+	public ShortestPath [] getKShortestPaths (int fromNode_p, int toNode_p, int k_p) throws NoSolutionException {
+		if (this.graphObj==null) throw new NoSolutionException ("init method must be called first.");
+		long startMillis = System.currentTimeMillis();
+		this.iterationCount = 0;
+		this.idx = new GraphIndex (this.graphObj, true);
+		int n = this.idx.getVertexCount();
+		int s = this.idx.getVertexIdx(this.graphObj.getNode(fromNode_p));
+		int t = this.idx.getVertexIdx(this.graphObj.getNode(toNode_p));
+		if (s<0 || t<0) throw new NoSolutionException ("Node not found: " + (s<0? fromNode_p: toNode_p));
+
+		this.weight = new double [this.idx.getEdgeCount()];
+		for (int e=0; e<this.weight.length; e++) this.weight[e] = ((Arc) this.idx.getEdge(e)).getDist();
+		this.distToEnd = new double [n];
+		this.nextHalf = new int [n];
+		int [] order = searchToEnd (t);
+		if (this.distToEnd[s]==INF) throw new NoSolutionException ("Unable to find path from " + fromNode_p + " to " + toNode_p);
+
+		// sidetrack heaps, built from the end node outwards so the heap of the next node exists
+		HeapNode [] heapList = new HeapNode [n];
+		int [] outHalfs = this.idx.getOutHalfs();
+		for (int i=0; i<order.length && order[i]>=0; i++) {
+			int v = order[i];
+			HeapNode heapObj = (v==t)? null: heapList[this.idx.headOf(this.nextHalf[v])];
+			for (int k=this.idx.getOutStart(v); k<this.idx.getOutStart(v+1); k++) {
+				int h = outHalfs[k];
+				if (h==this.nextHalf[v]) continue;
+				int u = this.idx.headOf(h);
+				if (this.distToEnd[u]==INF) continue;
+				double delta = Math.max(0, this.weight[h>>1] + this.distToEnd[u] - this.distToEnd[v]);
+				heapObj = merge (heapObj, new HeapNode (h, delta));
+			}
+			heapList[v] = heapObj;
+		}
+
+		ArrayList<ShortestPath> retList = new ArrayList<ShortestPath>(k_p);
+		retList.add(genShortestPath(s, t, null));
+		java.util.PriorityQueue<PathItem> queue = new java.util.PriorityQueue<PathItem>();
+		if (heapList[s]!=null) queue.add(new PathItem (this.distToEnd[s] + heapList[s].key, heapList[s], null));
+		while (retList.size()<k_p && !queue.isEmpty()) {
+			PathItem item = queue.poll();
+			this.iterationCount++;
+			retList.add(genShortestPath(s, t, item));
+			HeapNode nodeObj = item.heapNode;
+			if (nodeObj.left!=null) queue.add(new PathItem (item.dist - nodeObj.key + nodeObj.left.key, nodeObj.left, item.prev));
+			if (nodeObj.right!=null) queue.add(new PathItem (item.dist - nodeObj.key + nodeObj.right.key, nodeObj.right, item.prev));
+			HeapNode crossHeap = heapList[this.idx.headOf(nodeObj.half)];
+			if (crossHeap!=null) queue.add(new PathItem (item.dist + crossHeap.key, crossHeap, item));
+		}
+		this.millisTook = System.currentTimeMillis() - startMillis;
+		return retList.toArray(new ShortestPath [retList.size()]);
+	}
+
+	/*
+	 * Dijkstra search on the reversed network from the end node, sets distToEnd and nextHalf.
+	 * Returns the nodes in the order they were labeled, terminated by -1 if not all nodes can
+	 * reach the end node.
+	 */
+	private int [] searchToEnd (int t_p) {
+		java.util.Arrays.fill(this.distToEnd, INF);
+		java.util.Arrays.fill(this.nextHalf, -1);
+		int [] order = new int [this.distToEnd.length];
+		java.util.Arrays.fill(order, -1);
+		int orderCount = 0;
+		int [] inHalfs = this.idx.getInHalfs();
+		IndexedMinHeap heap = new IndexedMinHeap (this.distToEnd.length);
+		this.distToEnd[t_p] = 0;
+		heap.insertOrDecrease(t_p, 0);
+		while (!heap.isEmpty()) {
+			int v = heap.removeMin();
+			order[orderCount++] = v;
+			double d = this.distToEnd[v];
+			for (int k=this.idx.getInStart(v); k<this.idx.getInStart(v+1); k++) {
+				int h = inHalfs[k];
+				int u = this.idx.tailOf(h);
+				double nd = d + this.weight[h>>1];
+				if (nd<this.distToEnd[u]) {
+					this.distToEnd[u] = nd;
+					this.nextHalf[u] = h;
+					heap.insertOrDecrease(u, nd);
+				}
+			}
+		}
+		return order;
+	}
+
+	/*
+	 * writes out the path: follow the tree to the tail of the next sidetrack, take the sidetrack,
+	 * repeat until there are no more sidetracks and then follow the tree to the end node.
+	 */
+	private ShortestPath genShortestPath (int s_p, int t_p, PathItem item_p) {
+		int sideCount = 0;
+		for (PathItem it=item_p; it!=null; it=it.prev) sideCount++;
+		int [] sidetracks = new int [sideCount];
+		for (PathItem it=item_p; it!=null; it=it.prev) sidetracks[--sideCount] = it.heapNode.half;
+
+		ArrayList<Arc> arcList = new ArrayList<Arc>();
+		int v = s_p;
+		for (int i=0; i<sidetracks.length; i++) {
+			int tail = this.idx.tailOf(sidetracks[i]);
+			while (v!=tail) {
+				arcList.add((Arc) this.idx.getEdge(this.nextHalf[v]>>1));
+				v = this.idx.headOf(this.nextHalf[v]);
+			}
+			arcList.add((Arc) this.idx.getEdge(sidetracks[i]>>1));
+			v = this.idx.headOf(sidetracks[i]);
+		}
+		while (v!=t_p) {
+			arcList.add((Arc) this.idx.getEdge(this.nextHalf[v]>>1));
+			v = this.idx.headOf(this.nextHalf[v]);
+		}
+		ShortestPath pathObj = new ShortestPath ();
+		pathObj.setPathArcs((Node) this.idx.getVertex(s_p), (Node) this.idx.getVertex(t_p), arcList.toArray(new Arc [arcList.size()]));
+		return pathObj;
+	}
+
+	/*
+	 * persistent merge, the nodes of a and b are never modified.
+	 */
+	private static HeapNode merge (HeapNode a_p, HeapNode b_p) {
+		if (a_p==null) return b_p;
+		if (b_p==null) return a_p;
+		if (b_p.key<a_p.key) {
+			HeapNode temp = a_p;
+			a_p = b_p;
+			b_p = temp;
+		}
+		HeapNode ret = new HeapNode (a_p.half, a_p.key);
+		ret.left = a_p.left;
+		ret.right = merge (a_p.right, b_p);
+		if (rank(ret.left)<rank(ret.right)) {
+			HeapNode temp = ret.left;
+			ret.left = ret.right;
+			ret.right = temp;
+		}
+		ret.rank = rank(ret.right) + 1;
+		return ret;
+	}
+
+	private static int rank (HeapNode node_p) {
+		return (node_p==null)? 0: node_p.rank;
+	}
+
+	/*
+	 * leftist heap node holding a sidetrack and its extra distance over the tree path.
+	 */
+	private static class HeapNode {
+		final int half;
+		final double key;
+		HeapNode left;
+		HeapNode right;
+		int rank = 1;
+
+		HeapNode (int half_p, double key_p) {
+			this.half = half_p;
+			this.key = key_p;
+		}
+	}
+
+	/*
+	 * path candidate: the last sidetrack taken is heapNode, the previous ones are in prev.
+	 */
+	private static class PathItem implements Comparable<PathItem> {
+		final double dist;
+		final HeapNode heapNode;
+		final PathItem prev;
+
+		PathItem (double dist_p, HeapNode heapNode_p, PathItem prev_p) {
+			this.dist = dist_p;
+			this.heapNode = heapNode_p;
+			this.prev = prev_p;
+		}
+
+		public int compareTo (PathItem other_p) {
+			return Double.compare(this.dist, other_p.dist);
+		}
+	}
+
+	public String getStat () {
+		StringBuffer tempBuf = new StringBuffer("Eppstein Algorithm for K Shortest Paths\n");
+		if (this.graphObj!=null) tempBuf.append (this.graphObj.getStat()).append("\n");
+		tempBuf.append(this.iterationCount).append(" paths extracted, ").append(this.millisTook).append(" milliseconds");
+		return tempBuf.toString();
+	}
+
+	public long getMillisTook () { return this.millisTook; }
+
+	/**
+	 * Returns the number of paths extracted from the path heap by the last query.
+	 */
+	public long getIterationCount () { return this.iterationCount; }
+}
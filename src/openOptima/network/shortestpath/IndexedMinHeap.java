@@ -0,0 +1,179 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ *
+ * This library is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place,
+ * Suite 330, Boston, MA 02111-1307 USA
+ *
+ * @author Yaxiong Lin
+ * @version 1.0
+ *
+ */
+package openOptima.network.shortestpath;
+
+/**
+ * Binary min heap of integer items (0 .. capacity-1) keyed by a double value.  Each item
+ * can be in the heap at most once and its key can be decreased in place, which is what
+ * the label setting shortest path searches need.  No objects are allocated once the heap
+ * has been sized.
+ * @author Yaxiong Lin
+ *
+ */
+public class IndexedMinHeap {
+	private int [] heap;
+	private int [] pos; // position of the item in heap, -1 if not in heap
+	private double [] key;
+	private int size = 0;
+
+	/**
+	 * Constructor.
+	 * @param capacity_p number of distinct items the heap can hold
+	 */
+	public IndexedMinHeap (int capacity_p) {
+		this.heap = new int [Math.max(capacity_p, 1)];
+		this.pos = new int [this.heap.length];
+		this.key = new double [this.heap.length];
+		java.util.Arrays.fill(this.pos, -1);
+	}
+
+	/**
+	 * grows the heap so that it can hold items 0 .. capacity_p-1.
+	 * @param capacity_p capacity
+	 */
+	public void ensureCapacity (int capacity_p) {
+		if (capacity_p<=this.heap.length) return;
+		int newCap = Math.max(capacity_p, this.heap.length*2);
+		int oldCap = this.heap.length;
+		this.heap = java.util.Arrays.copyOf(this.heap, newCap);
+		this.pos = java.util.Arrays.copyOf(this.pos, newCap);
+		this.key = java.util.Arrays.copyOf(this.key, newCap);
+		java.util.Arrays.fill(this.pos, oldCap, newCap, -1);
+	}
+
+	/**
+	 * Returns true if the heap is empty.
+	 * @return indicator
+	 */
+	public boolean isEmpty () { return this.size==0; }
+
+	/**
+	 * Returns the number of items in the heap.
+	 * @return count
+	 */
+	public int size () { return this.size; }
+
+	/**
+	 * Returns true if the item is currently in the heap.
+	 * @param item_p item
+	 * @return indicator
+	 */
+	public boolean contains (int item_p) { return this.pos[item_p]>=0; }
+
+	/**
+	 * Returns the key of the item in the heap.
+	 * @param item_p item
+	 * @return key
+	 */
+	public double getKey (int item_p) { return this.key[item_p]; }
+
+	/**
+	 * Returns the item with the smallest key without removing it.
+	 * @return item
+	 */
+	public int peek () { return this.heap[0]; }
+
+	/**
+	 * Returns the smallest key in the heap.
+	 * @return key
+	 */
+	public double peekKey () { return this.key[this.heap[0]]; }
+
+	/**
+	 * Inserts the item with the key or lowers its key if it is already in the heap with
+	 * a larger key.
+	 * @param item_p item
+	 * @param key_p key
+	 * @return true if the item was inserted or its key lowered.
+	 */
+	public boolean insertOrDecrease (int item_p, double key_p) {
+		int p = this.pos[item_p];
+		if (p<0) {
+			this.key[item_p] = key_p;
+			this.heap[this.size] = item_p;
+			this.pos[item_p] = this.size;
+			siftUp (this.size++);
+			return true;
+		}
+		if (key_p>=this.key[item_p]) return false;
+		this.key[item_p] = key_p;
+		siftUp (p);
+		return true;
+	}
+
+	/**
+	 * Removes and returns the item with the smallest key.
+	 * @return item
+	 */
+	public int removeMin () {
+		int top = this.heap[0];
+		this.pos[top] = -1;
+		this.size--;
+		if (this.size>0) {
+			int last = this.heap[this.size];
+			this.heap[0] = last;
+			this.pos[last] = 0;
+			siftDown (0);
+		}
+		return top;
+	}
+
+	/**
+	 * Empties the heap.  Only the items still in the heap are touched.
+	 */
+	public void clear () {
+		for (int i=0; i<this.size; i++) this.pos[this.heap[i]] = -1;
+		this.size = 0;
+	}
+
+	private void siftUp (int p_p) {
+		int item = this.heap[p_p];
+		double k = this.key[item];
+		while (p_p>0) {
+			int parent = (p_p-1) >>> 1;
+			int parentItem = this.heap[parent];
+			if (this.key[parentItem]<=k) break;
+			this.heap[p_p] = parentItem;
+			this.pos[parentItem] = p_p;
+			p_p = parent;
+		}
+		this.heap[p_p] = item;
+		this.pos[item] = p_p;
+	}
+
+	private void siftDown (int p_p) {
+		int item = this.heap[p_p];
+		double k = this.key[item];
+		int half = this.size >>> 1;
+		while (p_p<half) {
+			int child = 2*p_p+1;
+			int right = child+1;
+			if (right<this.size && this.key[this.heap[right]]<this.key[this.heap[child]]) child = right;
+			int childItem = this.heap[child];
+			if (k<=this.key[childItem]) break;
+			this.heap[p_p] = childItem;
+			this.pos[childItem] = p_p;
+			p_p = child;
+		}
+		this.heap[p_p] = item;
+		this.pos[item] = p_p;
+	}
+}
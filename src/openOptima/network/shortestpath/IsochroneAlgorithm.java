@@ -0,0 +1,172 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ * 
+ * This library is free software; you can redistribute it and/or modify it under the 
+ * terms of the GNU Lesser General Public License as published by the Free Software 
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with 
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place, 
+ * Suite 330, Boston, MA 02111-1307 USA 
+ * 
+ * @author Yaxiong Lin
+ * @version 1.0
+ * 
+ */
+package openOptima.network.shortestpath;
+
+import openOptima.NoSolutionException;
+import openOptima.PerformanceStatIntf;
+import openOptima.graph.GraphIndex;
+import openOptima.network.Arc;
+import openOptima.network.Network;
+import openOptima.network.Node;
+
+/**
+ * Finds all nodes within a distance budget from a start node (isochrone or ball query).  The
+ * arc distance may be any additive measure, e.g. travel time for a time bounded isochrone.
+ * <p>
+ * The search is a label setting search that stops as soon as the next node is beyond the
+ * budget.  The work arrays are allocated once by init() and only the entries touched by a query
+ * are reset afterwards, so the cost of a query is proportional to the number of nodes in the
+ * ball and the arcs leaving them, not to the size of the network.
+ * <p>
+ * Arc distances and the active status of the arcs and nodes are read at query time.  The index
+ * and the work arrays are rebuilt by the next query after nodes or arcs have been added or removed
+ * (see openOptima.graph.Graph#getStructureVersion()), not after a distance has been changed.  An
+ * instance must not be queried by more than one thread at a time.
+ * @author Yaxiong Lin
+ *
+ */
+public class IsochroneAlgorithm implements PerformanceStatIntf {
+	private static final double INF = Double.POSITIVE_INFINITY;
+
+	protected Network graphObj;
+	protected long iterationCount = 0;
+	protected long millisTook = 0;
+
+	private GraphIndex idx;
+	private long idxVersion = -1;
+	private double [] dist;
+	private int [] touched;
+	private int touchedCount = 0;
+	private IndexedMinHeap heap;
+
+	/**
+	 * Constructor.
+	 */
+	public IsochroneAlgorithm () {}
+
+	/**
+	 * constructor with the network to search.
+	 * @param graphObj_p network
+	 */
+	public IsochroneAlgorithm (Network graphObj_p) {
+		init (graphObj_p);
+	}
+
+	/**
+	 * Sets the network to search and allocates the work arrays.
+	 * @param graphObj_p network
+	 */
+	public void init (Network graphObj_p) {
+		this.graphObj = graphObj_p;
+		this.idx = new GraphIndex (graphObj_p, false);
+		this.idxVersion = graphObj_p.getStructureVersion();
+		int n = this.idx.getVertexCount();
+		this.dist = new double [n];
+		java.util.Arrays.fill(this.dist, INF);
+		this.touched = new int [n];
+		this.touchedCount = 0;
+		this.heap = new IndexedMinHeap (n);
+	}
+
+	/**
+	 * Returns the nodes that can be reached from fromNode_p within maxDist_p (inclusive) with their
+	 * shortest distances, in the order of increasing distance.  The start node is included with
+	 * distance 0.
+	 * @param fromNode_p start node id
+	 * @param maxDist_p distance budget
+	 * @return map of node to distance
+	 * @throws NoSolutionException if the start node is not in the network
+	 */
+	public java.util.LinkedHashMap<Node, Double> getNodesWithinDist (int fromNode_p, double maxDist_p) throws NoSolutionException {
+		if (this.graphObj==null) throw new NoSolutionException ("init method must be called first.");
+		return getNodesWithinDist (this.graphObj.getNode(fromNode_p), maxDist_p);
+	}
+
+	/**
+	 * Returns the nodes that can be reached from fromNode_p within maxDist_p (inclusive) with their
+	 * shortest distances, in the order of increasing distance.  The start node is included with
+	 * distance 0.
+	 * @param fromNode_p start node
+	 * @param maxDist_p distance budget
+	 * @return map of node to distance
+	 * @throws NoSolutionException if the start node is not in the network
+	 */
+	public java.util.LinkedHashMap<Node, Double> getNodesWithinDist (Node fromNode_p, double maxDist_p) throws NoSolutionException {
+		long startMillis = System.currentTimeMillis();
+		if (this.idxVersion!=this.graphObj.getStructureVersion()) init (this.graphObj);
+		int s = (fromNode_p==null)? -1: this.idx.getVertexIdx(fromNode_p);
+		if (s<0) throw new NoSolutionException ("Node not found: " + fromNode_p);
+		java.util.LinkedHashMap<Node, Double> retList = new java.util.LinkedHashMap<Node, Double>();
+		this.iterationCount = 0;
+		if (maxDist_p<0) return retList;
+
+		int [] outHalfs = this.idx.getOutHalfs();
+		try {
+			touch (s, 0);
+			this.heap.insertOrDecrease(s, 0);
+			while (!this.heap.isEmpty()) {
+				int v = this.heap.removeMin();
+				double d = this.dist[v];
+				this.iterationCount++;
+				retList.put((Node) this.idx.getVertex(v), Double.valueOf(d));
+				for (int k=this.idx.getOutStart(v); k<this.idx.getOutStart(v+1); k++) {
+					int h = outHalfs[k];
+					Arc arcObj = (Arc) this.idx.getEdge(h>>1);
+					if (!arcObj.isActive()) continue;
+					int u = this.idx.headOf(h);
+					if (!this.idx.getVertex(u).isActive()) continue;
+					double nd = d + arcObj.getDist();
+					if (nd>maxDist_p || nd>=this.dist[u]) continue;
+					if (this.dist[u]==INF) touch (u, nd);
+					else this.dist[u] = nd;
+					this.heap.insertOrDecrease(u, nd);
+				}
+			}
+		}
+		finally {
+			// sparse reset, only the nodes reached by this query
+			for (int i=0; i<this.touchedCount; i++) this.dist[this.touched[i]] = INF;
+			this.touchedCount = 0;
+			this.heap.clear();
+			this.millisTook = System.currentTimeMillis() - startMillis;
+		}
+		return retList;
+	}
+
+	private void touch (int node_p, double dist_p) {
+		this.dist[node_p] = dist_p;
+		this.touched[this.touchedCount++] = node_p;
+	}
+
+	public String getStat () {
+		StringBuffer tempBuf = new StringBuffer("Isochrone search\n");
+		if (this.graphObj!=null) tempBuf.append (this.graphObj.getStat()).append("\n");
+		tempBuf.append(this.iterationCount).append(" nodes within distance, ").append(this.millisTook).append(" milliseconds");
+		return tempBuf.toString();
+	}
+
+	public long getMillisTook () { return this.millisTook; }
+
+	/**
+	 * Returns the number of nodes found by the last query.
+	 */
+	public long getIterationCount () { return this.iterationCount; }
+}
@@ -0,0 +1,55 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ * 
+ * This library is free software; you can redistribute it and/or modify it under the 
+ * terms of the GNU Lesser General Public License as published by the Free Software 
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with 
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place, 
+ * Suite 330, Boston, MA 02111-1307 USA 
+ * 
+ * @author Yaxiong Lin
+ * @version 1.0
+ * 
+ */
+package openOptima.network.shortestpath;
+
+import openOptima.NoSolutionException;
+import openOptima.network.Network;
+
+/**
+ * Interfaces to be implemented by the k shortest path classes.
+ * @author Yaxiong Lin
+ *
+ */
+public interface KShortestPathAlgorithmIntf {
+
+	/**
+	 * initialize the network to find the shortest paths on.
+	 * @param graphObj_p graph object
+	 */
+	public void init (Network graphObj_p);
+
+	/**
+	 * returns up to k_p shortest paths from fromNode_p to toNode_p in the order of increasing
+	 * distance.  Fewer paths are returned if the network does not have k_p different paths.
+	 * @param fromNode_p from node id
+	 * @param toNode_p to node id
+	 * @param k_p number of paths
+	 * @return array of ShortestPath, the first one is the shortest path
+	 * @throws NoSolutionException if toNode_p can not be reached from fromNode_p
+	 */
+	public ShortestPath [] getKShortestPaths (int fromNode_p, int toNode_p, int k_p) throws NoSolutionException;
+
+	/**
+	 * returns the statistics of the last search.
+	 * @return stat
+	 */
+	public String getStat();
+}
@@ -0,0 +1,692 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ *
+ * This library is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place,
+ * Suite 330, Boston, MA 02111-1307 USA
+ *
+ * @author Yaxiong Lin
+ * @version 1.0
+ *
+ */
+package openOptima.network.shortestpath;
+
+import java.util.ArrayList;
+
+import openOptima.AlgorithmTask;
+import openOptima.NoSolutionException;
+import openOptima.NotImplementedException;
+import openOptima.PerformanceStatIntf;
+import openOptima.graph.Vertex;
+import openOptima.network.Arc;
+import openOptima.network.Network;
+import openOptima.network.Node;
+
+/**
+ * Dynamic single source shortest path algorithm in the style of Ramalingam and Reps,
+ * <a href="https://doi.org/10.1006/jagm.1996.0046">On the computational complexity of
+ * dynamic graph problems</a>.
+ * <p>
+ * The shortest path tree from a start node is kept between the calls.  The caller reports
+ * the arcs whose distance or active status has changed (or which were added or removed)
+ * through {@link #arcChanged(Arc)}, {@link #arcAdded(Arc)} and {@link #arcRemoved(Arc)}.
+ * The next query from the same start node repairs the tree for the whole batch of changes:
+ * the subtrees hanging below the changed tree arcs are relabeled from their unaffected
+ * neighbours and the improvements caused by the changed arcs are propagated with a heap
+ * search that only touches the nodes whose distance actually changes.
+ * <p>
+ * Trees for the most recently used start nodes are cached (see {@link #setMaxTrees(int)})
+ * so that algorithms alternating between a few start nodes, e.g. the postman algorithm,
+ * also benefit from the local repair.  Arc distances must not be negative.
+ *
+ * @author Yaxiong Lin
+ *
+ */
+public class RamalingamRepsAlgorithm extends AlgorithmTask implements ShortestPathAlgorithmIntf, PerformanceStatIntf {
+	private static final double INF = Double.POSITIVE_INFINITY;
+
+	protected Network graphObj;
+	protected Node startNode;
+	protected Node endNode;
+	protected long millisTook = 0;
+	protected long iterationCount = 0;
+	private int fullSearchCount = 0;
+	private int repairCount = 0;
+	private int maxTrees = 16;
+	private java.util.ArrayList<Vertex> unreachableNodeList;
+
+	// dense node index
+	private java.util.HashMap<Node, Integer> nodeIdx;
+	private Node [] nodes;
+	private int nodeCount;
+
+	// dense arc index, arc a is traversed by half arc 2a (from->to) and for undirected arc also 2a+1 (to->from)
+	private java.util.HashMap<Arc, Integer> arcIdx;
+	private Arc [] arcs;
+	private int [] arcFrom;
+	private int [] arcTo;
+	private boolean [] arcRemoved;
+	private int arcCount;
+
+	private int [][] outHalf;
+	private int [] outSize;
+	private int [][] inHalf;
+	private int [] inSize;
+
+	// arcs changed since, changeLog[0] has sequence # logOffset
+	private int [] changeLog = new int [64];
+	private int logSize = 0;
+	private long logOffset = 0;
+
+	private java.util.LinkedHashMap<Node, SourceTree> treeList;
+
+	// work areas for repair
+	private IndexedMinHeap heap;
+	private int [] nodeStamp;
+	private int [] arcStamp;
+	private int stamp = 0;
+	private int [] stack;
+
+	/**
+	 * Constructor.
+	 */
+	public RamalingamRepsAlgorithm () {}
+
+	/**
+	 * Constructor with the network to find the shortest paths on.
+	 * @param graphObj_p network
+	 */
+	public RamalingamRepsAlgorithm (Network graphObj_p) {
+		init (graphObj_p);
+	}
+
+	/**
+	 * Sets the network object on which the shortest path trees are maintained.  Any tree
+	 * computed before is discarded.
+	 */
+	public void init (Network graphObj_p) {
+		this.graphObj = graphObj_p;
+		this.nodeIdx = new java.util.HashMap<Node, Integer>();
+		this.nodes = new Node [16];
+		this.nodeCount = 0;
+		this.arcIdx = new java.util.HashMap<Arc, Integer>();
+		this.arcs = new Arc [16];
+		this.arcFrom = new int [16];
+		this.arcTo = new int [16];
+		this.arcRemoved = new boolean [16];
+		this.arcCount = 0;
+		this.outHalf = new int [16][];
+		this.outSize = new int [16];
+		this.inHalf = new int [16][];
+		this.inSize = new int [16];
+		this.treeList = new java.util.LinkedHashMap<Node, SourceTree>(16, 0.75f, true);
+		this.logSize = 0;
+		this.logOffset = 0;
+		this.heap = new IndexedMinHeap (16);
+		this.nodeStamp = new int [16];
+		this.stack = new int [16];
+
+		java.util.ArrayList<Vertex> vertexList = graphObj_p.getVertexList(false);
+		for (int i=0; i<vertexList.size(); i++) registerNode ((Node) vertexList.get(i));
+		java.util.ArrayList tempList = graphObj_p.getArcList(false);
+		for (int i=0; i<tempList.size(); i++) registerArc ((Arc) tempList.get(i));
+		this.arcStamp = new int [this.arcs.length];
+	}
+
+	/**
+	 * Sets the maximum number of shortest path trees (one per start node) kept for repair.
+	 * @param maxTrees_p number of trees, at least 1
+	 */
+	public void setMaxTrees (int maxTrees_p) {
+		this.maxTrees = Math.max(1, maxTrees_p);
+	}
+
+	/**
+	 * Reports that the distance or the active status of the arc has changed.  The arc is
+	 * registered if it is not known yet.
+	 * @param arc_p arc
+	 */
+	public void arcChanged (Arc arc_p) {
+		Integer idx = this.arcIdx.get(arc_p);
+		if (idx==null) {
+			arcAdded (arc_p);
+			return;
+		}
+		logChange (idx.intValue());
+	}
+
+	/**
+	 * Reports that the arc has been added to the network.
+	 * @param arc_p arc
+	 */
+	public void arcAdded (Arc arc_p) {
+		Integer idx = this.arcIdx.get(arc_p);
+		if (idx!=null) {
+			this.arcRemoved[idx.intValue()] = false;
+			logChange (idx.intValue());
+			return;
+		}
+		logChange (registerArc (arc_p));
+	}
+
+	/**
+	 * Reports that the arc has been removed from the network.
+	 * @param arc_p arc
+	 */
+	public void arcRemoved (Arc arc_p) {
+		Integer idx = this.arcIdx.get(arc_p);
+		if (idx==null) return;
+		this.arcRemoved[idx.intValue()] = true;
+		logChange (idx.intValue());
+	}
+
+	/**
+	 * Reports that the active status of the node has changed.  All arcs adjacent to the node
+	 * are treated as changed.
+	 * @param node_p node
+	 */
+	public void nodeChanged (Node node_p) {
+		Integer idx = this.nodeIdx.get(node_p);
+		if (idx==null) {
+			registerNode (node_p);
+			return;
+		}
+		int n = idx.intValue();
+		for (int i=0; i<this.inSize[n]; i++) logChange (this.inHalf[n][i] >> 1);
+		for (int i=0; i<this.outSize[n]; i++) logChange (this.outHalf[n][i] >> 1);
+	}
+
+	/**
+	 * sets the start node to find the shortest path from.
+	 */
+	public void setStartNode (int fromNode_p) {
+		this.startNode = this.graphObj.getNode(fromNode_p);
+	}
+
+	/**
+	 * sets the end node to find the shortest path to.
+	 */
+	public void setEndNode (int toNode_p) {
+		this.endNode = this.graphObj.getNode(toNode_p);
+	}
+
+	/**
+	 * returns the shortest path object which contains the shortest path arcs from
+	 * node fromNode_p to node toNode_p.
+	 * @param fromNode_p node id (integer)
+	 * @param toNode_p node id (integer)
+	 * @return ShortestPath object
+	 * @exception NoSolutionException if the shortest path can not be found.
+	 */
+	public ShortestPath getShortestPath (int fromNode_p, int toNode_p) throws NoSolutionException {
+		if (this.graphObj==null) throw new NoSolutionException ("init method must be called first.");
+		return getShortestPath (this.graphObj.getNode(fromNode_p), this.graphObj.getNode(toNode_p));
+	}
+
+	/**
+	 * returns the shortest path object which contains the shortest path arcs from
+	 * node fromNode_p to node toNode_p.
+	 * @param fromNode_p from node object
+	 * @param toNode_p to node object
+	 * @return ShortestPath object
+	 * @throws NoSolutionException if toNode_p can not be reached from fromNode_p
+	 */
+	public ShortestPath getShortestPath (Node fromNode_p, Node toNode_p) throws NoSolutionException {
+		if (fromNode_p==null || toNode_p==null) return null;
+		SourceTree tree = syncTree (fromNode_p);
+		Integer t = this.nodeIdx.get(toNode_p);
+		if (t==null || tree.dist[t.intValue()]==INF) {
+			throw new NoSolutionException ("Unable to find path from " + fromNode_p.getMarker() + " to " + toNode_p.getMarker());
+		}
+		return genShortestPath (tree, t.intValue());
+	}
+
+	/**
+	 * Returns the shortest distance from fromNode_p to toNode_p, Double.POSITIVE_INFINITY
+	 * if toNode_p can not be reached.
+	 * @param fromNode_p from node
+	 * @param toNode_p to node
+	 * @return distance
+	 */
+	public double getDist (Node fromNode_p, Node toNode_p) {
+		SourceTree tree = syncTree (fromNode_p);
+		Integer t = this.nodeIdx.get(toNode_p);
+		if (t==null) return INF;
+		return tree.dist[t.intValue()];
+	}
+
+	/**
+	 * Returns the shortest distances from fromNode_p to all nodes, indexed by getNodeIdx(), from a 
+	 * single repair of the tree.  The array is the one of the tree, read it before the next change 
+	 * is reported and do not modify it.
+	 * @param fromNode_p from node
+	 * @return distances, Double.POSITIVE_INFINITY for the nodes that can not be reached
+	 */
+	public double [] getDistList (Node fromNode_p) {
+		return syncTree (fromNode_p).dist;
+	}
+
+	/**
+	 * Returns the index of the node in the array of getDistList().
+	 * @param node_p node
+	 * @return dense index, -1 if the node is not in the network
+	 */
+	public int getNodeIdx (Node node_p) {
+		Integer idx = this.nodeIdx.get(node_p);
+		return (idx==null)? -1: idx.intValue();
+	}
+
+	/**
+	 * returns the shortest paths from the node fromNode_p to all nodes in the graph.
+	 * @param fromNode_p node id (integer)
+	 * @exception NoSolutionException if any of the active nodes can not be reached.
+	 * @return array of ShortestPath
+	 */
+	public ShortestPath [] getShortestPaths (int fromNode_p) throws NoSolutionException {
+		if (this.graphObj==null) throw new NoSolutionException ("init method must be called first.");
+		return getShortestPaths (this.graphObj.getNode(fromNode_p));
+	}
+
+	/**
+	 * returns the shortest paths from the node fromNode_p to all nodes in the graph.
+	 * @param fromNode_p from node
+	 * @exception NoSolutionException if any of the active nodes can not be reached.
+	 * @return array of ShortestPath
+	 */
+	public ShortestPath [] getShortestPaths (Node fromNode_p) throws NoSolutionException {
+		this.unreachableNodeList = new java.util.ArrayList<Vertex>();
+		if (fromNode_p==null) return null;
+		SourceTree tree = syncTree (fromNode_p);
+		StringBuffer tempBuf = null;
+		for (int i=0; i<this.nodeCount; i++) {
+			if (tree.dist[i]<INF || !this.nodes[i].isActive()) continue;
+			if (tempBuf==null) {
+				tempBuf = new StringBuffer("unable to find the path(s) from ");
+				tempBuf.append(fromNode_p.getMarker()).append(" to node(s): ");
+				this.unreachableNodeList.add(fromNode_p);
+			}
+			tempBuf.append(this.nodes[i].getMarker()).append(", ");
+			this.unreachableNodeList.add(this.nodes[i]);
+		}
+		if (tempBuf!=null) throw new NoSolutionException (tempBuf.substring(0, tempBuf.length()-2));
+
+		ArrayList<ShortestPath> pathList = new ArrayList<ShortestPath>(this.nodeCount);
+		for (int i=0; i<this.nodeCount; i++) {
+			if (i==tree.source || tree.dist[i]==INF) continue;
+			pathList.add(genShortestPath(tree, i));
+		}
+		return pathList.toArray(new ShortestPath [pathList.size()]);
+	}
+
+	/**
+	 * finding shortest paths between all pairs of nodes in the graph is not supported.
+	 */
+	public ShortestPath [] getShortestPaths () throws NotImplementedException {
+		throw new NotImplementedException ("Ramalingam-Reps algorithm does not support shortest path between all pairs of nodes. Try to call getShortestPaths(fromNode_p) for each node in the graph.");
+	}
+
+	/**
+	 * returns the tree for the start node, computed from scratch or repaired for the
+	 * arcs changed since it was last used.
+	 */
+	private SourceTree syncTree (Node source_p) {
+		long startMillis = System.currentTimeMillis();
+		Integer s = this.nodeIdx.get(source_p);
+		if (s==null) s = Integer.valueOf(registerNode(source_p));
+		SourceTree tree = this.treeList.get(source_p);
+		long curSeq = this.logOffset + this.logSize;
+		if (tree==null) {
+			tree = new SourceTree (s.intValue());
+			if (this.treeList.size()>=this.maxTrees) {
+				java.util.Iterator<Node> it = this.treeList.keySet().iterator();
+				it.next();
+				it.remove();
+			}
+			this.treeList.put(source_p, tree);
+			fullSearch (tree);
+		}
+		else {
+			tree.ensureCapacity (this.nodeCount);
+			if (tree.seq<curSeq) {
+				int pending = (int) (curSeq - tree.seq);
+				if (tree.seq<this.logOffset || pending > Math.max(64, this.arcCount/4)) fullSearch (tree);
+				else repair (tree, (int) (tree.seq - this.logOffset), this.logSize);
+			}
+		}
+		tree.seq = curSeq;
+		this.millisTook = System.currentTimeMillis() - startMillis;
+		return tree;
+	}
+
+	/*
+	 * full Dijkstra search from the tree source.
+	 */
+	private void fullSearch (SourceTree tree_p) {
+		this.fullSearchCount++;
+		java.util.Arrays.fill(tree_p.dist, INF);
+		java.util.Arrays.fill(tree_p.parent, -1);
+		tree_p.dist[tree_p.source] = 0;
+		this.heap.ensureCapacity(this.nodeCount);
+		this.heap.clear();
+		this.heap.insertOrDecrease(tree_p.source, 0);
+		propagate (tree_p);
+	}
+
+	/*
+	 * repairs the tree for the arcs in changeLog[fromIdx_p .. toIdx_p-1].
+	 */
+	private void repair (SourceTree tree_p, int fromIdx_p, int toIdx_p) {
+		this.repairCount++;
+		double [] dist = tree_p.dist;
+		int [] parent = tree_p.parent;
+		int curStamp = nextStamp ();
+		this.heap.ensureCapacity(this.nodeCount);
+		this.heap.clear();
+
+		// find the nodes whose tree path goes through a changed arc
+		int top = 0;
+		for (int i=fromIdx_p; i<toIdx_p; i++) {
+			int a = this.changeLog[i];
+			if (this.arcStamp[a]==curStamp) continue;
+			this.arcStamp[a] = curStamp;
+			for (int h=2*a; h<=2*a+1; h++) {
+				if ((h&1)==1 && this.arcs[a].isDirected()) break;
+				int head = headOf (h);
+				if (parent[head]==h && this.nodeStamp[head]!=curStamp) {
+					this.nodeStamp[head] = curStamp;
+					this.stack[top++] = head;
+				}
+			}
+		}
+		// the stack holds the roots, expand to the subtrees below them; affected nodes are kept at stack[0 .. affectedCount-1]
+		int scan = 0;
+		while (scan<top) {
+			int x = this.stack[scan++];
+			for (int k=0; k<this.outSize[x]; k++) {
+				int h = this.outHalf[x][k];
+				int y = headOf (h);
+				if (parent[y]==h && this.nodeStamp[y]!=curStamp) {
+					this.nodeStamp[y] = curStamp;
+					if (top>=this.stack.length) this.stack = java.util.Arrays.copyOf(this.stack, this.stack.length*2);
+					this.stack[top++] = y;
+				}
+			}
+		}
+		int affectedCount = top;
+		for (int i=0; i<affectedCount; i++) {
+			dist[this.stack[i]] = INF;
+			parent[this.stack[i]] = -1;
+		}
+
+		// relabel the affected nodes from their unaffected neighbours
+		for (int i=0; i<affectedCount; i++) {
+			int y = this.stack[i];
+			for (int k=0; k<this.inSize[y]; k++) {
+				int h = this.inHalf[y][k];
+				int x = tailOf (h);
+				if (this.nodeStamp[x]==curStamp || dist[x]==INF || !usable(h)) continue;
+				double nd = dist[x] + this.arcs[h>>1].getDist();
+				if (nd<dist[y]) {
+					dist[y] = nd;
+					parent[y] = h;
+				}
+			}
+			if (dist[y]<INF) this.heap.insertOrDecrease(y, dist[y]);
+		}
+
+		// improvements caused by the changed arcs
+		for (int i=fromIdx_p; i<toIdx_p; i++) {
+			int a = this.changeLog[i];
+			for (int h=2*a; h<=2*a+1; h++) {
+				if ((h&1)==1 && this.arcs[a].isDirected()) break;
+				if (!usable(h)) continue;
+				int x = tailOf (h);
+				if (dist[x]==INF) continue;
+				int y = headOf (h);
+				double nd = dist[x] + this.arcs[a].getDist();
+				if (nd<dist[y]) {
+					dist[y] = nd;
+					parent[y] = h;
+					this.heap.insertOrDecrease(y, nd);
+				}
+			}
+		}
+		propagate (tree_p);
+	}
+
+	/*
+	 * label setting from the nodes in the heap.
+	 */
+	private void propagate (SourceTree tree_p) {
+		double [] dist = tree_p.dist;
+		int [] parent = tree_p.parent;
+		while (!this.heap.isEmpty()) {
+			int x = this.heap.removeMin();
+			this.iterationCount++;
+			double d = dist[x];
+			for (int k=0; k<this.outSize[x]; k++) {
+				int h = this.outHalf[x][k];
+				if (!usable(h)) continue;
+				int y = headOf (h);
+				double nd = d + this.arcs[h>>1].getDist();
+				if (nd<dist[y]) {
+					dist[y] = nd;
+					parent[y] = h;
+					this.heap.insertOrDecrease(y, nd);
+				}
+			}
+		}
+	}
+
+	/*
+	 * builds the shortest path by following the parent arcs back to the source.
+	 */
+	private ShortestPath genShortestPath (SourceTree tree_p, int toNode_p) {
+		int len = 0;
+		int x = toNode_p;
+		while (x!=tree_p.source) {
+			len++;
+			x = tailOf (tree_p.parent[x]);
+		}
+		Arc [] pathArcs = new Arc [len];
+		x = toNode_p;
+		while (x!=tree_p.source) {
+			int h = tree_p.parent[x];
+			pathArcs[--len] = this.arcs[h>>1];
+			x = tailOf (h);
+		}
+		ShortestPath pathObj = new ShortestPath ();
+		pathObj.setPathArcs(this.nodes[tree_p.source], this.nodes[toNode_p], pathArcs);
+		return pathObj;
+	}
+
+	private boolean usable (int half_p) {
+		int a = half_p >> 1;
+		if (this.arcRemoved[a]) return false;
+		// the head of the reverse half of an undirected arc is its from node
+		return this.arcs[a].isActive() && this.nodes[headOf(half_p)].isActive();
+	}
+
+	private int tailOf (int half_p) {
+		return ((half_p&1)==0)? this.arcFrom[half_p>>1]: this.arcTo[half_p>>1];
+	}
+
+	private int headOf (int half_p) {
+		return ((half_p&1)==0)? this.arcTo[half_p>>1]: this.arcFrom[half_p>>1];
+	}
+
+	private int nextStamp () {
+		if (this.nodeStamp.length<this.nodeCount) this.nodeStamp = java.util.Arrays.copyOf(this.nodeStamp, this.nodes.length);
+		if (this.arcStamp.length<this.arcCount) this.arcStamp = java.util.Arrays.copyOf(this.arcStamp, this.arcs.length);
+		if (this.stack.length<this.nodeCount) this.stack = new int [this.nodes.length];
+		if (++this.stamp==Integer.MAX_VALUE) {
+			java.util.Arrays.fill(this.nodeStamp, 0);
+			java.util.Arrays.fill(this.arcStamp, 0);
+			this.stamp = 1;
+		}
+		return this.stamp;
+	}
+
+	private void logChange (int arcIdx_p) {
+		if (this.treeList.isEmpty()) {
+			this.logOffset += this.logSize;
+			this.logSize = 0;
+			return;
+		}
+		if (this.logSize>=this.changeLog.length) trimLog ();
+		if (this.logSize>=this.changeLog.length) {
+			this.changeLog = java.util.Arrays.copyOf(this.changeLog, this.changeLog.length*2);
+		}
+		this.changeLog[this.logSize++] = arcIdx_p;
+	}
+
+	/*
+	 * drops the log entries all trees have seen already. Trees falling too far behind
+	 * are recomputed from scratch on their next use.
+	 */
+	private void trimLog () {
+		long minSeq = this.logOffset + this.logSize;
+		java.util.Iterator<SourceTree> it = this.treeList.values().iterator();
+		while (it.hasNext()) minSeq = Math.min(minSeq, it.next().seq);
+		if (minSeq<=this.logOffset && this.logSize >= Math.max(256, 4*this.arcCount)) {
+			minSeq = this.logOffset + this.logSize;
+		}
+		int drop = (int) (minSeq - this.logOffset);
+		if (drop<=0) return;
+		System.arraycopy(this.changeLog, drop, this.changeLog, 0, this.logSize-drop);
+		this.logSize -= drop;
+		this.logOffset = minSeq;
+	}
+
+	private int registerNode (Node node_p) {
+		Integer idx = this.nodeIdx.get(node_p);
+		if (idx!=null) return idx.intValue();
+		int n = this.nodeCount++;
+		if (n>=this.nodes.length) {
+			int newCap = this.nodes.length*2;
+			this.nodes = java.util.Arrays.copyOf(this.nodes, newCap);
+			this.outHalf = java.util.Arrays.copyOf(this.outHalf, newCap);
+			this.outSize = java.util.Arrays.copyOf(this.outSize, newCap);
+			this.inHalf = java.util.Arrays.copyOf(this.inHalf, newCap);
+			this.inSize = java.util.Arrays.copyOf(this.inSize, newCap);
+		}
+		this.nodes[n] = node_p;
+		this.outHalf[n] = new int [4];
+		this.inHalf[n] = new int [4];
+		this.nodeIdx.put(node_p, Integer.valueOf(n));
+		return n;
+	}
+
+	private int registerArc (Arc arc_p) {
+		int from = registerNode (arc_p.getFromNode());
+		int to = registerNode (arc_p.getToNode());
+		int a = this.arcCount++;
+		if (a>=this.arcs.length) {
+			int newCap = this.arcs.length*2;
+			this.arcs = java.util.Arrays.copyOf(this.arcs, newCap);
+			this.arcFrom = java.util.Arrays.copyOf(this.arcFrom, newCap);
+			this.arcTo = java.util.Arrays.copyOf(this.arcTo, newCap);
+			this.arcRemoved = java.util.Arrays.copyOf(this.arcRemoved, newCap);
+		}
+		this.arcs[a] = arc_p;
+		this.arcFrom[a] = from;
+		this.arcTo[a] = to;
+		this.arcRemoved[a] = false;
+		this.arcIdx.put(arc_p, Integer.valueOf(a));
+		addHalf (2*a, from, to);
+		if (!arc_p.isDirected()) addHalf (2*a+1, to, from);
+		return a;
+	}
+
+	private void addHalf (int half_p, int tail_p, int head_p) {
+		if (this.outSize[tail_p]>=this.outHalf[tail_p].length)
+			this.outHalf[tail_p] = java.util.Arrays.copyOf(this.outHalf[tail_p], this.outSize[tail_p]*2);
+		this.outHalf[tail_p][this.outSize[tail_p]++] = half_p;
+		if (this.inSize[head_p]>=this.inHalf[head_p].length)
+			this.inHalf[head_p] = java.util.Arrays.copyOf(this.inHalf[head_p], this.inSize[head_p]*2);
+		this.inHalf[head_p][this.inSize[head_p]++] = half_p;
+	}
+
+	/*
+	 * shortest path tree from one start node.
+	 */
+	private class SourceTree {
+		int source;
+		double [] dist;
+		int [] parent; // half arc into the node on the tree path, -1 for none
+		long seq; // change log sequence # the tree is valid for
+
+		SourceTree (int source_p) {
+			this.source = source_p;
+			this.dist = new double [Math.max(nodes.length, 1)];
+			this.parent = new int [this.dist.length];
+		}
+
+		void ensureCapacity (int nodeCount_p) {
+			if (this.dist.length>=nodeCount_p) return;
+			int oldLen = this.dist.length;
+			this.dist = java.util.Arrays.copyOf(this.dist, nodes.length);
+			this.parent = java.util.Arrays.copyOf(this.parent, nodes.length);
+			java.util.Arrays.fill(this.dist, oldLen, this.dist.length, INF);
+			java.util.Arrays.fill(this.parent, oldLen, this.parent.length, -1);
+		}
+	}
+
+	/**
+	 * returns 100 once the tree for the start node is available, 0 otherwise.
+	 */
+	public int getProgressPercentage () {
+		if (this.startNode==null || this.treeList==null) return 0;
+		return this.treeList.containsKey(this.startNode)? 100: 0;
+	}
+
+	public void run () {
+		try {
+			syncTree (this.startNode);
+			this.callbackObj.callback(null);
+		}
+		catch (Exception e) {
+			this.callbackObj.callback(e);
+		}
+	}
+
+	public String getStat () {
+		StringBuffer tempBuf = new StringBuffer("Ramalingam-Reps Algorithm for Dynamic Shortest Path\n");
+		tempBuf.append (this.graphObj.getStat()).append("\n");
+		tempBuf.append(this.fullSearchCount).append(" full searches, ").append(this.repairCount).append(" repairs, ");
+		tempBuf.append(this.iterationCount).append(" nodes labeled, last query took ").append(this.millisTook).append(" milliseconds");
+		return tempBuf.toString();
+	}
+
+	/**
+	 * Returns the number of trees computed from scratch.
+	 * @return count
+	 */
+	public int getFullSearchCount () { return this.fullSearchCount; }
+
+	/**
+	 * Returns the number of trees repaired.
+	 * @return count
+	 */
+	public int getRepairCount () { return this.repairCount; }
+
+	public long getMillisTook () { return this.millisTook; }
+
+	/**
+	 * Returns the number of nodes labeled (removed from the heap) by all searches and repairs.
+	 */
+	public long getIterationCount () { return this.iterationCount; }
+
+	public java.util.ArrayList<Vertex> getUnReachableVertexList () {
+		return this.unreachableNodeList;
+	}
+}
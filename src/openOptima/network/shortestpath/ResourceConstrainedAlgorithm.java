@@ -0,0 +1,414 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ * 
+ * This library is free software; you can redistribute it and/or modify it under the 
+ * terms of the GNU Lesser General Public License as published by the Free Software 
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with 
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place, 
+ * Suite 330, Boston, MA 02111-1307 USA 
+ * 
+ * @author Yaxiong Lin
+ * @version 1.0
+ * 
+ */
+package openOptima.network.shortestpath;
+
+import openOptima.AlgorithmTask;
+import openOptima.NoSolutionException;
+import openOptima.NotImplementedException;
+import openOptima.PerformanceStatIntf;
+import openOptima.graph.GraphIndex;
+import openOptima.graph.Vertex;
+import openOptima.network.Arc;
+import openOptima.network.Network;
+import openOptima.network.Node;
+
+/**
+ * Shortest path search limited to at most a number of arcs (hops) and/or to a budget of a
+ * secondary resource supplied by an ArcResourceIntf, e.g. time or number of test steps.
+ * <p>
+ * The search is a label setting algorithm: each node can hold several labels (distance, hops,
+ * resource used) and a label is dropped as soon as another label at the same node is no worse in
+ * all three.  Labels are kept in an arena of primitive arrays that is reused by the following
+ * searches, so the dominance checks do not create any objects.  When the end node is known, the
+ * labels are also pruned with the smallest distance, hops and resource still needed to reach the
+ * end node, and the distance bound guides the search (A*).
+ * <p>
+ * Without hop limit and resource budget the search returns the same distances as Dijkstra.
+ * Arc distances and resources must not be negative.
+ * @author Yaxiong Lin
+ *
+ */
+public class ResourceConstrainedAlgorithm extends AlgorithmTask implements ShortestPathAlgorithmIntf, PerformanceStatIntf {
+	private static final double INF = Double.POSITIVE_INFINITY;
+
+	protected Network graphObj;
+	protected Node startNode;
+	protected Node endNode;
+	protected int maxHops = Integer.MAX_VALUE;
+	protected ArcResourceIntf resourceObj;
+	protected double maxResource = INF;
+	protected long iterationCount = 0;
+	protected long millisTook = 0;
+	private java.util.ArrayList<Vertex> unreachableNodeList;
+
+	private GraphIndex idx;
+	private long idxVersion = -1;
+	private double [] weight;
+	private double [] resource;
+	private double [] minDistToEnd;
+	private int [] minHopsToEnd;
+	private double [] minResToEnd;
+
+	// label arena, label i is at node lblNode[i] reached through half arc lblHalf[i] from label lblPred[i]
+	private int labelCount = 0;
+	private int [] lblNode = new int [64];
+	private int [] lblPred = new int [64];
+	private int [] lblHalf = new int [64];
+	private int [] lblHops = new int [64];
+	private int [] lblNext = new int [64]; // next label at the same node
+	private double [] lblDist = new double [64];
+	private double [] lblRes = new double [64];
+	private boolean [] lblDead = new boolean [64];
+	private int [] nodeHead; // first label at the node, -1 for none
+	private int [] bestLabel; // first label of the node taken from the heap, -1 if none
+	private IndexedMinHeap heap = new IndexedMinHeap (64);
+
+	/**
+	 * Constructor.
+	 */
+	public ResourceConstrainedAlgorithm () {}
+
+	/**
+	 * constructor with a network object.
+	 * @param graphObj_p network
+	 */
+	public ResourceConstrainedAlgorithm (Network graphObj_p) {
+		init (graphObj_p);
+	}
+
+	public void init (Network graphObj_p) {
+		this.graphObj = graphObj_p;
+		this.idx = null;
+		this.idxVersion = -1;
+	}
+
+	/**
+	 * Sets the maximum number of arcs in the path.
+	 * @param maxHops_p max arcs, Integer.MAX_VALUE for no limit
+	 */
+	public void setMaxHops (int maxHops_p) {
+		this.maxHops = maxHops_p;
+	}
+
+	/**
+	 * Sets the secondary resource used by the arcs and the budget the path must stay within.
+	 * @param resourceObj_p arc resource, null for none
+	 * @param maxResource_p budget
+	 */
+	public void setResource (ArcResourceIntf resourceObj_p, double maxResource_p) {
+		this.resourceObj = resourceObj_p;
+		this.maxResource = (resourceObj_p==null)? INF: maxResource_p;
+	}
+
+	public void setStartNode (int fromNode_p) {
+		this.startNode = this.graphObj.getNode(fromNode_p);
+	}
+
+	public void setEndNode (int toNode_p) {
+		this.endNode = this.graphObj.getNode(toNode_p);
+	}
+
+	/**
+	 * returns the shortest path from fromNode_p to toNode_p within the hop limit and resource budget.
+	 * @param fromNode_p node id (integer)
+	 * @param toNode_p node id (integer)
+	 * @return ShortestPath object
+	 * @exception NoSolutionException if no path satisfies the limits.
+	 */
+	public ShortestPath getShortestPath (int fromNode_p, int toNode_p) throws NoSolutionException {
+		if (this.graphObj==null) throw new NoSolutionException ("init method must be called first.");
+		Node fromNode = this.graphObj.getNode(fromNode_p);
+		Node toNode = this.graphObj.getNode(toNode_p);
+		if (fromNode==null || toNode==null) return null;
+		prepare ();
+		int s = this.idx.getVertexIdx(fromNode);
+		int t = this.idx.getVertexIdx(toNode);
+		if (s<0 || t<0 || !search (s, t)) {
+			throw new NoSolutionException ("Unable to find path from " + fromNode.getMarker() + " to " + toNode.getMarker() + " within the limits");
+		}
+		return genShortestPath (this.bestLabel[t]);
+	}
+
+	/**
+	 * returns the shortest paths within the hop limit and resource budget from the node fromNode_p
+	 * to all nodes in the graph.
+	 * @param fromNode_p node id (integer)
+	 * @exception NoSolutionException if any of the nodes can not be reached within the limits.
+	 * @return array of ShortestPath
+	 */
+	public ShortestPath [] getShortestPaths (int fromNode_p) throws NoSolutionException {
+		if (this.graphObj==null) throw new NoSolutionException ("init method must be called first.");
+		this.unreachableNodeList = new java.util.ArrayList<Vertex>();
+		Node fromNode = this.graphObj.getNode(fromNode_p);
+		if (fromNode==null) return null;
+		prepare ();
+		int s = this.idx.getVertexIdx(fromNode);
+		if (s<0) throw new NoSolutionException ("Node not found: " + fromNode_p);
+		search (s, -1);
+		StringBuffer tempBuf = null;
+		java.util.ArrayList<ShortestPath> pathList = new java.util.ArrayList<ShortestPath>();
+		for (int v=0; v<this.idx.getVertexCount(); v++) {
+			if (this.bestLabel[v]<0) {
+				if (tempBuf==null) {
+					tempBuf = new StringBuffer("unable to find the path(s) from ");
+					tempBuf.append(fromNode.getMarker()).append(" within the limits to node(s): ");
+					this.unreachableNodeList.add(fromNode);
+				}
+				tempBuf.append(this.idx.getVertex(v).getMarker()).append(", ");
+				this.unreachableNodeList.add(this.idx.getVertex(v));
+			}
+			else if (v!=s) pathList.add(genShortestPath(this.bestLabel[v]));
+		}
+		if (tempBuf!=null) throw new NoSolutionException (tempBuf.substring(0, tempBuf.length()-2));
+		return pathList.toArray(new ShortestPath [pathList.size()]);
+	}
+
+	/**
+	 * finding shortest paths between all pairs of nodes in the graph is not supported.
+	 */
+	public ShortestPath [] getShortestPaths () throws NotImplementedException {
+		throw new NotImplementedException ("Resource constrained shortest path does not support shortest path between all pairs of nodes. Try to call getShortestPaths(fromNode_p) for each node in the graph.");
+	}
+
+	/*
+	 * (re)builds the network index if the network has changed and reads the arc distances and resources.
+	 */
+	private void prepare () {
+		if (this.idx==null || this.idxVersion!=this.graphObj.getVersion()) {
+			this.idx = new GraphIndex (this.graphObj, true);
+			this.idxVersion = this.graphObj.getVersion();
+			int n = this.idx.getVertexCount();
+			this.nodeHead = new int [n];
+			this.bestLabel = new int [n];
+			this.minDistToEnd = new double [n];
+			this.minHopsToEnd = new int [n];
+			this.minResToEnd = new double [n];
+			this.weight = new double [this.idx.getEdgeCount()];
+			for (int e=0; e<this.weight.length; e++) this.weight[e] = ((Arc) this.idx.getEdge(e)).getDist();
+		}
+		if (this.resource==null || this.resource.length!=this.idx.getEdgeCount()) this.resource = new double [this.idx.getEdgeCount()];
+		for (int e=0; e<this.resource.length; e++) {
+			this.resource[e] = (this.resourceObj==null)? 0: this.resourceObj.getResource((Arc) this.idx.getEdge(e));
+		}
+	}
+
+	/*
+	 * label setting search from s_p, stops when the end node t_p (-1 for none) is taken from the heap.
+	 */
+	private boolean search (int s_p, int t_p) {
+		long startMillis = System.currentTimeMillis();
+		this.iterationCount = 0;
+		int n = this.idx.getVertexCount();
+		java.util.Arrays.fill(this.nodeHead, -1);
+		java.util.Arrays.fill(this.bestLabel, -1);
+		if (t_p>=0) boundsToEnd (t_p);
+		else {
+			java.util.Arrays.fill(this.minDistToEnd, 0);
+			java.util.Arrays.fill(this.minHopsToEnd, 0);
+			java.util.Arrays.fill(this.minResToEnd, 0);
+		}
+		this.labelCount = 0;
+		this.heap.clear();
+		if (this.minDistToEnd[s_p]==INF || this.minHopsToEnd[s_p]>this.maxHops || this.minResToEnd[s_p]>this.maxResource) {
+			this.millisTook = System.currentTimeMillis() - startMillis;
+			return false;
+		}
+		int first = newLabel (s_p, -1, -1, 0, 0, 0);
+		this.nodeHead[s_p] = first;
+		this.heap.insertOrDecrease(first, this.minDistToEnd[s_p]);
+
+		int [] outHalfs = this.idx.getOutHalfs();
+		boolean found = false;
+		while (!this.heap.isEmpty()) {
+			int lbl = this.heap.removeMin();
+			if (this.lblDead[lbl]) continue;
+			this.iterationCount++;
+			int v = this.lblNode[lbl];
+			if (this.bestLabel[v]<0) this.bestLabel[v] = lbl;
+			if (v==t_p) {
+				found = true;
+				break;
+			}
+			double d = this.lblDist[lbl];
+			int hops = this.lblHops[lbl] + 1;
+			double res = this.lblRes[lbl];
+			for (int k=this.idx.getOutStart(v); k<this.idx.getOutStart(v+1); k++) {
+				int h = outHalfs[k];
+				int u = this.idx.headOf(h);
+				double nd = d + this.weight[h>>1];
+				double nres = res + this.resource[h>>1];
+				if (hops + this.minHopsToEnd[u] > this.maxHops || nres + this.minResToEnd[u] > this.maxResource || this.minDistToEnd[u]==INF) continue;
+				if (!addLabel (u, lbl, h, nd, hops, nres)) continue;
+				this.heap.ensureCapacity(this.labelCount);
+				this.heap.insertOrDecrease(this.labelCount-1, nd + this.minDistToEnd[u]);
+			}
+		}
+		this.heap.clear();
+		this.millisTook = System.currentTimeMillis() - startMillis;
+		return found || t_p<0;
+	}
+
+	/*
+	 * adds the label to the node unless it is dominated by a label already at the node.  Labels
+	 * at the node dominated by the new label are removed.
+	 */
+	private boolean addLabel (int node_p, int pred_p, int half_p, double dist_p, int hops_p, double res_p) {
+		int prev = -1;
+		int cur = this.nodeHead[node_p];
+		while (cur>=0) {
+			if (this.lblDist[cur]<=dist_p && this.lblHops[cur]<=hops_p && this.lblRes[cur]<=res_p) return false;
+			int next = this.lblNext[cur];
+			if (dist_p<=this.lblDist[cur] && hops_p<=this.lblHops[cur] && res_p<=this.lblRes[cur]) {
+				this.lblDead[cur] = true;
+				if (prev<0) this.nodeHead[node_p] = next;
+				else this.lblNext[prev] = next;
+			}
+			else prev = cur;
+			cur = next;
+		}
+		int lbl = newLabel (node_p, pred_p, half_p, dist_p, hops_p, res_p);
+		this.lblNext[lbl] = this.nodeHead[node_p];
+		this.nodeHead[node_p] = lbl;
+		return true;
+	}
+
+	private int newLabel (int node_p, int pred_p, int half_p, double dist_p, int hops_p, double res_p) {
+		int lbl = this.labelCount++;
+		if (lbl>=this.lblNode.length) {
+			int newCap = this.lblNode.length*2;
+			this.lblNode = java.util.Arrays.copyOf(this.lblNode, newCap);
+			this.lblPred = java.util.Arrays.copyOf(this.lblPred, newCap);
+			this.lblHalf = java.util.Arrays.copyOf(this.lblHalf, newCap);
+			this.lblHops = java.util.Arrays.copyOf(this.lblHops, newCap);
+			this.lblNext = java.util.Arrays.copyOf(this.lblNext, newCap);
+			this.lblDist = java.util.Arrays.copyOf(this.lblDist, newCap);
+			this.lblRes = java.util.Arrays.copyOf(this.lblRes, newCap);
+			this.lblDead = java.util.Arrays.copyOf(this.lblDead, newCap);
+		}
+		this.lblNode[lbl] = node_p;
+		this.lblPred[lbl] = pred_p;
+		this.lblHalf[lbl] = half_p;
+		this.lblDist[lbl] = dist_p;
+		this.lblHops[lbl] = hops_p;
+		this.lblRes[lbl] = res_p;
+		this.lblNext[lbl] = -1;
+		this.lblDead[lbl] = false;
+		return lbl;
+	}
+
+	/*
+	 * smallest distance, hops and resource from every node to the end node ignoring the limits.
+	 */
+	private void boundsToEnd (int t_p) {
+		reverseSearch (t_p, this.weight, this.minDistToEnd);
+		double [] tempRes = this.minResToEnd;
+		if (this.resourceObj==null) java.util.Arrays.fill(tempRes, 0);
+		else reverseSearch (t_p, this.resource, tempRes);
+
+		// breadth first search for the hops
+		java.util.Arrays.fill(this.minHopsToEnd, Integer.MAX_VALUE);
+		int [] queue = new int [this.minHopsToEnd.length];
+		int head = 0, tail = 0;
+		int [] inHalfs = this.idx.getInHalfs();
+		this.minHopsToEnd[t_p] = 0;
+		queue[tail++] = t_p;
+		while (head<tail) {
+			int v = queue[head++];
+			for (int k=this.idx.getInStart(v); k<this.idx.getInStart(v+1); k++) {
+				int u = this.idx.tailOf(inHalfs[k]);
+				if (this.minHopsToEnd[u]!=Integer.MAX_VALUE) continue;
+				this.minHopsToEnd[u] = this.minHopsToEnd[v] + 1;
+				queue[tail++] = u;
+			}
+		}
+		// unreachable nodes: keep the hop test from overflowing
+		for (int v=0; v<this.minHopsToEnd.length; v++) {
+			if (this.minHopsToEnd[v]==Integer.MAX_VALUE) this.minHopsToEnd[v] = this.minHopsToEnd.length + 1;
+		}
+	}
+
+	private void reverseSearch (int t_p, double [] cost_p, double [] dist_p) {
+		java.util.Arrays.fill(dist_p, INF);
+		int [] inHalfs = this.idx.getInHalfs();
+		this.heap.clear();
+		this.heap.ensureCapacity(dist_p.length);
+		dist_p[t_p] = 0;
+		this.heap.insertOrDecrease(t_p, 0);
+		while (!this.heap.isEmpty()) {
+			int v = this.heap.removeMin();
+			for (int k=this.idx.getInStart(v); k<this.idx.getInStart(v+1); k++) {
+				int h = inHalfs[k];
+				int u = this.idx.tailOf(h);
+				double nd = dist_p[v] + cost_p[h>>1];
+				if (nd<dist_p[u]) {
+					dist_p[u] = nd;
+					this.heap.insertOrDecrease(u, nd);
+				}
+			}
+		}
+	}
+
+	private ShortestPath genShortestPath (int lbl_p) {
+		int len = this.lblHops[lbl_p];
+		Arc [] pathArcs = new Arc [len];
+		int lbl = lbl_p;
+		while (this.lblPred[lbl]>=0) {
+			pathArcs[--len] = (Arc) this.idx.getEdge(this.lblHalf[lbl]>>1);
+			lbl = this.lblPred[lbl];
+		}
+		ShortestPath pathObj = new ShortestPath ();
+		pathObj.setPathArcs((Node) this.idx.getVertex(this.lblNode[lbl]), (Node) this.idx.getVertex(this.lblNode[lbl_p]), pathArcs);
+		return pathObj;
+	}
+
+	public int getProgressPercentage () {
+		return (this.bestLabel!=null && this.iterationCount>0)? 100: 0;
+	}
+
+	public void run () {
+		try {
+			this.getShortestPaths(this.startNode.getId());
+			this.callbackObj.callback(null);
+		}
+		catch (Exception e) {
+			this.callbackObj.callback(e);
+		}
+	}
+
+	public String getStat () {
+		StringBuffer tempBuf = new StringBuffer("Resource Constrained Shortest Path (label setting)\n");
+		if (this.graphObj!=null) tempBuf.append (this.graphObj.getStat()).append("\n");
+		tempBuf.append(this.labelCount).append(" labels created, ").append(this.iterationCount).append(" labels processed, ");
+		tempBuf.append(this.millisTook).append(" milliseconds");
+		return tempBuf.toString();
+	}
+
+	public long getMillisTook () { return this.millisTook; }
+
+	/**
+	 * Returns the number of labels taken from the heap by the last search.
+	 */
+	public long getIterationCount () { return this.iterationCount; }
+
+	public java.util.ArrayList<Vertex> getUnReachableVertexList () {
+		return this.unreachableNodeList;
+	}
+}
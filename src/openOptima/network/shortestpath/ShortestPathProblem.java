@@ -36,6 +36,9 @@ import openOptima.ProgressMonitor;
 import openOptima.graph.Vertex;
 import openOptima.network.GraphRandomGenerator;
 import openOptima.network.Network;
+import openOptima.network.Node;
+import openOptima.reader.ArcListenerIntf;
+import openOptima.reader.ArcSchema;
 import openOptima.reader.ProblemReader;
 import openOptima.reader.ReaderInterruptedException;
 import openOptima.reader.ReaderListenerIntf;
@@ -45,7 +48,7 @@ import openOptima.reader.ReaderListenerIntf;
  * @author Yaxiong Lin
  *
  */
-public class ShortestPathProblem implements ReaderListenerIntf, CallbackIntf, ActionListener, PerformanceStatIntf {
+public class ShortestPathProblem implements ReaderListenerIntf, ArcListenerIntf, CallbackIntf, ActionListener, PerformanceStatIntf {
 
 	private ShortestPathAlgorithmIntf optimizerObj;
 	private Network networkObj;
@@ -56,6 +59,9 @@ public class ShortestPathProblem implements ReaderListenerIntf, CallbackIntf, Ac
 	protected int toNode;
 	protected ShortestPath [] spList;
 	private long startedTime;
+	private KShortestPathAlgorithmIntf kOptimizerObj;
+	private IsochroneAlgorithm isochroneObj;
+	private ResourceConstrainedAlgorithm constrainedObj;
 	
 	/**
 	 * Constructor with selection of shortest path algorithm implementation class.
@@ -94,7 +100,7 @@ public class ShortestPathProblem implements ReaderListenerIntf, CallbackIntf, Ac
 		if (delimiter_p==null) delimiter_p = ",";
 		this.lineIdx = 0;
 		this.networkObj = new Network ();
-		ProblemReader.execReadFile(networkInputFile_p, delimiter_p, this);
+		ProblemReader.execReadFile(networkInputFile_p, delimiter_p, ArcSchema.defaultSchema, this);
 		this.optimizerObj.init(this.networkObj);
 	}
 	
@@ -126,7 +132,7 @@ public class ShortestPathProblem implements ReaderListenerIntf, CallbackIntf, Ac
 		this.lineIdx = 0;
 		if (delimiter_p==null) delimiter_p = ",";
 		this.networkObj = new Network ();
-		ProblemReader.execReadFileURL(networkURL_p, delimiter_p, this);
+		ProblemReader.execReadFileURL(networkURL_p, delimiter_p, ArcSchema.defaultSchema, this);
 		this.optimizerObj.init(this.networkObj);
 	}
 
@@ -144,7 +150,7 @@ public class ShortestPathProblem implements ReaderListenerIntf, CallbackIntf, Ac
 	 * 3,5,32,N
 	 * 4,5,45,N
 	 * 4,2,12,N
- 	 * All columns must be of varchar data type.
+ 	 * source and target must be integer columns and distance a numeric column.
 	 * 
 	 * @param conObj_p con object
 	 * @param sql_p sql statement
@@ -158,7 +164,7 @@ public class ShortestPathProblem implements ReaderListenerIntf, CallbackIntf, Ac
 		this.lineIdx = 0;
 		this.networkObj = new Network ();
 
-		ProblemReader.execReadJDBC(conObj_p, sql_p, this);
+		ProblemReader.execReadJDBC(conObj_p, sql_p, ArcSchema.defaultSchema, this);
 		this.optimizerObj.init(this.networkObj);
 	}
 	
@@ -195,6 +201,20 @@ public class ShortestPathProblem implements ReaderListenerIntf, CallbackIntf, Ac
 		return true;
 	}
 
+	/**
+	 * called by the ProblemReader class to add each arc read to the network.
+	 * @param source_p source node id
+	 * @param target_p target node id
+	 * @param distance_p distance
+	 * @param directed_p true if directed arc
+	 * @return true to continue reading
+	 */
+	public boolean arcRead (int source_p, int target_p, double distance_p, boolean directed_p) {
+		this.lineIdx++;
+		this.networkObj.addArc(source_p, target_p, distance_p, directed_p);
+		return true;
+	}
+
 	
 	/**
 	 * Returns the shortest path from the fromNode_p to the toNode_p.
@@ -226,6 +246,100 @@ public class ShortestPathProblem implements ReaderListenerIntf, CallbackIntf, Ac
 		return this.optimizerObj.getShortestPaths(fromNode_p);
 	}
 
+	/**
+	 * Puts a result cache in front of the shortest path algorithm.  The cached results are dropped
+	 * automatically when the network is changed.  Pass 0 to remove the cache.
+	 * @param maxCachedArcs_p maximum total number of arcs in the cached paths
+	 */
+	public void setResultCache (long maxCachedArcs_p) {
+		if (this.optimizerObj instanceof CachedShortestPathAlgorithm) {
+			this.optimizerObj = ((CachedShortestPathAlgorithm) this.optimizerObj).getAlgorithm();
+		}
+		if (maxCachedArcs_p>0) {
+			this.optimizerObj = new CachedShortestPathAlgorithm (this.optimizerObj, maxCachedArcs_p);
+			if (this.networkObj!=null) this.optimizerObj.init(this.networkObj);
+		}
+	}
+
+	/**
+	 * Returns the result cache with its hit/miss/eviction/invalidation counts, null if no cache is set.
+	 * @return cache
+	 */
+	public CachedShortestPathAlgorithm getResultCache () {
+		if (this.optimizerObj instanceof CachedShortestPathAlgorithm) return (CachedShortestPathAlgorithm) this.optimizerObj;
+		return null;
+	}
+
+	/**
+	 * Sets the k shortest path algorithm implementation class used by getKShortestPaths().
+	 * Defaults to openOptima.network.shortestpath.YenAlgorithm which returns loopless paths,
+	 * use openOptima.network.shortestpath.EppsteinAlgorithm to allow paths visiting a node more than once.
+	 * @param algorithmClass_p class
+	 * @throws InstantiationException exception
+	 * @throws IllegalAccessException exception
+	 * @throws ClassNotFoundException exception
+	 */
+	public void setKShortestPathAlgorithm (String algorithmClass_p) throws InstantiationException, IllegalAccessException, ClassNotFoundException {
+		this.kOptimizerObj = (KShortestPathAlgorithmIntf) ObjectFactory.newInstance(algorithmClass_p);
+	}
+
+	/**
+	 * Returns up to k_p shortest paths from the fromNode_p to the toNode_p in the order of increasing distance.
+	 * @param fromNode_p from
+	 * @param toNode_p to
+	 * @param k_p number of paths
+	 * @return shortest path array
+	 * @throws NoSolutionException exception
+	 */
+	public ShortestPath[] getKShortestPaths (int fromNode_p, int toNode_p, int k_p) throws NoSolutionException {
+		if (this.kOptimizerObj==null) this.kOptimizerObj = new YenAlgorithm();
+		this.kOptimizerObj.init(this.networkObj);
+		return this.kOptimizerObj.getKShortestPaths(fromNode_p, toNode_p, k_p);
+	}
+
+	/**
+	 * Returns the nodes within maxDist_p of the fromNode_p with their shortest distances, in the order
+	 * of increasing distance.  The cost of the query is proportional to the number of nodes returned.
+	 * @param fromNode_p from
+	 * @param maxDist_p distance budget
+	 * @return map of node to distance
+	 * @throws NoSolutionException exception
+	 */
+	public java.util.LinkedHashMap<Node, Double> getNodesWithinDist (int fromNode_p, double maxDist_p) throws NoSolutionException {
+		if (this.isochroneObj==null || this.isochroneObj.graphObj!=this.networkObj) this.isochroneObj = new IsochroneAlgorithm (this.networkObj);
+		return this.isochroneObj.getNodesWithinDist(fromNode_p, maxDist_p);
+	}
+
+	/**
+	 * Returns the shortest path from the fromNode_p to the toNode_p that has at most maxHops_p arcs.
+	 * @param fromNode_p from
+	 * @param toNode_p to
+	 * @param maxHops_p max number of arcs in the path
+	 * @return shortest path
+	 * @throws NoSolutionException if no path has maxHops_p arcs or fewer
+	 */
+	public ShortestPath getShortestPath (int fromNode_p, int toNode_p, int maxHops_p) throws NoSolutionException {
+		return getShortestPath (fromNode_p, toNode_p, maxHops_p, null, 0);
+	}
+
+	/**
+	 * Returns the shortest path from the fromNode_p to the toNode_p that has at most maxHops_p arcs and
+	 * whose arcs use no more than maxResource_p of the resource supplied by resourceObj_p.
+	 * @param fromNode_p from
+	 * @param toNode_p to
+	 * @param maxHops_p max number of arcs in the path, Integer.MAX_VALUE for no limit
+	 * @param resourceObj_p resource used by the arcs, null for none
+	 * @param maxResource_p resource budget
+	 * @return shortest path
+	 * @throws NoSolutionException if no path satisfies the limits
+	 */
+	public ShortestPath getShortestPath (int fromNode_p, int toNode_p, int maxHops_p, ArcResourceIntf resourceObj_p, double maxResource_p) throws NoSolutionException {
+		if (this.constrainedObj==null || this.constrainedObj.graphObj!=this.networkObj) this.constrainedObj = new ResourceConstrainedAlgorithm (this.networkObj);
+		this.constrainedObj.setMaxHops(maxHops_p);
+		this.constrainedObj.setResource(resourceObj_p, maxResource_p);
+		return this.constrainedObj.getShortestPath(fromNode_p, toNode_p);
+	}
+
 	public java.util.ArrayList<Vertex> getUnReachableVertexList() {
 		return this.optimizerObj.getUnReachableVertexList();
 	}
@@ -417,7 +531,7 @@ public class ShortestPathProblem implements ReaderListenerIntf, CallbackIntf, Ac
 		this.lineIdx = 0;
 		if (delimiter_p==null) delimiter_p = ",";
 		this.networkObj = new Network ();
-		ProblemReader.execReadString(inputString_p, delimiter_p, this);
+		ProblemReader.execReadString(inputString_p, delimiter_p, ArcSchema.defaultSchema, this);
 		this.optimizerObj.init(this.networkObj);
 
 	}
@@ -0,0 +1,354 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ * 
+ * This library is free software; you can redistribute it and/or modify it under the 
+ * terms of the GNU Lesser General Public License as published by the Free Software 
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with 
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place, 
+ * Suite 330, Boston, MA 02111-1307 USA 
+ * 
+ * @author Yaxiong Lin
+ * @version 1.0
+ * 
+ */
+package openOptima.network.shortestpath;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import openOptima.NoSolutionException;
+import openOptima.PerformanceStatIntf;
+import openOptima.graph.GraphIndex;
+import openOptima.network.Arc;
+import openOptima.network.Network;
+import openOptima.network.Node;
+
+/**
+ * Finds the k shortest loopless paths between two nodes with the algorithm by
+ * <a href="https://doi.org/10.1287/mnsc.17.11.712">Yen, Finding the K Shortest Loopless
+ * Paths in a Network, Management Science, 1971</a>.
+ * <p>
+ * The implementation includes the common improvements to the original algorithm:
+ * <ul>
+ * 	<li>a path only spurs from the nodes at or after the node where it deviated from its parent
+ * 		path (Lawler), the spur paths before that point have been generated already.
+ * 	<li>the spur searches are A* searches guided by the exact distances to the end node computed
+ * 		once per query on the complete network.
+ * 	<li>the spur searches of a path are independent of each other and are run in parallel.
+ * 	<li>the candidate paths are kept in a heap and duplicates are dropped when generated.
+ * </ul>
+ * Arc distances must not be negative.
+ * @author Yaxiong Lin
+ *
+ */
+public class YenAlgorithm implements KShortestPathAlgorithmIntf, PerformanceStatIntf {
+	private static final double INF = Double.POSITIVE_INFINITY;
+
+	protected Network graphObj;
+	protected int threadCount = Runtime.getRuntime().availableProcessors();
+	protected long iterationCount = 0;
+	protected long millisTook = 0;
+
+	private GraphIndex idx;
+	private double [] weight;
+	private double [] distToEnd;
+	private int [] nextHalf;
+	private ThreadLocal<SpurWorkArea> workArea;
+
+	/**
+	 * Constructor.
+	 */
+	public YenAlgorithm () {}
+
+	public void init (Network graphObj_p) {
+		this.graphObj = graphObj_p;
+	}
+
+	/**
+	 * Sets the number of threads used to run the spur searches, 1 runs them in the calling thread.
+	 * @param threadCount_p number of threads
+	 */
+	public void setThreadCount (int threadCount_p) {
+		this.threadCount = Math.max(1, threadCount_p);
+	}
+
+	public ShortestPath [] getKShortestPaths (int fromNode_p, int toNode_p, int k_p) throws NoSolutionException {
+		if (this.graphObj==null) throw new NoSolutionException ("init method must be called first.");
+		long startMillis = System.currentTimeMillis();
+		this.iterationCount = 0;
+		this.idx = new GraphIndex (this.graphObj, true);
+		int n = this.idx.getVertexCount();
+		int s = this.idx.getVertexIdx(this.graphObj.getNode(fromNode_p));
+		int t = this.idx.getVertexIdx(this.graphObj.getNode(toNode_p));
+		if (s<0 || t<0) throw new NoSolutionException ("Node not found: " + (s<0? fromNode_p: toNode_p));
+
+		this.weight = new double [this.idx.getEdgeCount()];
+		for (int e=0; e<this.weight.length; e++) this.weight[e] = ((Arc) this.idx.getEdge(e)).getDist();
+		this.distToEnd = new double [n];
+		this.nextHalf = new int [n];
+		searchToEnd (t);
+		if (this.distToEnd[s]==INF) throw new NoSolutionException ("Unable to find path from " + fromNode_p + " to " + toNode_p);
+
+		// the first path follows the tree to the end node
+		ArrayList<PathRec> acceptedList = new ArrayList<PathRec>(k_p);
+		java.util.PriorityQueue<PathRec> candidateList = new java.util.PriorityQueue<PathRec>();
+		java.util.HashSet<PathRec> seenList = new java.util.HashSet<PathRec>();
+		int len = 0;
+		for (int v=s; v!=t; v=this.idx.headOf(this.nextHalf[v])) len++;
+		int [] halfs = new int [len];
+		len = 0;
+		for (int v=s; v!=t; v=this.idx.headOf(this.nextHalf[v])) halfs[len++] = this.nextHalf[v];
+		PathRec firstPath = new PathRec (s, halfs, 0);
+		acceptedList.add(firstPath);
+		seenList.add(firstPath);
+
+		this.workArea = new ThreadLocal<SpurWorkArea>();
+		ExecutorService executor = null;
+		try {
+			while (acceptedList.size()<k_p) {
+				PathRec prevPath = acceptedList.get(acceptedList.size()-1);
+				ArrayList<SpurTask> taskList = new ArrayList<SpurTask>();
+				for (int i=prevPath.devIdx; i<prevPath.halfs.length; i++) {
+					taskList.add(new SpurTask(prevPath, i, acceptedList, t));
+				}
+				this.iterationCount += taskList.size();
+				ArrayList<PathRec> spurList = new ArrayList<PathRec>(taskList.size());
+				if (this.threadCount<=1 || taskList.size()<=1) {
+					for (int i=0; i<taskList.size(); i++) spurList.add(taskList.get(i).call());
+				}
+				else {
+					if (executor==null) executor = Executors.newFixedThreadPool(this.threadCount, new DaemonThreadFactory());
+					java.util.List<Future<PathRec>> futureList = executor.invokeAll(taskList);
+					for (int i=0; i<futureList.size(); i++) spurList.add(futureList.get(i).get());
+				}
+				for (int i=0; i<spurList.size(); i++) {
+					PathRec pathObj = spurList.get(i);
+					if (pathObj!=null && seenList.add(pathObj)) candidateList.add(pathObj);
+				}
+				if (candidateList.isEmpty()) break;
+				acceptedList.add(candidateList.poll());
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new NoSolutionException ("Search interrupted.");
+		}
+		catch (ExecutionException e) {
+			throw new RuntimeException (e.getCause());
+		}
+		finally {
+			if (executor!=null) executor.shutdownNow();
+			this.workArea = null;
+		}
+
+		ShortestPath [] retList = new ShortestPath [acceptedList.size()];
+		for (int i=0; i<retList.length; i++) retList[i] = genShortestPath (acceptedList.get(i));
+		this.millisTook = System.currentTimeMillis() - startMillis;
+		return retList;
+	}
+
+	/*
+	 * Dijkstra search on the reversed network from the end node, sets distToEnd and nextHalf.
+	 */
+	private void searchToEnd (int t_p) {
+		java.util.Arrays.fill(this.distToEnd, INF);
+		java.util.Arrays.fill(this.nextHalf, -1);
+		int [] inHalfs = this.idx.getInHalfs();
+		IndexedMinHeap heap = new IndexedMinHeap (this.distToEnd.length);
+		this.distToEnd[t_p] = 0;
+		heap.insertOrDecrease(t_p, 0);
+		while (!heap.isEmpty()) {
+			int v = heap.removeMin();
+			double d = this.distToEnd[v];
+			for (int k=this.idx.getInStart(v); k<this.idx.getInStart(v+1); k++) {
+				int h = inHalfs[k];
+				int u = this.idx.tailOf(h);
+				double nd = d + this.weight[h>>1];
+				if (nd<this.distToEnd[u]) {
+					this.distToEnd[u] = nd;
+					this.nextHalf[u] = h;
+					heap.insertOrDecrease(u, nd);
+				}
+			}
+		}
+	}
+
+	private ShortestPath genShortestPath (PathRec pathRec_p) {
+		Arc [] pathArcs = new Arc [pathRec_p.halfs.length];
+		for (int i=0; i<pathArcs.length; i++) pathArcs[i] = (Arc) this.idx.getEdge(pathRec_p.halfs[i]>>1);
+		ShortestPath pathObj = new ShortestPath ();
+		pathObj.setPathArcs((Node) this.idx.getVertex(pathRec_p.nodes[0]), (Node) this.idx.getVertex(pathRec_p.nodes[pathRec_p.nodes.length-1]), pathArcs);
+		return pathObj;
+	}
+
+	/*
+	 * loopless path as the list of half arcs from the start node.
+	 */
+	private class PathRec implements Comparable<PathRec> {
+		final int [] halfs;
+		final int [] nodes;
+		final double dist;
+		final int devIdx; // index of the node where this path deviates from its parent path
+		final int hash;
+
+		PathRec (int startNode_p, int [] halfs_p, int devIdx_p) {
+			this.halfs = halfs_p;
+			this.nodes = new int [halfs_p.length+1];
+			this.nodes[0] = startNode_p;
+			double tempDist = 0;
+			for (int i=0; i<halfs_p.length; i++) {
+				this.nodes[i+1] = idx.headOf(halfs_p[i]);
+				tempDist += weight[halfs_p[i]>>1];
+			}
+			this.dist = tempDist;
+			this.devIdx = devIdx_p;
+			this.hash = java.util.Arrays.hashCode(halfs_p);
+		}
+
+		public int compareTo (PathRec other_p) {
+			int ret = Double.compare(this.dist, other_p.dist);
+			if (ret!=0) return ret;
+			return this.halfs.length - other_p.halfs.length;
+		}
+
+		public boolean equals (Object other_p) {
+			if (!(other_p instanceof PathRec)) return false;
+			PathRec otherPath = (PathRec) other_p;
+			return this.nodes[0]==otherPath.nodes[0] && java.util.Arrays.equals(this.halfs, otherPath.halfs);
+		}
+
+		public int hashCode () { return this.hash; }
+	}
+
+	/*
+	 * per thread arrays for the spur searches, entries are valid only if their stamp is current.
+	 */
+	private static class SpurWorkArea {
+		double [] dist;
+		int [] parent;
+		int [] nodeStamp;
+		int [] arcStamp;
+		int [] blockStamp;
+		IndexedMinHeap heap;
+		int stamp = 0;
+
+		SpurWorkArea (int nodeCount_p, int arcCount_p) {
+			this.dist = new double [nodeCount_p];
+			this.parent = new int [nodeCount_p];
+			this.nodeStamp = new int [nodeCount_p];
+			this.blockStamp = new int [nodeCount_p];
+			this.arcStamp = new int [arcCount_p];
+			this.heap = new IndexedMinHeap (nodeCount_p);
+		}
+	}
+
+	/*
+	 * finds the spur path from the spurIdx_p-th node of the path, avoiding the root path
+	 * nodes and the next arcs of the accepted paths sharing the same root path.
+	 */
+	private class SpurTask implements Callable<PathRec> {
+		private final PathRec pathObj;
+		private final int spurIdx;
+		private final ArrayList<PathRec> acceptedList;
+		private final int endNode;
+
+		SpurTask (PathRec pathObj_p, int spurIdx_p, ArrayList<PathRec> acceptedList_p, int endNode_p) {
+			this.pathObj = pathObj_p;
+			this.spurIdx = spurIdx_p;
+			// snapshot, the accepted list grows after the spur searches complete
+			this.acceptedList = new ArrayList<PathRec>(acceptedList_p);
+			this.endNode = endNode_p;
+		}
+
+		public PathRec call () {
+			SpurWorkArea area = workArea.get();
+			if (area==null) {
+				area = new SpurWorkArea (idx.getVertexCount(), idx.getEdgeCount());
+				workArea.set(area);
+			}
+			int curStamp = ++area.stamp;
+			int [] root = this.pathObj.halfs;
+			for (int i=0; i<this.spurIdx; i++) area.blockStamp[this.pathObj.nodes[i]] = curStamp;
+			for (int p=0; p<this.acceptedList.size(); p++) {
+				PathRec otherPath = this.acceptedList.get(p);
+				if (otherPath.halfs.length<=this.spurIdx || otherPath.nodes[0]!=this.pathObj.nodes[0]) continue;
+				boolean sameRoot = true;
+				for (int i=0; i<this.spurIdx && sameRoot; i++) sameRoot = otherPath.halfs[i]==root[i];
+				if (sameRoot) area.arcStamp[otherPath.halfs[this.spurIdx]>>1] = curStamp;
+			}
+
+			int spurNode = this.pathObj.nodes[this.spurIdx];
+			int [] outHalfs = idx.getOutHalfs();
+			IndexedMinHeap heap = area.heap;
+			heap.clear();
+			area.nodeStamp[spurNode] = curStamp;
+			area.dist[spurNode] = 0;
+			area.parent[spurNode] = -1;
+			heap.insertOrDecrease(spurNode, distToEnd[spurNode]);
+			boolean found = false;
+			while (!heap.isEmpty()) {
+				int v = heap.removeMin();
+				if (v==this.endNode) {
+					found = true;
+					break;
+				}
+				double d = area.dist[v];
+				for (int k=idx.getOutStart(v); k<idx.getOutStart(v+1); k++) {
+					int h = outHalfs[k];
+					if (area.arcStamp[h>>1]==curStamp) continue;
+					int u = idx.headOf(h);
+					if (area.blockStamp[u]==curStamp || distToEnd[u]==INF) continue;
+					double nd = d + weight[h>>1];
+					if (area.nodeStamp[u]!=curStamp || nd<area.dist[u]) {
+						area.nodeStamp[u] = curStamp;
+						area.dist[u] = nd;
+						area.parent[u] = h;
+						heap.insertOrDecrease(u, nd + distToEnd[u]);
+					}
+				}
+			}
+			if (!found) return null;
+
+			int spurLen = 0;
+			for (int v=this.endNode; v!=spurNode; v=idx.tailOf(area.parent[v])) spurLen++;
+			int [] halfs = new int [this.spurIdx + spurLen];
+			System.arraycopy(root, 0, halfs, 0, this.spurIdx);
+			int pos = halfs.length;
+			for (int v=this.endNode; v!=spurNode; v=idx.tailOf(area.parent[v])) halfs[--pos] = area.parent[v];
+			return new PathRec (this.pathObj.nodes[0], halfs, this.spurIdx);
+		}
+	}
+
+	private static class DaemonThreadFactory implements java.util.concurrent.ThreadFactory {
+		public Thread newThread (Runnable task_p) {
+			Thread threadObj = new Thread (task_p, "YenAlgorithm-spur");
+			threadObj.setDaemon(true);
+			return threadObj;
+		}
+	}
+
+	public String getStat () {
+		StringBuffer tempBuf = new StringBuffer("Yen Algorithm for K Shortest Loopless Paths\n");
+		if (this.graphObj!=null) tempBuf.append (this.graphObj.getStat()).append("\n");
+		tempBuf.append(this.iterationCount).append(" spur searches, ").append(this.millisTook).append(" milliseconds");
+		return tempBuf.toString();
+	}
+
+	public long getMillisTook () { return this.millisTook; }
+
+	/**
+	 * Returns the number of spur searches performed by the last query.
+	 */
+	public long getIterationCount () { return this.iterationCount; }
+}
@@ -0,0 +1,88 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ * 
+ * This library is free software; you can redistribute it and/or modify it under the 
+ * terms of the GNU Lesser General Public License as published by the Free Software 
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with 
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place, 
+ * Suite 330, Boston, MA 02111-1307 USA 
+ * 
+ * @author Yaxiong Lin
+ * @version 1.0
+ * 
+ */
+package openOptima.network.tree;
+
+/**
+ * Disjoint sets of the integers 0 .. n-1 (union-find) with union by size and path halving,
+ * as used by Kruskal's minimum spanning tree algorithm.
+ * @author Yaxiong Lin
+ *
+ */
+public class DisjointSet {
+	private int [] parent;
+	private int [] size;
+	private int setCount;
+
+	/**
+	 * Constructor, every item starts in a set of its own.
+	 * @param n_p number of items
+	 */
+	public DisjointSet (int n_p) {
+		this.parent = new int [n_p];
+		this.size = new int [n_p];
+		for (int i=0; i<n_p; i++) {
+			this.parent[i] = i;
+			this.size[i] = 1;
+		}
+		this.setCount = n_p;
+	}
+
+	/**
+	 * returns the representative item of the set the item is in.
+	 * @param item_p item
+	 * @return representative item
+	 */
+	public int find (int item_p) {
+		int i = item_p;
+		while (this.parent[i]!=i) {
+			this.parent[i] = this.parent[this.parent[i]];
+			i = this.parent[i];
+		}
+		return i;
+	}
+
+	/**
+	 * merges the sets of the two items.
+	 * @param item1_p item
+	 * @param item2_p item
+	 * @return false if the two items were already in the same set
+	 */
+	public boolean union (int item1_p, int item2_p) {
+		int a = find(item1_p);
+		int b = find(item2_p);
+		if (a==b) return false;
+		if (this.size[a]<this.size[b]) {
+			int t = a;
+			a = b;
+			b = t;
+		}
+		this.parent[b] = a;
+		this.size[a] += this.size[b];
+		this.setCount--;
+		return true;
+	}
+
+	/**
+	 * returns the number of sets.
+	 * @return count
+	 */
+	public int getSetCount () { return this.setCount; }
+}
@@ -0,0 +1,41 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ * 
+ * This library is free software; you can redistribute it and/or modify it under the 
+ * terms of the GNU Lesser General Public License as published by the Free Software 
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with 
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place, 
+ * Suite 330, Boston, MA 02111-1307 USA 
+ * 
+ * @author Yaxiong Lin
+ * @version 1.0
+ * 
+ */
+package openOptima.reader;
+
+/**
+ * Typed counterpart of {@link ReaderListenerIntf}: to be implemented by the reader listener to 
+ * receive each arc read from the external source as primitive values, without the per line
+ * field map and strings.  The columns holding the arc values are described by {@link ArcSchema}.
+ * @author Yaxiong Lin
+ *
+ */
+public interface ArcListenerIntf {
+
+	/**
+	 * returns false to stop the processing
+	 * @param source_p source node id
+	 * @param target_p target node id
+	 * @param distance_p distance
+	 * @param directed_p true if directed arc
+	 * @return false to stop the processing, true to continue to process
+	 */
+	public boolean arcRead (int source_p, int target_p, double distance_p, boolean directed_p);
+}
@@ -0,0 +1,107 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ * 
+ * This library is free software; you can redistribute it and/or modify it under the 
+ * terms of the GNU Lesser General Public License as published by the Free Software 
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with 
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place, 
+ * Suite 330, Boston, MA 02111-1307 USA 
+ * 
+ * @author Yaxiong Lin
+ * @version 1.0
+ * 
+ */
+package openOptima.reader;
+
+/**
+ * Describes which columns of the external source hold the arc values passed to
+ * {@link ArcListenerIntf#arcRead(int, int, double, boolean)}: the labels of the source node, target node,
+ * distance and directed flag columns.  The directed column is optional, arcs are undirected when
+ * it is not present.  A directed flag of Y or 1 marks a directed arc.
+ * @author Yaxiong Lin
+ *
+ */
+public class ArcSchema {
+	
+	/**
+	 * schema with the column labels used by the problem readers: source, target, distance, isDirected.
+	 */
+	public static final ArcSchema defaultSchema = new ArcSchema ("source", "target", "distance", "isDirected");
+	
+	/**
+	 * position of the source node column in the array returned by {@link #getColumns(String[])}
+	 */
+	public static final int sourceColumn = 0;
+
+	/**
+	 * position of the target node column in the array returned by {@link #getColumns(String[])}
+	 */
+	public static final int targetColumn = 1;
+
+	/**
+	 * position of the distance column in the array returned by {@link #getColumns(String[])}
+	 */
+	public static final int distanceColumn = 2;
+
+	/**
+	 * position of the directed flag column in the array returned by {@link #getColumns(String[])}
+	 */
+	public static final int directedColumn = 3;
+
+	private String [] labels;
+
+	/**
+	 * Constructor.
+	 * @param sourceLabel_p label of the source node column
+	 * @param targetLabel_p label of the target node column
+	 * @param distanceLabel_p label of the distance column
+	 * @param directedLabel_p label of the directed flag column, null if the source has none
+	 */
+	public ArcSchema (String sourceLabel_p, String targetLabel_p, String distanceLabel_p, String directedLabel_p) {
+		this.labels = new String [] {sourceLabel_p, targetLabel_p, distanceLabel_p, directedLabel_p};
+	}
+
+	/**
+	 * Returns the label of the column.
+	 * @param column_p sourceColumn, targetColumn, distanceColumn or directedColumn
+	 * @return label, null if the directed column is not used
+	 */
+	public String getLabel (int column_p) { return this.labels[column_p]; }
+
+	/**
+	 * Returns the positions of the source, target, distance and directed columns in the list of
+	 * column labels read from the external source, indexed by sourceColumn, targetColumn, 
+	 * distanceColumn and directedColumn.  The directed position is -1 if the column is not present.
+	 * @param fieldNameList_p column labels
+	 * @return column positions
+	 * @throws ReaderInterruptedException source, target or distance column is not present
+	 */
+	public int [] getColumns (String [] fieldNameList_p) throws ReaderInterruptedException {
+		int [] columns = {-1, -1, -1, -1};
+		for (int i=0; i<fieldNameList_p.length; i++) {
+			for (int j=0; j<this.labels.length; j++) {
+				if (this.labels[j]!=null && this.labels[j].equals(fieldNameList_p[i])) columns[j] = i;
+			}
+		}
+		for (int j=0; j<directedColumn; j++) {
+			if (columns[j]<0) throw new ReaderInterruptedException ("column " + this.labels[j] + " not found.");
+		}
+		return columns;
+	}
+
+	/**
+	 * Returns true if the directed flag value marks a directed arc: Y or 1.
+	 * @param value_p directed flag value, may be null
+	 * @return true if directed
+	 */
+	public static boolean isDirected (String value_p) {
+		return value_p!=null && (value_p.equalsIgnoreCase("Y") || value_p.equals("1"));
+	}
+}
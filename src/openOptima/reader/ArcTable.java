@@ -0,0 +1,133 @@
+/**
+ * openOptima: framework and implementations for commonly used algorithms in Graph Theory
+ * and Network Optimization in Operations Research.  Copyright (C) 2008 Yaxiong Lin
+ * 
+ * This library is free software; you can redistribute it and/or modify it under the 
+ * terms of the GNU Lesser General Public License as published by the Free Software 
+ * Foundation; either version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with 
+ * this library; if not, write to the Free Software Foundation, Inc., 59 Temple Place, 
+ * Suite 330, Boston, MA 02111-1307 USA 
+ * 
+ * @author Yaxiong Lin
+ * @version 1.0
+ * 
+ */
+package openOptima.reader;
+
+/**
+ * Column store of the arcs read from a network file: source node id, target node id, distance
+ * and directed flag of each arc kept in primitive arrays.  Used by 
+ * {@link ProblemReader#execReadMappedFile(String, String)} to hand the arcs over to the network
+ * in bulk without creating the per line HashMap and strings.  As an {@link ArcListenerIntf} it
+ * collects the arcs from any of the ProblemReader sources.
+ * @author Yaxiong Lin
+ *
+ */
+public class ArcTable implements ArcListenerIntf {
+	private int [] source;
+	private int [] target;
+	private double [] distance;
+	private boolean [] directed;
+	private int size = 0;
+
+	/**
+	 * Constructor.
+	 * @param capacity_p initial number of arcs the table can hold before it grows
+	 */
+	public ArcTable (int capacity_p) {
+		if (capacity_p<16) capacity_p = 16;
+		this.source = new int [capacity_p];
+		this.target = new int [capacity_p];
+		this.distance = new double [capacity_p];
+		this.directed = new boolean [capacity_p];
+	}
+
+	/**
+	 * Appends an arc to the table.
+	 * @param source_p source node id
+	 * @param target_p target node id
+	 * @param distance_p distance
+	 * @param directed_p true if directed arc
+	 */
+	public void add (int source_p, int target_p, double distance_p, boolean directed_p) {
+		if (this.size==this.source.length) this.grow(this.size + (this.size>>1));
+		this.source[this.size] = source_p;
+		this.target[this.size] = target_p;
+		this.distance[this.size] = distance_p;
+		this.directed[this.size] = directed_p;
+		this.size++;
+	}
+
+	/**
+	 * Appends the arc read to the table.
+	 * @param source_p source node id
+	 * @param target_p target node id
+	 * @param distance_p distance
+	 * @param directed_p true if directed arc
+	 * @return true to continue reading
+	 */
+	public boolean arcRead (int source_p, int target_p, double distance_p, boolean directed_p) {
+		this.add(source_p, target_p, distance_p, directed_p);
+		return true;
+	}
+
+	/**
+	 * Appends all arcs of the table passed in.
+	 * @param table_p arc table
+	 */
+	public void addAll (ArcTable table_p) {
+		if (this.size + table_p.size > this.source.length) this.grow(this.size + table_p.size);
+		System.arraycopy(table_p.source, 0, this.source, this.size, table_p.size);
+		System.arraycopy(table_p.target, 0, this.target, this.size, table_p.size);
+		System.arraycopy(table_p.distance, 0, this.distance, this.size, table_p.size);
+		System.arraycopy(table_p.directed, 0, this.directed, this.size, table_p.size);
+		this.size += table_p.size;
+	}
+
+	private void grow (int capacity_p) {
+		this.source = java.util.Arrays.copyOf(this.source, capacity_p);
+		this.target = java.util.Arrays.copyOf(this.target, capacity_p);
+		this.distance = java.util.Arrays.copyOf(this.distance, capacity_p);
+		this.directed = java.util.Arrays.copyOf(this.directed, capacity_p);
+	}
+
+	/**
+	 * Returns the number of arcs in the table.
+	 * @return count
+	 */
+	public int size () { return this.size; }
+
+	/**
+	 * Returns the source node id of the arc.
+	 * @param i_p arc position, 0 .. size()-1
+	 * @return node id
+	 */
+	public int getSource (int i_p) { return this.source[i_p]; }
+
+	/**
+	 * Returns the target node id of the arc.
+	 * @param i_p arc position, 0 .. size()-1
+	 * @return node id
+	 */
+	public int getTarget (int i_p) { return this.target[i_p]; }
+
+	/**
+	 * Returns the distance of the arc.
+	 * @param i_p arc position, 0 .. size()-1
+	 * @return distance
+	 */
+	public double getDistance (int i_p) { return this.distance[i_p]; }
+
+	/**
+	 * Returns true if the arc is directed.
+	 * @param i_p arc position, 0 .. size()-1
+	 * @return true if directed
+	 */
+	public boolean isDirected (int i_p) { return this.directed[i_p]; }
+}
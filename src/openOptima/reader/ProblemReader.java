@@ -24,7 +24,10 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
@@ -228,6 +231,640 @@ public class ProblemReader {
         }
         return lineCount;
 	}	
+
+	/**
+	 * size of the file region mapped at a time by {@link #execReadMappedFile(String, String, ArcSchema, ArcListenerIntf)}.
+	 */
+	private static final int mapWindowSize = 1 << 26;
+
+	/**
+	 * size of the buffer the streams are read through by the typed readers.
+	 */
+	private static final int streamBufferSize = 1 << 16;
+
+	/**
+	 * smallest byte range parsed by one thread of {@link #execReadParallelFile(String, String, ArcSchema, int)}.
+	 */
+	private static final long minChunkSize = 1 << 20;
+
+	/**
+	 * longest line {@link #execReadParallelFile(String, String, ArcSchema, int)} reads past the end of a byte range.
+	 */
+	private static final int maxLineSize = 1 << 20;
+
+	/**
+	 * powers of ten that are exact in double precision.
+	 */
+	private static final double [] pow10 = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+		1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+	/**
+	 * Reads the arcs from the text file passed in by memory mapping the file and parsing the
+	 * source, target, distance and isDirected columns directly from the bytes into an {@link ArcTable}.
+	 * The file has the same layout as the one read by {@link #execReadFileText(String, String, ReaderListenerIntf)}:
+	 * the first non comment line lists the column labels, isDirected = Y or 1 marks a directed arc
+	 * and the columns may appear in any order.  No strings or maps are created for the data lines,
+	 * which makes loading large networks bound by the disk rather than by the parser.
+	 * <p>The delimiter must be a single character, for example "," or "\t".
+	 * @param fileName_p file name
+	 * @param delimiter_p delimiter, defaults to ","
+	 * @return arcs read
+	 * @throws ReaderInterruptedException file can not be read or a line can not be parsed
+	 */
+	public static ArcTable execReadMappedFile (String fileName_p, String delimiter_p) throws ReaderInterruptedException {
+		ArcTable tableObj = new ArcTable((int) Math.min(new File(fileName_p).length()/16, 1 << 24));
+		execReadMappedFile(fileName_p, delimiter_p, ArcSchema.defaultSchema, tableObj);
+		return tableObj;
+	}
+
+	/**
+	 * Reads the arcs from the text file passed in by memory mapping the file and parsing the
+	 * columns described by the schema directly from the bytes, each arc is passed to the listener
+	 * as primitive values.
+	 * @param fileName_p file name
+	 * @param delimiter_p single character delimiter, defaults to ","
+	 * @param schema_p arc columns
+	 * @param listener_p listener object
+	 * @return number of arcs read
+	 * @throws ReaderInterruptedException file can not be read, a line can not be parsed or interrupted by listener
+	 */
+	public static int execReadMappedFile (String fileName_p, String delimiter_p, ArcSchema schema_p, ArcListenerIntf listener_p) 
+		throws ReaderInterruptedException {
+		ArcLineParser parserObj = new ArcLineParser ("ReaderMappedFile", delimiter_p, schema_p, listener_p);
+		RandomAccessFile fileIn = null;
+		try {
+			fileIn = new RandomAccessFile(fileName_p, "r");
+			FileChannel channel = fileIn.getChannel();
+			long fileSize = channel.size();
+			long pos = 0;
+			while (pos<fileSize) {
+				int len = (int) Math.min(mapWindowSize, fileSize-pos);
+				boolean lastWindow = (pos+len==fileSize);
+				ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, pos, len);
+				// an unfinished line is mapped again at the start of the next window
+				int used = parserObj.parse(buf, 0, len, lastWindow);
+				if (lastWindow) break;
+				if (used==0) throw new ReaderInterruptedException ("ReaderMappedFile line " + (parserObj.getLineCount()+1) + " is too long.");
+				pos += used;
+			}
+			return parserObj.getArcCount();
+		}
+		catch (IOException e) {
+			throw new ReaderInterruptedException ("ReaderMappedFile interrupted due to IOException: " + e.toString());
+		}
+		finally {
+			if (fileIn!=null) {
+				try { fileIn.close(); }
+				catch (IOException e) { /* nothing left to read */ }
+			}
+		}
+	}
+
+	/**
+	 * Reads the arcs from the text file passed in with several threads.  The lines after the column 
+	 * label line are split into byte ranges aligned on the line boundaries, each range is memory mapped
+	 * and parsed by one of the threads into its own {@link ArcTable} as in
+	 * {@link #execReadMappedFile(String, String, ArcSchema, ArcListenerIntf)}.  The tables are then 
+	 * merged in file order, so the arcs are returned in the same order as read by a single thread.
+	 * @param fileName_p file name
+	 * @param delimiter_p single character delimiter, defaults to ","
+	 * @param schema_p arc columns
+	 * @param threadCount_p number of threads parsing the file
+	 * @return arcs read
+	 * @throws ReaderInterruptedException file can not be read or a line can not be parsed
+	 */
+	public static ArcTable execReadParallelFile (final String fileName_p, final String delimiter_p, final ArcSchema schema_p, int threadCount_p) 
+		throws ReaderInterruptedException {
+		RandomAccessFile fileIn = null;
+		try {
+			fileIn = new RandomAccessFile(fileName_p, "r");
+			final FileChannel channel = fileIn.getChannel();
+			final long fileSize = channel.size();
+
+			// the column label line is read first, its column positions are shared by all ranges
+			ArcLineParser headerParser = new ArcLineParser ("ReaderParallelFile", delimiter_p, schema_p, null);
+			int len = (int) Math.min(mapWindowSize, fileSize);
+			final long dataStart = headerParser.parseHeader(channel.map(FileChannel.MapMode.READ_ONLY, 0, len), 0, len, len==fileSize);
+			final int [] columns = headerParser.getColumns();
+			if (columns==null) {
+				if (len<fileSize) throw new ReaderInterruptedException ("ReaderParallelFile column labels not found.");
+				return new ArcTable (0);
+			}
+
+			long dataSize = fileSize - dataStart;
+			long size = Math.max(minChunkSize, (dataSize + threadCount_p - 1) / Math.max(threadCount_p, 1));
+			final long chunkSize = Math.min(size, mapWindowSize - maxLineSize);
+			final int chunkCount = (int) ((dataSize + chunkSize - 1) / chunkSize);
+			final ArcTable [] tableList = new ArcTable [chunkCount];
+			final ReaderInterruptedException [] errorList = new ReaderInterruptedException [chunkCount];
+			final long [] lineCountList = new long [chunkCount];
+			final java.util.concurrent.atomic.AtomicInteger nextChunk = new java.util.concurrent.atomic.AtomicInteger(0);
+			Thread [] threadList = new Thread [Math.max(1, Math.min(threadCount_p, chunkCount))];
+			for (int t=0; t<threadList.length; t++) {
+				threadList[t] = new Thread (new Runnable () {
+					public void run () {
+						int chunk;
+						while ((chunk = nextChunk.getAndIncrement())<chunkCount) {
+							long from = dataStart + chunk * chunkSize;
+							long to = Math.min(fileSize, from + chunkSize);
+							try {
+								tableList[chunk] = readChunk(channel, fileSize, from, to, delimiter_p, schema_p, columns, lineCountList, chunk);
+							}
+							catch (ReaderInterruptedException e) {
+								errorList[chunk] = e;
+							}
+							catch (IOException e) {
+								errorList[chunk] = new ReaderInterruptedException ("ReaderParallelFile interrupted due to IOException: " + e.toString());
+							}
+						}
+					}
+				});
+				threadList[t].start();
+			}
+			try {
+				for (int t=0; t<threadList.length; t++) threadList[t].join();
+			}
+			catch (InterruptedException e) {
+				for (int t=0; t<threadList.length; t++) threadList[t].interrupt();
+				Thread.currentThread().interrupt();
+				throw new ReaderInterruptedException ("ReaderParallelFile interrupted.");
+			}
+
+			// the lines of a range are numbered from the range start, the ranges before it are counted now
+			int arcCount = 0;
+			long lineOffset = headerParser.getLineCount();
+			for (int i=0; i<chunkCount; i++) {
+				if (errorList[i] instanceof LineParseException) throw ((LineParseException) errorList[i]).moveBy(lineOffset);
+				if (errorList[i]!=null) throw errorList[i];
+				arcCount += tableList[i].size();
+				lineOffset += lineCountList[i];
+			}
+			if (chunkCount==1) return tableList[0];
+			ArcTable tableObj = new ArcTable (arcCount);
+			for (int i=0; i<chunkCount; i++) {
+				tableObj.addAll(tableList[i]);
+				tableList[i] = null;
+			}
+			return tableObj;
+		}
+		catch (IOException e) {
+			throw new ReaderInterruptedException ("ReaderParallelFile interrupted due to IOException: " + e.toString());
+		}
+		finally {
+			if (fileIn!=null) {
+				try { fileIn.close(); }
+				catch (IOException e) { /* nothing left to read */ }
+			}
+		}
+	}
+
+	/**
+	 * parses the lines starting in the byte range from_p .. to_p-1 of the file.  A line starts at the 
+	 * beginning of the data or after a new line, so the range owns the line running past to_p and the 
+	 * line running into from_p belongs to the range before.  The number of lines in the range is set
+	 * in lineCount_p[chunk_p], the line numbers of the parse errors count from the range start.
+	 */
+	private static ArcTable readChunk (FileChannel channel_p, long fileSize_p, long from_p, long to_p, 
+		String delimiter_p, ArcSchema schema_p, int [] columns_p, long [] lineCount_p, int chunk_p) throws IOException, ReaderInterruptedException {
+		// one byte before the range tells whether a line starts at from_p
+		long mapStart = from_p - 1;
+		int len = (int) Math.min(fileSize_p - mapStart, to_p - mapStart + maxLineSize);
+		ByteBuffer buf = channel_p.map(FileChannel.MapMode.READ_ONLY, mapStart, len);
+		boolean lastChunk = (mapStart + len == fileSize_p);
+		int start = 0;
+		while (start<len && buf.get(start)!='\n') start++;
+		start++;
+		int end = (int) (to_p - mapStart) - 1;
+		while (end<len && buf.get(end)!='\n') end++;
+		if (end==len && !lastChunk) throw new ReaderInterruptedException ("ReaderParallelFile line at byte " + (mapStart+start) + " is too long.");
+		end = Math.min(end + 1, len);
+		ArcTable tableObj = new ArcTable (Math.max(0, end-start) / 16);
+		if (start>=end) return tableObj;
+		ArcLineParser parserObj = new ArcLineParser ("ReaderParallelFile", delimiter_p, schema_p, tableObj);
+		parserObj.setColumns(columns_p);
+		parserObj.parse(buf, start, end, true);
+		lineCount_p[chunk_p] = parserObj.getLineCount();
+		return tableObj;
+	}
+
+	/**
+	 * Reads the arcs from the file passed in and passes each arc to the listener as primitive values.
+	 * Same sources as {@link #execReadFile(String, String, ReaderListenerIntf)}: url starting with http://,
+	 * GraphXML file ending with .xml or text file, which is memory mapped.  Delimiters longer than one
+	 * character are treated as regular expression and read through the field map instead.
+	 * @param fileName_p file name or url
+	 * @param delimiter_p delimiter, defaults to ","
+	 * @param schema_p arc columns
+	 * @param listener_p listener object
+	 * @return number of arcs read
+	 * @throws ReaderInterruptedException exception
+	 */
+	public static int execReadFile (String fileName_p, String delimiter_p, ArcSchema schema_p, ArcListenerIntf listener_p) 
+		throws ReaderInterruptedException {
+		if (fileName_p==null || fileName_p.equals("")) return 0;
+		if (delimiter_p==null) delimiter_p = ",";
+		if (fileName_p.startsWith("http://") || fileName_p.startsWith("HTTP://"))
+			return execReadFileURL(fileName_p, delimiter_p, schema_p, listener_p);
+		if (fileName_p.endsWith(".xml") || fileName_p.endsWith(".XML")) {
+			String [] fieldNameList = new String [] {schema_p.getLabel(ArcSchema.sourceColumn), schema_p.getLabel(ArcSchema.targetColumn),
+				schema_p.getLabel(ArcSchema.distanceColumn), schema_p.getLabel(ArcSchema.directedColumn)};
+			if (fieldNameList[ArcSchema.directedColumn]==null) fieldNameList = java.util.Arrays.copyOf(fieldNameList, ArcSchema.directedColumn);
+			FieldArcAdapter adapterObj = new FieldArcAdapter (schema_p, listener_p);
+			execReadGraphXML(fileName_p, fieldNameList, adapterObj);
+			return adapterObj.getArcCount();
+		}
+		if (delimiter_p.length()!=1) {
+			FieldArcAdapter adapterObj = new FieldArcAdapter (schema_p, listener_p);
+			execReadFileText(fileName_p, delimiter_p, adapterObj);
+			return adapterObj.getArcCount();
+		}
+		return execReadMappedFile(fileName_p, delimiter_p, schema_p, listener_p);
+	}
+
+	/**
+	 * Reads the arcs from the url passed in and passes each arc to the listener as primitive values.
+	 * The first non comment line lists the column labels.
+	 * @param urlIn_p url
+	 * @param delimiter_p delimiter, defaults to ","
+	 * @param schema_p arc columns
+	 * @param listener_p listener object
+	 * @return number of arcs read
+	 * @throws ReaderInterruptedException exception
+	 */
+	public static int execReadFileURL (String urlIn_p, String delimiter_p, ArcSchema schema_p, ArcListenerIntf listener_p) 
+		throws ReaderInterruptedException {
+		if (delimiter_p==null) delimiter_p = ",";
+		if (delimiter_p.length()!=1) {
+			FieldArcAdapter adapterObj = new FieldArcAdapter (schema_p, listener_p);
+			execReadFileURL(urlIn_p, delimiter_p, adapterObj);
+			return adapterObj.getArcCount();
+		}
+		java.io.InputStream streamIn = null;
+		try {
+			streamIn = new URL (urlIn_p).openStream();
+			return execReadStream(streamIn, delimiter_p, schema_p, listener_p);
+		}
+		catch (IOException e) {
+			throw new ReaderInterruptedException ("ReaderURL interrupted due to IOException: " + e.toString());
+		}
+		finally {
+			if (streamIn!=null) {
+				try { streamIn.close(); }
+				catch (IOException e) { /* nothing left to read */ }
+			}
+		}
+	}
+
+	/**
+	 * Reads the arcs from the input stream and passes each arc to the listener as primitive values.
+	 * The stream is read through one reusable byte buffer, the first non comment line lists the column labels.
+	 * @param streamIn_p input stream, not closed
+	 * @param delimiter_p single character delimiter, defaults to ","
+	 * @param schema_p arc columns
+	 * @param listener_p listener object
+	 * @return number of arcs read
+	 * @throws ReaderInterruptedException exception
+	 */
+	public static int execReadStream (java.io.InputStream streamIn_p, String delimiter_p, ArcSchema schema_p, ArcListenerIntf listener_p) 
+		throws ReaderInterruptedException {
+		ArcLineParser parserObj = new ArcLineParser ("ReaderStream", delimiter_p, schema_p, listener_p);
+		byte [] bytes = new byte [streamBufferSize];
+		ByteBuffer buf = ByteBuffer.wrap(bytes);
+		int len = 0;
+		try {
+			while (true) {
+				int count = streamIn_p.read(bytes, len, bytes.length-len);
+				if (count<0) {
+					parserObj.parse(buf, 0, len, true);
+					break;
+				}
+				len += count;
+				int used = parserObj.parse(buf, 0, len, false);
+				System.arraycopy(bytes, used, bytes, 0, len-used);
+				len -= used;
+				if (len==bytes.length) {
+					// line longer than the buffer
+					bytes = java.util.Arrays.copyOf(bytes, bytes.length*2);
+					buf = ByteBuffer.wrap(bytes);
+				}
+			}
+		}
+		catch (IOException e) {
+			throw new ReaderInterruptedException ("ReaderStream interrupted due to IOException: " + e.toString());
+		}
+		return parserObj.getArcCount();
+	}
+
+	/**
+	 * Reads the arcs from the input string and passes each arc to the listener as primitive values.
+	 * As with {@link #execReadString(String, String, ReaderListenerIntf)} the first non comment line may
+	 * instead name the file or url to read from.
+	 * @param inputString_p input string
+	 * @param delimiter_p delimiter, defaults to ","
+	 * @param schema_p arc columns
+	 * @param listener_p listener object
+	 * @return number of arcs read
+	 * @throws ReaderInterruptedException exception
+	 */
+	public static int execReadString (String inputString_p, String delimiter_p, ArcSchema schema_p, ArcListenerIntf listener_p) 
+		throws ReaderInterruptedException {
+		if (inputString_p==null || inputString_p.equals("")) return 0;
+		if (delimiter_p==null) delimiter_p = ",";
+		int lineStart = 0;
+		String line = "";
+		while (lineStart<inputString_p.length()) {
+			int lineEnd = inputString_p.indexOf('\n', lineStart);
+			if (lineEnd<0) lineEnd = inputString_p.length();
+			line = inputString_p.substring(lineStart, lineEnd);
+			if (!isCommentLine(line)) break;
+			lineStart = lineEnd + 1;
+		}
+		if (line.startsWith("http://") || line.startsWith("HTTP://"))
+			return execReadFileURL(line.trim(), delimiter_p, schema_p, listener_p);
+		else if (line.indexOf("/")>=0 || line.indexOf("\\")>=0)
+			return execReadFile(line.trim(), delimiter_p, schema_p, listener_p);
+		if (delimiter_p.length()!=1) {
+			FieldArcAdapter adapterObj = new FieldArcAdapter (schema_p, listener_p);
+			execReadString(inputString_p, delimiter_p, adapterObj);
+			return adapterObj.getArcCount();
+		}
+		ArcLineParser parserObj = new ArcLineParser ("ReaderString", delimiter_p, schema_p, listener_p);
+		byte [] bytes = inputString_p.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+		parserObj.parse(ByteBuffer.wrap(bytes), 0, bytes.length, true);
+		return parserObj.getArcCount();
+	}
+
+	/**
+	 * Reads the arcs using the JDBC connection with the sql query passed in and passes each arc to the
+	 * listener as primitive values.  The schema labels name the result set columns, the values are
+	 * fetched with the typed getters of the result set.
+	 * @param conObj_p connection object
+	 * @param sqlStatement_p sql statement
+	 * @param schema_p arc columns
+	 * @param listener_p listener object
+	 * @return number of arcs read
+	 * @throws ReaderInterruptedException exception
+	 */
+	public static int execReadJDBC (java.sql.Connection conObj_p, String sqlStatement_p, ArcSchema schema_p, ArcListenerIntf listener_p) 
+		throws ReaderInterruptedException {
+		int arcCount = 0;
+		try {
+			PreparedStatement prepObj = conObj_p.prepareStatement(sqlStatement_p);
+			ResultSet rsObj = prepObj.executeQuery();
+			int sourceCol = rsObj.findColumn(schema_p.getLabel(ArcSchema.sourceColumn));
+			int targetCol = rsObj.findColumn(schema_p.getLabel(ArcSchema.targetColumn));
+			int distanceCol = rsObj.findColumn(schema_p.getLabel(ArcSchema.distanceColumn));
+			int directedCol = (schema_p.getLabel(ArcSchema.directedColumn)==null)? -1: rsObj.findColumn(schema_p.getLabel(ArcSchema.directedColumn));
+			while (rsObj.next()) {
+				boolean directed = (directedCol>0) && ArcSchema.isDirected(trimWhiteSpaces(rsObj.getString(directedCol)));
+				boolean contFlag = listener_p.arcRead(rsObj.getInt(sourceCol), rsObj.getInt(targetCol), rsObj.getDouble(distanceCol), directed);
+				arcCount++;
+				if (!contFlag) throw new ReaderInterruptedException ("ReaderJDBC interrupted by listener.");
+			}
+			rsObj.close();
+			prepObj.close();
+		}
+		catch (SQLException e) {
+			throw new ReaderInterruptedException ("ReaderJDBC interrupted due to SQLException: " + e.toString());
+		}
+		return arcCount;
+	}
+
+	/**
+	 * Splits the bytes into lines and the lines into fields, the first non comment line is taken as
+	 * the column labels and the following lines are parsed into arcs with the numbers read directly from 
+	 * the bytes.  Keeps the line count across calls so that a source can be fed in consecutive pieces.
+	 */
+	private static class ArcLineParser {
+		private String readerName;
+		private byte delimiter;
+		private String delimiterText;
+		private ArcSchema schema;
+		private ArcListenerIntf listener;
+		private int [] columns;
+		private long lineCount = 0;
+		private int arcCount = 0;
+
+		ArcLineParser (String readerName_p, String delimiter_p, ArcSchema schema_p, ArcListenerIntf listener_p) 
+			throws ReaderInterruptedException {
+			if (delimiter_p==null) delimiter_p = ",";
+			if (delimiter_p.length()!=1 || delimiter_p.charAt(0)>127) 
+				throw new ReaderInterruptedException (readerName_p + " supports single character delimiter only: " + delimiter_p);
+			this.readerName = readerName_p;
+			this.delimiter = (byte) delimiter_p.charAt(0);
+			this.delimiterText = delimiter_p;
+			this.schema = schema_p;
+			this.listener = listener_p;
+		}
+
+		long getLineCount () { return this.lineCount; }
+
+		int getArcCount () { return this.arcCount; }
+
+		int [] getColumns () { return this.columns; }
+
+		/**
+		 * sets the column positions read from the column label line by another parser, the lines 
+		 * passed to this parser are then all parsed as arcs.
+		 */
+		void setColumns (int [] columns_p) { this.columns = columns_p; }
+
+		/**
+		 * parses the lines in buf_p from from_p up to to_p.  Returns the position after the last
+		 * complete line, the line after it is unfinished unless last_p is true.
+		 */
+		int parse (ByteBuffer buf_p, int from_p, int to_p, boolean last_p) throws ReaderInterruptedException {
+			return this.parseLines(buf_p, from_p, to_p, last_p, false);
+		}
+
+		/**
+		 * parses the lines in buf_p from from_p up to and including the column label line.  Returns the 
+		 * position after the column label line, getColumns() is null if it was not found before to_p.
+		 */
+		int parseHeader (ByteBuffer buf_p, int from_p, int to_p, boolean last_p) throws ReaderInterruptedException {
+			return this.parseLines(buf_p, from_p, to_p, last_p, true);
+		}
+
+		private int parseLines (ByteBuffer buf_p, int from_p, int to_p, boolean last_p, boolean headerOnly_p) 
+			throws ReaderInterruptedException {
+			int lineStart = from_p;
+			while (lineStart<to_p) {
+				int lineEnd = lineStart;
+				while (lineEnd<to_p && buf_p.get(lineEnd)!='\n') lineEnd++;
+				if (lineEnd==to_p && !last_p) break;
+				this.lineCount++;
+				int end = lineEnd;
+				if (end>lineStart && buf_p.get(end-1)=='\r') end--;
+				if (!isCommentLine(buf_p, lineStart, end)) {
+					if (this.columns==null) {
+						String [] fieldNameList = split(toText(buf_p, lineStart, end), java.util.regex.Pattern.quote(this.delimiterText));
+						this.columns = this.schema.getColumns(fieldNameList);
+						if (headerOnly_p) return Math.min(lineEnd + 1, to_p);
+					}
+					else this.parseArc(buf_p, lineStart, end);
+				}
+				lineStart = lineEnd + 1;
+			}
+			return Math.min(lineStart, to_p);
+		}
+
+		private void parseArc (ByteBuffer buf_p, int from_p, int to_p) throws ReaderInterruptedException {
+			int source = 0, target = 0;
+			double distance = 0;
+			boolean directed = false;
+			int found = 0;
+			int field = 0;
+			int start = from_p;
+			while (start<=to_p) {
+				int end = start;
+				while (end<to_p && buf_p.get(end)!=this.delimiter) end++;
+				int a = start, b = end;
+				while (a<b && (buf_p.get(a)==' ' || buf_p.get(a)=='\t')) a++;
+				while (b>a && (buf_p.get(b-1)==' ' || buf_p.get(b-1)=='\t')) b--;
+				if (field==this.columns[ArcSchema.sourceColumn]) { source = this.parseInt(buf_p, a, b); found++; }
+				else if (field==this.columns[ArcSchema.targetColumn]) { target = this.parseInt(buf_p, a, b); found++; }
+				else if (field==this.columns[ArcSchema.distanceColumn]) { distance = this.parseDouble(buf_p, a, b); found++; }
+				else if (field==this.columns[ArcSchema.directedColumn]) {
+					byte c = (b-a==1)? buf_p.get(a): 0;
+					directed = (c=='Y' || c=='y' || c=='1');
+				}
+				field++;
+				start = end + 1;
+			}
+			if (found<3) throw this.parseError("missing column");
+			this.arcCount++;
+			if (!this.listener.arcRead(source, target, distance, directed)) 
+				throw new ReaderInterruptedException (this.readerName + " interrupted by listener.");
+		}
+
+		private ReaderInterruptedException parseError (String msg_p) {
+			return new LineParseException (this.readerName, this.lineCount, msg_p);
+		}
+
+		private int parseInt (ByteBuffer buf_p, int from_p, int to_p) throws ReaderInterruptedException {
+			int i = from_p;
+			boolean negative = false;
+			if (i<to_p && (buf_p.get(i)=='-' || buf_p.get(i)=='+')) negative = (buf_p.get(i++)=='-');
+			if (i==to_p) throw this.parseError("missing number");
+			long value = 0;
+			for (; i<to_p; i++) {
+				int d = buf_p.get(i) - '0';
+				if (d<0 || d>9 || value>Integer.MAX_VALUE) throw this.parseError("invalid integer " + toText(buf_p, from_p, to_p));
+				value = value*10 + d;
+			}
+			if (negative) value = -value;
+			if (value<Integer.MIN_VALUE || value>Integer.MAX_VALUE) throw this.parseError("invalid integer " + toText(buf_p, from_p, to_p));
+			return (int) value;
+		}
+
+		/**
+		 * parses plain decimals with up to 15 significant digits directly from the bytes, the value is
+		 * the correctly rounded quotient of two exact doubles and hence identical to Double.parseDouble().
+		 * Anything else (exponent, more digits, NaN) falls back to Double.parseDouble().
+		 */
+		private double parseDouble (ByteBuffer buf_p, int from_p, int to_p) throws ReaderInterruptedException {
+			int i = from_p;
+			boolean negative = false;
+			if (i<to_p && (buf_p.get(i)=='-' || buf_p.get(i)=='+')) negative = (buf_p.get(i++)=='-');
+			long mantissa = 0;
+			int digits = 0, scale = 0;
+			boolean dot = false, anyDigit = false;
+			for (; i<to_p; i++) {
+				byte c = buf_p.get(i);
+				if (c>='0' && c<='9') {
+					anyDigit = true;
+					if (mantissa!=0 || c!='0') digits++;
+					if (digits<=15) mantissa = mantissa*10 + (c-'0');
+					if (dot) scale++;
+				}
+				else if (c=='.' && !dot) dot = true;
+				else break;
+			}
+			if (i==to_p && anyDigit && digits<=15 && scale<pow10.length) {
+				double value = (scale==0)? mantissa: mantissa / pow10[scale];
+				return negative? -value: value;
+			}
+			try {
+				return Double.parseDouble(toText(buf_p, from_p, to_p));
+			}
+			catch (NumberFormatException e) {
+				throw this.parseError(e.toString());
+			}
+		}
+	}
+
+	/**
+	 * a line can not be parsed into an arc.  Keeps the line number so that the error of a parser
+	 * that started in the middle of the source can be reported at the line in the whole source.
+	 */
+	private static class LineParseException extends ReaderInterruptedException {
+		private String readerName;
+		private long line;
+		private String detail;
+
+		LineParseException (String readerName_p, long line_p, String detail_p) {
+			super (readerName_p + " parsing data error at line " + line_p + ": " + detail_p);
+			this.readerName = readerName_p;
+			this.line = line_p;
+			this.detail = detail_p;
+		}
+
+		/**
+		 * returns the error at the line lineCount_p lines further down.
+		 */
+		LineParseException moveBy (long lineCount_p) {
+			return new LineParseException (this.readerName, this.line + lineCount_p, this.detail);
+		}
+	}
+
+	/**
+	 * Passes the rows read through the field map on to an ArcListenerIntf, used for the sources 
+	 * the typed readers can not parse from bytes: GraphXML and regular expression delimiters.
+	 */
+	private static class FieldArcAdapter implements ReaderListenerIntf {
+		private ArcSchema schema;
+		private ArcListenerIntf listener;
+		private int arcCount = 0;
+
+		FieldArcAdapter (ArcSchema schema_p, ArcListenerIntf listener_p) {
+			this.schema = schema_p;
+			this.listener = listener_p;
+		}
+
+		int getArcCount () { return this.arcCount; }
+
+		public boolean processLine (java.util.HashMap fields_p) {
+			try {
+				String directedLabel = this.schema.getLabel(ArcSchema.directedColumn);
+				Object directed = (directedLabel==null)? null: fields_p.get(directedLabel);
+				int source = Integer.parseInt(fields_p.get(this.schema.getLabel(ArcSchema.sourceColumn)).toString());
+				int target = Integer.parseInt(fields_p.get(this.schema.getLabel(ArcSchema.targetColumn)).toString());
+				double distance = Double.parseDouble(fields_p.get(this.schema.getLabel(ArcSchema.distanceColumn)).toString());
+				this.arcCount++;
+				return this.listener.arcRead(source, target, distance, ArcSchema.isDirected((directed==null)? null: directed.toString()));
+			}
+			catch (Exception e) {
+				System.out.println ("parsing data error at arc " + (this.arcCount+1) + ": " + e.toString());
+				return false;
+			}
+		}
+	}
+
+	private static boolean isCommentLine (ByteBuffer buf_p, int from_p, int to_p) {
+		if (to_p-from_p>=2 && buf_p.get(from_p)=='/' && buf_p.get(from_p+1)=='/') return true;
+		for (int i=from_p; i<to_p; i++) {
+			byte c = buf_p.get(i);
+			if (c!=' ' && c!='\t') return false;
+		}
+		return true;
+	}
+
+	private static String toText (ByteBuffer buf_p, int from_p, int to_p) {
+		byte [] bytes = new byte [to_p-from_p];
+		for (int i=0; i<bytes.length; i++) bytes[i] = buf_p.get(from_p+i);
+		return new String (bytes, java.nio.charset.StandardCharsets.ISO_8859_1);
+	}
+
 	
 	/**
 	 * Reads in the graph using the JDBC connection with the sql query passed in.
@@ -2,7 +2,17 @@ package openOptima.testcases;
 
 import junit.framework.TestCase;
 import openOptima.network.GraphRandomGenerator;
+import openOptima.network.Arc;
 import openOptima.network.Network;
+import openOptima.network.Node;
+import openOptima.network.shortestpath.ArcResourceIntf;
+import openOptima.network.shortestpath.CachedShortestPathAlgorithm;
+import openOptima.network.shortestpath.DijkstraAlgorithm;
+import openOptima.network.shortestpath.EppsteinAlgorithm;
+import openOptima.network.shortestpath.IsochroneAlgorithm;
+import openOptima.network.shortestpath.RamalingamRepsAlgorithm;
+import openOptima.network.shortestpath.ResourceConstrainedAlgorithm;
+import openOptima.network.shortestpath.YenAlgorithm;
 import openOptima.network.shortestpath.ShortestPath;
 import openOptima.network.shortestpath.ShortestPathProblem;
 
@@ -152,4 +162,439 @@ public class TestDijkstraAlgorithm extends TestCase {
 			e.printStackTrace();
 		}
 	}
+
+	public void testDynamicMixed_200x3700 () {
+		try {
+			GraphRandomGenerator graphRand = new GraphRandomGenerator();
+			System.out.println ("generating network...");
+			Network graphObj = graphRand.generate(200,3700,0.3,2,100);
+			java.util.ArrayList arcList = graphObj.getArcList(false);
+			java.util.Random rand = new java.util.Random(26);
+			
+			RamalingamRepsAlgorithm dynObj = new RamalingamRepsAlgorithm(graphObj);
+			int [] sources = new int [] {2, 17, 101};
+			int compareCount = 0;
+			for (int round=0; round<40; round++) {
+				for (int k=0; k<15; k++) {
+					Arc arcObj = (Arc) arcList.get(rand.nextInt(arcList.size()));
+					if (rand.nextInt(4)==0) {
+						if (arcObj.isActive()) arcObj.inactivate();
+						else arcObj.activate();
+					}
+					else arcObj.setDist(2 + rand.nextInt(200));
+					dynObj.arcChanged(arcObj);
+				}
+				for (int i=0; i<sources.length; i++) {
+					Node fromNode = graphObj.getNode(sources[i]);
+					DijkstraAlgorithm spObj = new DijkstraAlgorithm(graphObj);
+					ShortestPath [] spPaths;
+					try {
+						spPaths = spObj.getShortestPaths(fromNode);
+					}
+					catch (openOptima.NoSolutionException e) {
+						continue; // some nodes cut off by the inactive arcs
+					}
+					for (int j=0; j<spPaths.length; j++) {
+						double dist = 0;
+						Arc [] pathArcs = spPaths[j].getPathArcs();
+						for (int m=0; m<pathArcs.length; m++) dist += pathArcs[m].getDist();
+						assertEquals (dist, dynObj.getDist(fromNode, spPaths[j].getPathEndNode()), 1e-9);
+						compareCount++;
+					}
+				}
+			}
+			System.out.println ("testDynamicMixed_200x3700: paths compared=" + compareCount + ", " + dynObj.getStat());
+			assertTrue (compareCount>0);
+			assertTrue (dynObj.getRepairCount()>dynObj.getFullSearchCount());
+		}
+		catch(openOptima.NoSolutionException e) {
+			e.printStackTrace();
+		}
+	}
+
+	public void testDynamicInactiveNode () {
+		// undirected arcs are stored from the node listed first, 1 is only reached over the reverse half of 1-2
+		Network graphObj = new Network ();
+		graphObj.addArc(1, 2, 5, false);
+		graphObj.addArc(2, 3, 4, false);
+		graphObj.addArc(3, 1, 20, true);
+		RamalingamRepsAlgorithm dynObj = new RamalingamRepsAlgorithm(graphObj);
+		Node node1 = graphObj.getNode(1);
+		Node node3 = graphObj.getNode(3);
+		assertEquals (9.0, dynObj.getDist(node3, node1), 0.0);
+		double [] distList = dynObj.getDistList(node3);
+		assertEquals (9.0, distList[dynObj.getNodeIdx(node1)], 0.0);
+		assertEquals (4.0, distList[dynObj.getNodeIdx(graphObj.getNode(2))], 0.0);
+		node1.inactivate();
+		dynObj.nodeChanged(node1);
+		assertEquals (Double.POSITIVE_INFINITY, dynObj.getDist(node3, node1), 0.0);
+		assertEquals (Double.POSITIVE_INFINITY, dynObj.getDist(graphObj.getNode(2), node1), 0.0);
+		node1.activate();
+		dynObj.nodeChanged(node1);
+		assertEquals (9.0, dynObj.getDist(node3, node1), 0.0);
+	}
+
+	public void testKShortestPaths () {
+		Network graphObj = new Network();
+		
+		graphObj.addArc(1, 2, 3, true );
+		graphObj.addArc(1, 3, 2, true );
+		graphObj.addArc(2, 4, 4, true );
+		graphObj.addArc(3, 2, 1, true );
+		graphObj.addArc(3, 4, 2, true );
+		graphObj.addArc(3, 5, 3, true );
+		graphObj.addArc(4, 5, 2, true );
+		graphObj.addArc(4, 6, 1, true );
+		graphObj.addArc(5, 6, 2, true );
+		graphObj.addArc(6, 3, 1, true );
+		
+		try {
+			ShortestPathProblem optObj = new ShortestPathProblem("openOptima.network.shortestpath.DijkstraAlgorithm");
+			optObj.init(graphObj);
+			ShortestPath [] spList = optObj.getKShortestPaths(1, 6, 10);
+			double [] expected = new double [] {5, 7, 8, 8, 8, 11, 11};
+			assertEquals (expected.length, spList.length);
+			for (int i=0; i<spList.length; i++) {
+				assertEquals (expected[i], getPathDist(spList[i], 1, 6), 1e-9);
+			}
+
+			optObj.setKShortestPathAlgorithm("openOptima.network.shortestpath.EppsteinAlgorithm");
+			spList = optObj.getKShortestPaths(1, 6, 10);
+			assertEquals (10, spList.length);
+			double [] expectedWalks = new double [] {5, 7, 8, 8, 8, 9, 11, 11, 11, 11};
+			for (int i=0; i<spList.length; i++) {
+				assertEquals (expectedWalks[i], getPathDist(spList[i], 1, 6), 1e-9);
+			}
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testKShortestPathsMixed_100x1000 () {
+		try {
+			GraphRandomGenerator graphRand = new GraphRandomGenerator();
+			System.out.println ("generating network...");
+			Network graphObj = graphRand.generate(100,1000,0.5,2,100);
+			
+			YenAlgorithm yenObj = new YenAlgorithm();
+			yenObj.init(graphObj);
+			ShortestPath [] spList = yenObj.getKShortestPaths(2, 50, 50);
+			yenObj.setThreadCount(1);
+			ShortestPath [] spList1 = yenObj.getKShortestPaths(2, 50, 50);
+			EppsteinAlgorithm eppObj = new EppsteinAlgorithm();
+			eppObj.init(graphObj);
+			ShortestPath [] walkList = eppObj.getKShortestPaths(2, 50, 50);
+			System.out.println ("testKShortestPathsMixed_100x1000: " + yenObj.getStat() + "\n" + eppObj.getStat());
+
+			DijkstraAlgorithm spObj = new DijkstraAlgorithm(graphObj);
+			double minDist = getPathDist(spObj.getShortestPath(2, 50), 2, 50);
+			assertEquals (50, spList.length);
+			assertEquals (50, walkList.length);
+			assertEquals (minDist, getPathDist(spList[0], 2, 50), 1e-9);
+			java.util.HashSet<String> pathSet = new java.util.HashSet<String>();
+			for (int i=0; i<spList.length; i++) {
+				double dist = getPathDist(spList[i], 2, 50);
+				assertEquals (dist, getPathDist(spList1[i], 2, 50), 1e-9);
+				assertTrue (getPathDist(walkList[i], 2, 50)<=dist + 1e-9);
+				if (i>0) assertTrue (getPathDist(spList[i-1], 2, 50)<=dist + 1e-9);
+				assertTrue (pathSet.add(java.util.Arrays.asList(spList[i].getPathArcs()).toString()));
+				
+				// loopless
+				java.util.HashSet<Node> nodeSet = new java.util.HashSet<Node>();
+				Node curNode = graphObj.getNode(2);
+				nodeSet.add(curNode);
+				Arc [] pathArcs = spList[i].getPathArcs();
+				for (int j=0; j<pathArcs.length; j++) {
+					curNode = pathArcs[j].getFromNode()==curNode? pathArcs[j].getToNode(): pathArcs[j].getFromNode();
+					assertTrue (nodeSet.add(curNode));
+				}
+			}
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testIsochroneMixed_200x3700 () {
+		try {
+			GraphRandomGenerator graphRand = new GraphRandomGenerator();
+			System.out.println ("generating network...");
+			Network graphObj = graphRand.generate(200,3700,0.3,2,100);
+			
+			DijkstraAlgorithm spObj = new DijkstraAlgorithm(graphObj);
+			ShortestPath [] spPaths = spObj.getShortestPaths(2);
+			java.util.HashMap<Node, Double> distList = new java.util.HashMap<Node, Double>();
+			for (int i=0; i<spPaths.length; i++) {
+				distList.put(spPaths[i].getPathEndNode(), Double.valueOf(getPathDist(spPaths[i], 2, spPaths[i].getPathEndNode().getId())));
+			}
+			distList.put(graphObj.getNode(2), Double.valueOf(0));
+
+			IsochroneAlgorithm isoObj = new IsochroneAlgorithm(graphObj);
+			double [] budgets = new double [] {0, 5, 20, 50, 1e9, 20};
+			for (int b=0; b<budgets.length; b++) {
+				java.util.LinkedHashMap<Node, Double> ballList = isoObj.getNodesWithinDist(2, budgets[b]);
+				int expectedCount = 0;
+				java.util.Iterator<java.util.Map.Entry<Node, Double>> it = distList.entrySet().iterator();
+				while (it.hasNext()) {
+					java.util.Map.Entry<Node, Double> entry = it.next();
+					if (entry.getValue().doubleValue()>budgets[b]) continue;
+					expectedCount++;
+					assertEquals (entry.getValue().doubleValue(), ballList.get(entry.getKey()).doubleValue(), 1e-9);
+				}
+				assertEquals (expectedCount, ballList.size());
+				
+				// increasing distance order
+				double lastDist = 0;
+				java.util.Iterator<Double> distIt = ballList.values().iterator();
+				while (distIt.hasNext()) {
+					double dist = distIt.next().doubleValue();
+					assertTrue (dist>=lastDist);
+					lastDist = dist;
+				}
+			}
+			System.out.println ("testIsochroneMixed_200x3700: " + isoObj.getStat());
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testQueriesAfterNetworkChange () throws Exception {
+		Network graphObj = new Network ();
+		graphObj.addArc(1, 2, 5, true);
+		graphObj.addArc(2, 3, 5, true);
+		ShortestPathProblem optObj = new ShortestPathProblem("openOptima.network.shortestpath.DijkstraAlgorithm");
+		optObj.init(graphObj);
+		assertEquals (2, optObj.getNodesWithinDist(1, 9).size());
+		assertEquals (2, optObj.getShortestPath(1, 3, 2).getPathArcs().length);
+
+		// the cached isochrone and hop limited searches must see the new node and arcs
+		graphObj.addArc(1, 4, 1, true);
+		graphObj.addArc(4, 3, 1, true);
+		java.util.LinkedHashMap<Node, Double> ballList = optObj.getNodesWithinDist(1, 9);
+		assertEquals (4, ballList.size());
+		assertEquals (2.0, ballList.get(graphObj.getNode(3)).doubleValue(), 0.0);
+		ShortestPath pathObj = optObj.getShortestPath(1, 3, 2);
+		assertEquals (graphObj.getNode(4), pathObj.getPathArcs()[0].getToNode());
+
+		// a distance change keeps the structure version, the queries read the new distance
+		long structureVersion = graphObj.getStructureVersion();
+		long version = graphObj.getVersion();
+		pathObj.getPathArcs()[1].setDist(10);
+		assertEquals (structureVersion, graphObj.getStructureVersion());
+		assertTrue (graphObj.getVersion()>version);
+		ballList = optObj.getNodesWithinDist(1, 9);
+		assertEquals (3, ballList.size());
+		assertNull (ballList.get(graphObj.getNode(3)));
+
+		graphObj.removeNode(graphObj.getNode(4));
+		assertTrue (graphObj.getStructureVersion()>structureVersion);
+		assertEquals (2, optObj.getNodesWithinDist(1, 9).size());
+		assertEquals (2, optObj.getShortestPath(1, 3, 2).getPathArcs().length);
+	}
+
+	public void testResourceConstrained () {
+		Network graphObj = new Network();
+		
+		graphObj.addArc(1, 2, 3, true );
+		graphObj.addArc(1, 3, 2, true );
+		graphObj.addArc(2, 4, 4, true );
+		graphObj.addArc(3, 2, 1, true );
+		graphObj.addArc(3, 4, 2, true );
+		graphObj.addArc(3, 5, 3, true );
+		graphObj.addArc(4, 5, 2, true );
+		graphObj.addArc(4, 6, 1, true );
+		graphObj.addArc(5, 6, 2, true );
+		graphObj.addArc(6, 3, 1, true );
+		
+		ArcResourceIntf resObj = new ArcResourceIntf () {
+			public double getResource (Arc arcObj_p) {
+				return (arcObj_p.getFromNode().getId()==3 && arcObj_p.getToNode().getId()==4)? 5: 1;
+			}
+		};
+		try {
+			ShortestPathProblem optObj = new ShortestPathProblem("openOptima.network.shortestpath.DijkstraAlgorithm");
+			optObj.init(graphObj);
+			assertEquals (5, getPathDist(optObj.getShortestPath(1, 6, 3), 1, 6), 1e-9);
+			assertEquals (7, getPathDist(optObj.getShortestPath(1, 6, 3, resObj, 4), 1, 6), 1e-9);
+			assertEquals (5, getPathDist(optObj.getShortestPath(1, 6, Integer.MAX_VALUE, resObj, 7), 1, 6), 1e-9);
+			try {
+				optObj.getShortestPath(1, 6, 2);
+				assertTrue(false);
+			}
+			catch (openOptima.NoSolutionException e) {}
+			try {
+				optObj.getShortestPath(1, 6, 3, resObj, 2);
+				assertTrue(false);
+			}
+			catch (openOptima.NoSolutionException e) {}
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testResourceConstrainedMixed_100x1000 () {
+		try {
+			GraphRandomGenerator graphRand = new GraphRandomGenerator();
+			System.out.println ("generating network...");
+			Network graphObj = graphRand.generate(100,1000,0.5,2,100);
+			ArcResourceIntf resObj = new ArcResourceIntf () {
+				public double getResource (Arc arcObj_p) {
+					return 1 + ((int) arcObj_p.getDist()) % 3;
+				}
+			};
+			int maxHops = 4;
+			int maxRes = 8;
+			
+			// dist[r][v]: shortest distance to v with at most h arcs using at most r resource, h = 0 .. maxHops
+			java.util.ArrayList arcList = graphObj.getArcList(true);
+			int n = graphObj.getVertexList(true).size() + 1;
+			double [][] dist = new double [maxRes+1][n+1];
+			for (int r=0; r<=maxRes; r++) {
+				java.util.Arrays.fill(dist[r], Double.POSITIVE_INFINITY);
+				dist[r][2] = 0;
+			}
+			for (int h=1; h<=maxHops; h++) {
+				double [][] next = new double [maxRes+1][];
+				for (int r=0; r<=maxRes; r++) next[r] = dist[r].clone();
+				for (int i=0; i<arcList.size(); i++) {
+					Arc arcObj = (Arc) arcList.get(i);
+					int w = (int) resObj.getResource(arcObj);
+					int a = arcObj.getFromNode().getId();
+					int b = arcObj.getToNode().getId();
+					for (int r=w; r<=maxRes; r++) {
+						next[r][b] = Math.min(next[r][b], dist[r-w][a] + arcObj.getDist());
+						if (!arcObj.isDirected()) next[r][a] = Math.min(next[r][a], dist[r-w][b] + arcObj.getDist());
+					}
+				}
+				dist = next;
+			}
+
+			ResourceConstrainedAlgorithm rcObj = new ResourceConstrainedAlgorithm(graphObj);
+			rcObj.setMaxHops(maxHops);
+			rcObj.setResource(resObj, maxRes);
+			int checked = 0;
+			for (int t=1; t<n; t++) {
+				if (t==2) continue;
+				if (dist[maxRes][t]==Double.POSITIVE_INFINITY) {
+					try {
+						rcObj.getShortestPath(2, t);
+						assertTrue(false);
+					}
+					catch (openOptima.NoSolutionException e) {}
+					continue;
+				}
+				ShortestPath spObj = rcObj.getShortestPath(2, t);
+				assertEquals (dist[maxRes][t], getPathDist(spObj, 2, t), 1e-9);
+				assertTrue (spObj.getPathArcs().length<=maxHops);
+				double res = 0;
+				for (int i=0; i<spObj.getPathArcs().length; i++) res += resObj.getResource(spObj.getPathArcs()[i]);
+				assertTrue (res<=maxRes);
+				checked++;
+			}
+			assertTrue (checked>0);
+			System.out.println ("testResourceConstrainedMixed_100x1000: " + checked + " paths checked, " + rcObj.getStat());
+
+			// no limits: same distances as Dijkstra
+			rcObj.setMaxHops(Integer.MAX_VALUE);
+			rcObj.setResource(null, 0);
+			DijkstraAlgorithm spObj = new DijkstraAlgorithm(graphObj);
+			ShortestPath [] spPaths = spObj.getShortestPaths(2);
+			ShortestPath [] rcPaths = rcObj.getShortestPaths(2);
+			assertEquals (spPaths.length, rcPaths.length);
+			for (int i=0; i<rcPaths.length; i++) {
+				int t = rcPaths[i].getPathEndNode().getId();
+				assertEquals (getPathDist(spObj.getShortestPath(2, t), 2, t), getPathDist(rcPaths[i], 2, t), 1e-9);
+			}
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testResultCache () {
+		Network graphObj = new Network();
+		
+		graphObj.addArc(1, 2, 2, true );
+		Arc arc23 = graphObj.addArc(2, 3, 1, true );
+		graphObj.addArc(2, 4, 4, true );
+		graphObj.addArc(3, 1, 2, true );
+		graphObj.addArc(3, 4, 1, false );
+		
+		try {
+			ShortestPathProblem optObj = new ShortestPathProblem("openOptima.network.shortestpath.DijkstraAlgorithm");
+			optObj.init(graphObj);
+			optObj.setResultCache(1000);
+			CachedShortestPathAlgorithm cacheObj = optObj.getResultCache();
+			
+			assertEquals (4.0, getPathDist(optObj.getShortestPath(1, 4), 1, 4), 1e-9);
+			ShortestPath spObj = optObj.getShortestPath(1, 4);
+			assertEquals (1, cacheObj.getHitCount());
+			assertEquals (1, cacheObj.getMissCount());
+			assertTrue (spObj==optObj.getShortestPath(1, 4));
+			assertEquals (3, optObj.getShortestPaths(1).length);
+			optObj.getShortestPaths(1);
+			assertEquals (3, cacheObj.getHitCount());
+
+			// distance change
+			arc23.setDist(10);
+			assertEquals (6.0, getPathDist(optObj.getShortestPath(1, 4), 1, 4), 1e-9);
+			assertEquals (1, cacheObj.getInvalidationCount());
+			
+			// activation change
+			arc23.setDist(1);
+			optObj.getShortestPath(1, 4);
+			graphObj.getNode(3).inactivate();
+			assertEquals (6.0, getPathDist(optObj.getShortestPath(1, 4), 1, 4), 1e-9);
+			graphObj.getNode(3).activate();
+			assertEquals (3, cacheObj.getInvalidationCount());
+			
+			// arc removed
+			assertEquals (4.0, getPathDist(optObj.getShortestPath(1, 4), 1, 4), 1e-9);
+			graphObj.removeArc(arc23);
+			assertEquals (6.0, getPathDist(optObj.getShortestPath(1, 4), 1, 4), 1e-9);
+			assertEquals (5, cacheObj.getInvalidationCount());
+			
+			// eviction, bounded by the number of arcs cached
+			optObj.setResultCache(4);
+			cacheObj = optObj.getResultCache();
+			optObj.getShortestPath(1, 2);
+			optObj.getShortestPath(1, 4);
+			optObj.getShortestPath(2, 4);
+			assertTrue (cacheObj.getCachedArcCount()<=4);
+			assertTrue (cacheObj.getEvictionCount()>0);
+			System.out.println ("testResultCache: " + optObj.getResultCache().getStat());
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	/*
+	 * returns the path distance after checking the arcs form a path from fromNode_p to toNode_p.
+	 */
+	private double getPathDist (ShortestPath spObj_p, int fromNode_p, int toNode_p) {
+		Arc [] pathArcs = spObj_p.getPathArcs();
+		Node curNode = spObj_p.getPathStartNode();
+		assertEquals (fromNode_p, curNode.getId());
+		double dist = 0;
+		for (int i=0; i<pathArcs.length; i++) {
+			if (pathArcs[i].getFromNode()==curNode) curNode = pathArcs[i].getToNode();
+			else {
+				assertTrue (!pathArcs[i].isDirected() && pathArcs[i].getToNode()==curNode);
+				curNode = pathArcs[i].getFromNode();
+			}
+			dist += pathArcs[i].getDist();
+		}
+		assertEquals (toNode_p, curNode.getId());
+		return dist;
+	}
 }
@@ -0,0 +1,518 @@
+package openOptima.testcases;
+
+import junit.framework.TestCase;
+import openOptima.NoSolutionException;
+import openOptima.graph.Edge;
+import openOptima.graph.Graph;
+import openOptima.graph.Vertex;
+import openOptima.graph.euler.EulerTour;
+import openOptima.graph.euler.EulerTourListenerIntf;
+import openOptima.graph.euler.HierholzerAlgorithm;
+import openOptima.graph.euler.LinAlgorithm;
+import openOptima.graph.euler.ParallelEulerAlgorithm;
+import openOptima.graph.euler.TransitionCoverageEulerAlgorithm;
+import openOptima.network.GraphRandomGenerator;
+import openOptima.network.postman.LinZhaoAlgorithm;
+import openOptima.network.postman.MinCostFlowPostmanAlgorithm;
+import openOptima.network.postman.PostmanArc;
+import openOptima.network.postman.PostmanNetwork;
+
+public class TestEulerAlgorithm extends TestCase {
+
+	public  TestEulerAlgorithm () {
+		super();
+	}
+
+	public void testDirected () {
+		try {
+			PostmanNetwork graphObj = new PostmanNetwork();
+			graphObj.addArc(1,2,1,true).setCount(2);
+			graphObj.addArc(2,3,1,true).setCount(1);
+			graphObj.addArc(3,1,1,true).setCount(1);
+			graphObj.addArc(2,1,1,true).setCount(1);
+			graphObj.addArc(3,3,1,true).setCount(1);
+			graphObj.addArc(2,3,1,true).setCount(0);
+
+			HierholzerAlgorithm eulerObj = new HierholzerAlgorithm();
+			eulerObj.init(graphObj);
+			checkTour (graphObj, eulerObj.getEulerPath(1), 1);
+			assertTrue (eulerObj.isEulerian());
+			checkTour (graphObj, eulerObj.getEulerPath(3), 3);
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testMixed () {
+		try {
+			PostmanNetwork graphObj = new PostmanNetwork();
+			graphObj.addArc(1,2,1,true).setCount(1);
+			graphObj.addArc(2,3,1,false).setCount(1);
+			graphObj.addArc(1,3,1,false).setCount(1);
+			graphObj.addArc(3,4,1,false).setCount(2);
+			graphObj.addArc(4,4,1,false).setCount(1);
+
+			HierholzerAlgorithm eulerObj = new HierholzerAlgorithm();
+			eulerObj.init(graphObj);
+			checkTour (graphObj, eulerObj.getEulerPath(4), 4);
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testNotEulerian () {
+		PostmanNetwork graphObj = new PostmanNetwork();
+		graphObj.addArc(1,2,1,true).setCount(1);
+		graphObj.addArc(2,3,1,true).setCount(1);
+		graphObj.addArc(3,1,1,true).setCount(2);
+		HierholzerAlgorithm eulerObj = new HierholzerAlgorithm();
+		eulerObj.init(graphObj);
+		try {
+			eulerObj.getEulerPath(1);
+			assertTrue(false);
+		}
+		catch (NoSolutionException e) {
+			assertTrue (!eulerObj.isEulerian());
+		}
+
+		// two separate cycles
+		graphObj = new PostmanNetwork();
+		graphObj.addArc(1,2,1,true).setCount(1);
+		graphObj.addArc(2,1,1,true).setCount(1);
+		graphObj.addArc(3,4,1,false).setCount(2);
+		eulerObj.init(graphObj);
+		try {
+			eulerObj.getEulerPath(1);
+			assertTrue(false);
+		}
+		catch (NoSolutionException e) {
+			assertTrue (!eulerObj.isEulerian());
+		}
+	}
+
+	public void testDirected_200x10000 () {
+		try {
+			GraphRandomGenerator graphRand = new GraphRandomGenerator();
+			PostmanNetwork graphObj = (PostmanNetwork) graphRand.generate(200,10000,0.0,2,1000);
+			MinCostFlowPostmanAlgorithm optObj = new MinCostFlowPostmanAlgorithm();
+			optObj.init(graphObj);
+			optObj.optimize();
+
+			long startMillis = System.currentTimeMillis();
+			LinAlgorithm linObj = new LinAlgorithm();
+			linObj.init(graphObj);
+			checkTour (graphObj, linObj.getEulerPath(2), 2);
+			long linMillis = System.currentTimeMillis() - startMillis;
+
+			startMillis = System.currentTimeMillis();
+			HierholzerAlgorithm eulerObj = new HierholzerAlgorithm();
+			eulerObj.init(graphObj);
+			checkTour (graphObj, eulerObj.getEulerPath(2), 2);
+			long hierholzerMillis = System.currentTimeMillis() - startMillis;
+
+			// 100 times the arc instances
+			java.util.ArrayList arcList = graphObj.getArcList(true);
+			for (int i=0; i<arcList.size(); i++) {
+				PostmanArc arcObj = (PostmanArc) arcList.get(i);
+				arcObj.setCount(arcObj.getCount()*100);
+			}
+			startMillis = System.currentTimeMillis();
+			eulerObj.init(graphObj);
+			java.util.ArrayList pathArcs = eulerObj.getEulerPath(2);
+			long largeMillis = System.currentTimeMillis() - startMillis;
+			checkTour (graphObj, pathArcs, 2);
+			System.out.println ("testDirected_200x10000: elapseMillis=" + hierholzerMillis + "/" + linMillis + ", " + pathArcs.size() + " arcs in " + largeMillis + " millis");
+			assertTrue (largeMillis<=5000);
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testTrail () {
+		try {
+			// directed: 1 has one more arc out, 4 one more in
+			PostmanNetwork graphObj = new PostmanNetwork();
+			graphObj.addArc(1,2,1,true).setCount(1);
+			graphObj.addArc(2,3,1,true).setCount(2);
+			graphObj.addArc(3,2,1,true).setCount(1);
+			graphObj.addArc(3,4,1,true).setCount(1);
+			graphObj.addArc(4,1,1,true).setCount(1);
+			graphObj.addArc(1,4,1,true).setCount(1);
+			HierholzerAlgorithm eulerObj = new HierholzerAlgorithm();
+			eulerObj.init(graphObj);
+			Vertex [] trailEnds = eulerObj.getTrailEnds();
+			assertTrue (trailEnds[0]==graphObj.getVertex(1) && trailEnds[1]==graphObj.getVertex(4));
+			checkTrail (graphObj, eulerObj.getEulerTrail(), 1, 4);
+
+			// undirected: 2 and 5 have odd degree
+			graphObj = new PostmanNetwork();
+			graphObj.addArc(1,2,1,false).setCount(1);
+			graphObj.addArc(2,3,1,false).setCount(1);
+			graphObj.addArc(3,1,1,false).setCount(1);
+			graphObj.addArc(2,4,1,false).setCount(1);
+			graphObj.addArc(4,5,1,false).setCount(2);
+			graphObj.addArc(5,5,1,false).setCount(1);
+			graphObj.addArc(4,5,1,false).setCount(1);
+			eulerObj.init(graphObj);
+			trailEnds = eulerObj.getTrailEnds();
+			assertTrue (trailEnds[0]==graphObj.getVertex(2) && trailEnds[1]==graphObj.getVertex(5));
+			checkTrail (graphObj, eulerObj.getEulerTrail(), 2, 5);
+
+			// mixed: 4 and 1 have odd degree and no directed surplus, the trail can only start at 1
+			graphObj = new PostmanNetwork();
+			graphObj.addArc(4,3,1,false).setCount(1);
+			graphObj.addArc(2,3,1,true).setCount(1);
+			graphObj.addArc(1,2,1,false).setCount(1);
+			eulerObj.init(graphObj);
+			checkTrail (graphObj, eulerObj.getEulerTrail(), 1, 4);
+
+			// closed tour
+			graphObj.addArc(4,1,1,true).setCount(1);
+			eulerObj.init(graphObj);
+			assertTrue (eulerObj.getTrailEnds()==null);
+			assertEquals (4, eulerObj.getEulerTrail().size());
+
+			// four odd vertices
+			graphObj.addArc(5,6,1,false).setCount(1);
+			graphObj.addArc(1,3,1,false).setCount(1);
+			eulerObj.init(graphObj);
+			try {
+				eulerObj.getEulerTrail();
+				assertTrue(false);
+			}
+			catch (NoSolutionException e) {
+			}
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testRotate () {
+		try {
+			GraphRandomGenerator graphRand = new GraphRandomGenerator();
+			PostmanNetwork graphObj = (PostmanNetwork) graphRand.generate(50,400,0.0,2,100);
+			MinCostFlowPostmanAlgorithm optObj = new MinCostFlowPostmanAlgorithm();
+			optObj.init(graphObj);
+			optObj.optimize();
+
+			LinAlgorithm linObj = new LinAlgorithm();
+			linObj.init(graphObj);
+			HierholzerAlgorithm eulerObj = new HierholzerAlgorithm();
+			eulerObj.init(graphObj);
+			EulerTour firstTour = eulerObj.getEulerTour(graphObj.getVertex(1));
+			for (int v=1; v<=50; v++) {
+				EulerTour tourObj = eulerObj.getEulerTour(graphObj.getVertex(v));
+				assertTrue (tourObj.getStartVertex()==graphObj.getVertex(v));
+				checkTour (graphObj, tourObj, v);
+				assertEquals (firstTour.size(), tourObj.size());
+				checkTour (graphObj, linObj.getEulerPath(v), v);
+			}
+			// a rotation of a rotation is the rotation of the original tour
+			EulerTour tourObj = eulerObj.getEulerTour(graphObj.getVertex(7)).rotate(graphObj.getVertex(3));
+			assertEquals (eulerObj.getEulerTour(graphObj.getVertex(3)), tourObj);
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testStream () {
+		try {
+			PostmanNetwork graphObj = new PostmanNetwork();
+			graphObj.addArc(1,2,1,true).setCount(1);
+			graphObj.addArc(2,3,1,false).setCount(1);
+			graphObj.addArc(1,3,1,false).setCount(1);
+			graphObj.addArc(3,4,1,false).setCount(2);
+			graphObj.addArc(4,4,1,false).setCount(1);
+			graphObj.addArc(4,5,1,true).setCount(3);
+			graphObj.addArc(5,4,1,true).setCount(3);
+
+			HierholzerAlgorithm eulerObj = new HierholzerAlgorithm();
+			eulerObj.init(graphObj);
+			TourCollector collectorObj = new TourCollector(-1);
+			assertEquals (12, eulerObj.streamEulerPath(graphObj.getVertex(5), collectorObj));
+			checkTour (graphObj, collectorObj.pathEdges, 5);
+
+			collectorObj = new TourCollector(4);
+			assertEquals (4, eulerObj.streamEulerPath(graphObj.getVertex(1), collectorObj));
+			assertEquals (4, collectorObj.pathEdges.size());
+
+			graphObj.addArc(5,1,1,true).setCount(1);
+			eulerObj.init(graphObj);
+			collectorObj = new TourCollector(-1);
+			try {
+				eulerObj.streamEulerPath(graphObj.getVertex(1), collectorObj);
+				assertTrue(false);
+			}
+			catch (NoSolutionException e) {
+				assertEquals (0, collectorObj.pathEdges.size());
+			}
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testStream_200x10000 () {
+		try {
+			GraphRandomGenerator graphRand = new GraphRandomGenerator();
+			PostmanNetwork graphObj = (PostmanNetwork) graphRand.generate(200,10000,0.0,2,1000);
+			MinCostFlowPostmanAlgorithm optObj = new MinCostFlowPostmanAlgorithm();
+			optObj.init(graphObj);
+			optObj.optimize();
+			java.util.ArrayList arcList = graphObj.getArcList(true);
+			for (int i=0; i<arcList.size(); i++) {
+				PostmanArc arcObj = (PostmanArc) arcList.get(i);
+				arcObj.setCount(arcObj.getCount()*100);
+			}
+
+			// checks the walk as it goes, keeps the counts per edge only
+			final java.util.HashMap<Edge, Integer> countList = new java.util.HashMap<Edge, Integer>();
+			final Vertex [] curVertex = new Vertex [] {graphObj.getVertex(2)};
+			long startMillis = System.currentTimeMillis();
+			HierholzerAlgorithm eulerObj = new HierholzerAlgorithm();
+			eulerObj.init(graphObj);
+			long passed = eulerObj.streamEulerPath(graphObj.getVertex(2), new EulerTourListenerIntf () {
+				public boolean edgeTraversed (Edge edgeObj_p, Vertex fromVertex_p) {
+					assertTrue (edgeObj_p.getFromVertex()==curVertex[0] && fromVertex_p==curVertex[0]);
+					curVertex[0] = edgeObj_p.getToVertex();
+					Integer count = countList.get(edgeObj_p);
+					countList.put(edgeObj_p, Integer.valueOf(count==null? 1: count.intValue()+1));
+					return true;
+				}
+			});
+			long streamMillis = System.currentTimeMillis() - startMillis;
+			System.out.println ("testStream_200x10000: " + passed + " arcs in " + streamMillis + " millis");
+			assertTrue (curVertex[0]==graphObj.getVertex(2));
+			assertEquals (graphObj.getEdgeInstanceCount(true), passed);
+			for (int i=0; i<arcList.size(); i++) {
+				PostmanArc arcObj = (PostmanArc) arcList.get(i);
+				Integer count = countList.get(arcObj);
+				assertEquals (arcObj.getCount(), (count==null? 0: count.intValue()));
+			}
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testTransitionCoverage_100x3000 () {
+		try {
+			GraphRandomGenerator graphRand = new GraphRandomGenerator();
+			PostmanNetwork graphObj = (PostmanNetwork) graphRand.generate(100,3000,0.0,2,100);
+			MinCostFlowPostmanAlgorithm optObj = new MinCostFlowPostmanAlgorithm();
+			optObj.init(graphObj);
+			optObj.optimize();
+			java.util.ArrayList arcList = graphObj.getArcList(true);
+			for (int i=0; i<arcList.size(); i++) {
+				PostmanArc arcObj = (PostmanArc) arcList.get(i);
+				arcObj.setCount(arcObj.getCount()*5);
+			}
+
+			LinAlgorithm linObj = new LinAlgorithm();
+			linObj.init(graphObj);
+			java.util.ArrayList linPath = linObj.getEulerPath(1);
+			HierholzerAlgorithm eulerObj = new HierholzerAlgorithm();
+			eulerObj.init(graphObj);
+			java.util.ArrayList plainPath = eulerObj.getEulerPath(1);
+			long startMillis = System.currentTimeMillis();
+			TransitionCoverageEulerAlgorithm coverageObj = new TransitionCoverageEulerAlgorithm();
+			coverageObj.init(graphObj);
+			EulerTour tourObj = coverageObj.getEulerTour(graphObj.getVertex(1));
+			long coverageMillis = System.currentTimeMillis() - startMillis;
+			checkTour (graphObj, tourObj, 1);
+			checkTour (graphObj, coverageObj.getEulerTour(graphObj.getVertex(9)), 9);
+
+			int linPairs = countPairs(linPath);
+			int plainPairs = countPairs(plainPath);
+			int coveragePairs = countPairs(tourObj);
+			System.out.println ("testTransitionCoverage_100x3000: pairs=" + coveragePairs + "/" + linPairs + "/" + plainPairs + ", elapseMillis=" + coverageMillis);
+			assertTrue (coveragePairs>=0.9*linPairs);
+			assertTrue (coveragePairs>2*plainPairs);
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testParallel () {
+		try {
+			PostmanNetwork graphObj = new PostmanNetwork();
+			graphObj.addArc(1,2,1,true).setCount(1);
+			graphObj.addArc(2,3,1,false).setCount(1);
+			graphObj.addArc(1,3,1,false).setCount(1);
+			graphObj.addArc(3,4,1,false).setCount(2);
+			graphObj.addArc(4,4,1,false).setCount(1);
+			graphObj.addArc(4,5,1,true).setCount(3);
+			graphObj.addArc(5,4,1,true).setCount(3);
+			ParallelEulerAlgorithm eulerObj = new ParallelEulerAlgorithm();
+			eulerObj.setThreadCount(3);
+			eulerObj.init(graphObj);
+			checkTour (graphObj, eulerObj.getEulerPath(5), 5);
+			checkTour (graphObj, eulerObj.getEulerPath(2), 2);
+
+			graphObj.addArc(6,7,1,true).setCount(1);
+			graphObj.addArc(7,6,1,true).setCount(1);
+			eulerObj.init(graphObj);
+			try {
+				eulerObj.getEulerPath(5);
+				assertTrue(false);
+			}
+			catch (NoSolutionException e) {
+				assertTrue (!eulerObj.isEulerian());
+			}
+
+			// as the Euler algorithm of the postman solver
+			graphObj = (PostmanNetwork) new GraphRandomGenerator().generate(30,300,0.0,2,100);
+			LinZhaoAlgorithm linZhaoObj = new LinZhaoAlgorithm();
+			linZhaoObj.init(graphObj);
+			double linDist = linZhaoObj.getPostmanPath(1).getPathDist();
+			linZhaoObj.setEulerAlgorithm("openOptima.graph.euler.ParallelEulerAlgorithm");
+			java.util.ArrayList pathArcs = linZhaoObj.getPostmanPath(1).getPathArcs();
+			checkTour (graphObj, pathArcs, 1);
+			assertEquals (linDist, linZhaoObj.getPostmanPath(1).getPathDist(), 1e-6);
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testParallel_200x10000 () {
+		try {
+			GraphRandomGenerator graphRand = new GraphRandomGenerator();
+			PostmanNetwork graphObj = (PostmanNetwork) graphRand.generate(200,10000,0.0,2,1000);
+			MinCostFlowPostmanAlgorithm optObj = new MinCostFlowPostmanAlgorithm();
+			optObj.init(graphObj);
+			optObj.optimize();
+			java.util.ArrayList arcList = graphObj.getArcList(true);
+			for (int i=0; i<arcList.size(); i++) {
+				PostmanArc arcObj = (PostmanArc) arcList.get(i);
+				arcObj.setCount(arcObj.getCount()*200);
+			}
+
+			long startMillis = System.currentTimeMillis();
+			HierholzerAlgorithm eulerObj = new HierholzerAlgorithm();
+			eulerObj.init(graphObj);
+			EulerTour tourObj = eulerObj.getEulerTour(graphObj.getVertex(2));
+			long hierholzerMillis = System.currentTimeMillis() - startMillis;
+
+			startMillis = System.currentTimeMillis();
+			ParallelEulerAlgorithm parallelObj = new ParallelEulerAlgorithm();
+			parallelObj.init(graphObj);
+			EulerTour parallelTour = parallelObj.getEulerTour(graphObj.getVertex(2));
+			long parallelMillis = System.currentTimeMillis() - startMillis;
+			System.out.println ("testParallel_200x10000: " + parallelTour.size() + " arcs, elapseMillis=" + parallelMillis + "/" + hierholzerMillis);
+			assertEquals (tourObj.size(), parallelTour.size());
+			checkTour (graphObj, parallelTour, 2);
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	/*
+	 * number of distinct pairs of successive edges in the closed walk.
+	 */
+	private int countPairs (java.util.List pathEdges_p) {
+		java.util.HashMap<Edge, java.util.HashSet<Edge>> pairList = new java.util.HashMap<Edge, java.util.HashSet<Edge>>();
+		int count = 0;
+		for (int i=0; i<pathEdges_p.size(); i++) {
+			Edge inEdge = (Edge) pathEdges_p.get(i);
+			Edge outEdge = (Edge) pathEdges_p.get((i+1) % pathEdges_p.size());
+			java.util.HashSet<Edge> outList = pairList.get(inEdge);
+			if (outList==null) {
+				outList = new java.util.HashSet<Edge>();
+				pairList.put(inEdge, outList);
+			}
+			if (outList.add(outEdge)) count++;
+		}
+		return count;
+	}
+
+	/*
+	 * keeps the edges streamed, stops after maxCount_p edges.
+	 */
+	private class TourCollector implements EulerTourListenerIntf {
+		java.util.ArrayList pathEdges = new java.util.ArrayList();
+		private int maxCount;
+
+		TourCollector (int maxCount_p) {
+			this.maxCount = maxCount_p;
+		}
+
+		public boolean edgeTraversed (Edge edgeObj_p, Vertex fromVertex_p) {
+			this.pathEdges.add(edgeObj_p);
+			return this.maxCount<0 || this.pathEdges.size()<this.maxCount;
+		}
+	}
+
+	public void testMixedImbalance_100000 () {
+		try {
+			// every undirected edge must be traversed toward the hub, the undirected instances
+			// alone can be directed the other way round
+			int n = 100000;
+			PostmanNetwork graphObj = new PostmanNetwork();
+			for (int i=1; i<=n; i++) {
+				graphObj.addArc(0, i, 1, true).setCount(1);
+				graphObj.addArc(0, i, 1, false).setCount(1);
+			}
+			HierholzerAlgorithm eulerObj = new HierholzerAlgorithm();
+			eulerObj.init(graphObj);
+			long startMillis = System.currentTimeMillis();
+			java.util.List pathEdges = eulerObj.getEulerTour(graphObj.getNode(0));
+			System.out.println ("testMixedImbalance_100000: millis=" + (System.currentTimeMillis()-startMillis));
+			assertEquals (2*n, pathEdges.size());
+			checkTour (graphObj, pathEdges, 0);
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	/*
+	 * checks the path is a closed walk from startVertex_p that traverses every edge exactly its count.
+	 */
+	private void checkTour (Graph graphObj_p, java.util.List pathEdges_p, int startVertex_p) {
+		checkTrail (graphObj_p, pathEdges_p, startVertex_p, startVertex_p);
+	}
+
+	/*
+	 * checks the path is a walk from startVertex_p to endVertex_p that traverses every edge exactly its count.
+	 */
+	private void checkTrail (Graph graphObj_p, java.util.List pathEdges_p, int startVertex_p, int endVertex_p) {
+		java.util.HashMap<Edge, Integer> countList = new java.util.HashMap<Edge, Integer>();
+		Vertex curVertex = graphObj_p.getVertex(startVertex_p);
+		for (int i=0; i<pathEdges_p.size(); i++) {
+			Edge edgeObj = (Edge) pathEdges_p.get(i);
+			if (edgeObj.getFromVertex()==curVertex) curVertex = edgeObj.getToVertex();
+			else {
+				assertTrue (!edgeObj.isDirected() && edgeObj.getToVertex()==curVertex);
+				curVertex = edgeObj.getFromVertex();
+			}
+			Integer count = countList.get(edgeObj);
+			countList.put(edgeObj, Integer.valueOf(count==null? 1: count.intValue()+1));
+		}
+		assertTrue (curVertex==graphObj_p.getVertex(endVertex_p));
+		java.util.ArrayList edgeList = graphObj_p.getEdgeList(true);
+		for (int i=0; i<edgeList.size(); i++) {
+			Edge edgeObj = (Edge) edgeList.get(i);
+			Integer count = countList.get(edgeObj);
+			assertEquals (edgeObj.getCount(), (count==null? 0: count.intValue()));
+		}
+	}
+}
@@ -1,8 +1,13 @@
 package openOptima.testcases;
 
 import junit.framework.TestCase;
+import openOptima.NoSolutionException;
+import openOptima.NotImplementedException;
 import openOptima.network.GraphRandomGenerator;
 import openOptima.network.Network;
+import openOptima.network.postman.LinZhaoAlgorithm;
+import openOptima.network.postman.MinCostFlowPostmanAlgorithm;
+import openOptima.network.postman.PostmanArc;
 import openOptima.network.postman.PostmanNetwork;
 import openOptima.network.postman.PostmanPath;
 import openOptima.network.postman.PostmanProblem;
@@ -219,6 +224,60 @@ public class TestLinZhaoAlgorithm extends TestCase {
 		}
 	}
 
+	public void testOptionalArcs () {
+		PostmanProblem linZhaoOpt = getProblemObj();
+		assertTrue(linZhaoOpt!=null);
+
+		try {
+			// three required cycles joined only by optional arcs
+			PostmanNetwork probObj= new PostmanNetwork();
+			probObj.addArc(1,2,1,true);
+			probObj.addArc(2,1,1,true);
+			probObj.addArc(3,4,1,true);
+			probObj.addArc(4,3,1,true);
+			probObj.addArc(5,6,1,true);
+			probObj.addArc(6,5,1,true);
+			probObj.addArc(2,3,5,true).setMinMaxCount(0, Integer.MAX_VALUE);
+			probObj.addArc(4,5,5,true).setMinMaxCount(0, Integer.MAX_VALUE);
+			probObj.addArc(6,1,5,true).setMinMaxCount(0, Integer.MAX_VALUE);
+			probObj.addArc(1,4,9,true).setMinMaxCount(0, Integer.MAX_VALUE);
+			
+			linZhaoOpt.init(probObj);
+			PostmanPath pathObj = linZhaoOpt.getPostmanPath(1);
+			assertEquals (24, pathObj.getPathDist(), 1e-9);
+			assertEquals (12, pathObj.getPathArcs().size());
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testNotStronglyConnected () {
+		LinZhaoAlgorithm linZhaoOpt = new LinZhaoAlgorithm();
+
+		try {
+			// no way back from node 3
+			PostmanNetwork probObj= new PostmanNetwork();
+			probObj.addArc(1,2,1,true);
+			probObj.addArc(2,1,1,true);
+			probObj.addArc(2,3,1,true);
+			probObj.addArc(3,4,1,true);
+			probObj.addArc(4,3,1,true);
+			
+			linZhaoOpt.init(probObj);
+			linZhaoOpt.getPostmanPath(1);
+			assertTrue(false);
+		}
+		catch (NoSolutionException e) {
+			assertEquals (0, linZhaoOpt.getIterationCount());
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
 	public void testDirected_100x2000 () {
 		try {
 			System.out.println ("generating network...");
@@ -259,4 +318,130 @@ public class TestLinZhaoAlgorithm extends TestCase {
 		}
 	}
 	
+	public void testIncremental_100x2000 () {
+		try {
+			System.out.println ("generating network...");
+			GraphRandomGenerator graphRand = new GraphRandomGenerator();
+			PostmanNetwork graphObj = (PostmanNetwork) graphRand.generate(100,2000,0.0,2,1000);
+			
+			LinZhaoAlgorithm optObj = new LinZhaoAlgorithm();
+			optObj.init(graphObj);
+			double fullDist = optObj.getPostmanPath(2).getPathDist();
+			long fullMillis = optObj.getMillisTook();
+
+			LinZhaoAlgorithm incObj = new LinZhaoAlgorithm();
+			incObj.setIncrementalShortestPath(true);
+			incObj.init(graphObj);
+			double incDist = incObj.getPostmanPath(2).getPathDist();
+			System.out.println ("testIncremental_100x2000: dist=" + incDist + "/" + fullDist + ", elapseMillis=" + incObj.getMillisTook() + "/" + fullMillis + ", iteration=" + incObj.getIterationCount());
+			assertEquals (fullDist, incDist, 0.0);
+			assertEquals (optObj.getIterationCount(), incObj.getIterationCount());
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testDualUpdate_100x2000 () {
+		try {
+			System.out.println ("generating network...");
+			GraphRandomGenerator graphRand = new GraphRandomGenerator();
+			PostmanNetwork graphObj = (PostmanNetwork) graphRand.generate(100,2000,0.0,2,1000);
+			
+			LinZhaoAlgorithm optObj = new LinZhaoAlgorithm();
+			optObj.init(graphObj);
+			double dist = optObj.getPostmanPath(2).getPathDist();
+
+			MinCostFlowPostmanAlgorithm mcfObj = new MinCostFlowPostmanAlgorithm();
+			mcfObj.init(graphObj);
+			double optDist = mcfObj.getPostmanPath(2).getPathDist();
+			System.out.println ("testDualUpdate_100x2000: dist=" + dist + ", optimal=" + optDist + ", elapseMillis=" + optObj.getMillisTook() 
+				+ ", iteration=" + optObj.getIterationCount() + ", millis/iteration=" + (double) optObj.getMillisTook()/optObj.getIterationCount());
+			assertTrue (dist>=optDist - 1e-6);
+			assertTrue (dist<=optDist*1.001);
+			assertTrue (optObj.getMillisTook()<=8000);
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testReoptimize_100x2000 () {
+		try {
+			System.out.println ("generating network...");
+			GraphRandomGenerator graphRand = new GraphRandomGenerator();
+			PostmanNetwork graphObj = (PostmanNetwork) graphRand.generate(100,2000,0.0,2,1000);
+			
+			PostmanProblem probObj = new PostmanProblem ("openOptima.network.postman.LinZhaoAlgorithm");
+			probObj.init(graphObj);
+			probObj.getPostmanPath(2);
+			long fullMillis = probObj.getMillisTook();
+			long fullIterations = probObj.getIterationCount();
+
+			java.util.ArrayList arcList = graphObj.getArcList(true);
+			PostmanArc removeArc1 = (PostmanArc) arcList.get(10);
+			PostmanArc removeArc2 = (PostmanArc) arcList.get(500);
+			PostmanArc updateArc = (PostmanArc) arcList.get(1000);
+			probObj.removeArc(removeArc1);
+			probObj.removeArc(removeArc2);
+			probObj.addArc(3, 7, 5, true);
+			probObj.addArc(40, 41, 800, true);
+			probObj.addArc(77, 12, 250, true);
+			probObj.setMinMaxCount(updateArc, 2, Integer.MAX_VALUE);
+			probObj.setArcDist((PostmanArc) arcList.get(1500), 1);
+
+			double dist = probObj.getPostmanPath(2).getPathDist();
+			
+			arcList = graphObj.getArcList(true);
+			assertFalse (arcList.contains(removeArc1));
+			for (int i=0; i<arcList.size(); i++) {
+				PostmanArc arcObj = (PostmanArc) arcList.get(i);
+				assertTrue (arcObj.getCount()>=arcObj.getMinTraverseCount());
+			}
+			assertTrue (updateArc.getCount()>=2);
+
+			MinCostFlowPostmanAlgorithm mcfObj = new MinCostFlowPostmanAlgorithm();
+			mcfObj.init(graphObj);
+			double optDist = mcfObj.getPostmanPath(2).getPathDist();
+			System.out.println ("testReoptimize_100x2000: dist=" + dist + ", optimal=" + optDist + ", full millis=" + fullMillis
+				+ ", full iteration=" + fullIterations + ", reoptimize millis=" + probObj.getMillisTook() + ", reoptimize iteration=" + probObj.getIterationCount());
+			assertEquals (optDist, dist, 1e-6);
+			assertTrue (probObj.getIterationCount()*10<fullIterations);
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testAddUndirectedArcRejected () {
+		try {
+			PostmanNetwork graphObj = new PostmanNetwork();
+			graphObj.addArc(1, 2, 3, true);
+			graphObj.addArc(2, 3, 4, true);
+			graphObj.addArc(3, 1, 5, true);
+			
+			PostmanProblem probObj = new PostmanProblem ("openOptima.network.postman.LinZhaoAlgorithm");
+			probObj.init(graphObj);
+			double dist = probObj.getPostmanPath(1).getPathDist();
+			
+			try {
+				probObj.addArc(2, 4, 6, false);
+				assertTrue(false);
+			}
+			catch (NotImplementedException e) {
+				System.out.println ("testAddUndirectedArcRejected: " + e.getMessage());
+			}
+			assertEquals (3, graphObj.getArcCount());
+			assertEquals (3, graphObj.getNodeCount());
+			assertNull (graphObj.getNode(4));
+			assertEquals (dist, probObj.getPostmanPath(1).getPathDist(), 0.0);
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
 }
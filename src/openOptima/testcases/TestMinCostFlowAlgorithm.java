@@ -0,0 +1,494 @@
+package openOptima.testcases;
+
+import junit.framework.TestCase;
+import openOptima.graph.Edge;
+import openOptima.graph.Graph;
+import openOptima.graph.GraphIndex;
+import openOptima.graph.Vertex;
+import openOptima.graph.euler.EulerTour;
+import openOptima.graph.euler.EulerTourListenerIntf;
+import openOptima.graph.euler.HierholzerAlgorithm;
+import openOptima.network.GraphRandomGenerator;
+import openOptima.network.Node;
+import openOptima.network.postman.CompactPostmanPath;
+import openOptima.network.postman.IncrementalPostmanAlgorithmIntf;
+import openOptima.network.postman.LinZhaoAlgorithm;
+import openOptima.network.postman.MinCostFlowPostmanAlgorithm;
+import openOptima.network.postman.PostmanAlgorithmIntf;
+import openOptima.network.postman.PostmanArc;
+import openOptima.network.postman.PostmanNetwork;
+import openOptima.network.postman.PostmanPath;
+import openOptima.network.postman.PostmanProblem;
+import openOptima.network.postman.PostmanTourSplitter;
+
+public class TestMinCostFlowAlgorithm extends TestCase {
+	
+	public  TestMinCostFlowAlgorithm () {
+		super();
+	}
+	
+	private PostmanProblem getProblemObj () {
+		try {
+			return new PostmanProblem ("openOptima.network.postman.MinCostFlowPostmanAlgorithm");
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+	
+	public void testCase1 () {
+		PostmanProblem optObj = getProblemObj();
+		assertTrue(optObj!=null);
+		
+		try {
+			// "Test case #1: Direct CPP paper, linZhao"
+			PostmanNetwork probObj= new PostmanNetwork();
+			probObj.addArc(1,2,8.0, true);
+			probObj.addArc(2,4,5.0,true);
+			probObj.addArc(3,2,2,true);
+			probObj.addArc(3,5,3,true);
+			probObj.addArc(4,3,1,true);
+			probObj.addArc(4,5,2,true);
+			probObj.addArc(5,1,5.0, true);
+			probObj.addArc(5,2,7,true);
+	
+			optObj.init(probObj);
+			PostmanPath pathObj = optObj.getPostmanPath(1);
+			checkPath (probObj, pathObj, 1);
+			assertTrue (pathObj.getPathDist()<=44);
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+	
+	public void testOptionalArcs () {
+		PostmanProblem optObj = getProblemObj();
+		assertTrue(optObj!=null);
+		
+		try {
+			// "Test case #5: Direct CPP paper. linZhao", repeat distances and an optional arc
+			PostmanNetwork probObj= new PostmanNetwork();
+			probObj.addArc(1,2,2,true);
+			probObj.addArc(1,5,4,1,true);
+			probObj.addArc(2,3,1,1,true);
+			probObj.addArc(3,4,3,1,true);
+			probObj.addArc(3,5,5,1,true).setMinMaxCount(0, 5);
+			probObj.addArc(4,1,5,2,true);
+			probObj.addArc(5,4,6,1,true);
+
+			optObj.init(probObj);
+			PostmanPath pathObj = optObj.getPostmanPath(1);
+			checkPath (probObj, pathObj, 1);
+			assertTrue (pathObj.getPathDist()<=25);
+
+			// two required cycles joined only by optional arcs
+			probObj= new PostmanNetwork();
+			probObj.addArc(1,2,1,true);
+			probObj.addArc(2,1,1,true);
+			probObj.addArc(3,4,1,true);
+			probObj.addArc(4,3,1,true);
+			probObj.addArc(2,3,5,true).setMinMaxCount(0, Integer.MAX_VALUE);
+			probObj.addArc(4,1,5,true).setMinMaxCount(0, Integer.MAX_VALUE);
+			probObj.addArc(1,4,9,true).setMinMaxCount(0, Integer.MAX_VALUE);
+			optObj.init(probObj);
+			pathObj = optObj.getPostmanPath(1);
+			checkPath (probObj, pathObj, 1);
+			assertEquals (16, pathObj.getPathDist(), 1e-9);
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+	
+	public void testChangedArcs () {
+		PostmanProblem optObj = getProblemObj();
+		assertTrue(optObj!=null);
+		
+		try {
+			// the extra arc 1->2 is repeated back by 2->3->1
+			PostmanNetwork probObj= new PostmanNetwork();
+			probObj.addArc(1,2,1,true);
+			probObj.addArc(2,3,2,true);
+			PostmanArc backArc = probObj.addArc(3,1,3,true);
+			PostmanArc extraArc = probObj.addArc(1,2,2,true);
+			optObj.init(probObj);
+			assertEquals (13, optObj.getPostmanPath(1).getPathDist(), 1e-9);
+			
+			// the cached tour is not returned after the arcs are changed
+			backArc.setRepeatDist(1);
+			assertEquals (11, optObj.getPostmanPath(1).getPathDist(), 1e-9);
+			extraArc.setMinMaxCount(0, 5);
+			PostmanPath pathObj = optObj.getPostmanPath(1);
+			checkPath (probObj, pathObj, 1);
+			assertEquals (6, pathObj.getPathDist(), 1e-9);
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+	
+	public void testDirected_100x2000 () {
+		try {
+			System.out.println ("generating network...");
+			GraphRandomGenerator graphRand = new GraphRandomGenerator();
+			PostmanNetwork graphObj = (PostmanNetwork) graphRand.generate(100,2000,0.0,2,1000);
+			
+			LinZhaoAlgorithm linZhaoObj = new LinZhaoAlgorithm();
+			linZhaoObj.init(graphObj);
+			double linZhaoDist = linZhaoObj.getPostmanPath(2).getPathDist();
+
+			MinCostFlowPostmanAlgorithm optObj = new MinCostFlowPostmanAlgorithm();
+			optObj.init(graphObj);
+			PostmanPath pathObj = optObj.getPostmanPath(2);
+			checkPath (graphObj, pathObj, 2);
+			System.out.println ("testDirected_100x2000: dist=" + pathObj.getPathDist() + "/" + linZhaoDist + ", elapseMillis=" + optObj.getMillisTook() + "/" + linZhaoObj.getMillisTook());
+			assertTrue (pathObj.getPathDist()<=linZhaoDist + 1e-6);
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testDirected_200x10000 () {
+		try {
+			System.out.println ("generating network...");
+			GraphRandomGenerator graphRand = new GraphRandomGenerator();
+			PostmanNetwork graphObj = (PostmanNetwork) graphRand.generate(200,10000,0.0,2,1000);
+			
+			System.out.println ("started execution ...");
+			PostmanProblem optObj = getProblemObj();
+			optObj.init(graphObj);
+			PostmanPath pathObj = optObj.getPostmanPath(2);
+			checkPath (graphObj, pathObj, 2);
+			System.out.println ("testDirected_200x10000: elapseMillis=" + optObj.getMillisTook() + ", iteration=" + optObj.getIterationCount());
+			assertTrue (optObj.getMillisTook()<=5000);
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testPostmen_100x2000 () {
+		try {
+			GraphRandomGenerator graphRand = new GraphRandomGenerator();
+			PostmanNetwork graphObj = (PostmanNetwork) graphRand.generate(100,2000,0.0,2,1000);
+			
+			PostmanProblem optObj = getProblemObj();
+			optObj.init(graphObj);
+			double tourDist = optObj.getPostmanPath(2).getPathDist();
+			for (int n=2; n<=8; n*=2) {
+				PostmanPath [] pathList = optObj.getPostmanPaths(2, n);
+				assertEquals (n, pathList.length);
+				java.util.HashMap<PostmanArc, Integer> countList = new java.util.HashMap<PostmanArc, Integer>();
+				double maxDist = 0, totalDist = 0;
+				for (int i=0; i<pathList.length; i++) {
+					java.util.ArrayList pathArcs = pathList[i].getPathArcs();
+					Node curNode = graphObj.getNode(2);
+					for (int j=0; j<pathArcs.size(); j++) {
+						PostmanArc arcObj = (PostmanArc) pathArcs.get(j);
+						assertTrue (arcObj.getFromNode()==curNode);
+						curNode = arcObj.getToNode();
+						Integer count = countList.get(arcObj);
+						countList.put(arcObj, Integer.valueOf(count==null? 1: count.intValue()+1));
+					}
+					assertTrue (curNode==graphObj.getNode(2));
+					maxDist = Math.max(maxDist, pathList[i].getPathDist());
+					totalDist += pathList[i].getPathDist();
+				}
+				java.util.ArrayList arcList = graphObj.getArcList(true);
+				for (int i=0; i<arcList.size(); i++) {
+					PostmanArc arcObj = (PostmanArc) arcList.get(i);
+					Integer count = countList.get(arcObj);
+					assertTrue (arcObj.getMinTraverseCount()<=(count==null? 0: count.intValue()));
+				}
+				System.out.println ("testPostmen_100x2000: n=" + n + ", maxDist=" + maxDist + ", avgDist=" + totalDist/n + ", tourDist=" + tourDist);
+				assertTrue (totalDist>=tourDist);
+				assertTrue (maxDist<=1.1*totalDist/n);
+			}
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testPostmenRepeat_60x600 () {
+		try {
+			GraphRandomGenerator graphRand = new GraphRandomGenerator();
+			PostmanNetwork graphObj = (PostmanNetwork) graphRand.generate(60,600,0.0,2,1000);
+			java.util.ArrayList arcList = graphObj.getArcList(true);
+			for (int i=0; i<arcList.size(); i++) {
+				PostmanArc arcObj = (PostmanArc) arcList.get(i);
+				arcObj.setRepeatDist(0.1 * arcObj.getDist());
+			}
+			
+			PostmanProblem optObj = getProblemObj();
+			optObj.init(graphObj);
+			PostmanPath tourObj = optObj.getPostmanPath(2);
+			PostmanTourSplitter splitterObj = new PostmanTourSplitter (graphObj);
+			for (int n=2; n<=8; n*=2) {
+				PostmanPath [] pathList = splitterObj.split(tourObj, 2, n);
+				assertEquals (n, pathList.length);
+				double maxDist = 0, minDist = Double.POSITIVE_INFINITY;
+				for (int i=0; i<pathList.length; i++) {
+					java.util.ArrayList pathArcs = pathList[i].getPathArcs();
+					Node curNode = graphObj.getNode(2);
+					for (int j=0; j<pathArcs.size(); j++) {
+						PostmanArc arcObj = (PostmanArc) pathArcs.get(j);
+						assertTrue (arcObj.getFromNode()==curNode);
+						curNode = arcObj.getToNode();
+					}
+					assertTrue (curNode==graphObj.getNode(2));
+					maxDist = Math.max(maxDist, pathList[i].getPathDist());
+					minDist = Math.min(minDist, pathList[i].getPathDist());
+				}
+				System.out.println ("testPostmenRepeat_60x600: n=" + n + ", maxDist=" + maxDist + ", minDist=" + minDist + ", tourDist=" + tourObj.getPathDist());
+				assertEquals (maxDist, splitterObj.getMaxDist(), 1e-6);
+				assertEquals (minDist, splitterObj.getMinDist(), 1e-6);
+			}
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testStream_100x2000 () {
+		try {
+			GraphRandomGenerator graphRand = new GraphRandomGenerator();
+			PostmanNetwork graphObj = (PostmanNetwork) graphRand.generate(100,2000,0.0,2,1000);
+
+			PostmanProblem optObj = getProblemObj();
+			optObj.init(graphObj);
+			final java.util.ArrayList pathArcs = new java.util.ArrayList();
+			long arcCount = optObj.streamPostmanPath(2, new EulerTourListenerIntf () {
+				public boolean edgeTraversed (Edge edgeObj_p, Vertex fromVertex_p) {
+					pathArcs.add(edgeObj_p);
+					return true;
+				}
+			});
+			PostmanPath pathObj = new PostmanPath();
+			pathObj.setPathArcs(pathArcs);
+			checkPath (graphObj, pathObj, 2);
+			assertEquals (pathArcs.size(), arcCount);
+			assertEquals (optObj.getPostmanPath(2).getPathDist(), pathObj.getPathDist(), 1e-6);
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testCompactPath_200x10000 () {
+		try {
+			GraphRandomGenerator graphRand = new GraphRandomGenerator();
+			PostmanNetwork graphObj = (PostmanNetwork) graphRand.generate(200,10000,0.0,2,1000);
+
+			PostmanProblem optObj = getProblemObj();
+			optObj.init(graphObj);
+			PostmanPath pathObj = optObj.getPostmanPath(2);
+			GraphIndex idx = new GraphIndex (graphObj, true);
+			CompactPostmanPath compactObj = new CompactPostmanPath (idx, pathObj);
+			assertEquals (pathObj.getPathArcs().size(), compactObj.size());
+			assertEquals (pathObj.getPathArcs(), compactObj.getPathArcs());
+			assertEquals (pathObj.getPathDist(), compactObj.getPathDist(), 1e-6);
+			assertEquals (graphObj.getArcList(true).size(), compactObj.getArcCount());
+			assertTrue (compactObj.getRepeatDist()>0);
+			System.out.println ("testCompactPath_200x10000: " + compactObj.size() + " steps in " + compactObj.getEncodedSize() + " bytes");
+			assertTrue (compactObj.getEncodedSize()<3*compactObj.size());
+
+			// built while the tour is streamed
+			CompactPostmanPath streamedObj = new CompactPostmanPath (idx, graphObj.getNode(2));
+			optObj.streamPostmanPath(2, streamedObj);
+			streamedObj.trimToSize();
+			checkPath (graphObj, streamedObj.toPostmanPath(), 2);
+			assertEquals (pathObj.getPathDist(), streamedObj.getPathDist(), 1e-6);
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testCompactPath_undirected () {
+		try {
+			PostmanNetwork graphObj = new PostmanNetwork();
+			PostmanArc arc12 = graphObj.addArc(1,2,4,false);
+			PostmanArc arc23 = graphObj.addArc(2,3,2,true);
+			PostmanArc arc31 = graphObj.addArc(3,1,3,false);
+			arc12.setRepeatDist(1);
+			arc31.setReverseDist(5, 5);
+			java.util.ArrayList pathArcs = new java.util.ArrayList();
+			pathArcs.add(arc12);
+			pathArcs.add(arc23);
+			pathArcs.add(arc31);
+			pathArcs.add(arc31);
+			pathArcs.add(arc31);
+			pathArcs.add(arc12);
+			pathArcs.add(arc12);
+			PostmanPath pathObj = new PostmanPath();
+			pathObj.setPathArcs(pathArcs);
+
+			CompactPostmanPath compactObj = new CompactPostmanPath (new GraphIndex (graphObj, true), pathObj);
+			assertEquals (pathObj.getPathDist(), compactObj.getPathDist(), 1e-6);
+			assertEquals (4+2+3, compactObj.getFirstDist(), 1e-6);
+			assertEquals (5+3+1+1, compactObj.getRepeatDist(), 1e-6);
+			assertEquals (3, compactObj.getArcCount());
+			assertTrue (compactObj.getPathStartNode()==graphObj.getNode(1));
+			int [] halfs = compactObj.getHalfs();
+			assertEquals (7, halfs.length);
+			assertEquals (1, halfs[3] & 1);
+			assertEquals (pathArcs, compactObj.getPathArcs());
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testBudget_200x10000 () {
+		try {
+			GraphRandomGenerator graphRand = new GraphRandomGenerator();
+			PostmanNetwork graphObj = (PostmanNetwork) graphRand.generate(200,10000,0.0,2,1000);
+
+			PostmanProblem optObj = getProblemObj();
+			optObj.init(graphObj);
+			double optDist = optObj.getPostmanPath(2).getPathDist();
+			long optIterations = optObj.getIterationCount();
+			assertTrue (!optObj.isBudgetExhausted());
+			assertTrue (optObj.getOptimalityGap()<1e-6);
+
+			optObj.setBudget(0, optIterations / 4);
+			optObj.init(graphObj);
+			PostmanPath pathObj = optObj.getPostmanPath(2);
+			checkPath (graphObj, pathObj, 2);
+			double gap = optObj.getOptimalityGap();
+			System.out.println ("testBudget_200x10000: dist=" + pathObj.getPathDist() + "/" + optDist + ", iteration=" + optObj.getIterationCount() + "/" + optIterations + ", gap=" + gap);
+			assertTrue (optObj.isBudgetExhausted());
+			assertTrue (optObj.getIterationCount()<=optIterations / 4);
+			assertTrue (pathObj.getPathDist()>=optDist - 1e-6);
+			// the lower bound must not exceed the optimal tour
+			assertTrue ((1-gap)*pathObj.getPathDist()<=optDist + 1e-6);
+			assertTrue (gap<0.5);
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testBudgetSubGraphs () {
+		try {
+			// a ring of required 2-cycles joined only by optional arcs
+			PostmanNetwork graphObj = new PostmanNetwork();
+			int cycleCount = 30;
+			for (int k=0; k<cycleCount; k++) {
+				int a = 2*k+1, b = 2*k+2, c = (2*k+3-1)%(2*cycleCount)+1;
+				graphObj.addArc(a,b,1,true);
+				graphObj.addArc(b,a,1,true);
+				graphObj.addArc(b,c,5,true).setMinMaxCount(0, Integer.MAX_VALUE);
+				graphObj.addArc(c,b,5,true).setMinMaxCount(0, Integer.MAX_VALUE);
+			}
+
+			PostmanProblem optObj = getProblemObj();
+			optObj.init(graphObj);
+			double optDist = optObj.getPostmanPath(1).getPathDist();
+			assertTrue (!optObj.isBudgetExhausted());
+
+			// the budget is used up by the first search, the subgraphs are joined in one pass
+			optObj.setBudget(0, 1);
+			optObj.init(graphObj);
+			PostmanPath pathObj = optObj.getPostmanPath(1);
+			checkPath (graphObj, pathObj, 1);
+			System.out.println ("testBudgetSubGraphs: dist=" + pathObj.getPathDist() + "/" + optDist);
+			assertTrue (optObj.isBudgetExhausted());
+			assertTrue (pathObj.getPathDist()>=optDist - 1e-6);
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	/**
+	 * Hierholzer algorithm that counts the graphs it is initialized with.
+	 */
+	public static class CountingEulerAlgorithm extends HierholzerAlgorithm {
+		public static int initCount = 0;
+		public void init (Graph graphObj_p) {
+			initCount++;
+			super.init(graphObj_p);
+		}
+	}
+
+	public void testCachedTour_100x2000 () {
+		try {
+			GraphRandomGenerator graphRand = new GraphRandomGenerator();
+			PostmanNetwork graphObj = (PostmanNetwork) graphRand.generate(100,2000,0.0,2,1000);
+			MinCostFlowPostmanAlgorithm mcfObj = new MinCostFlowPostmanAlgorithm();
+			mcfObj.setEulerAlgorithm(CountingEulerAlgorithm.class.getName());
+			LinZhaoAlgorithm linZhaoObj = new LinZhaoAlgorithm();
+			linZhaoObj.setEulerAlgorithm(CountingEulerAlgorithm.class.getName());
+			PostmanAlgorithmIntf [] algorithms = {mcfObj, linZhaoObj};
+			for (int k=0; k<algorithms.length; k++) {
+				PostmanAlgorithmIntf optObj = algorithms[k];
+				optObj.init(graphObj);
+				CountingEulerAlgorithm.initCount = 0;
+				
+				PostmanPath pathObj1 = optObj.getPostmanPath(1);
+				PostmanPath pathObj2 = optObj.getPostmanPath(50);
+				assertEquals (1, CountingEulerAlgorithm.initCount);
+				assertTrue (pathObj2.getPathArcList() instanceof EulerTour);
+				// the array list accessor still hands out a list the caller may change
+				java.util.ArrayList pathArcs = pathObj2.getPathArcs();
+				assertEquals (pathObj2.getPathArcList(), pathArcs);
+				pathArcs.add(pathArcs.get(0));
+				pathArcs.remove(pathArcs.size()-1);
+				checkPath (graphObj, pathObj1, 1);
+				checkPath (graphObj, pathObj2, 50);
+				assertEquals (pathObj1.getPathDist(), pathObj2.getPathDist(), 1e-6);
+				
+				// a changed network is optimized again and gets a new tour
+				PostmanArc arcObj = (PostmanArc) graphObj.getArcList(true).get(0);
+				arcObj.setDist(arcObj.getDist()+1);
+				if (optObj instanceof IncrementalPostmanAlgorithmIntf) ((IncrementalPostmanAlgorithmIntf) optObj).arcUpdated(arcObj);
+				checkPath (graphObj, optObj.getPostmanPath(50), 50);
+				assertEquals (2, CountingEulerAlgorithm.initCount);
+			}
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	/*
+	 * checks the path is a closed walk from fromNode_p that traverses every arc at least its min count.
+	 */
+	private void checkPath (PostmanNetwork graphObj_p, PostmanPath pathObj_p, int fromNode_p) {
+		java.util.ArrayList pathArcs = pathObj_p.getPathArcs();
+		java.util.HashMap<PostmanArc, Integer> countList = new java.util.HashMap<PostmanArc, Integer>();
+		Node curNode = graphObj_p.getNode(fromNode_p);
+		for (int i=0; i<pathArcs.size(); i++) {
+			PostmanArc arcObj = (PostmanArc) pathArcs.get(i);
+			assertTrue (arcObj.getFromNode()==curNode);
+			curNode = arcObj.getToNode();
+			Integer count = countList.get(arcObj);
+			countList.put(arcObj, Integer.valueOf(count==null? 1: count.intValue()+1));
+		}
+		assertTrue (curNode==graphObj_p.getNode(fromNode_p));
+		java.util.ArrayList arcList = graphObj_p.getArcList(true);
+		for (int i=0; i<arcList.size(); i++) {
+			PostmanArc arcObj = (PostmanArc) arcList.get(i);
+			Integer count = countList.get(arcObj);
+			assertTrue (arcObj.getMinTraverseCount()<=(count==null? 0: count.intValue()));
+		}
+	}
+}
@@ -3,7 +3,11 @@ package openOptima.testcases;
 import java.sql.DriverManager;
 
 import junit.framework.TestCase;
+import openOptima.reader.ArcListenerIntf;
+import openOptima.reader.ArcSchema;
+import openOptima.reader.ArcTable;
 import openOptima.reader.ProblemReader;
+import openOptima.reader.ReaderInterruptedException;
 import openOptima.reader.ReaderListenerIntf;
 
 public class TestReaders extends TestCase implements ReaderListenerIntf {
@@ -87,4 +91,186 @@ public class TestReaders extends TestCase implements ReaderListenerIntf {
 
 	
 	
+	public void testReaderMappedFile () throws Exception {
+		System.out.println ("\n\ntestReaderMappedFile...");
+		java.io.File fileObj = java.io.File.createTempFile("arcs", ".csv");
+		fileObj.deleteOnExit();
+		java.io.PrintWriter out = new java.io.PrintWriter(fileObj);
+		out.print("// arcs in the columns out of order\r\n");
+		out.print("distance, source ,target,isDirected\r\n");
+		out.print("10,1,2,Y\r\n");
+		out.print("\r\n");
+		out.print(" 56.25 , 2, 3 ,N\r\n");
+		out.print("-0.1,3,5,1\r\n");
+		out.print("1.5e3,4,-5,n\n");
+		out.print("0.30000000000000004,4,2,y");
+		out.close();
+
+		final java.util.ArrayList<String []> rows = new java.util.ArrayList<String []>();
+		ProblemReader.execReadFileText(fileObj.getPath(), ",", new ReaderListenerIntf () {
+			public boolean processLine (java.util.HashMap fields_p) {
+				rows.add(new String [] {(String) fields_p.get("source"), (String) fields_p.get("target"),
+					(String) fields_p.get("distance"), (String) fields_p.get("isDirected")});
+				return true;
+			}
+		});
+		ArcTable tableObj = ProblemReader.execReadMappedFile(fileObj.getPath(), ",");
+		assertEquals(5, tableObj.size());
+		assertEquals(rows.size(), tableObj.size());
+		for (int i=0; i<tableObj.size(); i++) {
+			String [] row = rows.get(i);
+			assertEquals(Integer.parseInt(row[0]), tableObj.getSource(i));
+			assertEquals(Integer.parseInt(row[1]), tableObj.getTarget(i));
+			assertEquals(Double.doubleToLongBits(Double.parseDouble(row[2])), Double.doubleToLongBits(tableObj.getDistance(i)));
+			assertEquals(row[3].equalsIgnoreCase("Y") || row[3].equals("1"), tableObj.isDirected(i));
+		}
+		assertEquals(-5, tableObj.getTarget(3));
+		assertEquals(1500.0, tableObj.getDistance(3), 0.0);
+	}
+
+	public void testReaderMappedFile_1000000 () throws Exception {
+		System.out.println ("\n\ntestReaderMappedFile_1000000...");
+		java.io.File fileObj = java.io.File.createTempFile("arcs", ".csv");
+		fileObj.deleteOnExit();
+		java.io.PrintWriter out = new java.io.PrintWriter(new java.io.BufferedWriter(new java.io.FileWriter(fileObj)));
+		out.println("source,target,distance,isDirected");
+		java.util.Random rand = new java.util.Random(7);
+		for (int i=0; i<1000000; i++) {
+			out.println((rand.nextInt(100000)+1) + "," + (rand.nextInt(100000)+1) + "," + (rand.nextInt(100000)/100.0) + "," + (rand.nextBoolean()?"Y":"N"));
+		}
+		out.close();
+
+		final double [] textSum = new double [1];
+		final int [] textCount = new int [1];
+		long start = System.currentTimeMillis();
+		ProblemReader.execReadFileText(fileObj.getPath(), ",", new ReaderListenerIntf () {
+			public boolean processLine (java.util.HashMap fields_p) {
+				textSum[0] += Integer.parseInt((String) fields_p.get("source")) + Double.parseDouble((String) fields_p.get("distance"));
+				textCount[0]++;
+				return true;
+			}
+		});
+		long textMillis = System.currentTimeMillis() - start;
+
+		start = System.currentTimeMillis();
+		ArcTable tableObj = ProblemReader.execReadMappedFile(fileObj.getPath(), ",");
+		long mappedMillis = System.currentTimeMillis() - start;
+		double mappedSum = 0;
+		for (int i=0; i<tableObj.size(); i++) mappedSum += tableObj.getSource(i) + tableObj.getDistance(i);
+
+		start = System.currentTimeMillis();
+		ArcTable parallelTable = ProblemReader.execReadParallelFile(fileObj.getPath(), ",", ArcSchema.defaultSchema, 4);
+		long parallelMillis = System.currentTimeMillis() - start;
+		System.out.println ("text reader: " + textMillis + " ms, mapped reader: " + mappedMillis + " ms, parallel reader (4 threads): "
+			+ parallelMillis + " ms, " + fileObj.length() + " bytes");
+		assertEquals(textCount[0], tableObj.size());
+		assertEquals(textSum[0], mappedSum, 0.0);
+		assertEquals(tableObj.size(), parallelTable.size());
+		for (int i=0; i<tableObj.size(); i++) {
+			assertEquals(tableObj.getSource(i), parallelTable.getSource(i));
+			assertEquals(tableObj.getTarget(i), parallelTable.getTarget(i));
+		}
+	}
+
+	public void testReaderArcListener () throws Exception {
+		System.out.println ("\n\ntestReaderArcListener...");
+		String text = "// typed reader\nsource,target,distance,isDirected\n1,2,10,Y\n2,3,5.5,N\n\n3,1,7,1\n";
+		ArcTable stringTable = new ArcTable(4);
+		assertEquals(3, ProblemReader.execReadString(text, ",", ArcSchema.defaultSchema, stringTable));
+		ArcTable streamTable = new ArcTable(4);
+		assertEquals(3, ProblemReader.execReadStream(new java.io.ByteArrayInputStream(text.getBytes("UTF-8")), ",", 
+			ArcSchema.defaultSchema, streamTable));
+		ArcTable regexTable = new ArcTable(4);
+		assertEquals(3, ProblemReader.execReadString(text.replace(',', ';'), "\\s*;\\s*", ArcSchema.defaultSchema, regexTable));
+		ArcTable [] tables = {stringTable, streamTable, regexTable};
+		for (int t=0; t<tables.length; t++) {
+			assertEquals(3, tables[t].size());
+			assertEquals(2, tables[t].getSource(1));
+			assertEquals(3, tables[t].getTarget(1));
+			assertEquals(5.5, tables[t].getDistance(1), 0.0);
+			assertTrue(tables[t].isDirected(0));
+			assertFalse(tables[t].isDirected(1));
+			assertTrue(tables[t].isDirected(2));
+		}
+
+		// own column labels, no directed column
+		ArcSchema schemaObj = new ArcSchema ("from", "to", "cost", null);
+		ArcTable schemaTable = new ArcTable(4);
+		ProblemReader.execReadString("cost\tto\tfrom\n2.5\t8\t9\n", "\t", schemaObj, schemaTable);
+		assertEquals(1, schemaTable.size());
+		assertEquals(9, schemaTable.getSource(0));
+		assertEquals(8, schemaTable.getTarget(0));
+		assertEquals(2.5, schemaTable.getDistance(0), 0.0);
+		assertFalse(schemaTable.isDirected(0));
+
+		// listener stops the reader
+		final int [] count = new int [1];
+		try {
+			ProblemReader.execReadString(text, ",", ArcSchema.defaultSchema, new ArcListenerIntf () {
+				public boolean arcRead (int source_p, int target_p, double distance_p, boolean directed_p) {
+					return ++count[0]<2;
+				}
+			});
+			fail("reader not interrupted");
+		}
+		catch (ReaderInterruptedException e) {
+			assertEquals(2, count[0]);
+		}
+
+		try {
+			ProblemReader.execReadString("source,target,distance\n1,x,3\n", ",", ArcSchema.defaultSchema, new ArcTable(4));
+			fail("invalid integer accepted");
+		}
+		catch (ReaderInterruptedException e) {
+			assertTrue(e.getMessage().indexOf("line 2")>0);
+		}
+	}
+
+	public void testReaderParallelFile () throws Exception {
+		System.out.println ("\n\ntestReaderParallelFile...");
+		java.io.File fileObj = java.io.File.createTempFile("arcs", ".csv");
+		fileObj.deleteOnExit();
+		java.io.PrintWriter out = new java.io.PrintWriter(new java.io.BufferedWriter(new java.io.FileWriter(fileObj)));
+		out.print("// comment before the labels\r\n\r\nisDirected,distance,target,source\r\n");
+		java.util.Random rand = new java.util.Random(11);
+		for (int i=0; i<300000; i++) {
+			if (i%997==0) out.print("// comment " + i + "\n");
+			if (i%1999==0) out.print("   \n");
+			StringBuffer pad = new StringBuffer();
+			for (int k=rand.nextInt(5)*rand.nextInt(5)*rand.nextInt(5); k>0; k--) pad.append(' ');
+			out.print((rand.nextBoolean()?"Y":"N") + "," + pad + (rand.nextInt(100000)/100.0) + "," + i + "," + rand.nextInt(5000) 
+				+ (rand.nextBoolean()? "\r\n": "\n"));
+		}
+		out.print("Y,1,0,0");
+		out.close();
+
+		ArcTable mappedTable = ProblemReader.execReadMappedFile(fileObj.getPath(), ",");
+		assertEquals(300001, mappedTable.size());
+		for (int threadCount=1; threadCount<=8; threadCount*=2) {
+			ArcTable parallelTable = ProblemReader.execReadParallelFile(fileObj.getPath(), ",", ArcSchema.defaultSchema, threadCount);
+			assertEquals(mappedTable.size(), parallelTable.size());
+			for (int i=0; i<mappedTable.size(); i++) {
+				assertEquals(mappedTable.getSource(i), parallelTable.getSource(i));
+				assertEquals(mappedTable.getTarget(i), parallelTable.getTarget(i));
+				assertEquals(mappedTable.getDistance(i), parallelTable.getDistance(i), 0.0);
+				assertEquals(mappedTable.isDirected(i), parallelTable.isDirected(i));
+			}
+		}
+		for (int i=0; i<300000; i++) assertEquals(i, mappedTable.getTarget(i));
+
+		try {
+			java.io.PrintWriter badOut = new java.io.PrintWriter(fileObj);
+			badOut.print("source,target,distance\n");
+			for (int i=0; i<200000; i++) badOut.print(i + "," + (i+1) + "," + (i==150000? "x": "1") + "\n");
+			badOut.close();
+			ProblemReader.execReadParallelFile(fileObj.getPath(), ",", ArcSchema.defaultSchema, 4);
+			fail("invalid distance accepted");
+		}
+		catch (ReaderInterruptedException e) {
+			System.out.println (e.getMessage());
+			// the label line and the lines of data 0 .. 150000
+			assertTrue (e.getMessage().startsWith("ReaderParallelFile parsing data error at line 150002: "));
+		}
+	}
+
 }
@@ -0,0 +1,152 @@
+package openOptima.testcases;
+
+import junit.framework.TestCase;
+import openOptima.network.Node;
+import openOptima.network.postman.MinCostFlowPostmanAlgorithm;
+import openOptima.network.postman.PostmanArc;
+import openOptima.network.postman.PostmanNetwork;
+import openOptima.network.postman.PostmanPath;
+import openOptima.network.postman.PostmanProblem;
+import openOptima.network.postman.RuralPostmanAlgorithm;
+
+public class TestRuralPostmanAlgorithm extends TestCase {
+	
+	public  TestRuralPostmanAlgorithm () {
+		super();
+	}
+	
+	private PostmanProblem getProblemObj () {
+		try {
+			return new PostmanProblem ("openOptima.network.postman.RuralPostmanAlgorithm");
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+	
+	public void testOptionalArcs () {
+		PostmanProblem optObj = getProblemObj();
+		assertTrue(optObj!=null);
+		
+		try {
+			// two required cycles joined only by optional arcs
+			PostmanNetwork probObj= new PostmanNetwork();
+			probObj.addArc(1,2,1,true);
+			probObj.addArc(2,1,1,true);
+			probObj.addArc(3,4,1,true);
+			probObj.addArc(4,3,1,true);
+			probObj.addArc(2,3,5,true).setMinMaxCount(0, Integer.MAX_VALUE);
+			probObj.addArc(4,1,5,true).setMinMaxCount(0, Integer.MAX_VALUE);
+			probObj.addArc(1,4,9,true).setMinMaxCount(0, Integer.MAX_VALUE);
+			optObj.init(probObj);
+			PostmanPath pathObj = optObj.getPostmanPath(1);
+			checkPath (probObj, pathObj, 1);
+			assertEquals (16, pathObj.getPathDist(), 1e-9);
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+	
+	public void testMaxCount () {
+		PostmanProblem optObj = getProblemObj();
+		assertTrue(optObj!=null);
+		
+		try {
+			// the cheapest arc between the required cycles may not be traversed
+			PostmanNetwork probObj= new PostmanNetwork();
+			probObj.addArc(1,2,1,true);
+			probObj.addArc(2,1,1,true);
+			probObj.addArc(3,4,1,true);
+			probObj.addArc(4,3,1,true);
+			PostmanArc blockedArc = probObj.addArc(2,3,1,true);
+			blockedArc.setMinMaxCount(0, 0);
+			probObj.addArc(2,5,2,true).setMinMaxCount(0, Integer.MAX_VALUE);
+			probObj.addArc(5,3,2,true).setMinMaxCount(0, Integer.MAX_VALUE);
+			probObj.addArc(4,1,5,true).setMinMaxCount(0, Integer.MAX_VALUE);
+			optObj.init(probObj);
+			PostmanPath pathObj = optObj.getPostmanPath(1);
+			checkPath (probObj, pathObj, 1);
+			assertEquals (15, pathObj.getPathDist(), 1e-9);
+			assertFalse (pathObj.getPathArcs().contains(blockedArc));
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+	
+	public void testGrid_100x100 () {
+		try {
+			// optional arcs both ways on a grid, required arcs in short pieces scattered over it
+			int k = 100;
+			java.util.Random randObj = new java.util.Random(3);
+			PostmanNetwork graphObj = new PostmanNetwork();
+			for (int i=0; i<k; i++) {
+				for (int j=0; j<k; j++) {
+					int v = i*k + j + 1;
+					if (j+1<k) {
+						graphObj.addArc(v, v+1, 1+randObj.nextInt(9), true).setMinMaxCount(0, Integer.MAX_VALUE);
+						graphObj.addArc(v+1, v, 1+randObj.nextInt(9), true).setMinMaxCount(0, Integer.MAX_VALUE);
+					}
+					if (i+1<k) {
+						graphObj.addArc(v, v+k, 1+randObj.nextInt(9), true).setMinMaxCount(0, Integer.MAX_VALUE);
+						graphObj.addArc(v+k, v, 1+randObj.nextInt(9), true).setMinMaxCount(0, Integer.MAX_VALUE);
+					}
+				}
+			}
+			int startNode = -1;
+			for (int c=0; c<400; c++) {
+				int v = randObj.nextInt(k-1)*k + randObj.nextInt(k-1) + 1;
+				if (startNode<0) startNode = v;
+				graphObj.addArc(v, v+1, 5, true);
+				graphObj.addArc(v+1, v+1+k, 5, true);
+			}
+
+			MinCostFlowPostmanAlgorithm mcfObj = new MinCostFlowPostmanAlgorithm();
+			mcfObj.init(graphObj);
+			double mcfDist = mcfObj.getPostmanPath(startNode).getPathDist();
+
+			RuralPostmanAlgorithm optObj = new RuralPostmanAlgorithm();
+			optObj.init(graphObj);
+			PostmanPath pathObj = optObj.getPostmanPath(startNode);
+			checkPath (graphObj, pathObj, startNode);
+			System.out.println ("testGrid_100x100: dist=" + pathObj.getPathDist() + "/" + mcfDist + ", elapseMillis=" + optObj.getMillisTook() + "/" + mcfObj.getMillisTook() 
+					+ ", iteration=" + optObj.getIterationCount() + "/" + mcfObj.getIterationCount() + ", components=" + optObj.getComponentCount());
+			assertTrue (optObj.getComponentCount()>1);
+			assertTrue (optObj.getIterationCount()<mcfObj.getIterationCount());
+			assertTrue (pathObj.getPathDist()<=1.1*mcfDist);
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	/*
+	 * checks the path is a closed walk from fromNode_p that traverses every arc at least its min
+	 * count and at most its max count.
+	 */
+	private void checkPath (PostmanNetwork graphObj_p, PostmanPath pathObj_p, int fromNode_p) {
+		java.util.ArrayList pathArcs = pathObj_p.getPathArcs();
+		java.util.HashMap<PostmanArc, Integer> countList = new java.util.HashMap<PostmanArc, Integer>();
+		Node curNode = graphObj_p.getNode(fromNode_p);
+		for (int i=0; i<pathArcs.size(); i++) {
+			PostmanArc arcObj = (PostmanArc) pathArcs.get(i);
+			assertTrue (arcObj.getFromNode()==curNode);
+			curNode = arcObj.getToNode();
+			Integer count = countList.get(arcObj);
+			countList.put(arcObj, Integer.valueOf(count==null? 1: count.intValue()+1));
+		}
+		assertTrue (curNode==graphObj_p.getNode(fromNode_p));
+		java.util.ArrayList arcList = graphObj_p.getArcList(true);
+		for (int i=0; i<arcList.size(); i++) {
+			PostmanArc arcObj = (PostmanArc) arcList.get(i);
+			Integer count = countList.get(arcObj);
+			assertTrue (arcObj.getMinTraverseCount()<=(count==null? 0: count.intValue()));
+			assertTrue (arcObj.getMaxTraverseCount()>=(count==null? 0: count.intValue()));
+		}
+	}
+}
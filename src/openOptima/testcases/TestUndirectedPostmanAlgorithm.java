@@ -0,0 +1,391 @@
+package openOptima.testcases;
+
+import junit.framework.TestCase;
+import openOptima.graph.matching.MatchingProblem;
+import openOptima.network.GraphRandomGenerator;
+import openOptima.network.Node;
+import openOptima.network.postman.MinCostFlowPostmanAlgorithm;
+import openOptima.network.postman.MixedPostmanAlgorithm;
+import openOptima.network.postman.PostmanArc;
+import openOptima.network.postman.PostmanNetwork;
+import openOptima.network.postman.PostmanPath;
+import openOptima.network.postman.PostmanProblem;
+import openOptima.network.postman.PostmanTourSplitter;
+import openOptima.network.postman.UndirectedPostmanAlgorithm;
+
+public class TestUndirectedPostmanAlgorithm extends TestCase {
+	
+	public  TestUndirectedPostmanAlgorithm () {
+		super();
+	}
+	
+	private PostmanProblem getProblemObj (String algorithmClass_p) {
+		try {
+			return new PostmanProblem (algorithmClass_p);
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+	
+	public void testMatching () {
+		try {
+			java.util.Random randObj = new java.util.Random(17);
+			for (int iteration=0; iteration<500; iteration++) {
+				int n = 2*(1+randObj.nextInt(5));
+				double [][] dist = new double [n][n];
+				for (int i=0; i<n; i++) {
+					for (int j=i+1; j<n; j++) {
+						dist[i][j] = dist[j][i] = (iteration%2==0)? randObj.nextInt(50): randObj.nextInt(5000)/7.0;
+					}
+				}
+				int [] mate = MatchingProblem.minWeightPerfectMatching(dist);
+				double total = 0;
+				for (int i=0; i<n; i++) {
+					assertEquals (i, mate[mate[i]]);
+					if (i<mate[i]) total += dist[i][mate[i]];
+				}
+				assertEquals (bruteForceMatching(dist, new boolean [n]), total, 1e-4);
+			}
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+	
+	public void testUndirected () {
+		PostmanProblem optObj = getProblemObj("openOptima.network.postman.UndirectedPostmanAlgorithm");
+		assertTrue(optObj!=null);
+		
+		try {
+			// odd nodes 2 and 4, shortest path 2-1-3-4 or 2-4 of 6
+			PostmanNetwork probObj= new PostmanNetwork();
+			probObj.addArc(1,2,3,false);
+			probObj.addArc(1,3,1,false);
+			probObj.addArc(2,3,5,false);
+			probObj.addArc(2,4,6,false);
+			probObj.addArc(3,4,2,false);
+			probObj.addArc(3,5,7,false);
+			probObj.addArc(4,5,3,false);
+			optObj.init(probObj);
+			PostmanPath pathObj = optObj.getPostmanPath(1);
+			checkPath (probObj, pathObj, 1);
+			assertEquals (27+6, pathObj.getPathDist(), 1e-9);
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testChangedArcs () {
+		PostmanProblem optObj = getProblemObj("openOptima.network.postman.UndirectedPostmanAlgorithm");
+		assertTrue(optObj!=null);
+		
+		try {
+			// the extra arc makes nodes 1 and 2 odd, joined by the arc 1-2
+			PostmanNetwork probObj= new PostmanNetwork();
+			PostmanArc pairArc = probObj.addArc(1,2,1,false);
+			probObj.addArc(2,3,2,false);
+			probObj.addArc(3,1,3,false);
+			PostmanArc extraArc = probObj.addArc(1,2,2,false);
+			optObj.init(probObj);
+			assertEquals (9, optObj.getPostmanPath(1).getPathDist(), 1e-9);
+			
+			// the cached tour is not returned after the arcs are changed
+			pairArc.setRepeatDist(0.5);
+			assertEquals (8.5, optObj.getPostmanPath(1).getPathDist(), 1e-9);
+			extraArc.setMinMaxCount(0, 5);
+			PostmanPath pathObj = optObj.getPostmanPath(1);
+			checkPath (probObj, pathObj, 1);
+			assertEquals (6, pathObj.getPathDist(), 1e-9);
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testUndirectedRandom () {
+		try {
+			java.util.Random randObj = new java.util.Random(5);
+			for (int iteration=0; iteration<100; iteration++) {
+				int n = 3 + randObj.nextInt(5);
+				int m = Math.min(14, n + randObj.nextInt(8));
+				PostmanNetwork probObj= new PostmanNetwork();
+				int [][] edges = new int [m][2];
+				double [] dist = new double [m];
+				for (int k=0; k<m; k++) {
+					edges[k][0] = (k<n)? k+1: 1+randObj.nextInt(n);
+					edges[k][1] = (k<n)? (k+1)%n+1: 1+(edges[k][0] + randObj.nextInt(n-1))%n;
+					dist[k] = 1 + randObj.nextInt(20);
+					probObj.addArc(edges[k][0], edges[k][1], dist[k], false);
+				}
+				double optDist = bruteForcePostman(n, edges, dist);
+
+				UndirectedPostmanAlgorithm undirectedObj = new UndirectedPostmanAlgorithm();
+				undirectedObj.init(probObj);
+				PostmanPath pathObj = undirectedObj.getPostmanPath(1);
+				checkPath (probObj, pathObj, 1);
+				assertEquals (optDist, pathObj.getPathDist(), 1e-9);
+
+				MixedPostmanAlgorithm mixedObj = new MixedPostmanAlgorithm();
+				mixedObj.init(probObj);
+				pathObj = mixedObj.getPostmanPath(1);
+				checkPath (probObj, pathObj, 1);
+				assertEquals (optDist, pathObj.getPathDist(), 1e-9);
+			}
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+	
+	public void testUndirected_500x5000 () {
+		try {
+			System.out.println ("generating network...");
+			GraphRandomGenerator graphRand = new GraphRandomGenerator();
+			PostmanNetwork graphObj = (PostmanNetwork) graphRand.generate(500,5000,1.0,2,1000);
+			
+			System.out.println ("started execution ...");
+			PostmanProblem optObj = getProblemObj("openOptima.network.postman.UndirectedPostmanAlgorithm");
+			optObj.init(graphObj);
+			PostmanPath pathObj = optObj.getPostmanPath(2);
+			checkPath (graphObj, pathObj, 2);
+			System.out.println ("testUndirected_500x5000: dist=" + pathObj.getPathDist() + ", elapseMillis=" + optObj.getMillisTook() + ", searches=" + optObj.getIterationCount());
+			assertTrue (optObj.getMillisTook()<=5000);
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+	
+	public void testMixedDirected_100x1000 () {
+		try {
+			System.out.println ("generating network...");
+			GraphRandomGenerator graphRand = new GraphRandomGenerator();
+			PostmanNetwork graphObj = (PostmanNetwork) graphRand.generate(100,1000,0.0,2,1000);
+			
+			MinCostFlowPostmanAlgorithm flowObj = new MinCostFlowPostmanAlgorithm();
+			flowObj.init(graphObj);
+			double optDist = flowObj.getPostmanPath(2).getPathDist();
+
+			MixedPostmanAlgorithm optObj = new MixedPostmanAlgorithm();
+			optObj.init(graphObj);
+			PostmanPath pathObj = optObj.getPostmanPath(2);
+			checkPath (graphObj, pathObj, 2);
+			assertEquals (optDist, pathObj.getPathDist(), 1e-6);
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testMixed_200x3000 () {
+		try {
+			System.out.println ("generating network...");
+			GraphRandomGenerator graphRand = new GraphRandomGenerator();
+			PostmanNetwork graphObj = (PostmanNetwork) graphRand.generate(200,3000,0.5,2,1000);
+			
+			System.out.println ("started execution ...");
+			PostmanProblem optObj = getProblemObj("openOptima.network.postman.MixedPostmanAlgorithm");
+			optObj.init(graphObj);
+			PostmanPath pathObj = optObj.getPostmanPath(2);
+			checkPath (graphObj, pathObj, 2);
+			double totalDist = 0;
+			java.util.ArrayList arcList = graphObj.getArcList(true);
+			for (int i=0; i<arcList.size(); i++) totalDist += ((PostmanArc) arcList.get(i)).getDist();
+			System.out.println ("testMixed_200x3000: dist=" + pathObj.getPathDist() + ", arc total=" + totalDist + ", elapseMillis=" + optObj.getMillisTook());
+			assertTrue (pathObj.getPathDist()>=totalDist);
+			assertTrue (optObj.getMillisTook()<=5000);
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testWindy () {
+		PostmanProblem optObj = getProblemObj("openOptima.network.postman.WindyPostmanAlgorithm");
+		assertTrue(optObj!=null);
+		
+		try {
+			// a triangle cheap one way round plus a pendant arc cheaper to go out than to come back
+			PostmanNetwork probObj= new PostmanNetwork();
+			probObj.addArc(1,2,1,false).setReverseDist(10, 10);
+			probObj.addArc(2,3,1,false).setReverseDist(10, 10);
+			probObj.addArc(1,3,10,false).setReverseDist(1, 1);
+			probObj.addArc(3,4,2,1,false).setReverseDist(5, 3);
+			optObj.init(probObj);
+			PostmanPath pathObj = optObj.getPostmanPath(1);
+			checkPath (probObj, pathObj, 1);
+			// 1->2->3->4, 4->3 repeat at 3, 3->1
+			assertEquals (8, pathObj.getPathDist(), 1e-9);
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	public void testWindy_300x3000 () {
+		try {
+			GraphRandomGenerator graphRand = new GraphRandomGenerator();
+			PostmanNetwork graphObj = (PostmanNetwork) graphRand.generate(300,3000,1.0,2,1000);
+			java.util.Random randObj = new java.util.Random(5);
+			java.util.ArrayList arcList = graphObj.getArcList(true);
+			for (int i=0; i<arcList.size(); i++) {
+				PostmanArc arcObj = (PostmanArc) arcList.get(i);
+				double factor = 1 + randObj.nextInt(3);
+				arcObj.setReverseDist(arcObj.getDist()*factor, arcObj.getRepeatDist()*factor);
+			}
+			
+			PostmanProblem mixedObj = getProblemObj("openOptima.network.postman.MixedPostmanAlgorithm");
+			mixedObj.init(graphObj);
+			double mixedDist = mixedObj.getPostmanPath(2).getPathDist();
+
+			PostmanProblem optObj = getProblemObj("openOptima.network.postman.WindyPostmanAlgorithm");
+			optObj.init(graphObj);
+			PostmanPath pathObj = optObj.getPostmanPath(2);
+			checkPath (graphObj, pathObj, 2);
+			System.out.println ("testWindy_300x3000: dist=" + pathObj.getPathDist() + "/" + mixedDist + ", elapseMillis=" + optObj.getMillisTook() + "/" + mixedObj.getMillisTook());
+			assertTrue (pathObj.getPathDist()<mixedDist);
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+
+	/*
+	 * checks the path is a closed walk from fromNode_p that traverses every arc at least its min count,
+	 * the undirected arcs in either direction.
+	 */
+	private void checkPath (PostmanNetwork graphObj_p, PostmanPath pathObj_p, int fromNode_p) {
+		java.util.ArrayList pathArcs = pathObj_p.getPathArcs();
+		java.util.HashMap<PostmanArc, Integer> countList = new java.util.HashMap<PostmanArc, Integer>();
+		Node curNode = graphObj_p.getNode(fromNode_p);
+		for (int i=0; i<pathArcs.size(); i++) {
+			PostmanArc arcObj = (PostmanArc) pathArcs.get(i);
+			if (arcObj.getFromNode()==curNode) curNode = arcObj.getToNode();
+			else {
+				assertFalse (arcObj.isDirected());
+				assertTrue (arcObj.getToNode()==curNode);
+				curNode = arcObj.getFromNode();
+			}
+			Integer count = countList.get(arcObj);
+			countList.put(arcObj, Integer.valueOf(count==null? 1: count.intValue()+1));
+		}
+		assertTrue (curNode==graphObj_p.getNode(fromNode_p));
+		java.util.ArrayList arcList = graphObj_p.getArcList(true);
+		for (int i=0; i<arcList.size(); i++) {
+			PostmanArc arcObj = (PostmanArc) arcList.get(i);
+			Integer count = countList.get(arcObj);
+			assertTrue (arcObj.getMinTraverseCount()<=(count==null? 0: count.intValue()));
+		}
+	}
+	
+	private double bruteForceMatching (double [][] dist_p, boolean [] used_p) {
+		int i = 0;
+		while (i<used_p.length && used_p[i]) i++;
+		if (i==used_p.length) return 0;
+		double best = Double.POSITIVE_INFINITY;
+		used_p[i] = true;
+		for (int j=i+1; j<used_p.length; j++) {
+			if (used_p[j]) continue;
+			used_p[j] = true;
+			best = Math.min(best, dist_p[i][j] + bruteForceMatching(dist_p, used_p));
+			used_p[j] = false;
+		}
+		used_p[i] = false;
+		return best;
+	}
+	
+	/*
+	 * every edge traversed once or twice in the optimal tour, tries all combinations with even degrees.
+	 */
+	private double bruteForcePostman (int n_p, int [][] edges_p, double [] dist_p) {
+		double best = Double.POSITIVE_INFINITY;
+		for (int mask=0; mask<(1<<edges_p.length); mask++) {
+			int [] degree = new int [n_p+1];
+			double total = 0;
+			for (int k=0; k<edges_p.length; k++) {
+				int times = 1 + ((mask>>k)&1);
+				degree[edges_p[k][0]] += times;
+				degree[edges_p[k][1]] += times;
+				total += times * dist_p[k];
+			}
+			boolean even = true;
+			for (int v=1; v<=n_p; v++) {
+				if (degree[v]%2!=0) even = false;
+			}
+			if (even) best = Math.min(best, total);
+		}
+		return best;
+	}
+
+	public void testSplitWindyTour () {
+		try {
+			// ring 1..6, the tour goes k -> k+1 against the direction of the arcs
+			double [] dist = {2, 1, 4, 1, 3, 2};
+			double [] reverseDist = {5, 1, 2, 6, 1, 3};
+			PostmanNetwork graphObj = new PostmanNetwork();
+			java.util.ArrayList tourArcs = new java.util.ArrayList();
+			for (int k=1; k<=6; k++) {
+				PostmanArc arcObj = graphObj.addArc(k%6+1, k, dist[k-1], false);
+				arcObj.setRepeatDist(dist[k-1]);
+				arcObj.setReverseDist(reverseDist[k-1], reverseDist[k-1]);
+				tourArcs.add(arcObj);
+			}
+			PostmanPath tourObj = new PostmanPath();
+			tourObj.setPathArcs(tourArcs);
+			assertEquals (18, tourObj.getPathDist(), 0.0);
+			
+			// walk over the tour positions p+1 .. q, joined to node 1 the cheaper way around the ring
+			double [][] walkDist = new double [7][7];
+			for (int p=0; p<6; p++) {
+				for (int q=p+1; q<=6; q++) {
+					double toStart = 0, fromStart = 0, segment = 0, fromEnd = 0, toEnd = 0;
+					for (int k=0; k<p; k++) toStart += reverseDist[k];
+					for (int k=p; k<6; k++) fromStart += dist[k];
+					for (int k=p; k<q; k++) segment += reverseDist[k];
+					for (int k=q; k<6; k++) fromEnd += reverseDist[k];
+					for (int k=0; k<q; k++) toEnd += dist[k];
+					walkDist[p][q] = Math.min(toStart, fromStart) + segment + Math.min(fromEnd, toEnd);
+				}
+			}
+			double best2 = Double.POSITIVE_INFINITY, best3 = Double.POSITIVE_INFINITY;
+			for (int p=1; p<6; p++) {
+				best2 = Math.min(best2, Math.max(walkDist[0][p], walkDist[p][6]));
+				for (int q=p+1; q<6; q++) {
+					best3 = Math.min(best3, Math.max(walkDist[0][p], Math.max(walkDist[p][q], walkDist[q][6])));
+				}
+			}
+			
+			PostmanTourSplitter splitterObj = new PostmanTourSplitter (graphObj);
+			for (int n=2; n<=3; n++) {
+				PostmanPath [] pathList = splitterObj.split(tourObj, 1, n);
+				assertEquals (n, pathList.length);
+				double maxDist = 0, minDist = Double.POSITIVE_INFINITY;
+				for (int i=0; i<n; i++) {
+					assertTrue (pathList[i].getPathStartNode()==graphObj.getNode(1));
+					maxDist = Math.max(maxDist, pathList[i].getPathDist());
+					minDist = Math.min(minDist, pathList[i].getPathDist());
+				}
+				System.out.println ("testSplitWindyTour: n=" + n + ", maxDist=" + maxDist + ", minDist=" + minDist);
+				assertEquals (n==2? best2: best3, maxDist, 1e-9);
+				assertEquals (maxDist, splitterObj.getMaxDist(), 1e-9);
+				assertEquals (minDist, splitterObj.getMinDist(), 1e-9);
+			}
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			assertTrue(false);
+		}
+	}
+}